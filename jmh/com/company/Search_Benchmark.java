@@ -0,0 +1,237 @@
+package com.company;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark suite for the search algorithms. For every kind and size of map
+ * it generates a reproducible map and a set of random queries with
+ * Map_Generator, and every operation answers the next of those queries with
+ * one algorithm. JMH samples the latency of each query, so the report holds
+ * the mean and the p50, p90, p99 and max per query; -prof gc adds the bytes
+ * allocated per query (gc.alloc.rate.norm). The Outcome counters add the
+ * expansions and how many queries found a path or ran out of budget.
+ * Every query runs with its own Search_Budget so the exponential searches
+ * cannot stall the suite. Preprocessing (landmarks, cluster abstraction) is
+ * done in the setup of a trial and is not timed.
+ *
+ * Usage, from the directory of pom.xml:
+ *      mvn -B -Pjmh package
+ *      java -jar target/benchmarks.jar Search_Benchmark -prof gc
+ * and to narrow the suite down, for example
+ *      java -jar target/benchmarks.jar Search_Benchmark -p size=8000 -p kind=maze -p algorithm=a_star,jps -prof gc
+ * The forks run with -Xmx8g, which the search state of the 8000x8000 maps needs.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class Search_Benchmark {
+    private static final int QUERIES = 50; // Queries generated per map, run round robin
+    private static final int IDDFS_DEPTH = 45; // Depth the iterative deepening searches go to, as in Main
+    private static final int CLUSTER_SIZE = 16; // Cluster size of the hierarchical search
+    private static final int LANDMARKS = 8; // Number of landmarks of the ALT search
+    private static final double WEIGHT = 1.1; // Weight of the weighted A* search, paths within 10% of the cheapest
+    private static final double ARA_INITIAL_WEIGHT = 3; // Weight of the first path of the ARA* search
+
+    @Param({"open", "maze", "random-10", "random-30", "obstacles-20"})
+    public String kind;
+
+    @Param({"100", "1000", "8000"})
+    public int size;
+
+    @Param({"bfs", "iddfs", "uniform_cost", "a_star", "a_star_generic", "a_star_euclidean", "a_star_zero",
+            "a_star_mixed", "weighted_a_star", "ara_star", "a_star_8", "alt", "jps", "ida_star", "bidirectional",
+            "hierarchical", "d_star_lite", "parallel_iddfs"})
+    public String algorithm;
+
+    @Param("1000")
+    public long budget_millis; // Time limit of every query
+
+    @Param("42")
+    public long seed;
+
+    private int[][] pairs; // Start and goal of every query
+    private Query_Runner runner; // The algorithm under test, set up for the map
+    private Parallel_IDDFS parallel; // Worker pool of the parallel search, shut down after the trial
+    private int next; // Index of the next query
+
+    /**
+     * One algorithm under test, answering a query within a budget
+     */
+    private interface Query_Runner {
+        Search_Result run(int start, int goal, Search_Budget budget);
+    }
+
+    /**
+     * Queries found, out of budget and expansions, summed over the operations of an iteration
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Outcome {
+        public long expansions;
+        public long found;
+        public long out_of_budget;
+
+        @Setup(Level.Iteration)
+        public void clear(){
+            expansions = 0;
+            found = 0;
+            out_of_budget = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup(){
+        Grid_Map map = Map_Generator.generate(kind, seed, size, size);
+        pairs = Map_Generator.queries(seed, map, QUERIES);
+        runner = runner(map);
+        next = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void tear_down(){
+        if(parallel != null){
+            parallel.shutdown();
+            parallel = null;
+        }
+    }
+
+    @Benchmark
+    public Search_Result query(Outcome outcome){
+        int i = next;
+        next = i + 1 == pairs[0].length ? 0 : i + 1;
+        Search_Result result = runner.run(pairs[0][i], pairs[1][i], Search_Budget.of_millis(budget_millis));
+        outcome.expansions += result.getNodes_expanded();
+        outcome.found += result.isFound() ? 1 : 0;
+        outcome.out_of_budget += result.isPartial() ? 1 : 0;
+        return result;
+    }
+
+    /**
+     * @return the algorithm named by the algorithm parameter, set up for the map
+     */
+    private Query_Runner runner(Grid_Map map){
+        Search_State state = new Search_State(map);
+        switch(algorithm){
+            case "bfs": {
+                Search_Algorithms sa = new Search_Algorithms(map);
+                return (start, goal, budget) -> {
+                    set_query(map, start, goal);
+                    return sa.best_first_search(budget, null);
+                };
+            }
+            case "iddfs": {
+                Search_Algorithms sa = new Search_Algorithms(map);
+                return (start, goal, budget) -> {
+                    set_query(map, start, goal);
+                    return sa.iterative_deepening_search(start, IDDFS_DEPTH, budget, null);
+                };
+            }
+            case "uniform_cost": {
+                Uniform_Cost_Search uniform_cost = new Uniform_Cost_Search(map);
+                return (start, goal, budget) -> uniform_cost.search(state, start, goal, budget, null);
+            }
+            case "a_star": {
+                A_Star_Search a_star = new A_Star_Search(map);
+                return (start, goal, budget) -> a_star.search(state, start, goal, budget);
+            }
+            case "a_star_generic": {
+                // The same manhattan estimates through the Heuristic call site, which the default search computes inline
+                Heuristic manhattan = Heuristic.manhattan(map);
+                A_Star_Search generic = new A_Star_Search(map, manhattan::estimate);
+                return (start, goal, budget) -> generic.search(state, start, goal, budget);
+            }
+            case "a_star_euclidean": {
+                A_Star_Search euclidean = new A_Star_Search(map, Heuristic.euclidean(map));
+                return (start, goal, budget) -> euclidean.search(state, start, goal, budget);
+            }
+            case "a_star_zero": {
+                A_Star_Search zero = new A_Star_Search(map, Heuristic.zero());
+                return (start, goal, budget) -> zero.search(state, start, goal, budget);
+            }
+            case "a_star_mixed": {
+                // Every query goes to the next of these searches, so one program uses every built-in strategy
+                A_Star_Search[] searches = {
+                        new A_Star_Search(map),
+                        new A_Star_Search(map, Heuristic.euclidean(map)),
+                        new A_Star_Search(map, Heuristic.zero(), Edge_Cost.average(map)),
+                        new A_Star_Search(map, new Landmarks(map, LANDMARKS)),
+                        A_Star_Search.eight_connected(map, Neighborhood.Corner_Rule.NO_CUT)
+                };
+                int[] turn = new int[1];
+                return (start, goal, budget) -> {
+                    A_Star_Search search = searches[turn[0]];
+                    turn[0] = (turn[0] + 1) % searches.length;
+                    return search.search(state, start, goal, budget);
+                };
+            }
+            case "weighted_a_star": {
+                A_Star_Search a_star = new A_Star_Search(map);
+                return (start, goal, budget) -> a_star.search(state, start, goal, WEIGHT, budget, null);
+            }
+            case "ara_star": {
+                ARA_Star_Search ara_star = new ARA_Star_Search(map);
+                return (start, goal, budget) -> ara_star.search(state, start, goal, ARA_INITIAL_WEIGHT,
+                        Search_Algorithms.ARA_WEIGHT_STEP, budget, null);
+            }
+            case "a_star_8": {
+                A_Star_Search diagonal = A_Star_Search.eight_connected(map, Neighborhood.Corner_Rule.NO_CUT);
+                return (start, goal, budget) -> diagonal.search(state, start, goal, budget);
+            }
+            case "alt": {
+                A_Star_Search alt = new A_Star_Search(map, new Landmarks(map, LANDMARKS));
+                return (start, goal, budget) -> alt.search(state, start, goal, budget);
+            }
+            case "jps": {
+                Jump_Point_Search jps = new Jump_Point_Search(map);
+                return (start, goal, budget) -> jps.search(state, start, goal, budget);
+            }
+            case "ida_star": {
+                IDA_Star_Search ida_star = new IDA_Star_Search(map);
+                return (start, goal, budget) -> ida_star.search(state, start, goal, budget);
+            }
+            case "bidirectional": {
+                Bidirectional_Search bidirectional = new Bidirectional_Search(map, true);
+                Search_State backward = new Search_State(map);
+                return (start, goal, budget) -> bidirectional.search(state, backward, start, goal, budget);
+            }
+            case "hierarchical": {
+                Hierarchical_Search hierarchical = new Hierarchical_Search(map, CLUSTER_SIZE);
+                return (start, goal, budget) -> hierarchical.search(state, start, goal, budget);
+            }
+            case "d_star_lite":
+                return (start, goal, budget) -> new D_Star_Lite(map, start, goal).replan(budget);
+            case "parallel_iddfs": {
+                Parallel_IDDFS search = new Parallel_IDDFS(map);
+                parallel = search;
+                return (start, goal, budget) -> search.search(start, goal, IDDFS_DEPTH, budget);
+            }
+            default:
+                throw new IllegalArgumentException("Unknown algorithm " + algorithm);
+        }
+    }
+
+    private static void set_query(Grid_Map map, int start, int goal){
+        map.setStart(map.getX(start), map.getY(start));
+        map.setGoal(map.getX(goal), map.getY(goal));
+    }
+}
@@ -0,0 +1,91 @@
+package com.company;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of a single expansion: the Node view of generate_successors,
+ * which builds a list of nodes every time, against the buffer based version
+ * the searches use and the eight neighbors of Neighborhood. Every operation
+ * expands the next cell of the map, so with -prof gc the gc.alloc.rate.norm
+ * of each benchmark is the number of bytes allocated per expansion, which is
+ * 0 for the buffer based versions.
+ *
+ * Usage, from the directory of pom.xml:
+ *      mvn -B -Pjmh package
+ *      java -jar target/benchmarks.jar Successor_Benchmark -prof gc
+ * @author Jay James
+ * @author Daniel Villa
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class Successor_Benchmark {
+    @Param("1000")
+    public int size; // Rows and columns of the map
+
+    @Param("42")
+    public long seed;
+
+    private Grid_Map map;
+    private Search_Algorithms sa;
+    private Neighborhood eight;
+    private final int[] successors = new int[Grid_Map.MAX_SUCCESSORS]; // Buffer reused by every expansion
+    private int next; // Index of the next cell to expand
+
+    @Setup(Level.Trial)
+    public void setup(){
+        Random random = new Random(seed);
+        map = new Grid_Map(size, size);
+        for(int x = 0; x < size; x++){
+            for(int y = 0; y < size; y++){
+                // Roughly one cell in five is an impasse
+                map.setCost(x, y, random.nextInt(5) == 0 ? 0 : 1 + random.nextInt(9));
+            }
+        }
+        map.setStart(0, 0);
+        map.setGoal(size - 1, size - 1);
+        sa = new Search_Algorithms(map);
+        eight = Neighborhood.eight(map, Neighborhood.Corner_Rule.NO_CUT);
+        next = 0;
+    }
+
+    @Benchmark
+    public List<Node> node_list(){
+        int cell = next_cell();
+        return sa.generate_successors(new Node(map.getCost(cell), map.getX(cell), map.getY(cell)));
+    }
+
+    @Benchmark
+    public int int_buffer(){
+        return sa.generate_successors(next_cell(), successors) + successors[0];
+    }
+
+    @Benchmark
+    public int eight_directions(){
+        return eight.successors(next_cell(), successors) + successors[0];
+    }
+
+    private int next_cell(){
+        int cell = next;
+        next = cell + 1 == map.size() ? 0 : cell + 1;
+        return cell;
+    }
+}
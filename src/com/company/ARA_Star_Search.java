@@ -0,0 +1,231 @@
+package com.company;
+
+/**
+ * Anytime Repairing A* (ARA*) over a Grid_Map.
+ *
+ * The search starts as a weighted A* with a large weight, which finds a
+ * first path quickly, then lowers the weight step by step down to 1 and
+ * repairs the path after every step instead of searching again from
+ * scratch. Every search reuses the g values of the last one and only cells
+ * whose g dropped since they were expanded get expanded again: during a
+ * round such a cell is set aside as inconsistent and put back into the open
+ * set when the next round starts, with every open cell rekeyed for the new
+ * weight.
+ *
+ * Each round ends with a path to the goal and a proven bound on how much
+ * more it may cost than the cheapest path: the weight of the round, or
+ * better, the cost of the path over the smallest g + h of the cells still to
+ * be expanded. Every such path goes to Search_Listener.on_solution(), so a
+ * caller can act on a path as soon as there is one and the search carries on
+ * until the weight reaches 1, which proves the path to be the cheapest, or
+ * until its Search_Budget runs out, which returns the best path so far as a
+ * partial result carrying its bound.
+ *
+ * Like A_Star_Search the map is only read and everything a query writes lives
+ * in the Search_State passed in. The depth array records the round in which
+ * each cell was last expanded, and the stack holds the inconsistent cells.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+public class ARA_Star_Search {
+    private static final int INFINITY = Integer.MAX_VALUE; // g of the goal before it is reached
+
+    private final Grid_Map map; // The map we will search, never written to
+    private final Heuristic heuristic; // Estimate of the cost left to the goal
+    private final Edge_Cost edge_cost; // Cost of a move between neighbors
+    private final Neighborhood neighborhood; // Moves the search may make from a cell
+
+    public ARA_Star_Search(Grid_Map map){
+        this(map, Heuristic.manhattan(map), Edge_Cost.entering(map), Neighborhood.four(map));
+    }
+
+    /**
+     * @param map the map we will search
+     * @param heuristic admissible and consistent heuristic under the cost model
+     * @param edge_cost cost of a move between neighbors
+     * @param neighborhood moves the search may make from a cell
+     */
+    public ARA_Star_Search(Grid_Map map, Heuristic heuristic, Edge_Cost edge_cost, Neighborhood neighborhood){
+        if(heuristic == null || edge_cost == null || neighborhood == null){
+            throw new IllegalArgumentException("ARA* needs a heuristic, a cost model and a neighborhood");
+        }
+        if(neighborhood.getMap() != map){
+            throw new IllegalArgumentException("The neighborhood was made for a different map");
+        }
+        this.map = map;
+        this.heuristic = heuristic;
+        this.edge_cost = edge_cost;
+        this.neighborhood = neighborhood;
+    }
+
+    /**
+     * Finds a path with the initial weight, then keeps improving it until it is
+     * proven to be the cheapest or the budget runs out. Nodes expanded counts
+     * every cell queued over all rounds, nodes in memory every cell given a g.
+     * @param state scratch state of the calling thread, sized for the map
+     * @param start index of the cell the search starts from
+     * @param goal index of the cell we are trying to reach
+     * @param initial_weight weight of the heuristic in the first round, at least 1
+     * @param weight_step how much the weight is lowered after every round
+     * @param budget limits on the work the search may do, usually a deadline
+     * @param listener receives every path found and every expanded and generated cell, may be null
+     * @return the last path found with its bound, partial if the budget ran out first
+     */
+    public Search_Result search(Search_State state, int start, int goal, double initial_weight, double weight_step,
+                                Search_Budget budget, Search_Listener listener){
+        if(!(initial_weight >= 1) || !(weight_step > 0)){
+            throw new IllegalArgumentException("ARA* needs a weight of at least 1 and a positive step");
+        }
+        long startTime = System.nanoTime();
+        if(start == goal){
+            Search_Result result = Search_Result.bounded(new int[]{start}, 0, 1, 1, System.nanoTime() - startTime, 1);
+            if(listener != null){
+                listener.on_solution(result);
+            }
+            return result;
+        }
+        int[] g = state.g;
+        int[] h = state.h; // Heuristic itself, not inflated, the weight changes between rounds
+        int[] parent = state.parent;
+        int[] expanded_in = state.depth(); // 2 * round when the cell was expanded in a round, + 1 once it is inconsistent
+        int[] inconsistent = state.stack();
+        int[] successors = state.successors;
+        Closed_Set seen = state.closed; // Cells with a g, kept over every round
+        Indexed_Min_Heap open_set = state.open;
+        open_set.clear();
+        seen.clear();
+        seen.add(start);
+        g[start] = 0;
+        h[start] = heuristic.estimate(start, goal);
+        parent[start] = Search_State.NO_PARENT;
+        expanded_in[start] = 0;
+
+        double weight = initial_weight;
+        open_set.add(start, key(g[start], h[start], weight));
+        int num_nodes_expanded = 1;
+        int num_inconsistent = 0;
+        int closed_mark = 2; // expanded_in of a cell expanded in the current round
+        int closest = start; // Expanded cell closest to the goal, where a partial path ends without a solution
+        Search_Result best = null;
+        int until_check = Search_Budget.CHECK_INTERVAL;
+        while(true){
+            while(!open_set.isEmpty() && (seen.contains(goal) ? g[goal] : INFINITY) > open_set.peekKey()){
+                if(--until_check == 0){
+                    until_check = Search_Budget.CHECK_INTERVAL;
+                    if(budget.exhausted(num_nodes_expanded, seen.size())){
+                        long elapsed = System.nanoTime() - startTime;
+                        if(best != null){
+                            return Search_Result.partial(best.getPath(), best.getPath_cost(), num_nodes_expanded,
+                                    seen.size(), elapsed, budget.getStop_reason(), best.getSuboptimality());
+                        }
+                        int[] path = state.trace_path(closest);
+                        return Search_Result.partial(path, path_cost(path), num_nodes_expanded, seen.size(), elapsed,
+                                budget.getStop_reason());
+                    }
+                }
+                int current = open_set.poll();
+                expanded_in[current] = closed_mark;
+                if(h[current] < h[closest]){
+                    closest = current;
+                }
+                if(listener != null){
+                    listener.on_expand(current);
+                }
+                int count = neighborhood.successors(current, successors);
+                for(int i = 0; i < count; i++){
+                    int neighbor = successors[i];
+                    int tentative_g = g[current] + edge_cost.cost(current, neighbor);
+                    if(seen.add(neighbor)){
+                        h[neighbor] = heuristic.estimate(neighbor, goal);
+                        expanded_in[neighbor] = 0;
+                    }
+                    else if(tentative_g >= g[neighbor]){
+                        continue;
+                    }
+                    g[neighbor] = tentative_g;
+                    parent[neighbor] = current;
+                    if(expanded_in[neighbor] < closed_mark){
+                        if(open_set.contains(neighbor)){
+                            open_set.decreaseKey(neighbor, key(tentative_g, h[neighbor], weight));
+                        }
+                        else{
+                            num_nodes_expanded++;
+                            open_set.add(neighbor, key(tentative_g, h[neighbor], weight));
+                            if(listener != null){
+                                listener.on_generate(neighbor, current);
+                            }
+                        }
+                    }
+                    else if(expanded_in[neighbor] == closed_mark){
+                        // Already expanded this round, it waits for the next one
+                        expanded_in[neighbor]++;
+                        inconsistent[num_inconsistent++] = neighbor;
+                    }
+                }
+            }
+            if(!seen.contains(goal)){
+                return Search_Result.not_found(num_nodes_expanded, seen.size(), System.nanoTime() - startTime);
+            }
+
+            // g of the goal may still count a part of the path that has got cheaper since
+            int[] path = state.trace_path(goal);
+            int cost = path_cost(path);
+            double bound = Math.min(weight, (double) cost / lowest_f(state, num_inconsistent));
+            best = Search_Result.bounded(path, cost, num_nodes_expanded, seen.size(),
+                    System.nanoTime() - startTime, Math.max(1, bound));
+            if(listener != null){
+                listener.on_solution(best);
+            }
+            if(bound <= 1){
+                return best;
+            }
+
+            // Next round: a lower weight, the inconsistent cells back in the open set and every key recomputed
+            weight = Math.max(1, weight - weight_step);
+            closed_mark += 2;
+            int queued = num_inconsistent;
+            for(int i = 0; i < open_set.size(); i++){
+                inconsistent[queued++] = open_set.get(i);
+            }
+            open_set.clear();
+            for(int i = 0; i < queued; i++){
+                int cell = inconsistent[i];
+                open_set.add(cell, key(g[cell], h[cell], weight));
+            }
+            num_inconsistent = 0;
+        }
+    }
+
+    /**
+     * @return the smallest g + h of the cells still to be expanded, a lower bound on the cheapest cost
+     */
+    private static int lowest_f(Search_State state, int num_inconsistent){
+        long lowest = INFINITY;
+        for(int i = 0; i < state.open.size(); i++){
+            int cell = state.open.get(i);
+            lowest = Math.min(lowest, (long) state.g[cell] + state.h[cell]);
+        }
+        int[] inconsistent = state.stack();
+        for(int i = 0; i < num_inconsistent; i++){
+            int cell = inconsistent[i];
+            lowest = Math.min(lowest, (long) state.g[cell] + state.h[cell]);
+        }
+        return (int) Math.max(1, lowest);
+    }
+
+    private int path_cost(int[] path){
+        int cost = 0;
+        for(int i = 1; i < path.length; i++){
+            cost += edge_cost.cost(path[i - 1], path[i]);
+        }
+        return cost;
+    }
+
+    private static int key(int g, int h, double weight){
+        return g + (weight == 1 ? h : (int) (weight * h));
+    }
+
+    public Grid_Map getMap() {
+        return map;
+    }
+}
@@ -0,0 +1,246 @@
+package com.company;
+
+/**
+ * A* search over a Grid_Map that keeps no state of its own.
+ * The map is only ever read and everything a query writes lives in the
+ * Search_State passed in, so one instance can answer queries from many
+ * threads at once as long as every thread uses its own state.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+public class A_Star_Search {
+    private final Grid_Map map; // The map we will search, never written to
+    private final Heuristic heuristic; // Estimate of the cost left to the goal
+    private final Edge_Cost edge_cost; // Cost of a move between neighbors
+    private final Neighborhood neighborhood; // Moves the search may make from a cell
+    private final int heuristic_kind; // Kind of the heuristic, see Strategies
+    private final int cost_kind; // Kind of the cost model, see Strategies
+
+    public A_Star_Search(Grid_Map map){
+        this(map, Heuristic.manhattan(map));
+    }
+
+    /**
+     * Constructor for an A* search guided by another heuristic, such as the
+     * landmark distances of Landmarks which expand far fewer cells than
+     * manhattan distance on maps with walls and weighted cells
+     * @param map the map we will search
+     * @param heuristic admissible and consistent heuristic for the map
+     */
+    public A_Star_Search(Grid_Map map, Heuristic heuristic){
+        this(map, heuristic, Edge_Cost.entering(map));
+    }
+
+    /**
+     * @param map the map we will search
+     * @param heuristic admissible and consistent heuristic under the cost model
+     * @param edge_cost cost of a move between neighbors
+     */
+    public A_Star_Search(Grid_Map map, Heuristic heuristic, Edge_Cost edge_cost){
+        this(map, heuristic, edge_cost, Neighborhood.four(map));
+    }
+
+    /**
+     * Constructor for an A* search that may move diagonally
+     * @param map the map we will search
+     * @param heuristic admissible and consistent heuristic under the cost model
+     * @param edge_cost cost of a move between neighbors
+     * @param neighborhood moves the search may make from a cell
+     */
+    public A_Star_Search(Grid_Map map, Heuristic heuristic, Edge_Cost edge_cost, Neighborhood neighborhood){
+        if(heuristic == null || edge_cost == null || neighborhood == null){
+            throw new IllegalArgumentException("A* needs a heuristic, a cost model and a neighborhood");
+        }
+        if(neighborhood.getMap() != map){
+            throw new IllegalArgumentException("The neighborhood was made for a different map");
+        }
+        this.map = map;
+        this.heuristic = heuristic;
+        this.edge_cost = edge_cost;
+        this.neighborhood = neighborhood;
+        this.heuristic_kind = Strategies.heuristic_kind(heuristic);
+        this.cost_kind = Strategies.cost_kind(edge_cost);
+    }
+
+    /**
+     * @param rule when a diagonal move may pass next to an impasse
+     * @return an A* search over all eight neighbors with octile costs and the octile heuristic
+     */
+    public static A_Star_Search eight_connected(Grid_Map map, Neighborhood.Corner_Rule rule){
+        Neighborhood neighborhood = Neighborhood.eight(map, rule);
+        return new A_Star_Search(map, Heuristic.octile(map), Edge_Cost.octile(neighborhood), neighborhood);
+    }
+
+    /** This implementation of A* search uses a priority queue which
+     * takes the cheapest path to a goal node using the manhattan distance
+     * or manhattan heuristic. It constantly checks to see if there is a
+     * better path from a given position to the destination
+     *
+     * The open set is an Indexed_Min_Heap keyed by f = g + h, so checking
+     * whether a cell is queued is O(1) and a cheaper path to a queued cell
+     * only needs a decrease-key. g is the cost of the moves along the path,
+     * by default the cost of the cells entered. Every move costs at least 1
+     * so manhattan distance never overestimates and, as long as the heuristic
+     * is consistent, a closed cell never has to be reopened.
+     *
+     * @param state scratch state of the calling thread, sized for the map
+     * @param start index of the cell the search starts from
+     * @param goal index of the cell we are trying to reach
+     * @return the path found and the statistics of the search
+     */
+    public Search_Result search(Search_State state, int start, int goal){
+        return search(state, start, goal, Search_Budget.NONE);
+    }
+
+    /**
+     * A* search that stops when its budget runs out. The partial result then
+     * holds the path to the expanded cell closest to the goal.
+     * @param state scratch state of the calling thread, sized for the map
+     * @param start index of the cell the search starts from
+     * @param goal index of the cell we are trying to reach
+     * @param budget limits on the work the search may do
+     * @return the path found and the statistics of the search
+     */
+    public Search_Result search(Search_State state, int start, int goal, Search_Budget budget){
+        return search(state, start, goal, budget, null);
+    }
+
+    /**
+     * A* search within a budget that reports its progress to a listener
+     * @param state scratch state of the calling thread, sized for the map
+     * @param start index of the cell the search starts from
+     * @param goal index of the cell we are trying to reach
+     * @param budget limits on the work the search may do
+     * @param listener receives every expanded and generated cell, may be null
+     * @return the path found and the statistics of the search
+     */
+    public Search_Result search(Search_State state, int start, int goal, Search_Budget budget, Search_Listener listener){
+        return search(state, start, goal, 1, budget, listener);
+    }
+
+    /**
+     * Weighted A* search: cells are ordered by f = g + weight * h, which
+     * heads for the goal more greedily the larger the weight and expands far
+     * fewer cells, at the price of a path that may cost up to weight times the
+     * cheapest one. That bound is proven for any admissible and consistent
+     * heuristic and is reported by the result.
+     * @param state scratch state of the calling thread, sized for the map
+     * @param start index of the cell the search starts from
+     * @param goal index of the cell we are trying to reach
+     * @param weight how much the heuristic is inflated, at least 1, 1 finds the cheapest path
+     * @param budget limits on the work the search may do
+     * @param listener receives every expanded and generated cell, may be null
+     * @return the path found and the statistics of the search
+     */
+    public Search_Result search(Search_State state, int start, int goal, double weight, Search_Budget budget,
+                                Search_Listener listener){
+        if(!(weight >= 1)){
+            throw new IllegalArgumentException("The weight of the heuristic has to be at least 1, not " + weight);
+        }
+        long startTime = System.nanoTime();
+        int num_nodes_expanded = 1;
+        state.reset(start);
+        Indexed_Min_Heap open_set = state.open;
+        int[] successors = state.successors;
+        // The inflated heuristic is what is stored, so the heap keys are g + weight * h
+        state.h[start] = inflate(estimate(start, goal), weight);
+
+        open_set.add(start, state.getF(start));
+        int closest = start; // Expanded cell closest to the goal, where a partial path ends
+        int until_check = Search_Budget.CHECK_INTERVAL;
+        while(!open_set.isEmpty()){
+            if(--until_check == 0){
+                until_check = Search_Budget.CHECK_INTERVAL;
+                if(budget.exhausted(num_nodes_expanded, state.closed.size() + open_set.size())){
+                    return Search_Result.partial(state.trace_path(closest), state.g[closest], num_nodes_expanded,
+                            state.closed.size() + open_set.size(), System.nanoTime() - startTime, budget.getStop_reason());
+                }
+            }
+            // The heap will give us the node with the lowest f value
+            int current = open_set.poll();
+            if(listener != null){
+                listener.on_expand(current);
+            }
+            // Checks for the goal state here
+            if(current == goal){
+                return Search_Result.bounded(state.trace_path(current), state.g[current], num_nodes_expanded,
+                        state.closed.size() + open_set.size(), System.nanoTime() - startTime, weight);
+            }
+            /* After visiting a node, we add it to the closed set
+                so we don't visit or expand a given node twice
+            */
+            state.closed.add(current);
+            if(state.h[current] < state.h[closest]){
+                closest = current;
+            }
+
+            /* Here we iterate through the generated successors
+                checking if a given node has been visited or not
+            */
+            int count = neighborhood.successors(current, successors);
+            for(int i = 0; i < count; i++){
+                int neighbor = successors[i];
+                if(state.closed.contains(neighbor)){
+                    continue;
+                }
+                int tentative_g = state.g[current] + cost(current, neighbor);
+                if(!open_set.contains(neighbor)){
+                    num_nodes_expanded++;
+                    state.g[neighbor] = tentative_g;
+                    state.h[neighbor] = inflate(estimate(neighbor, goal), weight);
+                    state.parent[neighbor] = current;
+                    open_set.add(neighbor, state.getF(neighbor));
+                    if(listener != null){
+                        listener.on_generate(neighbor, current);
+                    }
+                }
+                else if(tentative_g < state.g[neighbor]){
+                    // We found a cheaper path to a queued node, so its predecessor
+                    // becomes the node that was just expanded
+                    state.g[neighbor] = tentative_g;
+                    state.parent[neighbor] = current;
+                    open_set.decreaseKey(neighbor, state.getF(neighbor));
+                }
+            }
+        }
+        return Search_Result.not_found(num_nodes_expanded, state.closed.size(), System.nanoTime() - startTime);
+    }
+
+    /**
+     * The heuristic, called on its own class so that mixing heuristics in one
+     * program never sends this search through a shared call site
+     */
+    private int estimate(int index, int goal){
+        return Strategies.estimate(heuristic_kind, heuristic, index, goal);
+    }
+
+    /**
+     * The cost of a move, called on the class of the cost model like estimate()
+     */
+    private int cost(int from, int to){
+        return Strategies.cost(cost_kind, edge_cost, from, to);
+    }
+
+    /**
+     * @return the heuristic scaled by the weight and rounded down, which keeps the bound of the weight
+     */
+    private static int inflate(int h, double weight){
+        return weight == 1 ? h : (int) (weight * h);
+    }
+
+    public Grid_Map getMap() {
+        return map;
+    }
+
+    public Heuristic getHeuristic() {
+        return heuristic;
+    }
+
+    public Edge_Cost getEdge_cost() {
+        return edge_cost;
+    }
+
+    public Neighborhood getNeighborhood() {
+        return neighborhood;
+    }
+}
@@ -0,0 +1,84 @@
+package com.company;
+
+/**
+ * Results of a batch of queries answered by a Pathfinding_Service,
+ * in the order the queries were given, together with the wall clock
+ * time the whole batch took.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+public class Batch_Result {
+    private final Search_Result[] results; // The result of each query
+    private final long elapsed_nanos; // Wall clock time of the whole batch
+
+    public Batch_Result(Search_Result[] results, long elapsed_nanos){
+        this.results = results;
+        this.elapsed_nanos = elapsed_nanos;
+    }
+
+    public Search_Result[] getResults() {
+        return results;
+    }
+
+    public Search_Result getResult(int query) {
+        return results[query];
+    }
+
+    public int size() {
+        return results.length;
+    }
+
+    public long getElapsed_nanos() {
+        return elapsed_nanos;
+    }
+
+    /**
+     * @return queries answered per second of wall clock time
+     */
+    public double getQueries_per_second() {
+        return elapsed_nanos == 0 ? 0 : results.length * 1e9 / elapsed_nanos;
+    }
+
+    /**
+     * @return nodes expanded by all queries per second of wall clock time
+     */
+    public double getExpansions_per_second() {
+        return elapsed_nanos == 0 ? 0 : getNodes_expanded() * 1e9 / elapsed_nanos;
+    }
+
+    public long getNodes_expanded() {
+        long total = 0;
+        for(Search_Result result : results){
+            total += result.getNodes_expanded();
+        }
+        return total;
+    }
+
+    public int getPaths_found() {
+        int found = 0;
+        for(Search_Result result : results){
+            if(result.isFound()){
+                found++;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Helper method used to display the throughput of the batch to the user
+     * @param per_query whether every query should be listed as well
+     */
+    public void display(boolean per_query){
+        if(per_query){
+            for(int i = 0; i < results.length; i++){
+                Search_Result result = results[i];
+                System.out.printf("Query %d -> cost %d, %d nodes expanded, %.3f ms, %.0f expansions/s%n",
+                        i, result.getPath_cost(), result.getNodes_expanded(),
+                        result.getElapsed_nanos() / 1e6, result.getExpansions_per_second());
+            }
+        }
+        System.out.printf("%d queries (%d paths found) in %.3f ms -> %.1f queries/s, %.0f expansions/s%n",
+                results.length, getPaths_found(), elapsed_nanos / 1e6,
+                getQueries_per_second(), getExpansions_per_second());
+    }
+}
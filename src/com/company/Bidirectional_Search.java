@@ -0,0 +1,192 @@
+package com.company;
+
+import java.util.Arrays;
+
+/**
+ * Bidirectional search over a Grid_Map: one search runs forward from the
+ * start, a second runs backward from the goal, and they stop once the
+ * cheapest path through a cell both have reached can no longer be beaten.
+ *
+ * Moving into a cell costs the cost of that cell, so the backward search
+ * pays the cost of the cell it leaves instead of the cell it enters. Every
+ * time either side finds a cheaper way to a cell the other side has already
+ * reached, the best meeting cost mu is updated.
+ *
+ * With the manhattan heuristic (bidirectional A*) both sides use the average
+ * of the two distances as their potential: the forward side orders its open
+ * set by g + (h_goal - h_start) / 2 and the backward side by
+ * g + (h_start - h_goal) / 2. Both potentials are consistent, so neither side
+ * ever has to reopen a cell, and because they cancel out the search can stop
+ * as soon as the two lowest keys add up to mu, exactly like bidirectional
+ * Dijkstra. Keys are kept doubled so they stay integers. Without a heuristic
+ * (bidirectional best-first by path cost) the potentials are 0.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+public class Bidirectional_Search {
+    private static final int INFINITY = Integer.MAX_VALUE; // Meeting cost before the searches have met
+
+    private final Grid_Map map; // The map we will search, never written to
+    private final boolean use_heuristic; // Whether each side is guided by the manhattan distance to its target
+
+    /**
+     * @param map the map we will search
+     * @param use_heuristic true for bidirectional A*, false for bidirectional best-first by path cost
+     */
+    public Bidirectional_Search(Grid_Map map, boolean use_heuristic){
+        this.map = map;
+        this.use_heuristic = use_heuristic;
+    }
+
+    /**
+     * Finds the cheapest path from start to goal. Nodes expanded and nodes in memory
+     * are counted the same way as A_Star_Search, summed over both sides.
+     * @param forward scratch state of the search from the start, sized for the map
+     * @param backward scratch state of the search from the goal, sized for the map
+     * @param start index of the cell the search starts from
+     * @param goal index of the cell we are trying to reach
+     * @return the path found and the statistics of the search
+     */
+    public Search_Result search(Search_State forward, Search_State backward, int start, int goal){
+        return search(forward, backward, start, goal, Search_Budget.NONE);
+    }
+
+    /**
+     * Bidirectional search that stops when its budget runs out. The partial
+     * result then holds the cheapest path through a meeting cell found so far,
+     * or the forward path to the cell closest to the goal if the sides have not met.
+     * @param forward scratch state of the search from the start, sized for the map
+     * @param backward scratch state of the search from the goal, sized for the map
+     * @param start index of the cell the search starts from
+     * @param goal index of the cell we are trying to reach
+     * @param budget limits on the work the search may do
+     * @return the path found and the statistics of the search
+     */
+    public Search_Result search(Search_State forward, Search_State backward, int start, int goal, Search_Budget budget){
+        long startTime = System.nanoTime();
+        if(start == goal){
+            return Search_Result.bounded(new int[]{start}, 0, 1, 1, System.nanoTime() - startTime, 1);
+        }
+        if(map.isImpasse(goal)){
+            return Search_Result.not_found(1, 0, System.nanoTime() - startTime);
+        }
+        int num_nodes_expanded = 2;
+        forward.reset(start);
+        backward.reset(goal);
+        forward.h[start] = potential(start, goal, start);
+        backward.h[goal] = potential(goal, start, goal);
+        forward.open.add(start, forward.h[start]);
+        backward.open.add(goal, backward.h[goal]);
+
+        int best = INFINITY; // mu, the cheapest path found through a cell both sides reached
+        int meeting = -1; // The cell that path goes through
+        int closest = start; // Cell closed by the forward side closest to the goal
+        int until_check = Search_Budget.CHECK_INTERVAL;
+        while(!forward.open.isEmpty() && !backward.open.isEmpty()){
+            if(--until_check == 0){
+                until_check = Search_Budget.CHECK_INTERVAL;
+                int memory = forward.closed.size() + forward.open.size() + backward.closed.size() + backward.open.size();
+                if(budget.exhausted(num_nodes_expanded, memory)){
+                    long elapsed = System.nanoTime() - startTime;
+                    if(best != INFINITY){
+                        return Search_Result.partial(join_paths(forward, backward, meeting), best, num_nodes_expanded,
+                                memory, elapsed, budget.getStop_reason());
+                    }
+                    return Search_Result.partial(forward.trace_path(closest), forward.g[closest], num_nodes_expanded,
+                            memory, elapsed, budget.getStop_reason());
+                }
+            }
+            int forward_min = forward.open.peekKey();
+            int backward_min = backward.open.peekKey();
+            if(best != INFINITY && (long) forward_min + backward_min >= 2L * best){
+                break;
+            }
+            // Expand the side with the smaller frontier to keep both sides balanced
+            boolean is_forward = forward.open.size() <= backward.open.size();
+            Search_State side = is_forward ? forward : backward;
+            Search_State other = is_forward ? backward : forward;
+            int target = is_forward ? goal : start;
+            int source = is_forward ? start : goal;
+
+            int current = side.open.poll();
+            side.closed.add(current);
+            if(is_forward && manhattan_distance(current, goal) < manhattan_distance(closest, goal)){
+                closest = current;
+            }
+            int count = map.successors(current, side.successors);
+            for(int i = 0; i < count; i++){
+                int neighbor = side.successors[i];
+                if(side.closed.contains(neighbor)){
+                    continue;
+                }
+                int tentative_g = side.g[current] + map.getCost(is_forward ? neighbor : current);
+                if(!side.open.contains(neighbor)){
+                    num_nodes_expanded++;
+                    side.g[neighbor] = tentative_g;
+                    side.h[neighbor] = potential(neighbor, target, source);
+                    side.parent[neighbor] = current;
+                    side.open.add(neighbor, 2 * tentative_g + side.h[neighbor]);
+                }
+                else if(tentative_g < side.g[neighbor]){
+                    side.g[neighbor] = tentative_g;
+                    side.parent[neighbor] = current;
+                    side.open.decreaseKey(neighbor, 2 * tentative_g + side.h[neighbor]);
+                }
+                else{
+                    continue;
+                }
+                // The other side has reached this cell as well, so a whole path goes through it
+                if(other.open.contains(neighbor) || other.closed.contains(neighbor)){
+                    int cost = side.g[neighbor] + other.g[neighbor];
+                    if(cost < best){
+                        best = cost;
+                        meeting = neighbor;
+                    }
+                }
+            }
+        }
+        int memory = forward.closed.size() + forward.open.size() + backward.closed.size() + backward.open.size();
+        if(best == INFINITY){
+            return Search_Result.not_found(num_nodes_expanded, memory, System.nanoTime() - startTime);
+        }
+        return Search_Result.bounded(join_paths(forward, backward, meeting), best, num_nodes_expanded, memory,
+                System.nanoTime() - startTime, 1);
+    }
+
+    /**
+     * Joins the forward path from the start to the meeting cell with the
+     * backward path from the meeting cell to the goal
+     */
+    private int[] join_paths(Search_State forward, Search_State backward, int meeting){
+        int[] to_meeting = forward.trace_path(meeting);
+        int length = to_meeting.length;
+        for(int i = backward.parent[meeting]; i != Search_State.NO_PARENT; i = backward.parent[i]){
+            length++;
+        }
+        int[] path = Arrays.copyOf(to_meeting, length);
+        int position = to_meeting.length;
+        for(int i = backward.parent[meeting]; i != Search_State.NO_PARENT; i = backward.parent[i]){
+            path[position++] = i;
+        }
+        return path;
+    }
+
+    /**
+     * Twice the potential of a cell for the side searching from source to target
+     * @return the distance to the target minus the distance back to the source
+     */
+    private int potential(int index, int target, int source){
+        if(!use_heuristic){
+            return 0;
+        }
+        return manhattan_distance(index, target) - manhattan_distance(index, source);
+    }
+
+    private int manhattan_distance(int index, int target){
+        return Math.abs(map.getX(index) - map.getX(target)) + Math.abs(map.getY(index) - map.getY(target));
+    }
+
+    public Grid_Map getMap() {
+        return map;
+    }
+}
@@ -0,0 +1,176 @@
+package com.company;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Monotone priority queue of cell indices with small integer keys (Dial's
+ * algorithm). When every key added is at least the last key polled and at
+ * most max_span above it, the queued keys always fit in max_span + 1
+ * consecutive values, so a circular array of that many buckets holds one key
+ * per bucket. Adding and decreasing a key are O(1), polling moves a cursor
+ * forward over empty buckets, so a whole uniform cost search runs in
+ * O(cells + largest distance) instead of O(cells log cells).
+ *
+ * Every bucket is a doubly linked list threaded through arrays indexed by
+ * cell, so a cell can be moved to a lower bucket without searching for it
+ * and nothing is allocated once the queue exists.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+public class Bucket_Queue {
+    private static final int NONE = -1; // End of a bucket list
+    private static final int ABSENT = -2; // prev of a cell that is not queued
+
+    private final int[] heads; // First cell of each bucket, NONE when the bucket is empty
+    private final int[] next; // Next cell in the bucket of each queued cell
+    private final int[] prev; // Previous cell in the bucket of each queued cell, ABSENT when not queued
+    private final int[] keys; // The priority of each queued cell
+    private final int max_span; // Most a key may exceed the smallest queued key by
+    private int cursor; // Smallest key that may still be queued
+    private int size; // Number of cells currently queued
+
+    /**
+     * @param capacity number of distinct items the queue can hold
+     * @param max_span largest difference between a key added and the last key polled, the largest move cost
+     */
+    public Bucket_Queue(int capacity, int max_span){
+        if(max_span < 0){
+            throw new IllegalArgumentException("The span of the keys cannot be negative");
+        }
+        this.heads = new int[max_span + 1];
+        this.next = new int[capacity];
+        this.prev = new int[capacity];
+        this.keys = new int[capacity];
+        this.max_span = max_span;
+        Arrays.fill(heads, NONE);
+        Arrays.fill(prev, ABSENT);
+    }
+
+    /**
+     * Inserts an item that is not already queued
+     * @param item the cell to insert
+     * @param key the priority of the cell, between the last key polled and max_span above it
+     */
+    public void add(int item, int key){
+        if(prev[item] != ABSENT){
+            throw new IllegalArgumentException("Item " + item + " is already queued");
+        }
+        if(key < cursor || key - cursor > max_span){
+            throw new IllegalArgumentException("Key " + key + " is outside " + cursor + ".." + ((long) cursor + max_span));
+        }
+        link(item, key);
+        size++;
+    }
+
+    /**
+     * Lowers the priority of a queued item
+     * @param item the queued cell
+     * @param key the new priority, not above the current one
+     */
+    public void decreaseKey(int item, int key){
+        if(key > keys[item]){
+            throw new IllegalArgumentException("Key of item " + item + " cannot increase");
+        }
+        if(key < cursor){
+            throw new IllegalArgumentException("Key " + key + " is below the last key polled " + cursor);
+        }
+        unlink(item);
+        link(item, key);
+    }
+
+    /**
+     * Removes one of the items with the smallest priority
+     * @return the item removed
+     */
+    public int poll(){
+        if(size == 0){
+            throw new NoSuchElementException("Queue is empty");
+        }
+        int bucket = cursor % heads.length;
+        while(heads[bucket] == NONE){
+            cursor++;
+            bucket = bucket + 1 == heads.length ? 0 : bucket + 1;
+        }
+        int item = heads[bucket];
+        unlink(item);
+        size--;
+        return item;
+    }
+
+    public boolean contains(int item){
+        return prev[item] != ABSENT;
+    }
+
+    /**
+     * @param item a queued cell
+     * @return the priority the cell is queued with
+     */
+    public int getKey(int item){
+        return keys[item];
+    }
+
+    public boolean isEmpty(){
+        return size == 0;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    /**
+     * Empties the queue and lets keys start from 0 again.
+     * Only the queued items are reset, so clearing costs O(size + buckets)
+     */
+    public void clear(){
+        for(int bucket = 0; bucket < heads.length; bucket++){
+            for(int item = heads[bucket]; item != NONE; item = next[item]){
+                prev[item] = ABSENT;
+            }
+            heads[bucket] = NONE;
+        }
+        cursor = 0;
+        size = 0;
+    }
+
+    /**
+     * @return the largest difference between a key added and the last key polled
+     */
+    public int getMax_span(){
+        return max_span;
+    }
+
+    /**
+     * @return the number of distinct items the queue can hold
+     */
+    public int capacity(){
+        return next.length;
+    }
+
+    private void link(int item, int key){
+        int bucket = key % heads.length;
+        int head = heads[bucket];
+        keys[item] = key;
+        next[item] = head;
+        prev[item] = NONE;
+        if(head != NONE){
+            prev[head] = item;
+        }
+        heads[bucket] = item;
+    }
+
+    private void unlink(int item){
+        int before = prev[item];
+        int after = next[item];
+        if(before == NONE){
+            heads[keys[item] % heads.length] = after;
+        }
+        else{
+            next[before] = after;
+        }
+        if(after != NONE){
+            prev[after] = before;
+        }
+        prev[item] = ABSENT;
+    }
+}
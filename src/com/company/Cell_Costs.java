@@ -0,0 +1,28 @@
+package com.company;
+
+/**
+ * Read access to the cost of every cell of a map by row and column.
+ *
+ * Grid_Map keeps every cost in memory and numbers its cells with an int,
+ * which limits it to maps of at most 2^31 cells that fit in the heap.
+ * Tiled_Map reads its costs from a file a tile at a time, so a search that
+ * only reads costs through this interface, like Tiled_Search, works on maps
+ * of any size within a fixed amount of memory.
+ *
+ * Costs are 0 for an impasse and 1 to Grid_Map.MAX_COST for a cell that may
+ * be entered, like everywhere else.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+public interface Cell_Costs {
+    int getRows();
+
+    int getCols();
+
+    /**
+     * @param x row of the cell, within the map
+     * @param y column of the cell, within the map
+     * @return the cost of entering the cell, 0 for an impasse
+     */
+    int getCost(int x, int y);
+}
@@ -0,0 +1,61 @@
+package com.company;
+
+import java.util.Arrays;
+
+/**
+ * Set of visited cells for our searches.
+ * Instead of a list that has to be scanned, every cell holds the number
+ * of the search (the epoch) that last visited it. A cell is in the set
+ * when its stamp equals the current epoch, so membership is O(1) and
+ * starting a new search only bumps the epoch, nothing is cleared or
+ * reallocated between queries on the same map.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+public class Closed_Set {
+    private final int[] stamps; // The epoch in which each cell was last visited
+    private int epoch = 1; // The epoch of the current search, stamps start at 0 so nothing is visited
+    private int size; // Number of cells visited in the current epoch
+
+    /**
+     * Constructor for a set able to hold every cell below capacity
+     * @param capacity number of cells in the map
+     */
+    public Closed_Set(int capacity){
+        stamps = new int[capacity];
+    }
+
+    /**
+     * Marks a cell as visited
+     * @param index the cell to mark
+     * @return true if the cell was not already visited
+     */
+    public boolean add(int index){
+        if(stamps[index] == epoch){
+            return false;
+        }
+        stamps[index] = epoch;
+        size++;
+        return true;
+    }
+
+    public boolean contains(int index){
+        return stamps[index] == epoch;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    /**
+     * Empties the set by starting a new epoch. The stamps are only
+     * rewritten once every 2^32 - 1 clears when the counter wraps around
+     */
+    public void clear(){
+        size = 0;
+        if(++epoch == 0){
+            Arrays.fill(stamps, 0);
+            epoch = 1;
+        }
+    }
+}
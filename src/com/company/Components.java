@@ -0,0 +1,399 @@
+package com.company;
+
+import java.util.Arrays;
+
+/**
+ * Labels every passable cell of a Grid_Map with the connected component it
+ * belongs to under the four straight moves of Grid_Map.successors, so a
+ * search can tell in O(1) that its goal cannot be reached instead of
+ * exploring everything it can reach first.
+ *
+ * Labels are built once per map with a union-find pass over the cells and
+ * then kept correct as cells open and close:
+ *      opening a cell joins the components around it, by a union of their
+ *      labels, without touching a single cell,
+ *      closing a cell may split its component, so a search is run from each
+ *      open side of it, one cell at a time in turn, until at most one of them
+ *      is still going. Every other side has then been walked completely and
+ *      gets a new label. A component that does not split costs as much as the
+ *      walk around the closed cell, a split as much as the smaller parts.
+ *
+ * A cell stores the label it was given, and labels that were joined later
+ * point to each other in a second, much smaller union-find, so the component
+ * of a cell is the root of its label.
+ * The components are for four moves only, cells that only touch at a corner
+ * are in different components even though a diagonal move joins them.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+public class Components {
+    public static final int NONE = -1; // Label of an impasse
+
+    private final Grid_Map map; // The map the cells are labeled on
+    private final int[] labels; // Label each cell was given, NONE for an impasse
+    private int[] roots; // Label each label was joined to, itself for a root
+    private int num_labels; // Labels handed out so far
+    private int num_components; // Labels that are still roots
+    private int[] marks; // Group that walked each cell since the last close, by split_stamp
+    private int split_stamp; // Base of the groups of the current close
+    private int version; // Version of the map the labels are up to date with
+
+    /**
+     * Labels every passable cell of a map
+     * @param map the map whose cells are labeled
+     */
+    public Components(Grid_Map map){
+        this.map = map;
+        this.labels = new int[map.size()];
+        build();
+    }
+
+    /**
+     * Labels every cell from scratch: every cell is joined to its passable
+     * north and west neighbors, then every cell takes the number of its root
+     */
+    private void build(){
+        int cols = map.getCols();
+        int[] parent = labels; // Cells point to a cell of their component until they are numbered
+        for(int cell = 0; cell < parent.length; cell++){
+            if(map.isImpasse(cell)){
+                parent[cell] = NONE;
+                continue;
+            }
+            parent[cell] = cell;
+            if(cell >= cols && !map.isImpasse(cell - cols)){
+                join(parent, cell - cols, cell);
+            }
+            if(cell % cols > 0 && !map.isImpasse(cell - 1)){
+                join(parent, cell - 1, cell);
+            }
+        }
+        // Parents always come before their cells, so one forward pass numbers every root and then its cells
+        num_labels = 0;
+        for(int cell = 0; cell < parent.length; cell++){
+            if(parent[cell] == NONE){
+                continue;
+            }
+            parent[cell] = parent[cell] == cell ? -2 - num_labels++ : parent[parent[cell]];
+        }
+        for(int cell = 0; cell < labels.length; cell++){
+            if(labels[cell] != NONE){
+                labels[cell] = -2 - labels[cell];
+            }
+        }
+        roots = new int[Math.max(16, num_labels * 2)];
+        for(int label = 0; label < num_labels; label++){
+            roots[label] = label;
+        }
+        num_components = num_labels;
+        version = map.getVersion();
+    }
+
+    /**
+     * Joins the trees of two cells during build(), the smaller index becomes the root
+     */
+    private static void join(int[] parent, int a, int b){
+        a = find_cell(parent, a);
+        b = find_cell(parent, b);
+        if(a != b){
+            parent[Math.max(a, b)] = Math.min(a, b);
+        }
+    }
+
+    private static int find_cell(int[] parent, int cell){
+        while(parent[cell] != cell){
+            parent[cell] = parent[parent[cell]];
+            cell = parent[cell];
+        }
+        return cell;
+    }
+
+    /**
+     * @param index index of a cell
+     * @return the component of the cell, NONE for an impasse
+     */
+    public int component(int index){
+        int label = labels[index];
+        return label == NONE ? NONE : find(label);
+    }
+
+    /**
+     * Whether a search with four moves can get from one cell to another. Like
+     * our searches the start may be an impasse and is then left through one
+     * of its passable sides, the goal has to be passable unless it is the start.
+     * @param start index of the start cell
+     * @param goal index of the goal cell
+     * @return false if no path exists, decided without searching
+     */
+    public boolean reachable(int start, int goal){
+        if(start == goal){
+            return true;
+        }
+        int target = component(goal);
+        if(target == NONE){
+            return false;
+        }
+        if(labels[start] != NONE){
+            return component(start) == target;
+        }
+        int[] sides = new int[Grid_Map.MAX_SUCCESSORS];
+        int count = map.successors(start, sides);
+        for(int i = 0; i < count; i++){
+            if(component(sides[i]) == target){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Brings the labels up to date after the costs of some cells changed on the map.
+     * Only cells that turned from an impasse into a passable cell or back matter.
+     * @param changed indices of the cells whose cost changed since the labels were built or last updated
+     */
+    public void update(int[] changed){
+        if(num_labels > labels.length){
+            compact(); // Labels are never reused, numbering the cells again keeps them bounded
+        }
+        for(int cell : changed){
+            if(map.isImpasse(cell) && labels[cell] != NONE){
+                close(cell);
+            }
+            else if(!map.isImpasse(cell) && labels[cell] == NONE){
+                open(cell);
+            }
+        }
+        version = map.getVersion();
+    }
+
+    /**
+     * Gives a cell that became passable the component of its sides, joining them if there are several
+     */
+    private void open(int cell){
+        int[] sides = new int[Grid_Map.MAX_SUCCESSORS];
+        int count = sides(cell, sides);
+        int root = NONE;
+        for(int i = 0; i < count; i++){
+            int other = find(labels[sides[i]]);
+            if(root == NONE){
+                root = other;
+            }
+            else if(other != root){
+                // The larger label joins the smaller one, either way is O(1) amortized with path halving
+                roots[Math.max(root, other)] = Math.min(root, other);
+                root = Math.min(root, other);
+                num_components--;
+            }
+        }
+        labels[cell] = root == NONE ? new_label() : root;
+    }
+
+    /**
+     * Takes a cell that became an impasse out of its component and gives every
+     * part the component split into but one a label of its own
+     */
+    private void close(int cell){
+        labels[cell] = NONE;
+        int[] sides = new int[Grid_Map.MAX_SUCCESSORS];
+        int count = sides(cell, sides);
+        if(count == 0){
+            num_components--; // The cell was a component on its own
+        }
+        if(count < 2){
+            return;
+        }
+        if(marks == null){
+            marks = new int[map.size()];
+        }
+        if(split_stamp > Integer.MAX_VALUE - 2 * Grid_Map.MAX_SUCCESSORS){
+            Arrays.fill(marks, 0);
+            split_stamp = 0;
+        }
+        int base = split_stamp + 1; // Group g of this close marks its cells with base + g
+        split_stamp += count;
+        int[][] queues = new int[count][]; // Cells walked by each group, in the order they were reached
+        int[] heads = new int[count]; // Next cell of each queue to expand
+        int[] tails = new int[count]; // Number of cells in each queue
+        int[] group_of = new int[count]; // Group each group was merged into, itself while it is not merged
+        for(int g = 0; g < count; g++){
+            queues[g] = new int[16];
+            queues[g][tails[g]++] = sides[g];
+            group_of[g] = g;
+            marks[sides[g]] = base + g;
+        }
+        int[] successors = new int[Grid_Map.MAX_SUCCESSORS];
+        while(active(group_of, heads, tails) > 1){
+            for(int g = 0; g < count; g++){
+                if(heads[g] == tails[g]){
+                    continue;
+                }
+                int current = queues[g][heads[g]++];
+                int found = sides(current, successors);
+                for(int i = 0; i < found; i++){
+                    int next = successors[i];
+                    int mark = marks[next];
+                    if(mark >= base && mark < base + count){
+                        int mine = group(group_of, g);
+                        int theirs = group(group_of, mark - base);
+                        if(mine != theirs){
+                            group_of[Math.max(mine, theirs)] = Math.min(mine, theirs);
+                        }
+                        continue;
+                    }
+                    marks[next] = base + g;
+                    if(tails[g] == queues[g].length){
+                        queues[g] = Arrays.copyOf(queues[g], tails[g] * 2);
+                    }
+                    queues[g][tails[g]++] = next;
+                }
+            }
+        }
+        // Every group that is done walked a whole part of its own and gets a new label,
+        // the group still walking, or the largest if none is, keeps the old one
+        int[] sizes = new int[count];
+        int keep = NONE;
+        for(int g = 0; g < count; g++){
+            int root = group(group_of, g);
+            sizes[root] += tails[g];
+            if(heads[g] < tails[g]){
+                keep = root;
+            }
+        }
+        if(keep == NONE){
+            for(int g = 0; g < count; g++){
+                if(group(group_of, g) == g && (keep == NONE || sizes[g] > sizes[keep])){
+                    keep = g;
+                }
+            }
+        }
+        int[] new_labels = new int[count];
+        for(int g = 0; g < count; g++){
+            if(group(group_of, g) == g && g != keep){
+                new_labels[g] = new_label();
+            }
+        }
+        for(int g = 0; g < count; g++){
+            int root = group(group_of, g);
+            if(root != keep){
+                for(int i = 0; i < tails[g]; i++){
+                    labels[queues[g][i]] = new_labels[root];
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the labeled sides of a cell into a buffer. The changes of an
+     * update are applied one cell at a time, so a cell changed later in the
+     * same update still counts as what it was until its turn comes.
+     * @return the number of sides written to the buffer
+     */
+    private int sides(int cell, int[] sides){
+        int cols = map.getCols();
+        int count = 0;
+        int y = cell % cols;
+        if(cell >= cols && labels[cell - cols] != NONE){
+            sides[count++] = cell - cols;
+        }
+        if(cell + cols < labels.length && labels[cell + cols] != NONE){
+            sides[count++] = cell + cols;
+        }
+        if(y > 0 && labels[cell - 1] != NONE){
+            sides[count++] = cell - 1;
+        }
+        if(y < cols - 1 && labels[cell + 1] != NONE){
+            sides[count++] = cell + 1;
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of merged groups some of whose walks have cells left to expand
+     */
+    private static int active(int[] group_of, int[] heads, int[] tails){
+        int groups = 0;
+        int walking = 0;
+        for(int g = 0; g < group_of.length; g++){
+            if(group(group_of, g) == g){
+                groups++;
+            }
+        }
+        if(groups < 2){
+            return 0; // Every side is still connected, nothing splits
+        }
+        boolean[] counted = new boolean[group_of.length];
+        for(int g = 0; g < group_of.length; g++){
+            int root = group(group_of, g);
+            if(heads[g] < tails[g] && !counted[root]){
+                counted[root] = true;
+                walking++;
+            }
+        }
+        return walking;
+    }
+
+    private static int group(int[] group_of, int g){
+        while(group_of[g] != g){
+            g = group_of[g];
+        }
+        return g;
+    }
+
+    private int new_label(){
+        if(num_labels == roots.length){
+            roots = Arrays.copyOf(roots, num_labels * 2);
+        }
+        roots[num_labels] = num_labels;
+        num_components++;
+        return num_labels++;
+    }
+
+    /**
+     * Renumbers every cell by the root of its label
+     */
+    private void compact(){
+        int[] numbers = new int[num_labels];
+        Arrays.fill(numbers, NONE);
+        int next = 0;
+        for(int cell = 0; cell < labels.length; cell++){
+            if(labels[cell] != NONE){
+                int root = find(labels[cell]);
+                if(numbers[root] == NONE){
+                    numbers[root] = next++;
+                }
+                labels[cell] = numbers[root];
+            }
+        }
+        num_labels = next;
+        for(int label = 0; label < num_labels; label++){
+            roots[label] = label;
+        }
+        num_components = num_labels;
+    }
+
+    private int find(int label){
+        while(roots[label] != label){
+            roots[label] = roots[roots[label]];
+            label = roots[label];
+        }
+        return label;
+    }
+
+    /**
+     * @return the number of connected components of passable cells
+     */
+    public int getNum_components() {
+        return num_components;
+    }
+
+    /**
+     * @return the version of the map the labels were built on or last updated to
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    public Grid_Map getMap() {
+        return map;
+    }
+}
@@ -0,0 +1,442 @@
+package com.company;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Incremental planner (D* Lite) for maps whose cell costs change at runtime.
+ *
+ * The planner searches backward from the goal and keeps its state between
+ * calls: g, the cost from each cell to the goal as of the last plan, and rhs,
+ * the one step lookahead of that cost. A cell whose g and rhs differ is
+ * inconsistent and queued. When cell costs change only the cells next to the
+ * changed ones are re-evaluated, and replan() repairs just the part of the
+ * solution that became inconsistent instead of searching from scratch.
+ * The start may move between plans (an agent walking along the path), the
+ * key modifier km keeps the queued keys valid when it does.
+ *
+ * Moving into a cell costs the cost of that cell, a cell with cost 0 cannot be entered.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+public class D_Star_Lite {
+    private static final int INFINITY = Integer.MAX_VALUE; // Cost of a cell that cannot reach the goal
+
+    private final Grid_Map map; // The map we plan on, cost updates are written to it
+    private final int[] g; // Cost from each cell to the goal as of the last expansion
+    private final int[] rhs; // One step lookahead of g
+    private final Key_Heap open; // Inconsistent cells ordered by their two part key
+    private final int[] changed; // Cells whose cost changed since the last plan, each listed once
+    private final boolean[] pending; // Whether each cell is listed in changed, so the list never outgrows the map
+    private int changed_count;
+    private int start; // Current position of the agent
+    private int last_start; // Position of the agent when km was last updated
+    private final int goal;
+    private int km; // Sum of the heuristic distances the start has moved
+    private int consistent; // Number of cells with a finite g
+    private boolean planned; // Whether the first plan has been made
+
+    /**
+     * @param map the map to plan on
+     * @param start index of the start cell
+     * @param goal index of the goal cell
+     */
+    public D_Star_Lite(Grid_Map map, int start, int goal){
+        this.map = map;
+        this.g = new int[map.size()];
+        this.rhs = new int[map.size()];
+        this.open = new Key_Heap(map.size());
+        this.changed = new int[map.size()];
+        this.pending = new boolean[map.size()];
+        this.start = start;
+        this.last_start = start;
+        this.goal = goal;
+        Arrays.fill(g, INFINITY);
+        Arrays.fill(rhs, INFINITY);
+    }
+
+    /**
+     * Changes the cost of a cell. The change is applied to the map right away
+     * and taken into account by the next call to replan()
+     * @param x row of the cell
+     * @param y column of the cell
+     * @param cost the new cost of the cell, 0 makes it an impasse
+     */
+    public void update_cost(int x, int y, int cost){
+        int cell = map.index(x, y);
+        if(map.getCost(cell) == cost){
+            return;
+        }
+        map.setCost(x, y, cost);
+        if(planned && !pending[cell]){
+            pending[cell] = true;
+            changed[changed_count++] = cell;
+        }
+    }
+
+    /**
+     * Moves the start of the plan, usually to the next cell of the last path
+     * @param start index of the new start cell
+     */
+    public void move_start(int start){
+        this.start = start;
+    }
+
+    /**
+     * Makes the first plan, or repairs the last one after the cost updates
+     * and start moves made since. Nodes expanded counts the cells this call
+     * expanded, which is what to compare against a search from scratch.
+     * @return the current path from the start to the goal and the statistics of this plan
+     */
+    public Search_Result replan(){
+        return replan(Search_Budget.NONE);
+    }
+
+    /**
+     * Replans until the budget runs out. A plan that was stopped early holds no
+     * path but leaves the planner in a valid state, the next call carries on
+     * where it stopped.
+     * @param budget limits on the work this plan may do
+     * @return the current path from the start to the goal and the statistics of this plan
+     */
+    public Search_Result replan(Search_Budget budget){
+        long startTime = System.nanoTime();
+        if(!planned){
+            rhs[goal] = 0;
+            open.add(goal, key(goal));
+            planned = true;
+        }
+        else{
+            km += manhattan_distance(last_start, start);
+            last_start = start;
+            // Only the cost of entering a changed cell changed, so only the cells
+            // next to it have a different lookahead
+            for(int i = 0; i < changed_count; i++){
+                int cell = changed[i];
+                pending[cell] = false;
+                int x = map.getX(cell);
+                int y = map.getY(cell);
+                if(x > 0) update_rhs(cell - map.getCols());
+                if(x < map.getRows() - 1) update_rhs(cell + map.getCols());
+                if(y > 0) update_rhs(cell - 1);
+                if(y < map.getCols() - 1) update_rhs(cell + 1);
+            }
+            changed_count = 0;
+        }
+        int expanded = compute_shortest_path(budget);
+        int memory = consistent + open.size();
+        if(needs_expansion()){
+            return Search_Result.partial(new int[0], Search_Result.NO_PATH, expanded, memory,
+                    System.nanoTime() - startTime, budget.getStop_reason());
+        }
+        if(rhs[start] == INFINITY){
+            return Search_Result.not_found(expanded, memory, System.nanoTime() - startTime);
+        }
+        return Search_Result.bounded(extract_path(), rhs[start], expanded, memory, System.nanoTime() - startTime, 1);
+    }
+
+    /**
+     * Expands inconsistent cells until the start is consistent and no queued
+     * cell could still lower its cost, or until the budget runs out
+     * @return the number of cells expanded
+     */
+    private int compute_shortest_path(Search_Budget budget){
+        int expanded = 0;
+        int until_check = Search_Budget.CHECK_INTERVAL;
+        while(needs_expansion()){
+            if(--until_check == 0){
+                until_check = Search_Budget.CHECK_INTERVAL;
+                if(budget.exhausted(expanded, consistent + open.size())){
+                    break;
+                }
+            }
+            int current = open.peek();
+            long old_key = open.peekKey();
+            long new_key = key(current);
+            expanded++;
+            if(old_key < new_key){
+                // The start moved since this cell was queued
+                open.update(current, new_key);
+            }
+            else if(g[current] > rhs[current]){
+                // Overconsistent, the cell got cheaper: settle it and tell its predecessors
+                set_g(current, rhs[current]);
+                open.remove(current);
+                if(!map.isImpasse(current)){
+                    int cost = map.getCost(current) + g[current];
+                    int x = map.getX(current);
+                    int y = map.getY(current);
+                    if(x > 0) lower_rhs(current - map.getCols(), cost);
+                    if(x < map.getRows() - 1) lower_rhs(current + map.getCols(), cost);
+                    if(y > 0) lower_rhs(current - 1, cost);
+                    if(y < map.getCols() - 1) lower_rhs(current + 1, cost);
+                }
+            }
+            else{
+                // Underconsistent, the cell got more expensive: forget its cost and
+                // re-evaluate it and every cell that may have relied on it
+                set_g(current, INFINITY);
+                update_rhs(current);
+                int x = map.getX(current);
+                int y = map.getY(current);
+                if(x > 0) update_rhs(current - map.getCols());
+                if(x < map.getRows() - 1) update_rhs(current + map.getCols());
+                if(y > 0) update_rhs(current - 1);
+                if(y < map.getCols() - 1) update_rhs(current + 1);
+            }
+        }
+        return expanded;
+    }
+
+    /**
+     * @return whether a queued cell may still lower the cost of the start or the start is inconsistent
+     */
+    private boolean needs_expansion(){
+        return !open.isEmpty() && (open.peekKey() < key(start) || rhs[start] > g[start]);
+    }
+
+    /**
+     * Offers a path through a cheaper successor to a cell
+     */
+    private void lower_rhs(int cell, int cost){
+        if(cell != goal && cost < rhs[cell]){
+            rhs[cell] = cost;
+            update_vertex(cell);
+        }
+    }
+
+    /**
+     * Recomputes the lookahead of a cell from all of its successors
+     */
+    private void update_rhs(int cell){
+        if(cell != goal){
+            rhs[cell] = best_successor_cost(cell, null);
+        }
+        update_vertex(cell);
+    }
+
+    /**
+     * Queues a cell if it is inconsistent and takes it off the queue if it is not
+     */
+    private void update_vertex(int cell){
+        boolean queued = open.contains(cell);
+        if(g[cell] != rhs[cell]){
+            if(queued){
+                open.update(cell, key(cell));
+            }
+            else{
+                open.add(cell, key(cell));
+            }
+        }
+        else if(queued){
+            open.remove(cell);
+        }
+    }
+
+    /**
+     * @param best if not null, receives the successor the minimum goes through
+     * @return the lowest cost of entering a neighbor and going on to the goal from it
+     */
+    private int best_successor_cost(int cell, int[] best){
+        int min = INFINITY;
+        int x = map.getX(cell);
+        int y = map.getY(cell);
+        int cols = map.getCols();
+        int[] neighbors = {x > 0 ? cell - cols : -1, x < map.getRows() - 1 ? cell + cols : -1,
+                y > 0 ? cell - 1 : -1, y < cols - 1 ? cell + 1 : -1};
+        for(int neighbor : neighbors){
+            if(neighbor < 0 || map.isImpasse(neighbor) || g[neighbor] == INFINITY){
+                continue;
+            }
+            int cost = map.getCost(neighbor) + g[neighbor];
+            if(cost < min){
+                min = cost;
+                if(best != null){
+                    best[0] = neighbor;
+                }
+            }
+        }
+        return min;
+    }
+
+    /**
+     * Follows the cheapest successor of every cell from the start to the goal
+     */
+    private int[] extract_path(){
+        int[] path = new int[64];
+        int length = 0;
+        int[] next = new int[1];
+        int current = start;
+        path[length++] = current;
+        while(current != goal && length <= map.size()){
+            if(best_successor_cost(current, next) == INFINITY){
+                break;
+            }
+            current = next[0];
+            if(length == path.length){
+                path = Arrays.copyOf(path, 2 * length);
+            }
+            path[length++] = current;
+        }
+        return Arrays.copyOf(path, length);
+    }
+
+    private void set_g(int cell, int value){
+        if(g[cell] == INFINITY && value != INFINITY){
+            consistent++;
+        }
+        else if(g[cell] != INFINITY && value == INFINITY){
+            consistent--;
+        }
+        g[cell] = value;
+    }
+
+    /**
+     * The two part key [min(g, rhs) + h + km, min(g, rhs)] packed into a long
+     * so that comparing the longs compares the keys lexicographically
+     */
+    private long key(int cell){
+        int k2 = Math.min(g[cell], rhs[cell]);
+        if(k2 == INFINITY){
+            return Long.MAX_VALUE;
+        }
+        long k1 = (long) k2 + manhattan_distance(start, cell) + km;
+        return (k1 << 32) | k2;
+    }
+
+    private int manhattan_distance(int a, int b){
+        return Math.abs(map.getX(a) - map.getX(b)) + Math.abs(map.getY(a) - map.getY(b));
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getGoal() {
+        return goal;
+    }
+
+    public Grid_Map getMap() {
+        return map;
+    }
+
+    /**
+     * Indexed binary min-heap like Indexed_Min_Heap but with long keys, which the
+     * two part keys of the planner need, and with removal and key changes in both directions
+     */
+    private static final class Key_Heap {
+        private final int[] items;
+        private final long[] keys;
+        private final int[] positions;
+        private int size;
+
+        Key_Heap(int capacity){
+            items = new int[capacity];
+            keys = new long[capacity];
+            positions = new int[capacity];
+            Arrays.fill(positions, -1);
+        }
+
+        void add(int item, long key){
+            items[size] = item;
+            keys[size] = key;
+            positions[item] = size;
+            sift_up(size++);
+        }
+
+        void update(int item, long key){
+            int position = positions[item];
+            long old = keys[position];
+            keys[position] = key;
+            if(key < old){
+                sift_up(position);
+            }
+            else{
+                sift_down(position);
+            }
+        }
+
+        void remove(int item){
+            int position = positions[item];
+            positions[item] = -1;
+            size--;
+            if(position != size){
+                long old = keys[position];
+                items[position] = items[size];
+                keys[position] = keys[size];
+                positions[items[position]] = position;
+                if(keys[position] < old){
+                    sift_up(position);
+                }
+                else{
+                    sift_down(position);
+                }
+            }
+        }
+
+        int peek(){
+            if(size == 0){
+                throw new NoSuchElementException("Heap is empty");
+            }
+            return items[0];
+        }
+
+        long peekKey(){
+            if(size == 0){
+                throw new NoSuchElementException("Heap is empty");
+            }
+            return keys[0];
+        }
+
+        boolean contains(int item){
+            return positions[item] != -1;
+        }
+
+        boolean isEmpty(){
+            return size == 0;
+        }
+
+        int size(){
+            return size;
+        }
+
+        private void sift_up(int position){
+            while(position > 0){
+                int parent = (position - 1) >>> 1;
+                if(keys[parent] <= keys[position]){
+                    break;
+                }
+                swap(parent, position);
+                position = parent;
+            }
+        }
+
+        private void sift_down(int position){
+            while(true){
+                int child = 2 * position + 1;
+                if(child >= size){
+                    break;
+                }
+                if(child + 1 < size && keys[child + 1] < keys[child]){
+                    child++;
+                }
+                if(keys[position] <= keys[child]){
+                    break;
+                }
+                swap(child, position);
+                position = child;
+            }
+        }
+
+        private void swap(int a, int b){
+            int item = items[a];
+            long key = keys[a];
+            items[a] = items[b];
+            keys[a] = keys[b];
+            items[b] = item;
+            keys[b] = key;
+            positions[items[a]] = a;
+            positions[items[b]] = b;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.company;
+
+/**
+ * Cost of the cheapest path from one source cell to every cell of a map,
+ * with the predecessor of every cell on such a path, as computed by
+ * Uniform_Cost_Search.distances_from().
+ *
+ * A field owns its arrays and never changes, so it can be kept and shared
+ * between threads to answer any number of queries from its source: the
+ * cheapest cost to a cell is a lookup and the path is a walk back along the
+ * predecessors. It describes the map as it was when it was computed, a
+ * field has to be computed again once the version of the map changes.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+public class Distance_Field {
+    public static final int UNREACHABLE = Integer.MAX_VALUE; // Distance to a cell the source cannot reach
+
+    private final Grid_Map map; // The map the field was computed on
+    private final int source; // Index of the cell every distance is measured from
+    private final int[] distances; // Cost of the cheapest path from the source to each cell
+    private final int[] parents; // Predecessor of each cell on that path, Search_State.NO_PARENT for the source
+    private final int version; // Version of the map the field was computed on
+
+    Distance_Field(Grid_Map map, int source, int[] distances, int[] parents){
+        this.map = map;
+        this.version = map.getVersion();
+        this.source = source;
+        this.distances = distances;
+        this.parents = parents;
+    }
+
+    /**
+     * @param index index of a cell
+     * @return the cost of the cheapest path from the source to the cell, UNREACHABLE if there is none
+     */
+    public int getDistance(int index){
+        return distances[index];
+    }
+
+    public boolean isReachable(int index){
+        return distances[index] != UNREACHABLE;
+    }
+
+    /**
+     * @param index index of a cell
+     * @return the cells of a cheapest path from the source to the cell, empty if there is none
+     */
+    public int[] path_to(int index){
+        if(!isReachable(index)){
+            return new int[0];
+        }
+        int length = 0;
+        for(int i = index; i != Search_State.NO_PARENT; i = parents[i]){
+            length++;
+        }
+        int[] path = new int[length];
+        for(int i = index; i != Search_State.NO_PARENT; i = parents[i]){
+            path[--length] = i;
+        }
+        return path;
+    }
+
+    /**
+     * Answers a query from the source without searching
+     * @param goal index of the cell we are trying to reach
+     * @return the cheapest path to the goal, nothing is expanded
+     */
+    public Search_Result result_to(int goal){
+        long startTime = System.nanoTime();
+        if(!isReachable(goal)){
+            return Search_Result.not_found(0, 0, System.nanoTime() - startTime);
+        }
+        return Search_Result.bounded(path_to(goal), distances[goal], 0, 0, System.nanoTime() - startTime, 1);
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    public Grid_Map getMap() {
+        return map;
+    }
+
+    /**
+     * @return the version of the map the field was computed on
+     */
+    public int getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,91 @@
+package com.company;
+
+/**
+ * Cost of moving from a cell to one of its neighbors.
+ *
+ * Our maps give every cell a cost and by default a move costs the cost of the
+ * cell it enters. Other cost models only have to keep every move between two
+ * passable cells at least 1, so that the heuristics stay admissible.
+ * Impasses are never moved into, a cost model is never asked about them.
+ *
+ * Like Heuristic every cost model is a small final class, which
+ * A_Star_Search and IDA_Star_Search call on its own class through
+ * Strategies rather than through this interface.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+public interface Edge_Cost {
+    /**
+     * @param from index of the cell the move starts in
+     * @param to index of the neighbor the move enters
+     * @return the cost of the move
+     */
+    int cost(int from, int to);
+
+    /**
+     * @return the cost model of every search, a move costs the cost of the cell it enters
+     */
+    static Edge_Cost entering(Grid_Map map){
+        return new Entering(map);
+    }
+
+    /**
+     * A move costs the average of the two cells it crosses, rounded up, so
+     * that leaving an expensive cell costs as much as entering it and a path
+     * costs the same in both directions. The landmark heuristic assumes
+     * entering costs and can overestimate under this model.
+     */
+    static Edge_Cost average(Grid_Map map){
+        return new Average(map);
+    }
+
+    /**
+     * For moves that may be diagonal: a move costs the cost of the cell it
+     * enters times Neighborhood.STRAIGHT_COST or Neighborhood.DIAGONAL_COST.
+     * Heuristic.octile(map, STRAIGHT_COST, DIAGONAL_COST) is admissible for it.
+     */
+    static Edge_Cost octile(Neighborhood neighborhood){
+        return new Octile(neighborhood);
+    }
+
+    final class Entering implements Edge_Cost {
+        private final Grid_Map map;
+
+        Entering(Grid_Map map){
+            this.map = map;
+        }
+
+        @Override
+        public int cost(int from, int to){
+            return map.getCost(to);
+        }
+    }
+
+    final class Average implements Edge_Cost {
+        private final Grid_Map map;
+
+        Average(Grid_Map map){
+            this.map = map;
+        }
+
+        @Override
+        public int cost(int from, int to){
+            return (map.getCost(from) + map.getCost(to) + 1) / 2;
+        }
+    }
+
+    final class Octile implements Edge_Cost {
+        private final Grid_Map map;
+        private final Neighborhood neighborhood;
+
+        Octile(Neighborhood neighborhood){
+            this.map = neighborhood.getMap();
+            this.neighborhood = neighborhood;
+        }
+
+        @Override
+        public int cost(int from, int to){
+            return map.getCost(to) * (neighborhood.isDiagonal(from, to) ? Neighborhood.DIAGONAL_COST : Neighborhood.STRAIGHT_COST);
+        }
+    }
+}
@@ -0,0 +1,471 @@
+package com.company;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Cost of the cheapest path from every cell of a map to one goal, with the
+ * direction of the first move of such a path, so any number of agents
+ * heading for the same goal share a single computation and each of them
+ * finds its path by following the directions, in O(path length).
+ *
+ * The distances are computed backwards from the goal. A move from v to u
+ * costs edge_cost.cost(v, u), which with the default cost model is the cost
+ * of u, so the search out of the goal charges every move the cost of the
+ * cell it moves back from, not the cell it reaches. Moves are symmetric under
+ * every Neighborhood and corner rule, so the cells the search reaches from u
+ * are exactly the cells that can move to u.
+ *
+ * The map is split into bands of rows that are searched in parallel, each by
+ * its own Dijkstra over its own rows only. After every round the cells on
+ * the edge of each band look at the cells across it; those that found a
+ * cheaper path through a neighboring band start the next round of their band.
+ * Rounds repeat until no band improves, at which point every distance is
+ * the cheapest one. A path crossing between bands k times costs k rounds, so
+ * open maps need a handful of rounds and mazes more.
+ *
+ * When a few costs change, update() repairs the field in place. It throws
+ * away the distances of the cells whose path went through a changed cell and
+ * recomputes them, together with any cell that gets cheaper, from the cells
+ * around them, so a repair costs about as much as the part of the field that
+ * changed. A field may be read by many threads at once, but not while
+ * update() runs.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+public class Flow_Field {
+    public static final int UNREACHABLE = Integer.MAX_VALUE; // Distance of a cell that cannot reach the goal
+    public static final int NO_DIRECTION = -1; // Direction of the goal and of the cells that cannot reach it
+
+    private final Grid_Map map; // The map the field is for, read while the field is computed or updated
+    private final int goal; // Index of the cell every path leads to
+    private final Edge_Cost edge_cost; // Cost of a move between neighbors
+    private final Neighborhood neighborhood; // Moves an agent may make from a cell
+    private final int[] distances; // Cost of the cheapest path from each cell to the goal
+    private final byte[] directions; // Direction of the first move of that path, index into offsets
+    private final int[] offsets; // Index offset of each direction, in the order of Neighborhood
+    private final byte[] codes; // Direction of the step between two neighbors, indexed by step + cols + 1
+    private final int[] successors = new int[Grid_Map.MAX_SUCCESSORS]; // Buffer of update()
+    private Indexed_Min_Heap repair; // Fringe of update(), made when first needed
+    private int version; // Version of the map the field is up to date with
+
+    /**
+     * Computes the field of a goal for four straight moves into cells that
+     * cost what they cost, with one band per worker of the common pool
+     * @param map the map the agents move on
+     * @param goal index of the cell every path leads to
+     */
+    public Flow_Field(Grid_Map map, int goal){
+        this(map, goal, Edge_Cost.entering(map), Neighborhood.four(map), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param map the map the agents move on
+     * @param goal index of the cell every path leads to
+     * @param edge_cost cost of a move between neighbors, never negative
+     * @param neighborhood moves an agent may make from a cell
+     * @param pool workers the bands are searched on, one band per worker. The
+     * pool is only borrowed, so the fields of many goals can share one
+     */
+    public Flow_Field(Grid_Map map, int goal, Edge_Cost edge_cost, Neighborhood neighborhood, ForkJoinPool pool){
+        if(edge_cost == null || neighborhood == null){
+            throw new IllegalArgumentException("A flow field needs a cost model and a neighborhood");
+        }
+        if(neighborhood.getMap() != map){
+            throw new IllegalArgumentException("The neighborhood was made for a different map");
+        }
+        if(goal < 0 || goal >= map.size()){
+            throw new IllegalArgumentException("Goal " + goal + " is outside the " + map.getRows() + "x" + map.getCols() + " map");
+        }
+        if(pool == null){
+            throw new IllegalArgumentException("A flow field needs a pool to search its bands on");
+        }
+        int cols = map.getCols();
+        this.map = map;
+        this.goal = goal;
+        this.edge_cost = edge_cost;
+        this.neighborhood = neighborhood;
+        this.distances = new int[map.size()];
+        this.directions = new byte[map.size()];
+        this.offsets = new int[]{-cols, cols, -1, 1, -cols - 1, -cols + 1, cols - 1, cols + 1};
+        this.codes = new byte[2 * cols + 3];
+        for(int code = offsets.length - 1; code >= 0; code--){
+            codes[offsets[code] + cols + 1] = (byte) code;
+        }
+        this.version = map.getVersion();
+        Arrays.fill(distances, UNREACHABLE);
+        Arrays.fill(directions, (byte) NO_DIRECTION);
+        compute(Math.min(pool.getParallelism(), Math.max(1, map.getRows())), pool);
+    }
+
+    /**
+     * Runs the rounds of the band searches until no band improves
+     */
+    private void compute(int num_bands, ForkJoinPool pool){
+        int rows = map.getRows();
+        int cols = map.getCols();
+        Band[] bands = new Band[num_bands];
+        for(int b = 0; b < num_bands; b++){
+            bands[b] = new Band((int) ((long) rows * b / num_bands) * cols, (int) ((long) rows * (b + 1) / num_bands) * cols);
+        }
+        for(Band band : bands){
+            if(band.contains(goal)){
+                band.seed(goal, 0, NO_DIRECTION);
+            }
+        }
+        if(num_bands == 1){
+            bands[0].search();
+            return;
+        }
+        try{
+            boolean improved = true;
+            while(improved){
+                pool.submit(() -> IntStream.range(0, num_bands).parallel().forEach(b -> bands[b].search())).get();
+                // Cells are read across band edges only once every band is done writing
+                pool.submit(() -> IntStream.range(0, num_bands).parallel().forEach(b -> bands[b].look_across())).get();
+                improved = false;
+                for(Band band : bands){
+                    improved |= band.num_seeds > 0;
+                }
+            }
+        }catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while computing a flow field", e);
+        }catch (ExecutionException e){
+            throw new IllegalStateException("Computing a flow field failed", e.getCause());
+        }
+    }
+
+    /**
+     * Repairs the field after the costs of some cells changed on the map
+     * @param changed indices of the cells whose cost changed since the field was computed or last updated
+     */
+    public void update(int[] changed){
+        if(repair == null){
+            repair = new Indexed_Min_Heap(map.size());
+        }
+        version = map.getVersion();
+        if(map.isImpasse(goal)){
+            Arrays.fill(distances, UNREACHABLE);
+            Arrays.fill(directions, (byte) NO_DIRECTION);
+            distances[goal] = 0;
+            return;
+        }
+        // A changed cell prices the moves into it and, under some cost models, out of it.
+        // Opening or closing a cell also opens or closes the diagonals that pass its corner.
+        List<Integer> touched = new ArrayList<>();
+        int[] neighbors = new int[Grid_Map.MAX_SUCCESSORS];
+        for(int cell : changed){
+            touched.add(cell);
+            if(neighborhood.hasDiagonals()){
+                int count = around(cell, neighbors);
+                for(int i = 0; i < count; i++){
+                    touched.add(neighbors[i]);
+                }
+            }
+        }
+        // Every cell whose path went through a touched cell loses its distance
+        List<Integer> dropped = new ArrayList<>();
+        for(int cell : touched){
+            if(distances[cell] != UNREACHABLE){
+                drop_subtree(cell, dropped, neighbors);
+            }
+        }
+        // Those cells, the touched ones and the cells around them start again from their neighbors
+        repair.clear();
+        for(int cell : dropped){
+            reseed(cell);
+        }
+        for(int cell : touched){
+            reseed(cell);
+            int count = around(cell, neighbors);
+            for(int i = 0; i < count; i++){
+                reseed(neighbors[i]);
+            }
+        }
+        while(!repair.isEmpty()){
+            int current = repair.poll();
+            int count = neighborhood.successors(current, successors);
+            for(int i = 0; i < count; i++){
+                relax(successors[i], current, repair);
+            }
+        }
+    }
+
+    /**
+     * Takes the distance away from a cell and every cell whose path goes through it.
+     * The goal keeps its distance of 0 and only the cells moving into it lose theirs.
+     */
+    private void drop_subtree(int root, List<Integer> dropped, int[] neighbors){
+        int first = dropped.size();
+        if(root != goal){
+            distances[root] = UNREACHABLE;
+            directions[root] = NO_DIRECTION;
+        }
+        dropped.add(root);
+        for(int i = first; i < dropped.size(); i++){
+            int cell = dropped.get(i);
+            int count = around(cell, neighbors);
+            for(int j = 0; j < count; j++){
+                int neighbor = neighbors[j];
+                if(directions[neighbor] != NO_DIRECTION && neighbor + offsets[directions[neighbor]] == cell){
+                    distances[neighbor] = UNREACHABLE;
+                    directions[neighbor] = NO_DIRECTION;
+                    dropped.add(neighbor);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gives a cell the cheapest distance through its neighbors if that is an improvement and queues it
+     */
+    private void reseed(int cell){
+        if(cell == goal || map.isImpasse(cell)){
+            if(cell != goal){
+                distances[cell] = UNREACHABLE;
+                directions[cell] = NO_DIRECTION;
+            }
+            return;
+        }
+        int count = neighborhood.successors(cell, successors);
+        for(int i = 0; i < count; i++){
+            if(distances[successors[i]] != UNREACHABLE){
+                relax(cell, successors[i], repair);
+            }
+        }
+    }
+
+    /**
+     * Lowers the distance of a cell to the cost through one of its neighbors if that is cheaper
+     * @param cell the cell that may improve
+     * @param next the neighbor it would move to
+     * @param fringe where the cell is queued when it improves
+     * @return whether the cell improved
+     */
+    private boolean relax(int cell, int next, Indexed_Min_Heap fringe){
+        int distance = distances[next] + edge_cost.cost(cell, next);
+        if(distance >= distances[cell]){
+            return false;
+        }
+        distances[cell] = distance;
+        directions[cell] = codes[next - cell + map.getCols() + 1];
+        if(fringe.contains(cell)){
+            fringe.decreaseKey(cell, distance);
+        }
+        else{
+            fringe.add(cell, distance);
+        }
+        return true;
+    }
+
+    /**
+     * Writes every cell of the neighborhood around a cell, passable or not, into a buffer
+     */
+    private int around(int cell, int[] neighbors){
+        int cols = map.getCols();
+        int x = cell / cols;
+        int y = cell - x * cols;
+        int count = 0;
+        for(int d = 0; d < (neighborhood.hasDiagonals() ? 8 : 4); d++){
+            int dx = offsets[d] < -1 ? -1 : offsets[d] > 1 ? 1 : 0;
+            int dy = d < 2 ? 0 : d == 2 || d == 4 || d == 6 ? -1 : 1;
+            if(map.isWithinBounds(x + dx, y + dy)){
+                neighbors[count++] = cell + offsets[d];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param index index of a cell
+     * @return the cost of the cheapest path from the cell to the goal, UNREACHABLE if there is none
+     */
+    public int getDistance(int index){
+        return distances[index];
+    }
+
+    public boolean isReachable(int index){
+        return distances[index] != UNREACHABLE;
+    }
+
+    /**
+     * @param index index of a cell
+     * @return the cell an agent in the cell should move to next, -1 at the goal or if the goal cannot be reached
+     */
+    public int next(int index){
+        int direction = directions[index];
+        return direction == NO_DIRECTION ? -1 : index + offsets[direction];
+    }
+
+    /**
+     * @param index index of a cell
+     * @return the direction of the first move from the cell, in the order of Neighborhood, NO_DIRECTION if there is none
+     */
+    public int getDirection(int index){
+        return directions[index];
+    }
+
+    /**
+     * Follows the directions from a cell to the goal
+     * @param start index of the cell the agent is in
+     * @return the cells of a cheapest path from the cell to the goal, empty if there is none
+     */
+    public int[] path_from(int start){
+        if(!isReachable(start)){
+            return new int[0];
+        }
+        int length = 1;
+        for(int i = start; i != goal; i = next(i)){
+            length++;
+        }
+        int[] path = new int[length];
+        path[0] = start;
+        for(int i = 1; i < length; i++){
+            path[i] = next(path[i - 1]);
+        }
+        return path;
+    }
+
+    /**
+     * Answers a query to the goal without searching
+     * @param start index of the cell the agent is in
+     * @return the cheapest path to the goal, nothing is expanded
+     */
+    public Search_Result result_from(int start){
+        long startTime = System.nanoTime();
+        if(!isReachable(start)){
+            return Search_Result.not_found(0, 0, System.nanoTime() - startTime);
+        }
+        return Search_Result.bounded(path_from(start), distances[start], 0, 0, System.nanoTime() - startTime, 1);
+    }
+
+    public int getGoal() {
+        return goal;
+    }
+
+    public Grid_Map getMap() {
+        return map;
+    }
+
+    /**
+     * @return the version of the map the field was computed on or last updated to
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * The rows one worker searches, cells first to last - 1
+     */
+    private final class Band {
+        final int first; // Index of the first cell of the band
+        final int last; // Index past the last cell of the band
+        final Indexed_Min_Heap fringe; // Cells of the band to expand, by their index within the band
+        final int[] seed_cells; // Cells that start the next round, each found once per round
+        final int[] seed_distances; // Distance each of them was found with
+        final byte[] seed_directions; // Direction of that path
+        final int[] successors = new int[Grid_Map.MAX_SUCCESSORS];
+        int num_seeds;
+
+        Band(int first, int last){
+            int cols = map.getCols();
+            this.first = first;
+            this.last = last;
+            this.fringe = new Indexed_Min_Heap(last - first);
+            this.seed_cells = new int[Math.max(1, 2 * cols)];
+            this.seed_distances = new int[seed_cells.length];
+            this.seed_directions = new byte[seed_cells.length];
+        }
+
+        boolean contains(int cell){
+            return cell >= first && cell < last;
+        }
+
+        void seed(int cell, int distance, int direction){
+            seed_cells[num_seeds] = cell;
+            seed_distances[num_seeds] = distance;
+            seed_directions[num_seeds++] = (byte) direction;
+        }
+
+        /**
+         * Dijkstra over the rows of the band from its seeds
+         */
+        void search(){
+            for(int i = 0; i < num_seeds; i++){
+                int cell = seed_cells[i];
+                if(seed_distances[i] < distances[cell]){
+                    distances[cell] = seed_distances[i];
+                    directions[cell] = seed_directions[i];
+                    fringe.add(cell - first, seed_distances[i]);
+                }
+            }
+            num_seeds = 0;
+            while(!fringe.isEmpty()){
+                int current = fringe.poll() + first;
+                if(map.isImpasse(current)){
+                    continue; // Only an impassable goal, nothing moves into it
+                }
+                int count = neighborhood.successors(current, successors);
+                for(int i = 0; i < count; i++){
+                    int neighbor = successors[i];
+                    if(!contains(neighbor)){
+                        continue;
+                    }
+                    int distance = distances[current] + edge_cost.cost(neighbor, current);
+                    if(distance < distances[neighbor]){
+                        distances[neighbor] = distance;
+                        directions[neighbor] = codes[current - neighbor + map.getCols() + 1];
+                        if(fringe.contains(neighbor - first)){
+                            fringe.decreaseKey(neighbor - first, distance);
+                        }
+                        else{
+                            fringe.add(neighbor - first, distance);
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Seeds the next round with the cells on the edge rows of the band that
+         * are cheaper through the bands next to it. Every band only reads here,
+         * the distances found are written when the next round starts.
+         */
+        void look_across(){
+            int cols = map.getCols();
+            look_across(first, Math.min(last, first + cols));
+            look_across(Math.max(first + cols, last - cols), last);
+        }
+
+        private void look_across(int from, int to){
+            int cols = map.getCols();
+            for(int cell = from; cell < to; cell++){
+                if(cell == goal || map.isImpasse(cell)){
+                    continue;
+                }
+                int best = distances[cell];
+                int best_next = -1;
+                int count = neighborhood.successors(cell, successors);
+                for(int i = 0; i < count; i++){
+                    int next = successors[i];
+                    if(contains(next) || distances[next] == UNREACHABLE){
+                        continue;
+                    }
+                    int distance = distances[next] + edge_cost.cost(cell, next);
+                    if(distance < best){
+                        best = distance;
+                        best_next = next;
+                    }
+                }
+                if(best_next >= 0){
+                    seed(cell, best, codes[best_next - cell + cols + 1]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.company;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Compact map used by our search algorithms.
+ * Instead of one Node object per position, every cell cost is packed
+ * into a flat byte array indexed by row * cols + col. Anything a search
+ * needs to remember about a cell (g, h, predecessor...) lives in the
+ * primitive arrays of a Search_State, so the map itself only ever
+ * costs one byte per cell.
+ *
+ * Costs are stored unsigned so a cell may cost anywhere from 0 to 255,
+ * a cost of 0 still marks an impasse.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+public class Grid_Map implements Cell_Costs {
+    public static final int MAX_COST = 255; // Largest cost a single byte can hold
+    public static final int MAX_SUCCESSORS = 8; // Size of the buffer successors() and Neighborhood.successors() write into
+
+    private final int rows; // Number of rows in the map (the x dimension)
+    private final int cols; // Number of columns in the map (the y dimension)
+    private final byte[] costs; // Cell costs indexed by row * cols + col
+    private int start; // Index of the starting position of our search
+    private int goal; // Index of the goal position of our search
+    private int version; // Bumped every time a cost changes, caches built on older costs are stale
+
+    /**
+     * Constructor for a map of the given size whose costs are all 0
+     * @param rows number of rows
+     * @param cols number of columns
+     */
+    public Grid_Map(int rows, int cols){
+        this(rows, cols, new byte[Math.multiplyExact(rows, cols)]);
+    }
+
+    /**
+     * Constructor wrapping an existing cost array
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param costs packed costs indexed by row * cols + col
+     */
+    public Grid_Map(int rows, int cols, byte[] costs){
+        if(rows < 0 || cols < 0 || costs.length != (long) rows * cols){
+            throw new IllegalArgumentException("Cost array does not match a " + rows + "x" + cols + " map");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.costs = costs;
+    }
+
+    /** This method takes a map file and packs it into a map.
+     * Both the text format of the lab files and the binary format
+     * are accepted, see Map_File.
+     * @param file path to the map file
+     * @return the map described by the file
+     * @throws UncheckedIOException if the file cannot be read or is not a valid map
+     */
+    public static Grid_Map readFile(String file){
+        try{
+            return Map_File.load(file);
+        }catch (IOException e){
+            throw new UncheckedIOException("Could not load the map " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Packs a legacy 2D array of nodes into a map
+     * @param search_space the nodes to pack
+     * @return map holding the cost of every node
+     */
+    public static Grid_Map fromNodes(Node[][] search_space){
+        int rows = search_space.length;
+        int cols = rows == 0 ? 0 : search_space[0].length;
+        Grid_Map map = new Grid_Map(rows, cols);
+        for(int x = 0; x < rows; x++){
+            for(int y = 0; y < cols; y++){
+                map.setCost(x, y, search_space[x][y].getCost());
+            }
+        }
+        return map;
+    }
+
+    /**
+     * @return a map with the same size, costs, start and goal that shares nothing with this one
+     */
+    public Grid_Map copy(){
+        Grid_Map copy = new Grid_Map(rows, cols, costs.clone());
+        copy.start = start;
+        copy.goal = goal;
+        return copy;
+    }
+
+    /**
+     * Builds a Node view of a single cell for callers that still use the Node API.
+     * The node is a copy, changing it does not change the map.
+     * @param index index of the cell
+     * @return a new node holding the coordinates and cost of the cell
+     */
+    public Node getNode(int index){
+        return new Node(getCost(index), getX(index), getY(index));
+    }
+
+    /**
+     * Builds the legacy 2D array of nodes for the whole map.
+     * This allocates one object per cell and should only be used on small maps.
+     * @return 2D array of type Node
+     */
+    public Node[][] toNodes(){
+        Node[][] search_space = new Node[rows][cols];
+        for(int x = 0; x < rows; x++){
+            for(int y = 0; y < cols; y++){
+                search_space[x][y] = getNode(index(x, y));
+            }
+        }
+        return search_space;
+    }
+
+    //******************* Index helpers ***************************
+
+    public int index(int x, int y){
+        return x * cols + y;
+    }
+
+    public int getX(int index){
+        return index / cols;
+    }
+
+    public int getY(int index){
+        return index % cols;
+    }
+
+    /**
+     * @param x row of the position
+     * @param y column of the position
+     * @return boolean indicating whether a given position is within the map
+     */
+    public boolean isWithinBounds(int x, int y){
+        return x >= 0 && x < rows && y >= 0 && y < cols;
+    }
+
+    public int size(){
+        return costs.length;
+    }
+
+    /**
+     * Writes the passable North, South, West and East neighbors of a cell into
+     * a caller supplied buffer. Nothing is allocated, the row offset is just
+     * cols and the column is computed once, so each direction costs a single
+     * bounds compare and a single cost load.
+     * @param index index of the current cell
+     * @param successors buffer of at least MAX_SUCCESSORS cells
+     * @return the number of successors written to the buffer
+     */
+    public int successors(int index, int[] successors){
+        int count = 0;
+        int y = index % cols;
+        int north = index - cols;
+        if(north >= 0 && costs[north] != 0){
+            successors[count++] = north;
+        }
+        int south = index + cols;
+        if(south < costs.length && costs[south] != 0){
+            successors[count++] = south;
+        }
+        if(y > 0 && costs[index - 1] != 0){
+            successors[count++] = index - 1;
+        }
+        if(y < cols - 1 && costs[index + 1] != 0){
+            successors[count++] = index + 1;
+        }
+        return count;
+    }
+
+    //******************* Setters and Getters ***************************
+
+    public int getCost(int index){
+        return costs[index] & 0xFF;
+    }
+
+    @Override
+    public int getCost(int x, int y){
+        return getCost(index(x, y));
+    }
+
+    public void setCost(int x, int y, int cost){
+        if(cost < 0 || cost > MAX_COST){
+            throw new IllegalArgumentException("Cost " + cost + " at (" + x + "," + y + ") is outside 0.." + MAX_COST);
+        }
+        costs[index(x, y)] = (byte) cost;
+        version++;
+    }
+
+    /**
+     * @return a number that changes every time a cost of the map changes
+     */
+    public int getVersion(){
+        return version;
+    }
+
+    /**
+     * @return the packed costs themselves, not a copy
+     */
+    byte[] getCosts(){
+        return costs;
+    }
+
+    public boolean isImpasse(int index){
+        return costs[index] == 0;
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getCols() {
+        return cols;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public void setStart(int x, int y) {
+        this.start = index(x, y);
+    }
+
+    public int getGoal() {
+        return goal;
+    }
+
+    public void setGoal(int x, int y) {
+        this.goal = index(x, y);
+    }
+
+    //********************************************************************************
+}
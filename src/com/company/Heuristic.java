@@ -0,0 +1,136 @@
+package com.company;
+
+/**
+ * Estimate of the cost of the cheapest path from a cell to the goal.
+ *
+ * A search only finds the cheapest path when the estimate never exceeds the
+ * real cost under the Edge_Cost it searches with (admissible), and A* only
+ * keeps its closed set exact when the estimate also drops by no more than the
+ * cost of a move (consistent). Every heuristic here is both for the cost
+ * models of Edge_Cost, where a move costs at least 1.
+ *
+ * Called through this interface every heuristic shares one call site, which
+ * turns megamorphic and costs an interface call per generated cell as soon
+ * as a program uses more than one heuristic. A_Star_Search and
+ * IDA_Star_Search therefore call the heuristics defined here, and
+ * Landmarks, on their own classes through Strategies, which the JIT
+ * binds statically and inlines into the loop of each search. Only other
+ * implementations, such as lambdas, go through the interface. The a_star,
+ * a_star_generic and a_star_mixed entries of Search_Benchmark (jmh) measure
+ * the difference.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+public interface Heuristic {
+    /**
+     * @param index index of the cell
+     * @param goal index of the goal
+     * @return a lower bound on the cost of the cheapest path from the cell to the goal
+     */
+    int estimate(int index, int goal);
+
+    /**
+     * @return the sum of the row and column distances, the default of every search
+     */
+    static Heuristic manhattan(Grid_Map map){
+        return new Manhattan(map.getCols());
+    }
+
+    /**
+     * @return the straight line distance rounded down, never above manhattan distance
+     */
+    static Heuristic euclidean(Grid_Map map){
+        return new Euclidean(map.getCols());
+    }
+
+    /**
+     * @return the octile distance for the costs of Edge_Cost.octile(), in tenths of a cell cost
+     */
+    static Heuristic octile(Grid_Map map){
+        return octile(map, Neighborhood.STRAIGHT_COST, Neighborhood.DIAGONAL_COST);
+    }
+
+    /**
+     * Distance when a straight move costs at least straight and a diagonal one at least diagonal
+     * @param straight least cost of a move to a side
+     * @param diagonal least cost of a move to a corner
+     */
+    static Heuristic octile(Grid_Map map, int straight, int diagonal){
+        return new Octile(map.getCols(), straight, diagonal);
+    }
+
+    /**
+     * @return the estimate that is always 0, which makes A* a uniform cost search
+     */
+    static Heuristic zero(){
+        return Zero.INSTANCE;
+    }
+
+    final class Manhattan implements Heuristic {
+        private final int cols; // Number of columns of the map, which is all manhattan distance needs
+
+        Manhattan(int cols){
+            this.cols = cols;
+        }
+
+        @Override
+        public int estimate(int index, int goal){
+            return Math.abs(index / cols - goal / cols) + Math.abs(index % cols - goal % cols);
+        }
+    }
+
+    final class Euclidean implements Heuristic {
+        private final int cols;
+
+        Euclidean(int cols){
+            this.cols = cols;
+        }
+
+        @Override
+        public int estimate(int index, int goal){
+            return distance(index / cols - goal / cols, index % cols - goal % cols);
+        }
+
+        private static int distance(long dx, long dy){
+            return (int) Math.sqrt(dx * dx + dy * dy);
+        }
+    }
+
+    final class Octile implements Heuristic {
+        private final int cols;
+        private final int straight; // Least cost of a move to a side
+        private final int diagonal; // Least cost of a move to a corner
+
+        Octile(int cols, int straight, int diagonal){
+            if(straight < 0 || diagonal < 0){
+                throw new IllegalArgumentException("Move costs cannot be negative");
+            }
+            this.cols = cols;
+            this.straight = straight;
+            // Two moves to the side reach the same cell as one to the corner
+            this.diagonal = Math.min(diagonal, 2 * straight);
+        }
+
+        @Override
+        public int estimate(int index, int goal){
+            return distance(Math.abs(index / cols - goal / cols), Math.abs(index % cols - goal % cols));
+        }
+
+        private int distance(int dx, int dy){
+            int diagonals = Math.min(dx, dy);
+            return diagonal * diagonals + straight * (Math.max(dx, dy) - diagonals);
+        }
+    }
+
+    final class Zero implements Heuristic {
+        static final Zero INSTANCE = new Zero();
+
+        private Zero(){
+        }
+
+        @Override
+        public int estimate(int index, int goal){
+            return 0;
+        }
+    }
+}
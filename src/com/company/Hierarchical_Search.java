@@ -0,0 +1,596 @@
+package com.company;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Hierarchical path finding (HPA*) over a Grid_Map.
+ *
+ * The map is split into square clusters. Wherever two neighboring clusters
+ * share a run of passable border cells an entrance is placed (one in the
+ * middle of a short run, one at each end of a long one), and the cells on
+ * both sides of it become nodes of an abstract graph. Inside every cluster
+ * the cost between each pair of its nodes is computed once, with a search
+ * that never leaves the cluster.
+ *
+ * A query links the start and the goal to the nodes of their clusters,
+ * searches the small abstract graph with A*, and then refines every
+ * abstract edge into cells with a search limited to one cluster. Paths are
+ * near optimal: the only detours come from crossing cluster borders at
+ * the chosen entrances.
+ *
+ * When the cost of a cell changes only its cluster, and the cluster on the
+ * other side of a border it lies on, are rebuilt. The abstraction can be
+ * written to a file and read back for the same map, it stores a checksum of
+ * the map costs so it is never used with a map it was not built for.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+public class Hierarchical_Search {
+    public static final int MAGIC = 0x48504153; // "HPAS"
+    public static final int VERSION = 1;
+    private static final int INFINITY = Integer.MAX_VALUE; // Cost between nodes that cannot reach each other
+    private static final int LONG_ENTRANCE = 6; // Runs at least this long get an entrance at both ends
+
+    private final Grid_Map map; // The map the abstraction was built for
+    private final int cluster_size; // Width and height of a cluster in cells
+    private final int cluster_rows; // Number of clusters along the x dimension
+    private final int cluster_cols; // Number of clusters along the y dimension
+    private final int[][] cluster_nodes; // Sorted cells of the abstract nodes in each cluster
+    private final int[][] cluster_costs; // Cost from node i to node j of a cluster at [i * nodes + j]
+    private final Cluster_State builder; // State of the searches run while building
+    private final ThreadLocal<Cluster_State> locals; // State of the cluster searches run by each query thread
+    private int version; // Version of the map the clusters were built on or last updated to
+
+    /**
+     * Builds the abstraction of a whole map
+     * @param map the map to build the abstraction for
+     * @param cluster_size width and height of a cluster in cells
+     */
+    public Hierarchical_Search(Grid_Map map, int cluster_size){
+        this(map, cluster_size, null, null);
+        for(int cluster = 0; cluster < cluster_nodes.length; cluster++){
+            build_cluster(cluster);
+        }
+    }
+
+    /**
+     * Constructor for an abstraction whose clusters are filled in by the caller
+     */
+    private Hierarchical_Search(Grid_Map map, int cluster_size, int[][] cluster_nodes, int[][] cluster_costs){
+        if(cluster_size < 2){
+            throw new IllegalArgumentException("Clusters must be at least 2 cells wide");
+        }
+        this.map = map;
+        this.cluster_size = cluster_size;
+        this.cluster_rows = (map.getRows() + cluster_size - 1) / cluster_size;
+        this.cluster_cols = (map.getCols() + cluster_size - 1) / cluster_size;
+        this.cluster_nodes = cluster_nodes != null ? cluster_nodes : new int[cluster_rows * cluster_cols][];
+        this.cluster_costs = cluster_costs != null ? cluster_costs : new int[cluster_rows * cluster_cols][];
+        this.builder = new Cluster_State(cluster_size);
+        this.locals = ThreadLocal.withInitial(() -> new Cluster_State(cluster_size));
+        this.version = map.getVersion();
+    }
+
+    //******************* Queries ***************************
+
+    /**
+     * Finds a path from start to goal through the abstract graph
+     * @param state scratch state of the calling thread, sized for the map
+     * @param start index of the cell the search starts from
+     * @param goal index of the cell we are trying to reach
+     * @return the refined path and the statistics of the search, nodes expanded
+     * and nodes in memory cover the abstract search and every refinement
+     */
+    public Search_Result search(Search_State state, int start, int goal){
+        return search(state, start, goal, Search_Budget.NONE);
+    }
+
+    /**
+     * Hierarchical search that stops when its budget runs out: the budget is
+     * checked before the search starts, during the abstract search and before
+     * every abstract edge is refined. An abstract path is only returned once it
+     * is refined completely, so a partial result holds no path.
+     * @param state scratch state of the calling thread, sized for the map
+     * @param start index of the cell the search starts from
+     * @param goal index of the cell we are trying to reach
+     * @param budget limits on the work the search may do
+     * @return the refined path and the statistics of the search
+     */
+    public Search_Result search(Search_State state, int start, int goal, Search_Budget budget){
+        long startTime = System.nanoTime();
+        if(map.isImpasse(start) || map.isImpasse(goal)){
+            return Search_Result.not_found(0, 0, System.nanoTime() - startTime);
+        }
+        if(budget.exhausted(0, 0)){
+            return Search_Result.partial(new int[0], Search_Result.NO_PATH, 0, 0, System.nanoTime() - startTime,
+                    budget.getStop_reason());
+        }
+        int num_nodes_expanded = 0;
+        Cluster_State local = locals.get();
+        int start_cluster = cluster_of(start);
+        int goal_cluster = cluster_of(goal);
+
+        // Link the start to the nodes of its cluster
+        int[] start_nodes = cluster_nodes[start_cluster];
+        int[] from_start = new int[start_nodes.length];
+        num_nodes_expanded += explore(local, start, start_cluster, false, null, 0);
+        for(int i = 0; i < start_nodes.length; i++){
+            from_start[i] = reached(local, start_nodes[i]);
+        }
+        int direct = start_cluster == goal_cluster ? reached(local, goal) : INFINITY;
+
+        // Link the nodes of the goal's cluster to the goal
+        int[] goal_nodes = cluster_nodes[goal_cluster];
+        int[] to_goal = new int[goal_nodes.length];
+        num_nodes_expanded += explore(local, goal, goal_cluster, true, null, 0);
+        for(int i = 0; i < goal_nodes.length; i++){
+            to_goal[i] = reached(local, goal_nodes[i]);
+        }
+
+        // A* over the abstract graph, the heap and arrays of the state are indexed by cell
+        int goal_x = map.getX(goal);
+        int goal_y = map.getY(goal);
+        state.reset(start);
+        Indexed_Min_Heap open_set = state.open;
+        int[] successors = state.successors;
+        state.h[start] = manhattan_distance(start, goal_x, goal_y);
+        open_set.add(start, state.getF(start));
+        boolean found = false;
+        int until_check = 1; // Linking the start and goal expanded up to two clusters, so the first check comes right away
+        while(!open_set.isEmpty()){
+            if(--until_check == 0){
+                until_check = Search_Budget.CHECK_INTERVAL;
+                if(budget.exhausted(num_nodes_expanded, state.closed.size() + open_set.size())){
+                    return Search_Result.partial(new int[0], Search_Result.NO_PATH, num_nodes_expanded,
+                            state.closed.size() + open_set.size(), System.nanoTime() - startTime, budget.getStop_reason());
+                }
+            }
+            int current = open_set.poll();
+            if(current == goal){
+                found = true;
+                break;
+            }
+            state.closed.add(current);
+            int cluster = cluster_of(current);
+            int[] nodes = cluster_nodes[cluster];
+            int position = Arrays.binarySearch(nodes, current);
+
+            if(current == start){
+                for(int i = 0; i < nodes.length; i++){
+                    num_nodes_expanded += relax(state, current, nodes[i], from_start[i], goal_x, goal_y);
+                }
+                num_nodes_expanded += relax(state, current, goal, direct, goal_x, goal_y);
+            }
+            else if(position >= 0){
+                int[] costs = cluster_costs[cluster];
+                for(int i = 0; i < nodes.length; i++){
+                    num_nodes_expanded += relax(state, current, nodes[i], costs[position * nodes.length + i], goal_x, goal_y);
+                }
+            }
+            if(position >= 0){
+                if(cluster == goal_cluster){
+                    num_nodes_expanded += relax(state, current, goal, to_goal[position], goal_x, goal_y);
+                }
+                // Crossing a border is a single step onto a node of the neighboring cluster
+                int count = map.successors(current, successors);
+                for(int i = 0; i < count; i++){
+                    int neighbor = successors[i];
+                    int neighbor_cluster = cluster_of(neighbor);
+                    if(neighbor_cluster != cluster && Arrays.binarySearch(cluster_nodes[neighbor_cluster], neighbor) >= 0){
+                        num_nodes_expanded += relax(state, current, neighbor, map.getCost(neighbor), goal_x, goal_y);
+                    }
+                }
+            }
+        }
+        int memory = state.closed.size() + open_set.size();
+        if(!found){
+            return Search_Result.not_found(num_nodes_expanded, memory, System.nanoTime() - startTime);
+        }
+        int cost = state.g[goal];
+        int[] abstract_path = state.trace_path(goal);
+
+        // Refine every abstract edge into the cells it stands for
+        int[] path = new int[64];
+        int length = 0;
+        path[length++] = start;
+        for(int i = 1; i < abstract_path.length; i++){
+            int from = abstract_path[i - 1];
+            int to = abstract_path[i];
+            if(cluster_of(from) != cluster_of(to)){
+                path = grow(path, length + 1);
+                path[length++] = to;
+                continue;
+            }
+            // Every refinement expands up to a whole cluster
+            if(budget.exhausted(num_nodes_expanded, memory)){
+                return Search_Result.partial(new int[0], Search_Result.NO_PATH, num_nodes_expanded, memory,
+                        System.nanoTime() - startTime, budget.getStop_reason());
+            }
+            num_nodes_expanded += explore(local, from, cluster_of(from), false, new int[]{to}, 0);
+            memory = Math.max(memory, local.closed.size() + local.open.size());
+            int[] segment = trace_local(local, to);
+            path = grow(path, length + segment.length);
+            System.arraycopy(segment, 1, path, length, segment.length - 1);
+            length += segment.length - 1;
+        }
+        return new Search_Result(Arrays.copyOf(path, length), cost, num_nodes_expanded, memory, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Offers a cheaper path to a node of the abstract graph
+     * @return 1 if the node entered the open set, 0 otherwise
+     */
+    private int relax(Search_State state, int current, int neighbor, int cost, int goal_x, int goal_y){
+        if(cost == INFINITY || neighbor == current || state.closed.contains(neighbor)){
+            return 0;
+        }
+        int tentative_g = state.g[current] + cost;
+        if(!state.open.contains(neighbor)){
+            state.g[neighbor] = tentative_g;
+            state.h[neighbor] = manhattan_distance(neighbor, goal_x, goal_y);
+            state.parent[neighbor] = current;
+            state.open.add(neighbor, state.getF(neighbor));
+            return 1;
+        }
+        if(tentative_g < state.g[neighbor]){
+            state.g[neighbor] = tentative_g;
+            state.parent[neighbor] = current;
+            state.open.decreaseKey(neighbor, state.getF(neighbor));
+        }
+        return 0;
+    }
+
+    //******************* Building the abstraction ***************************
+
+    /**
+     * Changes the cost of a cell and rebuilds the clusters it affects: its own
+     * cluster, and when the cell lies on a cluster border, the cluster on the
+     * other side since the entrances on that border may have moved
+     * @param x row of the cell
+     * @param y column of the cell
+     * @param cost the new cost of the cell, 0 makes it an impasse
+     */
+    public void update_cost(int x, int y, int cost){
+        map.setCost(x, y, cost);
+        int cluster_x = x / cluster_size;
+        int cluster_y = y / cluster_size;
+        build_cluster(cluster_x * cluster_cols + cluster_y);
+        if(x % cluster_size == 0 && cluster_x > 0){
+            build_cluster((cluster_x - 1) * cluster_cols + cluster_y);
+        }
+        if(x % cluster_size == cluster_size - 1 && cluster_x < cluster_rows - 1){
+            build_cluster((cluster_x + 1) * cluster_cols + cluster_y);
+        }
+        if(y % cluster_size == 0 && cluster_y > 0){
+            build_cluster(cluster_x * cluster_cols + cluster_y - 1);
+        }
+        if(y % cluster_size == cluster_size - 1 && cluster_y < cluster_cols - 1){
+            build_cluster(cluster_x * cluster_cols + cluster_y + 1);
+        }
+        version = map.getVersion();
+    }
+
+    /**
+     * Finds the nodes of a cluster on its four borders and the cost between every pair of them
+     */
+    private void build_cluster(int cluster){
+        int x0 = (cluster / cluster_cols) * cluster_size;
+        int y0 = (cluster % cluster_cols) * cluster_size;
+        int x1 = Math.min(x0 + cluster_size, map.getRows()) - 1;
+        int y1 = Math.min(y0 + cluster_size, map.getCols()) - 1;
+
+        int[] nodes = new int[4 * cluster_size];
+        int count = 0;
+        if(x0 > 0){
+            count = add_entrances(nodes, count, x0, y0, x0 - 1, y0, 0, 1, y1 - y0 + 1);
+        }
+        if(x1 < map.getRows() - 1){
+            count = add_entrances(nodes, count, x1, y0, x1 + 1, y0, 0, 1, y1 - y0 + 1);
+        }
+        if(y0 > 0){
+            count = add_entrances(nodes, count, x0, y0, x0, y0 - 1, 1, 0, x1 - x0 + 1);
+        }
+        if(y1 < map.getCols() - 1){
+            count = add_entrances(nodes, count, x0, y1, x0, y1 + 1, 1, 0, x1 - x0 + 1);
+        }
+        Arrays.sort(nodes, 0, count);
+        int distinct = 0;
+        for(int i = 0; i < count; i++){
+            if(distinct == 0 || nodes[distinct - 1] != nodes[i]){
+                nodes[distinct++] = nodes[i];
+            }
+        }
+        nodes = Arrays.copyOf(nodes, distinct);
+
+        // A path from j to i enters the same cells as the path from i to j except
+        // that it ends on i instead of j, so one search per pair is enough
+        int[] costs = new int[distinct * distinct];
+        for(int i = 0; i < distinct; i++){
+            explore(builder, nodes[i], cluster, false, nodes, i + 1);
+            for(int j = i + 1; j < distinct; j++){
+                int cost = reached(builder, nodes[j]);
+                costs[i * distinct + j] = cost;
+                costs[j * distinct + i] = cost == INFINITY ? INFINITY
+                        : cost - map.getCost(nodes[j]) + map.getCost(nodes[i]);
+            }
+        }
+        cluster_nodes[cluster] = nodes;
+        cluster_costs[cluster] = costs;
+    }
+
+    /**
+     * Walks one border of a cluster and adds the inside cell of every entrance.
+     * Both clusters sharing a border walk it the same way, so they agree on the entrances.
+     * @param x, y first cell of the border inside the cluster
+     * @param other_x, other_y the cell facing it in the neighboring cluster
+     * @param dx, dy direction to walk along the border
+     * @param length number of cells on the border
+     * @return the new number of nodes
+     */
+    private int add_entrances(int[] nodes, int count, int x, int y, int other_x, int other_y, int dx, int dy, int length){
+        int run = 0;
+        for(int i = 0; i <= length; i++){
+            boolean open = i < length
+                    && !map.isImpasse(map.index(x + i * dx, y + i * dy))
+                    && !map.isImpasse(map.index(other_x + i * dx, other_y + i * dy));
+            if(open){
+                run++;
+                continue;
+            }
+            if(run > 0){
+                int first = i - run;
+                int last = i - 1;
+                if(run >= LONG_ENTRANCE){
+                    nodes[count++] = map.index(x + first * dx, y + first * dy);
+                    nodes[count++] = map.index(x + last * dx, y + last * dy);
+                }
+                else{
+                    int middle = (first + last) / 2;
+                    nodes[count++] = map.index(x + middle * dx, y + middle * dy);
+                }
+            }
+            run = 0;
+        }
+        return count;
+    }
+
+    /**
+     * Dijkstra's search from a cell that never leaves the given cluster.
+     * It runs on the cells of the cluster only, numbered locally row by row,
+     * so its arrays stay small and in cache however large the map is.
+     * Afterwards reached() gives the cost from the cell to every cell of the
+     * cluster it expanded, or with reverse set, the cost from every such cell to it
+     * @param targets sorted cells the search may stop after, null to explore the whole cluster
+     * @param first_target the search stops once targets[first_target..] are all expanded
+     * @return the number of cells expanded
+     */
+    private int explore(Cluster_State local, int from, int cluster, boolean reverse, int[] targets, int first_target){
+        int x0 = (cluster / cluster_cols) * cluster_size;
+        int y0 = (cluster % cluster_cols) * cluster_size;
+        int height = Math.min(cluster_size, map.getRows() - x0);
+        int width = Math.min(cluster_size, map.getCols() - y0);
+        int cols = map.getCols();
+        int expanded = 0;
+        int remaining = targets == null ? -1 : targets.length - first_target;
+        local.cluster = cluster;
+        local.open.clear();
+        local.closed.clear();
+        int source = (map.getX(from) - x0) * cluster_size + map.getY(from) - y0;
+        local.g[source] = 0;
+        local.parent[source] = Search_State.NO_PARENT;
+        local.open.add(source, 0);
+        while(!local.open.isEmpty()){
+            int current = local.open.poll();
+            local.closed.add(current);
+            expanded++;
+            int x = current / cluster_size;
+            int y = current % cluster_size;
+            int cell = (x0 + x) * cols + y0 + y;
+            if(remaining > 0 && Arrays.binarySearch(targets, first_target, targets.length, cell) >= 0){
+                remaining--;
+            }
+            if(remaining == 0){
+                break;
+            }
+            if(x > 0){
+                relax_local(local, current, current - cluster_size, cell, cell - cols, reverse);
+            }
+            if(x < height - 1){
+                relax_local(local, current, current + cluster_size, cell, cell + cols, reverse);
+            }
+            if(y > 0){
+                relax_local(local, current, current - 1, cell, cell - 1, reverse);
+            }
+            if(y < width - 1){
+                relax_local(local, current, current + 1, cell, cell + 1, reverse);
+            }
+        }
+        return expanded;
+    }
+
+    private void relax_local(Cluster_State local, int current, int neighbor, int cell, int neighbor_cell, boolean reverse){
+        if(map.isImpasse(neighbor_cell) || local.closed.contains(neighbor)){
+            return;
+        }
+        int tentative_g = local.g[current] + map.getCost(reverse ? cell : neighbor_cell);
+        if(!local.open.contains(neighbor)){
+            local.g[neighbor] = tentative_g;
+            local.parent[neighbor] = current;
+            local.open.add(neighbor, tentative_g);
+        }
+        else if(tentative_g < local.g[neighbor]){
+            local.g[neighbor] = tentative_g;
+            local.parent[neighbor] = current;
+            local.open.decreaseKey(neighbor, tentative_g);
+        }
+    }
+
+    /**
+     * @return the cost explore() found to a cell of the cluster it ran on, INFINITY if it was not reached
+     */
+    private int reached(Cluster_State local, int cell){
+        int index = local_index(local.cluster, cell);
+        return local.closed.contains(index) ? local.g[index] : INFINITY;
+    }
+
+    /**
+     * @return the cells of the path explore() found to a cell of the cluster it ran on
+     */
+    private int[] trace_local(Cluster_State local, int cell){
+        int x0 = (local.cluster / cluster_cols) * cluster_size;
+        int y0 = (local.cluster % cluster_cols) * cluster_size;
+        int length = 0;
+        for(int i = local_index(local.cluster, cell); i != Search_State.NO_PARENT; i = local.parent[i]){
+            length++;
+        }
+        int[] path = new int[length];
+        for(int i = local_index(local.cluster, cell); i != Search_State.NO_PARENT; i = local.parent[i]){
+            path[--length] = map.index(x0 + i / cluster_size, y0 + i % cluster_size);
+        }
+        return path;
+    }
+
+    private int local_index(int cluster, int cell){
+        return (map.getX(cell) - (cluster / cluster_cols) * cluster_size) * cluster_size
+                + map.getY(cell) - (cluster % cluster_cols) * cluster_size;
+    }
+
+    /**
+     * Scratch state of a search limited to one cluster, indexed by local cell number
+     */
+    private static final class Cluster_State {
+        final int[] g;
+        final int[] parent;
+        final Closed_Set closed;
+        final Indexed_Min_Heap open;
+        int cluster; // The cluster the last search ran on
+
+        Cluster_State(int cluster_size){
+            int size = cluster_size * cluster_size;
+            g = new int[size];
+            parent = new int[size];
+            closed = new Closed_Set(size);
+            open = new Indexed_Min_Heap(size);
+        }
+    }
+
+    //******************* Serialization ***************************
+
+    /**
+     * Writes the abstraction to a file that can ship alongside the map
+     * @param file path the abstraction is written to
+     */
+    public void write(String file) throws IOException {
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))){
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(map.getRows());
+            out.writeInt(map.getCols());
+            out.writeInt(cluster_size);
+            out.writeLong(checksum(map));
+            for(int cluster = 0; cluster < cluster_nodes.length; cluster++){
+                int[] nodes = cluster_nodes[cluster];
+                out.writeInt(nodes.length);
+                for(int node : nodes){
+                    out.writeInt(node);
+                }
+                for(int cost : cluster_costs[cluster]){
+                    out.writeInt(cost);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads an abstraction written by write()
+     * @param map the map the abstraction was built for
+     * @param file path to the abstraction
+     * @return the abstraction, ready to answer queries on the map
+     */
+    public static Hierarchical_Search read(Grid_Map map, String file) throws IOException {
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))){
+            if(in.readInt() != MAGIC){
+                throw new IOException(file + " is not a hierarchical abstraction");
+            }
+            int version = in.readInt();
+            if(version != VERSION){
+                throw new IOException(file + " has unsupported version " + version);
+            }
+            int rows = in.readInt();
+            int cols = in.readInt();
+            int cluster_size = in.readInt();
+            long checksum = in.readLong();
+            if(rows != map.getRows() || cols != map.getCols() || checksum != checksum(map)){
+                throw new IOException(file + " was built for a different map");
+            }
+            Hierarchical_Search search = new Hierarchical_Search(map, cluster_size, null, null);
+            for(int cluster = 0; cluster < search.cluster_nodes.length; cluster++){
+                int[] nodes = new int[in.readInt()];
+                for(int i = 0; i < nodes.length; i++){
+                    nodes[i] = in.readInt();
+                }
+                int[] costs = new int[nodes.length * nodes.length];
+                for(int i = 0; i < costs.length; i++){
+                    costs[i] = in.readInt();
+                }
+                search.cluster_nodes[cluster] = nodes;
+                search.cluster_costs[cluster] = costs;
+            }
+            return search;
+        }
+    }
+
+    private static long checksum(Grid_Map map){
+        CRC32 crc = new CRC32();
+        crc.update(map.getCosts());
+        return crc.getValue();
+    }
+
+    //******************* Helpers ***************************
+
+    private int cluster_of(int index){
+        return (map.getX(index) / cluster_size) * cluster_cols + map.getY(index) / cluster_size;
+    }
+
+    private static int[] grow(int[] array, int length){
+        return length <= array.length ? array : Arrays.copyOf(array, Math.max(length, 2 * array.length));
+    }
+
+    private int manhattan_distance(int index, int goal_x, int goal_y){
+        return Math.abs(map.getX(index) - goal_x) + Math.abs(map.getY(index) - goal_y);
+    }
+
+    /**
+     * @return number of nodes in the abstract graph
+     */
+    public int getNode_count() {
+        int count = 0;
+        for(int[] nodes : cluster_nodes){
+            count += nodes.length;
+        }
+        return count;
+    }
+
+    public int getCluster_size() {
+        return cluster_size;
+    }
+
+    /**
+     * @return the version of the map the clusters were built on or last updated to
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    public Grid_Map getMap() {
+        return map;
+    }
+}
@@ -0,0 +1,266 @@
+package com.company;
+
+import java.util.Arrays;
+
+/**
+ * Iterative deepening A* (IDA*) over a Grid_Map.
+ *
+ * Every iteration is a depth first search that prunes any cell whose
+ * f = g + h exceeds the current threshold. The next threshold is taken from
+ * the f values that were pruned: with weighted cells raising it to the
+ * smallest pruned f would often let only a handful of new cells in, so it is
+ * raised far enough that about as many pruned cells get in as the iteration
+ * expanded, which roughly doubles the work from one iteration to the next.
+ * Since that may jump past the optimal cost, an iteration that reaches the
+ * goal keeps searching with the threshold lowered below the cost of the best
+ * path found, and only the cheapest path left when it ends is returned.
+ *
+ * The search is iterative: the current path lives in the int stack of the
+ * Search_State and the next direction to try at a cell is recovered from the
+ * child we just backtracked from, so there is no recursion and nothing is
+ * allocated per iteration. The g array of the Search_State doubles as a
+ * transposition table sized once per map that keeps the lowest g each cell
+ * was reached with over all iterations: a path reaching a cell with a higher
+ * g can never be part of a cheaper path and is pruned, and a path reaching it
+ * with the same g is pruned once the cell was entered in this iteration,
+ * since its subtree was already searched. The depth array records the
+ * iteration each cell was last entered in.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+public class IDA_Star_Search {
+    private static final int INFINITY = Integer.MAX_VALUE; // Next threshold when nothing was pruned
+    private static final int MAX_OVERSHOOT = Grid_Map.MAX_COST + 1; // Most a pruned f can exceed the threshold by
+
+    private final Grid_Map map; // The map we will search, never written to
+    private final Heuristic heuristic; // Estimate of the cost left to the goal
+    private final Edge_Cost edge_cost; // Cost of a move between neighbors
+    private final int heuristic_kind; // Kind of the heuristic, see Strategies
+    private final int cost_kind; // Kind of the cost model, see Strategies
+    private final int rows;
+    private final int cols;
+
+    public IDA_Star_Search(Grid_Map map){
+        this(map, Heuristic.manhattan(map), Edge_Cost.entering(map));
+    }
+
+    /**
+     * @param map the map we will search
+     * @param heuristic admissible heuristic under the cost model
+     * @param edge_cost cost of a move between neighbors
+     */
+    public IDA_Star_Search(Grid_Map map, Heuristic heuristic, Edge_Cost edge_cost){
+        if(heuristic == null || edge_cost == null){
+            throw new IllegalArgumentException("IDA* needs a heuristic and a cost model");
+        }
+        this.map = map;
+        this.heuristic = heuristic;
+        this.edge_cost = edge_cost;
+        this.heuristic_kind = Strategies.heuristic_kind(heuristic);
+        this.cost_kind = Strategies.cost_kind(edge_cost);
+        this.rows = map.getRows();
+        this.cols = map.getCols();
+    }
+
+    /**
+     * Finds the cheapest path from start to goal. Nodes expanded counts every
+     * cell pushed onto the path over all iterations, nodes in memory is the
+     * longest the path got, the transposition table is not counted.
+     * @param state scratch state of the calling thread, sized for the map
+     * @param start index of the cell the search starts from
+     * @param goal index of the cell we are trying to reach
+     * @return the path found and the statistics of the search
+     */
+    public Search_Result search(Search_State state, int start, int goal){
+        return search(state, start, goal, Search_Budget.NONE);
+    }
+
+    /**
+     * IDA* search that stops when its budget runs out. The partial result then
+     * holds the cheapest path to the goal found so far, or else the path to the
+     * cell closest to the goal that any iteration entered.
+     * @param state scratch state of the calling thread, sized for the map
+     * @param start index of the cell the search starts from
+     * @param goal index of the cell we are trying to reach
+     * @param budget limits on the work the search may do
+     * @return the path found and the statistics of the search
+     */
+    public Search_Result search(Search_State state, int start, int goal, Search_Budget budget){
+        long startTime = System.nanoTime();
+        int num_nodes_expanded = 1;
+        int max_depth = 0;
+        int[] stack = state.stack();
+        int[] g = state.g;
+        Closed_Set table = state.closed;
+        int[] entered = state.depth(); // Iteration in which each cell was last entered
+        if(start == goal){
+            return Search_Result.bounded(new int[]{start}, 0, 1, 1, System.nanoTime() - startTime, 1);
+        }
+
+        int[] pruned = new int[MAX_OVERSHOOT + 1]; // Number of cells pruned by how far their f exceeded the threshold
+        int[] best_path = null;
+        int best_cost = INFINITY;
+        int[] closest_path = {start}; // Path to the cell closest to the goal, copied only when it gets closer
+        int closest_distance = estimate(start, goal);
+        int until_check = Search_Budget.CHECK_INTERVAL;
+        int threshold = estimate(start, goal);
+        int iteration = 0;
+        table.clear();
+        table.add(start);
+        g[start] = 0;
+        while(best_path == null && threshold != INFINITY){
+            int iteration_expanded = 0;
+            iteration++;
+            Arrays.fill(pruned, 0);
+            entered[start] = iteration;
+            stack[0] = start;
+            int depth = 0;
+            int direction = 0; // Next direction to try from the cell on top of the stack
+            while(depth >= 0){
+                if(--until_check == 0){
+                    until_check = Search_Budget.CHECK_INTERVAL;
+                    if(budget.exhausted(num_nodes_expanded, max_depth + 1)){
+                        long elapsed = System.nanoTime() - startTime;
+                        if(best_path != null){
+                            return Search_Result.partial(best_path, best_cost, num_nodes_expanded, max_depth + 1,
+                                    elapsed, budget.getStop_reason());
+                        }
+                        return Search_Result.partial(closest_path, path_cost(closest_path), num_nodes_expanded,
+                                max_depth + 1, elapsed, budget.getStop_reason());
+                    }
+                }
+                int current = stack[depth];
+                int child = -1;
+                for(; direction < 4; direction++){
+                    int neighbor = neighbor(current, direction);
+                    if(neighbor < 0){
+                        continue;
+                    }
+                    int tentative_g = g[current] + cost(current, neighbor);
+                    int f = tentative_g + estimate(neighbor, goal);
+                    if(f > threshold){
+                        if(best_path == null){
+                            pruned[Math.min(f - threshold, MAX_OVERSHOOT)]++;
+                        }
+                        continue;
+                    }
+                    if(!table.add(neighbor) && (tentative_g > g[neighbor]
+                            || tentative_g == g[neighbor] && entered[neighbor] == iteration)){
+                        continue;
+                    }
+                    g[neighbor] = tentative_g;
+                    entered[neighbor] = iteration;
+                    child = neighbor;
+                    break;
+                }
+                if(child < 0){
+                    // Every direction is done, backtrack and carry on after the direction of the child
+                    if(depth == 0){
+                        break;
+                    }
+                    depth--;
+                    direction = direction_of(stack[depth], current) + 1;
+                    continue;
+                }
+                num_nodes_expanded++;
+                iteration_expanded++;
+                stack[++depth] = child;
+                max_depth = Math.max(max_depth, depth);
+                int distance = estimate(child, goal);
+                if(distance < closest_distance){
+                    closest_distance = distance;
+                    closest_path = Arrays.copyOf(stack, depth + 1);
+                }
+                if(child == goal){
+                    // Keep the path and only look for strictly cheaper ones from now on
+                    best_cost = g[goal];
+                    best_path = Arrays.copyOf(stack, depth + 1);
+                    threshold = best_cost - 1;
+                    depth--;
+                    direction = direction_of(stack[depth], child) + 1;
+                    continue;
+                }
+                direction = 0;
+            }
+            threshold = next_threshold(threshold, pruned, iteration_expanded);
+        }
+        if(best_path == null){
+            return Search_Result.not_found(num_nodes_expanded, max_depth + 1, System.nanoTime() - startTime);
+        }
+        return Search_Result.bounded(best_path, best_cost, num_nodes_expanded, max_depth + 1, System.nanoTime() - startTime, 1);
+    }
+
+    /**
+     * The heuristic, called on its own class so that mixing heuristics in one
+     * program never sends this search through a shared call site
+     */
+    private int estimate(int index, int goal){
+        return Strategies.estimate(heuristic_kind, heuristic, index, goal);
+    }
+
+    /**
+     * The cost of a move, called on the class of the cost model like estimate()
+     */
+    private int cost(int from, int to){
+        return Strategies.cost(cost_kind, edge_cost, from, to);
+    }
+
+    /**
+     * Raises the threshold until as many pruned cells fall under it as the
+     * iteration expanded, or to the largest pruned f if there are not that many
+     * @return the threshold of the next iteration, INFINITY if nothing was pruned
+     */
+    private int next_threshold(int threshold, int[] pruned, int expanded){
+        int next = INFINITY;
+        int admitted = 0;
+        for(int overshoot = 1; overshoot <= MAX_OVERSHOOT; overshoot++){
+            if(pruned[overshoot] == 0){
+                continue;
+            }
+            next = threshold + overshoot;
+            admitted += pruned[overshoot];
+            if(admitted >= expanded){
+                break;
+            }
+        }
+        return next;
+    }
+
+    /**
+     * @param direction 0 north, 1 south, 2 west, 3 east, the order of Grid_Map.successors
+     * @return the passable neighbor of a cell in the direction, or -1 if there is none
+     */
+    private int neighbor(int index, int direction){
+        int neighbor;
+        switch(direction){
+            case 0: neighbor = map.getX(index) > 0 ? index - cols : -1; break;
+            case 1: neighbor = map.getX(index) < rows - 1 ? index + cols : -1; break;
+            case 2: neighbor = map.getY(index) > 0 ? index - 1 : -1; break;
+            default: neighbor = map.getY(index) < cols - 1 ? index + 1 : -1; break;
+        }
+        return neighbor >= 0 && !map.isImpasse(neighbor) ? neighbor : -1;
+    }
+
+    /**
+     * @return the direction that leads from a cell to its neighbor
+     */
+    private int direction_of(int index, int neighbor){
+        int step = neighbor - index;
+        if(step == -cols) return 0; // Checked before west so that a single column map still works
+        if(step == cols) return 1;
+        if(step == -1) return 2;
+        return 3;
+    }
+
+    private int path_cost(int[] path){
+        int cost = 0;
+        for(int i = 1; i < path.length; i++){
+            cost += edge_cost.cost(path[i - 1], path[i]);
+        }
+        return cost;
+    }
+
+    public Grid_Map getMap() {
+        return map;
+    }
+}
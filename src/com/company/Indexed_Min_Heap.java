@@ -0,0 +1,187 @@
+package com.company;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Binary min-heap of cell indices used as the open set of our searches.
+ * Unlike java.util.PriorityQueue every cell knows its position in the heap,
+ * so membership tests are O(1) and a cell whose priority improves can be
+ * moved up in O(log n) instead of being searched for and removed.
+ * Items must lie in 0 .. capacity - 1, which for our maps is the number of cells.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+public class Indexed_Min_Heap {
+    private static final int ABSENT = -1; // Position of an item that is not in the heap
+
+    private final int[] items; // The cell stored at each heap position
+    private final int[] keys; // The priority of the cell stored at each heap position
+    private final int[] positions; // The heap position of each cell, ABSENT when not queued
+    private int size; // Number of cells currently queued
+
+    /**
+     * Constructor for a heap able to hold every item below capacity
+     * @param capacity number of distinct items the heap can hold
+     */
+    public Indexed_Min_Heap(int capacity){
+        items = new int[capacity];
+        keys = new int[capacity];
+        positions = new int[capacity];
+        Arrays.fill(positions, ABSENT);
+    }
+
+    /**
+     * Inserts an item that is not already in the heap
+     * @param item the cell to insert
+     * @param key the priority of the cell
+     */
+    public void add(int item, int key){
+        if(positions[item] != ABSENT){
+            throw new IllegalStateException("Item " + item + " is already in the heap");
+        }
+        items[size] = item;
+        keys[size] = key;
+        positions[item] = size;
+        siftUp(size++);
+    }
+
+    /**
+     * Lowers the priority of an item already in the heap
+     * @param item the queued cell
+     * @param key the new priority, must not be larger than the current one
+     */
+    public void decreaseKey(int item, int key){
+        int position = positions[item];
+        if(position == ABSENT){
+            throw new NoSuchElementException("Item " + item + " is not in the heap");
+        }
+        if(key > keys[position]){
+            throw new IllegalArgumentException("Key " + key + " is larger than the current key " + keys[position]);
+        }
+        keys[position] = key;
+        siftUp(position);
+    }
+
+    /**
+     * Removes the item with the lowest priority
+     * @return the removed cell
+     */
+    public int poll(){
+        if(size == 0){
+            throw new NoSuchElementException("Heap is empty");
+        }
+        int min = items[0];
+        positions[min] = ABSENT;
+        size--;
+        if(size > 0){
+            items[0] = items[size];
+            keys[0] = keys[size];
+            positions[items[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    public int peek(){
+        if(size == 0){
+            throw new NoSuchElementException("Heap is empty");
+        }
+        return items[0];
+    }
+
+    public int peekKey(){
+        if(size == 0){
+            throw new NoSuchElementException("Heap is empty");
+        }
+        return keys[0];
+    }
+
+    public boolean contains(int item){
+        return positions[item] != ABSENT;
+    }
+
+    /**
+     * @param item a queued cell
+     * @return the priority the cell is queued with
+     */
+    public int getKey(int item){
+        return keys[positions[item]];
+    }
+
+    /**
+     * Lets a caller visit every queued item, in no particular order
+     * @param position a position from 0 to size() - 1
+     * @return the item stored at that position
+     */
+    public int get(int position){
+        if(position < 0 || position >= size){
+            throw new IndexOutOfBoundsException("Position " + position + " of a heap of " + size + " items");
+        }
+        return items[position];
+    }
+
+    public boolean isEmpty(){
+        return size == 0;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    /**
+     * Empties the heap. Only the positions of the queued items are reset,
+     * so clearing costs O(size) rather than O(capacity)
+     */
+    public void clear(){
+        for(int i = 0; i < size; i++){
+            positions[items[i]] = ABSENT;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int position){
+        int item = items[position];
+        int key = keys[position];
+        while(position > 0){
+            int parent = (position - 1) >>> 1;
+            if(keys[parent] <= key){
+                break;
+            }
+            move(parent, position);
+            position = parent;
+        }
+        place(item, key, position);
+    }
+
+    private void siftDown(int position){
+        int item = items[position];
+        int key = keys[position];
+        int half = size >>> 1;
+        while(position < half){
+            int child = 2 * position + 1;
+            int right = child + 1;
+            if(right < size && keys[right] < keys[child]){
+                child = right;
+            }
+            if(key <= keys[child]){
+                break;
+            }
+            move(child, position);
+            position = child;
+        }
+        place(item, key, position);
+    }
+
+    private void move(int from, int to){
+        items[to] = items[from];
+        keys[to] = keys[from];
+        positions[items[to]] = to;
+    }
+
+    private void place(int item, int key, int position){
+        items[position] = item;
+        keys[position] = key;
+        positions[item] = position;
+    }
+}
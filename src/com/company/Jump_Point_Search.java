@@ -0,0 +1,254 @@
+package com.company;
+
+/**
+ * Jump Point Search over a 4-connected Grid_Map with weighted cells.
+ *
+ * In an area of equal cost many paths to a cell cost the same and plain A*
+ * expands all of them. Jump point search only expands the cells where a path
+ * has to turn: from a jump point we move in a straight line and skip every
+ * cell whose neighbors can be reached at least as cheaply along another
+ * path, stopping at the goal, at a cell with a forced neighbor, or (when
+ * moving vertically) at a cell from which a horizontal jump finds one.
+ *
+ * To keep A*'s optimality with weighted cells a jump only runs through
+ * cells that cost the same as the first cell it entered. A neighbor with a
+ * different cost counts as a forced neighbor and a cell of a different cost
+ * ahead ends the jump, so where costs vary every jump is a single step and the
+ * search falls back to plain expansion.
+ *
+ * Like A_Star_Search the map is only read and everything a query writes lives
+ * in the Search_State passed in.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+public class Jump_Point_Search {
+    private static final int NONE = -1; // Returned by a jump that reached no jump point
+
+    private final Grid_Map map; // The map we will search, never written to
+    private final int rows;
+    private final int cols;
+
+    public Jump_Point_Search(Grid_Map map){
+        this.map = map;
+        this.rows = map.getRows();
+        this.cols = map.getCols();
+    }
+
+    /**
+     * Finds the cheapest path from start to goal. Only jump points enter the
+     * open set, the path returned still lists every cell from start to goal.
+     * Nodes expanded and nodes in memory are counted the same way as A_Star_Search.
+     * @param state scratch state of the calling thread, sized for the map
+     * @param start index of the cell the search starts from
+     * @param goal index of the cell we are trying to reach
+     * @return the path found and the statistics of the search
+     */
+    public Search_Result search(Search_State state, int start, int goal){
+        return search(state, start, goal, Search_Budget.NONE);
+    }
+
+    /**
+     * Jump point search that stops when its budget runs out. The partial result
+     * then holds the path to the expanded jump point closest to the goal.
+     * @param state scratch state of the calling thread, sized for the map
+     * @param start index of the cell the search starts from
+     * @param goal index of the cell we are trying to reach
+     * @param budget limits on the work the search may do
+     * @return the path found and the statistics of the search
+     */
+    public Search_Result search(Search_State state, int start, int goal, Search_Budget budget){
+        long startTime = System.nanoTime();
+        int num_nodes_expanded = 1;
+        int goal_x = map.getX(goal);
+        int goal_y = map.getY(goal);
+        state.reset(start);
+        Indexed_Min_Heap open_set = state.open;
+        int[] jump_points = state.successors;
+        state.h[start] = manhattan_distance(start, goal_x, goal_y);
+
+        open_set.add(start, state.getF(start));
+        int closest = start; // Expanded cell closest to the goal, where a partial path ends
+        int until_check = Search_Budget.CHECK_INTERVAL;
+        while(!open_set.isEmpty()){
+            if(--until_check == 0){
+                until_check = Search_Budget.CHECK_INTERVAL;
+                if(budget.exhausted(num_nodes_expanded, state.closed.size() + open_set.size())){
+                    return Search_Result.partial(fill_path(state.trace_path(closest)), state.g[closest], num_nodes_expanded,
+                            state.closed.size() + open_set.size(), System.nanoTime() - startTime, budget.getStop_reason());
+                }
+            }
+            int current = open_set.poll();
+            if(current == goal){
+                return Search_Result.bounded(fill_path(state.trace_path(current)), state.g[current], num_nodes_expanded,
+                        state.closed.size() + open_set.size(), System.nanoTime() - startTime, 1);
+            }
+            state.closed.add(current);
+            if(state.h[current] < state.h[closest]){
+                closest = current;
+            }
+
+            int count = jump_successors(current, state.parent[current], goal, jump_points);
+            for(int i = 0; i < count; i++){
+                int jump_point = jump_points[i];
+                if(state.closed.contains(jump_point)){
+                    continue;
+                }
+                // Every cell of a jump costs the same as the jump point it ends on
+                int distance = Math.abs(map.getX(jump_point) - map.getX(current))
+                        + Math.abs(map.getY(jump_point) - map.getY(current));
+                int tentative_g = state.g[current] + distance * map.getCost(jump_point);
+                if(!open_set.contains(jump_point)){
+                    num_nodes_expanded++;
+                    state.g[jump_point] = tentative_g;
+                    state.h[jump_point] = manhattan_distance(jump_point, goal_x, goal_y);
+                    state.parent[jump_point] = current;
+                    open_set.add(jump_point, state.getF(jump_point));
+                }
+                else if(tentative_g < state.g[jump_point]){
+                    state.g[jump_point] = tentative_g;
+                    state.parent[jump_point] = current;
+                    open_set.decreaseKey(jump_point, state.getF(jump_point));
+                }
+            }
+        }
+        return Search_Result.not_found(num_nodes_expanded, state.closed.size(), System.nanoTime() - startTime);
+    }
+
+    /**
+     * Jumps from a cell in every direction worth exploring. The start explores
+     * all four directions, any other jump point keeps going the way it was
+     * entered and tries both perpendicular directions, going back is never
+     * cheaper than the path that brought us here.
+     * @return the number of jump points written to the buffer
+     */
+    private int jump_successors(int current, int parent, int goal, int[] jump_points){
+        int x = map.getX(current);
+        int y = map.getY(current);
+        int count = 0;
+        int jump_point;
+        if(parent == Search_State.NO_PARENT){
+            if((jump_point = jump_vertical(x, y, -1, goal)) != NONE) jump_points[count++] = jump_point;
+            if((jump_point = jump_vertical(x, y, 1, goal)) != NONE) jump_points[count++] = jump_point;
+            if((jump_point = jump_horizontal(x, y, -1, goal)) != NONE) jump_points[count++] = jump_point;
+            if((jump_point = jump_horizontal(x, y, 1, goal)) != NONE) jump_points[count++] = jump_point;
+        }
+        else if(map.getX(parent) == x){
+            int dy = Integer.signum(y - map.getY(parent));
+            if((jump_point = jump_horizontal(x, y, dy, goal)) != NONE) jump_points[count++] = jump_point;
+            if((jump_point = jump_vertical(x, y, -1, goal)) != NONE) jump_points[count++] = jump_point;
+            if((jump_point = jump_vertical(x, y, 1, goal)) != NONE) jump_points[count++] = jump_point;
+        }
+        else{
+            int dx = Integer.signum(x - map.getX(parent));
+            if((jump_point = jump_vertical(x, y, dx, goal)) != NONE) jump_points[count++] = jump_point;
+            if((jump_point = jump_horizontal(x, y, -1, goal)) != NONE) jump_points[count++] = jump_point;
+            if((jump_point = jump_horizontal(x, y, 1, goal)) != NONE) jump_points[count++] = jump_point;
+        }
+        return count;
+    }
+
+    /**
+     * Moves along row x from column y in direction dy
+     * @return the jump point reached or NONE when the row runs into an impasse first
+     */
+    private int jump_horizontal(int x, int y, int dy, int goal){
+        if(!passable(x, y + dy)){
+            return NONE;
+        }
+        int cost = map.getCost(x, y + dy);
+        while(true){
+            y += dy;
+            int current = map.index(x, y);
+            if(current == goal
+                    || forced(x - 1, y, x - 1, y - dy, cost)
+                    || forced(x + 1, y, x + 1, y - dy, cost)){
+                return current;
+            }
+            if(!passable(x, y + dy)){
+                return NONE;
+            }
+            if(map.getCost(x, y + dy) != cost){
+                return current;
+            }
+        }
+    }
+
+    /**
+     * Moves along column y from row x in direction dx. Since a vertical move
+     * may turn at any cell, every cell also tries a horizontal jump both ways
+     * @return the jump point reached or NONE when the column runs into an impasse first
+     */
+    private int jump_vertical(int x, int y, int dx, int goal){
+        if(!passable(x + dx, y)){
+            return NONE;
+        }
+        int cost = map.getCost(x + dx, y);
+        while(true){
+            x += dx;
+            int current = map.index(x, y);
+            if(current == goal
+                    || forced(x, y - 1, x - dx, y - 1, cost)
+                    || forced(x, y + 1, x - dx, y + 1, cost)
+                    || jump_horizontal(x, y, -1, goal) != NONE
+                    || jump_horizontal(x, y, 1, goal) != NONE){
+                return current;
+            }
+            if(!passable(x + dx, y)){
+                return NONE;
+            }
+            if(map.getCost(x + dx, y) != cost){
+                return current;
+            }
+        }
+    }
+
+    /**
+     * A side neighbor is forced when it is passable but the cheapest way to it
+     * may be through the current cell: either it costs something else than the
+     * jump, or the cell behind it is not an equally cheap way around
+     */
+    private boolean forced(int side_x, int side_y, int behind_x, int behind_y, int cost){
+        if(!passable(side_x, side_y)){
+            return false;
+        }
+        return map.getCost(side_x, side_y) != cost || !passable(behind_x, behind_y) || map.getCost(behind_x, behind_y) != cost;
+    }
+
+    private boolean passable(int x, int y){
+        return x >= 0 && x < rows && y >= 0 && y < cols && !map.isImpasse(map.index(x, y));
+    }
+
+    /**
+     * Fills in the straight segments between consecutive jump points
+     * @param jump_points the jump points of the path from start to goal
+     * @return every cell of the path from start to goal
+     */
+    private int[] fill_path(int[] jump_points){
+        int length = 1;
+        for(int i = 1; i < jump_points.length; i++){
+            length += Math.abs(map.getX(jump_points[i]) - map.getX(jump_points[i - 1]))
+                    + Math.abs(map.getY(jump_points[i]) - map.getY(jump_points[i - 1]));
+        }
+        int[] path = new int[length];
+        int position = 0;
+        path[position++] = jump_points[0];
+        for(int i = 1; i < jump_points.length; i++){
+            int from = jump_points[i - 1];
+            int to = jump_points[i];
+            int step = map.getX(from) == map.getX(to) ? Integer.signum(to - from) : Integer.signum(to - from) * cols;
+            for(int cell = from + step; cell != to; cell += step){
+                path[position++] = cell;
+            }
+            path[position++] = to;
+        }
+        return path;
+    }
+
+    private int manhattan_distance(int index, int goal_x, int goal_y){
+        return Math.abs(map.getX(index) - goal_x) + Math.abs(map.getY(index) - goal_y);
+    }
+
+    public Grid_Map getMap() {
+        return map;
+    }
+}
@@ -0,0 +1,311 @@
+package com.company;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+
+/**
+ * Landmark heuristic (ALT: A*, landmarks and the triangle inequality).
+ *
+ * A few landmark cells are picked and the cost of the cheapest path from
+ * every landmark to every cell is computed once per map with Dijkstra's
+ * algorithm. For a landmark L the triangle inequality gives two lower bounds
+ * on the cost from a cell v to the goal t:
+ *      d(L,t) - d(L,v)     and     d(v,L) - d(t,L)
+ * Moving into a cell costs the cost of that cell, so a path walked backwards
+ * costs the same except that it pays for its first cell instead of its last:
+ * d(v,L) = d(L,v) + cost(L) - cost(v), and one search per landmark gives both
+ * bounds. The estimate is the largest bound over all landmarks and the
+ * manhattan distance, which keeps it admissible and consistent while being
+ * far tighter than manhattan alone on maps with walls and weighted cells.
+ * The distances are for the four straight moves of Grid_Map.successors and
+ * bound nothing for a search that may move diagonally.
+ *
+ * Landmarks are spread evenly around the border of the map, where they give
+ * the tightest bounds on a grid, which lets the searches from the landmarks
+ * run in parallel. The distances are stored interleaved, all landmarks of a
+ * cell next to each other, so an estimate reads a single cache line.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+public class Landmarks implements Heuristic {
+    public static final int MAGIC = 0x414C544C; // "ALTL"
+    public static final int VERSION = 1;
+    public static final int UNREACHABLE = Integer.MAX_VALUE; // Distance to a cell a landmark cannot reach
+    private static final int HEADER_BYTES = 6 * Integer.BYTES + Long.BYTES;
+
+    private final Grid_Map map; // The map the distances were computed on, never written to
+    private final int[] landmarks; // Index of every landmark cell
+    private final int[] distances; // distances[cell * count + i] is the cost from landmark i to the cell
+    private final int count; // Number of landmarks
+    private final int version; // Version of the map the distances were computed on
+
+    /**
+     * Picks landmarks and computes their distances with one worker per available core
+     * @param map the map the heuristic is for
+     * @param count number of landmarks to place
+     */
+    public Landmarks(Grid_Map map, int count){
+        this(map, count, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param map the map the heuristic is for
+     * @param count number of landmarks to place
+     * @param parallelism number of landmarks searched at the same time
+     */
+    public Landmarks(Grid_Map map, int count, int parallelism){
+        if(count < 1){
+            throw new IllegalArgumentException("At least one landmark is needed");
+        }
+        this.map = map;
+        this.version = map.getVersion();
+        this.landmarks = select(map, count);
+        this.count = landmarks.length;
+        this.distances = new int[map.size() * this.count];
+        int[][] from = new int[this.count][];
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try{
+            // One search per landmark, then interleave the results a block of cells at a time
+            pool.submit(() -> IntStream.range(0, this.count).parallel()
+                    .forEach(i -> from[i] = dijkstra(map, landmarks[i]))).get();
+            int blocks = (map.size() + 4095) / 4096;
+            pool.submit(() -> IntStream.range(0, blocks).parallel().forEach(block -> {
+                int end = Math.min(map.size(), (block + 1) * 4096);
+                for(int cell = block * 4096; cell < end; cell++){
+                    for(int i = 0; i < this.count; i++){
+                        distances[cell * this.count + i] = from[i][cell];
+                    }
+                }
+            })).get();
+        }catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while computing landmark distances", e);
+        }catch (ExecutionException e){
+            throw new IllegalStateException("Computing landmark distances failed", e.getCause());
+        }finally{
+            pool.shutdown();
+        }
+    }
+
+    private Landmarks(Grid_Map map, int[] landmarks, int[] distances){
+        this.map = map;
+        this.version = map.getVersion();
+        this.landmarks = landmarks;
+        this.distances = distances;
+        this.count = landmarks.length;
+    }
+
+    /**
+     * Lower bound on the cost of the cheapest path from a cell to the goal
+     * @param index index of the cell
+     * @param goal index of the goal
+     * @return the largest landmark bound, at least the manhattan distance
+     */
+    @Override
+    public int estimate(int index, int goal){
+        int best = Math.abs(map.getX(index) - map.getX(goal)) + Math.abs(map.getY(index) - map.getY(goal));
+        int from_cell = index * count;
+        int from_goal = goal * count;
+        for(int i = 0; i < count; i++){
+            int to_cell = distances[from_cell + i];
+            int to_goal = distances[from_goal + i];
+            if(to_cell == UNREACHABLE || to_goal == UNREACHABLE){
+                continue;
+            }
+            // d(L,t) - d(L,v), and d(v,L) - d(t,L) written with the distances from L
+            int forward = to_goal - to_cell;
+            int backward = to_cell - to_goal + map.getCost(goal) - map.getCost(index);
+            best = Math.max(best, Math.max(forward, backward));
+        }
+        return best;
+    }
+
+    /**
+     * Spreads the landmarks evenly around the border. A border cell that is
+     * an impasse is replaced by the first passable cell on the way to the centre.
+     * When every way to the centre misses the passable cells, the first
+     * passable cell of the map is the only landmark.
+     * @return the landmark cells, fewer than asked for if several ended up on the same cell
+     */
+    private static int[] select(Grid_Map map, int count){
+        int rows = map.getRows();
+        int cols = map.getCols();
+        long perimeter = Math.max(1, 2L * (rows - 1) + 2L * (cols - 1));
+        int[] selected = new int[count];
+        int found = 0;
+        for(int i = 0; i < count; i++){
+            long position = perimeter * i / count;
+            int x;
+            int y;
+            if(position < cols - 1){ x = 0; y = (int) position; }
+            else if((position -= cols - 1) < rows - 1){ x = (int) position; y = cols - 1; }
+            else if((position -= rows - 1) < cols - 1){ x = rows - 1; y = cols - 1 - (int) position; }
+            else{ position -= cols - 1; x = rows - 1 - (int) Math.min(position, rows - 1); y = 0; }
+            int cell = toward_centre(map, x, y);
+            if(cell >= 0 && !contains(selected, found, cell)){
+                selected[found++] = cell;
+            }
+        }
+        for(int cell = 0; found == 0 && cell < map.size(); cell++){
+            if(!map.isImpasse(cell)){
+                selected[found++] = cell;
+            }
+        }
+        if(found == 0){
+            throw new IllegalArgumentException("The map has no passable cell to place a landmark on");
+        }
+        return Arrays.copyOf(selected, found);
+    }
+
+    private static int toward_centre(Grid_Map map, int x, int y){
+        int centre_x = map.getRows() / 2;
+        int centre_y = map.getCols() / 2;
+        int steps = Math.max(Math.abs(centre_x - x), Math.abs(centre_y - y));
+        for(int step = 0; step <= steps; step++){
+            int cell = map.index(x + (centre_x - x) * step / Math.max(1, steps), y + (centre_y - y) * step / Math.max(1, steps));
+            if(!map.isImpasse(cell)){
+                return cell;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean contains(int[] cells, int length, int cell){
+        for(int i = 0; i < length; i++){
+            if(cells[i] == cell){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the cost of the cheapest path from the source to every cell, UNREACHABLE where there is none
+     */
+    private static int[] dijkstra(Grid_Map map, int source){
+        int[] distance = new int[map.size()];
+        Arrays.fill(distance, UNREACHABLE);
+        Indexed_Min_Heap open = new Indexed_Min_Heap(map.size());
+        int[] successors = new int[Grid_Map.MAX_SUCCESSORS];
+        distance[source] = 0;
+        open.add(source, 0);
+        while(!open.isEmpty()){
+            int current = open.poll();
+            int count = map.successors(current, successors);
+            for(int i = 0; i < count; i++){
+                int neighbor = successors[i];
+                int cost = distance[current] + map.getCost(neighbor);
+                if(cost < distance[neighbor]){
+                    if(distance[neighbor] == UNREACHABLE){
+                        open.add(neighbor, cost);
+                    }
+                    else{
+                        open.decreaseKey(neighbor, cost);
+                    }
+                    distance[neighbor] = cost;
+                }
+            }
+        }
+        return distance;
+    }
+
+    //******************* Files ***************************
+
+    /**
+     * Writes the landmarks and their distances so they can be loaded instead of recomputed
+     * @param file path of the file to write
+     */
+    public void write(String file) throws IOException {
+        try(FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)){
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES + landmarks.length * Integer.BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putInt(map.getRows()).putInt(map.getCols())
+                    .putLong(checksum(map)).putInt(count).putInt(0);
+            for(int landmark : landmarks){
+                header.putInt(landmark);
+            }
+            header.flip();
+            Map_File.write_fully(channel, header);
+            ByteBuffer body = ByteBuffer.allocate(1 << 16);
+            for(int i = 0; i < distances.length; i++){
+                body.putInt(distances[i]);
+                if(!body.hasRemaining() || i == distances.length - 1){
+                    body.flip();
+                    Map_File.write_fully(channel, body);
+                    body.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Loads landmarks written by write() through a memory mapped file
+     * @param map the map the landmarks were computed on
+     * @param file path of the file to read
+     * @return the landmarks stored in the file
+     */
+    public static Landmarks read(Grid_Map map, String file) throws IOException {
+        try(FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)){
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if(channel.size() < HEADER_BYTES || buffer.getInt() != MAGIC){
+                throw new IOException(file + " does not hold landmarks");
+            }
+            int version = buffer.getInt();
+            if(version != VERSION){
+                throw new IOException(file + " has unsupported version " + version);
+            }
+            int rows = buffer.getInt();
+            int cols = buffer.getInt();
+            long checksum = buffer.getLong();
+            int count = buffer.getInt();
+            buffer.getInt(); // Reserved
+            if(rows != map.getRows() || cols != map.getCols() || checksum != checksum(map)){
+                throw new IOException(file + " was computed for a different map");
+            }
+            if(count < 1 || channel.size() != HEADER_BYTES + (long) count * Integer.BYTES * (1 + (long) map.size())){
+                throw new IOException(file + " is truncated");
+            }
+            int[] landmarks = new int[count];
+            buffer.asIntBuffer().get(landmarks);
+            buffer.position(buffer.position() + count * Integer.BYTES);
+            int[] distances = new int[map.size() * count];
+            buffer.asIntBuffer().get(distances);
+            return new Landmarks(map, landmarks, distances);
+        }
+    }
+
+    private static long checksum(Grid_Map map){
+        CRC32 crc = new CRC32();
+        crc.update(map.getCosts());
+        return crc.getValue();
+    }
+
+    public int[] getLandmarks() {
+        return landmarks.clone();
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public Grid_Map getMap() {
+        return map;
+    }
+
+    /**
+     * @return the version of the map the distances were computed on, they may
+     * overestimate once the map has another version
+     */
+    public int getVersion() {
+        return version;
+    }
+}
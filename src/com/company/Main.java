@@ -17,8 +17,9 @@ public class Main {
 		Search_Algorithms sa3 = new Search_Algorithms("C://Users//jayjj//IdeaProjects//AI_Lab1//src//com//company//test3.txt");
 		sa3.display_search_space();
 		sa3.BFS();
-		sa3.IDDFS(sa3.getSearch_space()[sa3.getStart_x()][sa3.getStart_y()],45);
+		sa3.IDDFS(sa3.getGrid().getStart(),45);
 		sa3.a_star_search();
+		sa3.jump_point_search();
 
 
 
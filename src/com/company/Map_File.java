@@ -0,0 +1,262 @@
+package com.company;
+
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads and writes the files our maps are stored in.
+ *
+ * Two formats are supported. The text format of the lab files, where the
+ * first three lines hold the size of the map, the start location and the goal
+ * location and every following line holds the costs of one row, is parsed
+ * byte by byte straight from the file without building a String per token.
+ *
+ * The binary format starts with a 32 byte header
+ *      magic "GMAP", version, rows, cols, start x, start y, goal x, goal y
+ * (big endian ints) followed by one unsigned byte per cell in row order.
+ * It is read through a memory mapped FileChannel, so loading a map is a
+ * single bulk copy of the costs with no parsing at all.
+ *
+ * Usage to convert a text map: java com.company.Map_File [text file] [binary file]
+ * @author Jay James
+ * @author Daniel Villa
+ */
+public class Map_File {
+    public static final int MAGIC = 0x474D4150; // "GMAP"
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 8 * Integer.BYTES;
+
+    private static final int BUFFER_SIZE = 1 << 16; // Bytes read from a text file at a time
+    private static final int MAX_CELLS = Integer.MAX_VALUE - 8; // Largest array the VM will reliably allocate
+
+    public static void main(String[] args) throws IOException {
+        if(args.length != 2){
+            System.out.println("Usage: java com.company.Map_File [text file] [binary file]");
+            return;
+        }
+        convert(args[0], args[1]);
+    }
+
+    /**
+     * Reads a map in either format, binary files are recognised by their magic number
+     * @param file path to the map file
+     * @return the map stored in the file
+     */
+    public static Grid_Map load(String file) throws IOException {
+        if(is_binary(file)){
+            return read_binary(file);
+        }
+        return read_text(file);
+    }
+
+    /**
+     * Converts a text map into the binary format
+     * @param text_file path to the map in the text format
+     * @param binary_file path the binary map is written to
+     */
+    public static void convert(String text_file, String binary_file) throws IOException {
+        write_binary(read_text(text_file), binary_file);
+    }
+
+    /**
+     * @return whether the file starts with the magic number of the binary format
+     */
+    public static boolean is_binary(String file) throws IOException {
+        try(FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)){
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+            while(magic.hasRemaining() && channel.read(magic) >= 0){
+                // Keep reading until the magic number is complete or the file ends
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        }
+    }
+
+    //******************* Text format ***************************
+
+    /**
+     * Parses a map in the text format of the lab files. Tokens may be separated
+     * by any whitespace, the file is read in fixed size chunks and every number
+     * is parsed directly from the bytes.
+     * @param file path to the map file
+     * @return the map described by the file
+     */
+    public static Grid_Map read_text(String file) throws IOException {
+        try(InputStream in = new FileInputStream(file)){
+            Token_Reader reader = new Token_Reader(in);
+            int rows = reader.next_int();
+            int cols = reader.next_int();
+            int start_x = reader.next_int();
+            int start_y = reader.next_int();
+            int goal_x = reader.next_int();
+            int goal_y = reader.next_int();
+
+            byte[] costs = new byte[cells(file, rows, cols)];
+            for(int i = 0; i < costs.length; i++){
+                int cost = reader.next_int();
+                if(cost > Grid_Map.MAX_COST){
+                    throw new IllegalArgumentException("Cost " + cost + " at (" + i / cols + "," + i % cols + ") is outside 0.." + Grid_Map.MAX_COST);
+                }
+                costs[i] = (byte) cost;
+            }
+            Grid_Map map = new Grid_Map(rows, cols, costs);
+            set_locations(map, start_x, start_y, goal_x, goal_y);
+            return map;
+        }
+    }
+
+    /**
+     * Reads whitespace separated non negative integers from a stream
+     * through a reusable byte buffer
+     */
+    private static final class Token_Reader {
+        private final InputStream in;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int position; // Next unread byte in the buffer
+        private int limit; // Number of valid bytes in the buffer
+
+        Token_Reader(InputStream in){
+            this.in = in;
+        }
+
+        int next_int() throws IOException {
+            int b = read();
+            while(b == ' ' || b == '\n' || b == '\r' || b == '\t'){
+                b = read();
+            }
+            if(b < 0){
+                throw new EOFException("Map file ended before all values were read");
+            }
+            long value = 0;
+            do{
+                if(b < '0' || b > '9'){
+                    throw new IllegalArgumentException("Unexpected character '" + (char) b + "' in map file");
+                }
+                value = value * 10 + (b - '0');
+                if(value > Integer.MAX_VALUE){
+                    throw new IllegalArgumentException("Value in map file is too large");
+                }
+                b = read();
+            }while(b >= 0 && b != ' ' && b != '\n' && b != '\r' && b != '\t');
+            return (int) value;
+        }
+
+        private int read() throws IOException {
+            if(position == limit){
+                limit = in.read(buffer, 0, buffer.length);
+                position = 0;
+                if(limit <= 0){
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[position++] & 0xFF;
+        }
+    }
+
+    //******************* Binary format ***************************
+
+    /**
+     * Loads a map in the binary format by memory mapping the file. The
+     * header is read and checked against the size of the file first, so
+     * only the costs of a valid map are ever mapped.
+     * @param file path to the binary map
+     * @return the map stored in the file
+     */
+    public static Grid_Map read_binary(String file) throws IOException {
+        try(FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)){
+            long size = channel.size();
+            if(size < HEADER_BYTES){
+                throw new IOException(file + " is too small to be a binary map");
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while(header.hasRemaining()){
+                if(channel.read(header, header.position()) < 0){
+                    throw new EOFException(file + " ended inside its header");
+                }
+            }
+            header.flip();
+            if(header.getInt() != MAGIC){
+                throw new IOException(file + " is not a binary map");
+            }
+            int version = header.getInt();
+            if(version != VERSION){
+                throw new IOException(file + " has unsupported version " + version);
+            }
+            int rows = header.getInt();
+            int cols = header.getInt();
+            int start_x = header.getInt();
+            int start_y = header.getInt();
+            int goal_x = header.getInt();
+            int goal_y = header.getInt();
+            if(rows < 0 || cols < 0 || size != HEADER_BYTES + (long) rows * cols){
+                throw new IOException(file + " does not hold a " + rows + "x" + cols + " map");
+            }
+            byte[] costs = new byte[cells(file, rows, cols)];
+            // The costs fit an array, so they are also within what a single mapping can hold
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, costs.length);
+            buffer.get(costs);
+            Grid_Map map = new Grid_Map(rows, cols, costs);
+            set_locations(map, start_x, start_y, goal_x, goal_y);
+            return map;
+        }
+    }
+
+    /**
+     * Checks the size read from the header of a map file before its costs are allocated
+     * @return the number of cells of the map
+     */
+    private static int cells(String file, int rows, int cols) throws IOException {
+        if(rows < 0 || cols < 0 || (long) rows * cols > MAX_CELLS){
+            throw new IOException(file + " declares a " + rows + "x" + cols + " map, more than the "
+                    + MAX_CELLS + " cells a Grid_Map can hold");
+        }
+        return rows * cols;
+    }
+
+    /**
+     * Writes a map in the binary format
+     * @param map the map to write
+     * @param file path the binary map is written to
+     */
+    public static void write_binary(Grid_Map map, String file) throws IOException {
+        Path path = Paths.get(file);
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)){
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION)
+                    .putInt(map.getRows()).putInt(map.getCols())
+                    .putInt(map.getX(map.getStart())).putInt(map.getY(map.getStart()))
+                    .putInt(map.getX(map.getGoal())).putInt(map.getY(map.getGoal()));
+            header.flip();
+            write_fully(channel, header);
+            write_fully(channel, ByteBuffer.wrap(map.getCosts()));
+        }
+    }
+
+    /**
+     * Writes every remaining byte of the buffer, a channel may write fewer in one call.
+     * Shared by the binary formats of Landmarks and Tiled_Map.
+     */
+    static void write_fully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while(buffer.hasRemaining()){
+            channel.write(buffer);
+        }
+    }
+
+    private static void set_locations(Grid_Map map, int start_x, int start_y, int goal_x, int goal_y){
+        if(!map.isWithinBounds(start_x, start_y) || !map.isWithinBounds(goal_x, goal_y)){
+            throw new IllegalArgumentException("Start (" + start_x + "," + start_y + ") or goal ("
+                    + goal_x + "," + goal_y + ") is outside the " + map.getRows() + "x" + map.getCols() + " map");
+        }
+        map.setStart(start_x, start_y);
+        map.setGoal(goal_x, goal_y);
+    }
+}
@@ -0,0 +1,181 @@
+package com.company;
+
+import java.util.Random;
+
+/**
+ * Generates reproducible maps for benchmarks: the same kind, size and seed
+ * always give the same map. Every map starts in the top left corner and has
+ * its goal in the bottom right corner, both of which are always passable.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+public final class Map_Generator {
+    public static final int MAX_RANDOM_COST = 9; // Highest cost of a passable cell on a random map
+
+    private Map_Generator(){
+    }
+
+    /**
+     * Makes a map of one of the kinds the benchmarks know by name:
+     * "open", "maze", "random-N" (random costs, N percent impasses) or
+     * "obstacles-N" (cost 1 everywhere, N percent impasses)
+     * @param kind name of the kind of map
+     * @param seed seed of the random generator
+     * @param rows number of rows
+     * @param cols number of columns
+     * @return the map
+     */
+    public static Grid_Map generate(String kind, long seed, int rows, int cols){
+        if(kind.equals("open")){
+            return open_field(rows, cols);
+        }
+        if(kind.equals("maze")){
+            return maze(seed, rows, cols);
+        }
+        if(kind.startsWith("random-")){
+            return random_weights(seed, rows, cols, percent(kind, "random-"));
+        }
+        if(kind.startsWith("obstacles-")){
+            return obstacles(seed, rows, cols, percent(kind, "obstacles-"));
+        }
+        throw new IllegalArgumentException("Unknown kind of map " + kind);
+    }
+
+    /**
+     * @return a map where every cell costs 1
+     */
+    public static Grid_Map open_field(int rows, int cols){
+        Grid_Map map = new Grid_Map(rows, cols);
+        for(int x = 0; x < rows; x++){
+            for(int y = 0; y < cols; y++){
+                map.setCost(x, y, 1);
+            }
+        }
+        return corners(map);
+    }
+
+    /**
+     * @param density fraction of the cells that are impasses
+     * @return a map where every passable cell costs between 1 and MAX_RANDOM_COST
+     */
+    public static Grid_Map random_weights(long seed, int rows, int cols, double density){
+        Random random = new Random(seed);
+        Grid_Map map = new Grid_Map(rows, cols);
+        for(int x = 0; x < rows; x++){
+            for(int y = 0; y < cols; y++){
+                map.setCost(x, y, random.nextDouble() < density ? 0 : 1 + random.nextInt(MAX_RANDOM_COST));
+            }
+        }
+        return corners(map);
+    }
+
+    /**
+     * @param density fraction of the cells that are impasses
+     * @return a map where every passable cell costs 1
+     */
+    public static Grid_Map obstacles(long seed, int rows, int cols, double density){
+        Random random = new Random(seed);
+        Grid_Map map = new Grid_Map(rows, cols);
+        for(int x = 0; x < rows; x++){
+            for(int y = 0; y < cols; y++){
+                map.setCost(x, y, random.nextDouble() < density ? 0 : 1);
+            }
+        }
+        return corners(map);
+    }
+
+    /**
+     * Carves a perfect maze with an iterative depth first search: the rooms
+     * are the cells with even coordinates, walls are impasses and there is
+     * exactly one path between any two rooms
+     * @return a maze where every passable cell costs 1
+     */
+    public static Grid_Map maze(long seed, int rows, int cols){
+        Random random = new Random(seed);
+        Grid_Map map = new Grid_Map(rows, cols); // Every cell starts out as a wall
+        int room_rows = (rows + 1) / 2;
+        int room_cols = (cols + 1) / 2;
+        int[] stack = new int[room_rows * room_cols];
+        int[] directions = new int[4];
+        int top = 0;
+        stack[top++] = 0;
+        map.setCost(0, 0, 1);
+        while(top > 0){
+            int room = stack[top - 1];
+            int x = 2 * (room / room_cols);
+            int y = 2 * (room % room_cols);
+            // Collect the rooms next to this one that have not been carved yet
+            int count = 0;
+            if(x >= 2 && map.isImpasse(map.index(x - 2, y))) directions[count++] = 0;
+            if(x + 2 < rows && map.isImpasse(map.index(x + 2, y))) directions[count++] = 1;
+            if(y >= 2 && map.isImpasse(map.index(x, y - 2))) directions[count++] = 2;
+            if(y + 2 < cols && map.isImpasse(map.index(x, y + 2))) directions[count++] = 3;
+            if(count == 0){
+                top--;
+                continue;
+            }
+            int dx = 0;
+            int dy = 0;
+            switch(directions[random.nextInt(count)]){
+                case 0: dx = -1; break;
+                case 1: dx = 1; break;
+                case 2: dy = -1; break;
+                default: dy = 1; break;
+            }
+            map.setCost(x + dx, y + dy, 1);
+            map.setCost(x + 2 * dx, y + 2 * dy, 1);
+            stack[top++] = (x + 2 * dx) / 2 * room_cols + (y + 2 * dy) / 2;
+        }
+        // An even number of rows or columns leaves the last one uncarved,
+        // open it up so that the goal corner is reachable
+        if(rows % 2 == 0){
+            for(int y = 0; y < cols; y += 2) map.setCost(rows - 1, y, 1);
+        }
+        if(cols % 2 == 0){
+            for(int x = 0; x < rows; x += 2) map.setCost(x, cols - 1, 1);
+        }
+        return corners(map);
+    }
+
+    /**
+     * Picks random passable start and goal cells
+     * @param count number of queries
+     * @return the start cells in the first row and the goal cells in the second
+     */
+    public static int[][] queries(long seed, Grid_Map map, int count){
+        Random random = new Random(seed);
+        int[][] queries = new int[2][count];
+        for(int i = 0; i < count; i++){
+            queries[0][i] = passable_cell(random, map);
+            queries[1][i] = passable_cell(random, map);
+        }
+        return queries;
+    }
+
+    private static int passable_cell(Random random, Grid_Map map){
+        while(true){
+            int cell = random.nextInt(map.size());
+            if(!map.isImpasse(cell)){
+                return cell;
+            }
+        }
+    }
+
+    private static Grid_Map corners(Grid_Map map){
+        int rows = map.getRows();
+        int cols = map.getCols();
+        if(map.isImpasse(0)) map.setCost(0, 0, 1);
+        if(map.isImpasse(map.index(rows - 1, cols - 1))) map.setCost(rows - 1, cols - 1, 1);
+        map.setStart(0, 0);
+        map.setGoal(rows - 1, cols - 1);
+        return map;
+    }
+
+    private static double percent(String kind, String prefix){
+        int percent = Integer.parseInt(kind.substring(prefix.length()));
+        if(percent < 0 || percent > 100){
+            throw new IllegalArgumentException("Obstacle density of " + kind + " is not a percentage");
+        }
+        return percent / 100.0;
+    }
+}
@@ -0,0 +1,140 @@
+package com.company;
+
+/**
+ * The moves a search may make from a cell: the four sides only, or the four
+ * sides and the four corners.
+ *
+ * With diagonal moves a corner rule decides whether a move may pass an
+ * impasse next to it. A diagonal move crosses the corner shared by the two
+ * side cells between where it starts and where it ends, so:
+ *      CUT         the move is allowed whatever those side cells are,
+ *      NO_SQUEEZE  at least one of them has to be passable,
+ *      NO_CUT      both of them have to be passable.
+ *
+ * Moves are taken from tables built once per neighborhood: the index offset
+ * of every direction, the borders of the map it needs to stay away from, and
+ * for each corner rule and state of the two side cells whether the diagonal is
+ * allowed. Generating the successors of a cell then costs four compares to
+ * find the borders it touches and a table lookup per direction, with no case
+ * analysis per direction.
+ *
+ * Diagonal moves are longer than straight ones, so Edge_Cost.octile() scales
+ * the cost of the cell entered by STRAIGHT_COST or DIAGONAL_COST, and path
+ * costs of an eight connected search are in tenths of the cell costs.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+public final class Neighborhood {
+    public static final int STRAIGHT_COST = 10; // Cost of a straight move into a cell of cost 1
+    public static final int DIAGONAL_COST = 14; // Cost of a diagonal move into a cell of cost 1, 10 * sqrt(2) rounded down
+
+    public enum Corner_Rule {
+        CUT(0b1111), // Side states 0 to 3 are allowed
+        NO_SQUEEZE(0b1110), // Every state but both sides blocked
+        NO_CUT(0b1000); // Only both sides open
+
+        private final int allowed; // Bit s is set when a diagonal with side state s may be taken
+
+        Corner_Rule(int allowed){
+            this.allowed = allowed;
+        }
+    }
+
+    // Directions in the order of Grid_Map.successors, then the corners
+    private static final int NORTH = 1, SOUTH = 2, WEST = 4, EAST = 8; // Borders a direction has to stay away from
+    private static final int[] BORDERS = {NORTH, SOUTH, WEST, EAST, NORTH | WEST, NORTH | EAST, SOUTH | WEST, SOUTH | EAST};
+    private static final int[] FIRST_SIDE = {0, 0, 0, 0, 0, 0, 1, 1}; // Straight direction of one side cell of a corner
+    private static final int[] SECOND_SIDE = {0, 0, 0, 0, 2, 3, 2, 3}; // Straight direction of the other side cell
+
+    private final Grid_Map map; // The map the moves are made on
+    private final int rows;
+    private final int cols;
+    private final int directions; // 4 or 8
+    private final int[] offsets; // Index offset of each direction
+    private final int allowed; // Side states in which the corner rule allows a diagonal move
+    private final Corner_Rule rule; // Null when there are no diagonal moves
+
+    private Neighborhood(Grid_Map map, Corner_Rule rule){
+        this.map = map;
+        this.rows = map.getRows();
+        this.cols = map.getCols();
+        this.rule = rule;
+        this.directions = rule == null ? 4 : 8;
+        this.allowed = rule == null ? 0 : rule.allowed;
+        this.offsets = new int[]{-cols, cols, -1, 1, -cols - 1, -cols + 1, cols - 1, cols + 1};
+    }
+
+    /**
+     * @return the four straight moves of Grid_Map.successors
+     */
+    public static Neighborhood four(Grid_Map map){
+        return new Neighborhood(map, null);
+    }
+
+    /**
+     * @param rule when a diagonal move may pass next to an impasse
+     * @return the four straight moves and the four diagonal ones
+     */
+    public static Neighborhood eight(Grid_Map map, Corner_Rule rule){
+        if(rule == null){
+            throw new IllegalArgumentException("Diagonal moves need a corner rule");
+        }
+        return new Neighborhood(map, rule);
+    }
+
+    /**
+     * Writes the cells that can be moved to from a cell into a caller supplied
+     * buffer, the straight moves first in the order of Grid_Map.successors
+     * @param index index of the current cell
+     * @param successors buffer of at least Grid_Map.MAX_SUCCESSORS cells
+     * @return the number of successors written to the buffer
+     */
+    public int successors(int index, int[] successors){
+        if(directions == 4){
+            return map.successors(index, successors);
+        }
+        int x = index / cols;
+        int y = index - x * cols;
+        int inside = (x > 0 ? NORTH : 0) | (x < rows - 1 ? SOUTH : 0) | (y > 0 ? WEST : 0) | (y < cols - 1 ? EAST : 0);
+        int open = 0; // Bit d is set when the straight move in direction d is possible
+        int count = 0;
+        for(int d = 0; d < 4; d++){
+            int neighbor = index + offsets[d];
+            if((inside & BORDERS[d]) == BORDERS[d] && !map.isImpasse(neighbor)){
+                open |= 1 << d;
+                successors[count++] = neighbor;
+            }
+        }
+        for(int d = 4; d < 8; d++){
+            int neighbor = index + offsets[d];
+            int sides = (open >> FIRST_SIDE[d] & 1) | (open >> SECOND_SIDE[d] & 1) << 1;
+            if((inside & BORDERS[d]) == BORDERS[d] && (allowed >> sides & 1) != 0 && !map.isImpasse(neighbor)){
+                successors[count++] = neighbor;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param from index of a cell
+     * @param to index of one of its neighbors
+     * @return whether the move between them is diagonal
+     */
+    public boolean isDiagonal(int from, int to){
+        int step = Math.abs(to - from);
+        // On a two column map the step of a diagonal to the left is 1, like a step to the side
+        return step == cols + 1 || step == cols - 1 && (cols > 2 || from / cols != to / cols);
+    }
+
+    public boolean hasDiagonals() {
+        return directions == 8;
+    }
+
+    public Corner_Rule getCorner_rule() {
+        return rule;
+    }
+
+    public Grid_Map getMap() {
+        return map;
+    }
+}
@@ -0,0 +1,217 @@
+package com.company;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Memory outside the Java heap that maps and searches carve their arrays
+ * from, so a multi-gigabyte map or search adds nothing for the garbage
+ * collector to trace or copy and the heap can stay small.
+ *
+ * The memory is a sequence of direct buffers addressed by a long offset,
+ * CHUNK_BYTES each, so an arena may hold more than the 2GB a single buffer
+ * can. Memory is handed out by bumping an offset: allocate() returns where
+ * the new region starts, aligned to 8 bytes so an int or long never spans
+ * two chunks. Nothing is freed on its own. reset() hands the same memory out
+ * again from the start, which is how a region is reused by the next map or
+ * search instead of being allocated again, and close() lets go of it all.
+ *
+ * Java 11 has no way to free a direct buffer on demand, after close() the
+ * memory is returned once the collector finds the few buffer objects
+ * unreachable. Direct memory is limited by -XX:MaxDirectMemorySize, which
+ * defaults to the largest heap, so a large arena with a small heap needs
+ * that option raised.
+ *
+ * Regions are not cleared when they are handed out again. An arena is not
+ * thread safe.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+public class Off_Heap_Arena implements Closeable {
+    public static final int CHUNK_SHIFT = 30;
+    public static final int CHUNK_BYTES = 1 << CHUNK_SHIFT; // Size of every chunk but the last one
+    private static final int CHUNK_MASK = CHUNK_BYTES - 1;
+    private static final int MIN_CHUNK_BYTES = 1 << 12; // Smallest last chunk, doubled as it fills
+
+    private final long max_bytes; // Most bytes the arena may reserve
+    private ByteBuffer[] chunks = new ByteBuffer[0]; // Memory of the arena, the last one may be smaller
+    private long reserved; // Bytes of all chunks
+    private long top; // Offset the next region starts at
+    private boolean closed; // Whether close() was called
+
+    /**
+     * Arena that may grow without a limit other than direct memory
+     */
+    public Off_Heap_Arena(){
+        this(Long.MAX_VALUE);
+    }
+
+    /**
+     * @param max_bytes most bytes the arena may reserve
+     */
+    public Off_Heap_Arena(long max_bytes){
+        if(max_bytes < 1){
+            throw new IllegalArgumentException("An arena needs room for at least one byte");
+        }
+        this.max_bytes = max_bytes;
+    }
+
+    /**
+     * Hands out a region of the arena
+     * @param bytes size of the region
+     * @return offset of the first byte of the region, a multiple of 8
+     */
+    public long allocate(long bytes){
+        if(closed){
+            throw new IllegalStateException("The arena is closed");
+        }
+        if(bytes < 0){
+            throw new IllegalArgumentException("Cannot allocate " + bytes + " bytes");
+        }
+        long start = top;
+        long end = start + ((bytes + 7) & ~7L);
+        if(end > max_bytes){
+            throw new IllegalStateException("Allocating " + bytes + " bytes exceeds the " + max_bytes + " bytes of the arena");
+        }
+        reserve(end);
+        top = end;
+        return start;
+    }
+
+    /**
+     * Grows the chunks until they hold the given number of bytes
+     */
+    private void reserve(long bytes){
+        while(reserved < bytes){
+            int last = chunks.length - 1;
+            if(last >= 0 && chunks[last].capacity() < CHUNK_BYTES){
+                // The last chunk is replaced by one twice as large, or as large as needed, up to a full chunk
+                ByteBuffer small = chunks[last];
+                long wanted = Math.max(2L * small.capacity(), bytes - ((long) last << CHUNK_SHIFT));
+                ByteBuffer larger = direct((int) Math.min(CHUNK_BYTES, wanted));
+                small.clear();
+                larger.put(small).clear();
+                chunks[last] = larger;
+                reserved += larger.capacity() - small.capacity();
+            }
+            else{
+                long wanted = Math.max(MIN_CHUNK_BYTES, bytes - reserved);
+                chunks = Arrays.copyOf(chunks, chunks.length + 1);
+                chunks[chunks.length - 1] = direct((int) Math.min(CHUNK_BYTES, wanted));
+                reserved += chunks[chunks.length - 1].capacity();
+            }
+        }
+    }
+
+    private static ByteBuffer direct(int bytes){
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Makes every region handed out so far available again without giving
+     * the memory back, regions allocated afterwards hold whatever was there
+     */
+    public void reset(){
+        top = 0;
+    }
+
+    /**
+     * Lets go of the memory of the arena, its regions must not be used afterwards
+     */
+    @Override
+    public void close(){
+        chunks = new ByteBuffer[0];
+        reserved = 0;
+        top = 0;
+        closed = true;
+    }
+
+    public byte getByte(long offset){
+        return chunks[(int) (offset >>> CHUNK_SHIFT)].get((int) offset & CHUNK_MASK);
+    }
+
+    public void putByte(long offset, byte value){
+        chunks[(int) (offset >>> CHUNK_SHIFT)].put((int) offset & CHUNK_MASK, value);
+    }
+
+    /**
+     * @param offset offset of the int, a multiple of 4
+     */
+    public int getInt(long offset){
+        return chunks[(int) (offset >>> CHUNK_SHIFT)].getInt((int) offset & CHUNK_MASK);
+    }
+
+    public void putInt(long offset, int value){
+        chunks[(int) (offset >>> CHUNK_SHIFT)].putInt((int) offset & CHUNK_MASK, value);
+    }
+
+    /**
+     * @param offset offset of the long, a multiple of 8
+     */
+    public long getLong(long offset){
+        return chunks[(int) (offset >>> CHUNK_SHIFT)].getLong((int) offset & CHUNK_MASK);
+    }
+
+    public void putLong(long offset, long value){
+        chunks[(int) (offset >>> CHUNK_SHIFT)].putLong((int) offset & CHUNK_MASK, value);
+    }
+
+    /**
+     * Sets a run of ints to the same value
+     * @param offset offset of the first int, a multiple of 4
+     * @param count number of ints
+     */
+    public void fillInts(long offset, long count, int value){
+        for(long end = offset + 4 * count; offset < end; offset += 4){
+            putInt(offset, value);
+        }
+    }
+
+    /**
+     * Reads bytes of a file straight into a region, without passing them through the heap
+     * @param channel the file to read from
+     * @param position position in the file of the first byte to read
+     * @param offset offset in the arena the first byte is written to
+     * @param bytes number of bytes to read
+     */
+    public void read(FileChannel channel, long position, long offset, long bytes) throws IOException {
+        while(bytes > 0){
+            ByteBuffer chunk = chunks[(int) (offset >>> CHUNK_SHIFT)].duplicate();
+            int from = (int) offset & CHUNK_MASK;
+            int length = (int) Math.min(bytes, chunk.capacity() - from);
+            chunk.limit(from + length).position(from);
+            while(chunk.hasRemaining()){
+                int read = channel.read(chunk, position);
+                if(read < 0){
+                    throw new EOFException("File ended " + bytes + " bytes short of the region");
+                }
+                position += read;
+            }
+            offset += length;
+            bytes -= length;
+        }
+    }
+
+    /**
+     * @return bytes handed out since the arena was made or last reset
+     */
+    public long getBytes() {
+        return top;
+    }
+
+    /**
+     * @return bytes of direct memory the arena holds, kept across resets
+     */
+    public long getReserved() {
+        return reserved;
+    }
+
+    public long getMax_bytes() {
+        return max_bytes;
+    }
+}
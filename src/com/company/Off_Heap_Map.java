@@ -0,0 +1,163 @@
+package com.company;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Map whose costs are all held in an Off_Heap_Arena, for maps that fit in
+ * memory but not comfortably in the heap. Unlike a Tiled_Map nothing is read
+ * from a file once the map is loaded, and unlike a Grid_Map its gigabytes of
+ * costs are never seen by the garbage collector.
+ *
+ * The costs are kept in tiles like the file of a Tiled_Map, tile_size x
+ * tile_size cells in row order, one unsigned byte per cell, so a tiled map
+ * file is loaded by reading its tiles straight into the arena, and cells
+ * that are close on the map are close in memory.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+public class Off_Heap_Map implements Cell_Costs {
+    public static final int TILE_SIZE = 64; // Width and height of the tiles of a map copied from other costs
+
+    private final Off_Heap_Arena arena; // Memory the costs are held in
+    private final long base; // Offset of the first tile in the arena
+    private final int rows;
+    private final int cols;
+    private final int shift; // log2 of the tile size
+    private final int tiles_across; // Number of tiles in a row of tiles
+    private final int start_x; // Start location
+    private final int start_y;
+    private final int goal_x; // Goal location
+    private final int goal_y;
+
+    private Off_Heap_Map(Off_Heap_Arena arena, int rows, int cols, int tile_size, int start_x, int start_y,
+                         int goal_x, int goal_y){
+        this.arena = arena;
+        this.rows = rows;
+        this.cols = cols;
+        this.shift = Integer.numberOfTrailingZeros(tile_size);
+        this.tiles_across = (cols + tile_size - 1) >> shift;
+        this.start_x = start_x;
+        this.start_y = start_y;
+        this.goal_x = goal_x;
+        this.goal_y = goal_y;
+        long tiles = (long) ((rows + tile_size - 1) >> shift) * tiles_across;
+        this.base = arena.allocate(tiles << (2 * shift));
+    }
+
+    /**
+     * Copies the costs of any map into an arena, a tile at a time so a
+     * Tiled_Map is read one tile after the other
+     * @param costs the costs to copy
+     * @param start_x row of the start location
+     * @param start_y column of the start location
+     * @param goal_x row of the goal location
+     * @param goal_y column of the goal location
+     * @param arena memory the costs are copied to
+     */
+    public Off_Heap_Map(Cell_Costs costs, int start_x, int start_y, int goal_x, int goal_y, Off_Heap_Arena arena){
+        this(arena, costs.getRows(), costs.getCols(), TILE_SIZE, start_x, start_y, goal_x, goal_y);
+        for(int top = 0; top < rows; top += TILE_SIZE){
+            for(int left = 0; left < cols; left += TILE_SIZE){
+                for(int x = top; x < top + TILE_SIZE; x++){
+                    for(int y = left; y < left + TILE_SIZE; y++){
+                        int cost = isWithinBounds(x, y) ? costs.getCost(x, y) : 0; // Padding is an impasse
+                        if(cost < 0 || cost > Grid_Map.MAX_COST){
+                            throw new IllegalArgumentException("Cost " + cost + " at (" + x + "," + y + ") is outside 0.." + Grid_Map.MAX_COST);
+                        }
+                        arena.putByte(offset(x, y), (byte) cost);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies an in memory map into an arena
+     * @param map the map to copy, with its start and goal
+     * @param arena memory the costs are copied to
+     */
+    public Off_Heap_Map(Grid_Map map, Off_Heap_Arena arena){
+        this(map, map.getX(map.getStart()), map.getY(map.getStart()), map.getX(map.getGoal()),
+                map.getY(map.getGoal()), arena);
+    }
+
+    /**
+     * Reads a tiled map file, see Tiled_Map, into an arena
+     * @param file path to the tiled map
+     * @param arena memory the costs are read into
+     * @return the map, whose tiles have the size of the tiles of the file
+     */
+    public static Off_Heap_Map load(String file, Off_Heap_Arena arena) throws IOException {
+        Off_Heap_Map map;
+        try(Tiled_Map header = Tiled_Map.open(file, 1)){ // Checks the header, pages are only made when a cost is read
+            map = new Off_Heap_Map(arena, header.getRows(), header.getCols(), header.getTile_size(),
+                    header.getStart_x(), header.getStart_y(), header.getGoal_x(), header.getGoal_y());
+        }
+        try(FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)){
+            arena.read(channel, Tiled_Map.HEADER_BYTES, map.base, channel.size() - Tiled_Map.HEADER_BYTES);
+        }
+        return map;
+    }
+
+    /**
+     * @return offset of the cost of a cell in the arena
+     */
+    private long offset(int x, int y){
+        long tile = (long) (x >> shift) * tiles_across + (y >> shift);
+        int mask = (1 << shift) - 1;
+        return base + (tile << (2 * shift)) + (((x & mask) << shift) | (y & mask));
+    }
+
+    @Override
+    public int getCost(int x, int y){
+        return arena.getByte(offset(x, y)) & 0xFF;
+    }
+
+    public boolean isImpasse(int x, int y){
+        return getCost(x, y) == 0;
+    }
+
+    /**
+     * @return whether a given position is within the map
+     */
+    public boolean isWithinBounds(int x, int y){
+        return x >= 0 && x < rows && y >= 0 && y < cols;
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getCols() {
+        return cols;
+    }
+
+    public int getTile_size() {
+        return 1 << shift;
+    }
+
+    public int getStart_x() {
+        return start_x;
+    }
+
+    public int getStart_y() {
+        return start_y;
+    }
+
+    public int getGoal_x() {
+        return goal_x;
+    }
+
+    public int getGoal_y() {
+        return goal_y;
+    }
+
+    public Off_Heap_Arena getArena() {
+        return arena;
+    }
+}
@@ -0,0 +1,151 @@
+package com.company;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Indexed_Min_Heap whose arrays live in an Off_Heap_Arena, the open set of
+ * a search whose state is kept off the heap. It works the same way: every
+ * item knows its position, so membership tests are O(1) and a key can be
+ * lowered in O(log n). Items must lie in 0 .. capacity - 1.
+ *
+ * The regions are allocated once when the heap is made and reused by every
+ * query, clear() only resets the items that are queued.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+public class Off_Heap_Min_Heap {
+    private static final int ABSENT = -1; // Position of an item that is not in the heap
+    private static final int ENTRY_BYTES = 8; // Key and item of a heap position
+
+    private final Off_Heap_Arena arena; // Memory the heap lives in
+    private final long entries; // Key then item of each heap position, next to each other for the sifts
+    private final long positions; // Heap position of each item, ABSENT when not queued
+    private int size; // Number of items currently queued
+
+    /**
+     * @param capacity number of distinct items the heap can hold
+     * @param arena memory the heap is allocated in
+     */
+    public Off_Heap_Min_Heap(int capacity, Off_Heap_Arena arena){
+        this.arena = arena;
+        this.entries = arena.allocate((long) capacity * ENTRY_BYTES);
+        this.positions = arena.allocate((long) capacity * Integer.BYTES);
+        arena.fillInts(positions, capacity, ABSENT);
+    }
+
+    /**
+     * Inserts an item that is not already in the heap
+     */
+    public void add(int item, int key){
+        if(position(item) != ABSENT){
+            throw new IllegalStateException("Item " + item + " is already in the heap");
+        }
+        siftUp(size++, item, key);
+    }
+
+    /**
+     * Lowers the priority of an item already in the heap
+     * @param key the new priority, must not be larger than the current one
+     */
+    public void decreaseKey(int item, int key){
+        int position = position(item);
+        if(position == ABSENT){
+            throw new NoSuchElementException("Item " + item + " is not in the heap");
+        }
+        if(key > key(position)){
+            throw new IllegalArgumentException("Key " + key + " is larger than the current key " + key(position));
+        }
+        siftUp(position, item, key);
+    }
+
+    /**
+     * Removes the item with the lowest priority
+     * @return the removed item
+     */
+    public int poll(){
+        if(size == 0){
+            throw new NoSuchElementException("Heap is empty");
+        }
+        int min = item(0);
+        arena.putInt(positions + 4L * min, ABSENT);
+        size--;
+        if(size > 0){
+            siftDown(item(size), key(size));
+        }
+        return min;
+    }
+
+    public boolean contains(int item){
+        return position(item) != ABSENT;
+    }
+
+    public boolean isEmpty(){
+        return size == 0;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    /**
+     * Empties the heap in O(size)
+     */
+    public void clear(){
+        for(int i = 0; i < size; i++){
+            arena.putInt(positions + 4L * item(i), ABSENT);
+        }
+        size = 0;
+    }
+
+    private void siftUp(int position, int item, int key){
+        while(position > 0){
+            int parent = (position - 1) >>> 1;
+            if(key(parent) <= key){
+                break;
+            }
+            place(item(parent), key(parent), position);
+            position = parent;
+        }
+        place(item, key, position);
+    }
+
+    /**
+     * Sifts an item down from the root
+     */
+    private void siftDown(int item, int key){
+        int position = 0;
+        int half = size >>> 1;
+        while(position < half){
+            int child = 2 * position + 1;
+            int right = child + 1;
+            if(right < size && key(right) < key(child)){
+                child = right;
+            }
+            if(key <= key(child)){
+                break;
+            }
+            place(item(child), key(child), position);
+            position = child;
+        }
+        place(item, key, position);
+    }
+
+    private void place(int item, int key, int position){
+        long entry = entries + (long) position * ENTRY_BYTES;
+        arena.putInt(entry, key);
+        arena.putInt(entry + 4, item);
+        arena.putInt(positions + 4L * item, position);
+    }
+
+    private int key(int position){
+        return arena.getInt(entries + (long) position * ENTRY_BYTES);
+    }
+
+    private int item(int position){
+        return arena.getInt(entries + (long) position * ENTRY_BYTES + 4);
+    }
+
+    private int position(int item){
+        return arena.getInt(positions + 4L * item);
+    }
+}
@@ -0,0 +1,361 @@
+package com.company;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Iterative deepening depth first search spread across a ForkJoinPool.
+ *
+ * For every depth limit the first levels of the search tree are split into
+ * subtrees, one task each, so that there are several subtrees per worker
+ * and idle workers can steal the ones still waiting. Several consecutive
+ * depth limits can be searched at the same time, each one as its own set of
+ * tasks. A subtree is searched depth first on one thread with the int stack,
+ * depth table and Closed_Set of that thread's Worker_State, a cell is entered again
+ * only when it is reached at a smaller depth, so a depth limit finds the goal
+ * exactly when it is at most that many moves away.
+ *
+ * Cancellation is cooperative: the smallest depth limit that reached the goal
+ * is published in an AtomicInteger, and every task searching that limit or a
+ * deeper one stops the next time it checks, while shallower limits keep going
+ * since they may still find a shorter path. Node counts are summed in a
+ * LongAdder that each task adds to once, so the workers never contend on it.
+ * A Search_Budget shared by every worker stops all of them the same way. It
+ * is checked before each round of depth limits, by every task before it
+ * searches or splits its subtree, and every CHECK_INTERVAL expansions within
+ * a subtree, so many small subtrees cannot run past it.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+public class Parallel_IDDFS {
+    private static final int SUBTREES_PER_WORKER = 8; // Subtrees each depth limit is split into per worker
+    private static final int NOT_FOUND = Integer.MAX_VALUE; // Smallest successful limit before the goal is reached
+
+    private final Grid_Map map; // The map we will search, must not be written to during a search
+    private final ThreadLocal<Worker_State> states; // Scratch state of each worker thread
+    private final ForkJoinPool pool; // Workers the subtrees are spread across
+    private final int limits_in_flight; // Number of consecutive depth limits searched at the same time
+    private final int split_depth; // Depth down to which the tree is split into tasks
+
+    /**
+     * Constructor for a search using one worker per available core, one depth limit at a time
+     * @param map the map we will search
+     */
+    public Parallel_IDDFS(Grid_Map map){
+        this(map, Runtime.getRuntime().availableProcessors(), 1);
+    }
+
+    /**
+     * @param map the map we will search
+     * @param parallelism number of worker threads
+     * @param limits_in_flight number of consecutive depth limits searched at the same time
+     */
+    public Parallel_IDDFS(Grid_Map map, int parallelism, int limits_in_flight){
+        if(limits_in_flight < 1){
+            throw new IllegalArgumentException("At least one depth limit has to be searched at a time");
+        }
+        this.map = map;
+        this.states = ThreadLocal.withInitial(() -> new Worker_State(this.map.size()));
+        this.pool = new ForkJoinPool(parallelism);
+        this.limits_in_flight = limits_in_flight;
+        // Below the root every cell has at most three children that do not lead straight back
+        int depth = 1;
+        for(long subtrees = 4; subtrees < (long) parallelism * SUBTREES_PER_WORKER; subtrees *= 3){
+            depth++;
+        }
+        this.split_depth = depth;
+    }
+
+    /**
+     * Searches depth limits 0 to max_depth - 1 until one of them reaches the goal.
+     * The path found has the fewest moves, not necessarily the lowest cost.
+     * Nodes expanded is summed over every limit and worker, nodes in memory is
+     * the most cells a single subtree search had in its depth table.
+     * @param start index of the cell the search starts from
+     * @param goal index of the cell we are trying to reach
+     * @param max_depth number of depth limits to try
+     * @return the path found and the statistics of the search
+     */
+    public Search_Result search(int start, int goal, int max_depth){
+        return search(start, goal, max_depth, Search_Budget.NONE);
+    }
+
+    /**
+     * Parallel iterative deepening that stops every worker when the budget
+     * runs out. The partial result holds the path of the smallest depth limit
+     * that had reached the goal by then, if any.
+     * @param start index of the cell the search starts from
+     * @param goal index of the cell we are trying to reach
+     * @param max_depth number of depth limits to try
+     * @param budget limits on the work the search may do, shared by every worker
+     * @return the path found and the statistics of the search
+     */
+    public Search_Result search(int start, int goal, int max_depth, Search_Budget budget){
+        long startTime = System.nanoTime();
+        LongAdder expanded = new LongAdder();
+        LongAccumulator memory = new LongAccumulator(Math::max, 0);
+        for(int first = 0; first < max_depth; first += limits_in_flight){
+            if(budget.exhausted(expanded.sum(), memory.get())){
+                return Search_Result.partial(new int[0], Search_Result.NO_PATH, (int) expanded.sum(), (int) memory.get(),
+                        System.nanoTime() - startTime, budget.getStop_reason());
+            }
+            Query query = new Query(start, goal, first, Math.min(limits_in_flight, max_depth - first), expanded, memory, budget);
+            List<Subtree_Task> tasks = new ArrayList<>();
+            for(int limit = first; limit < first + query.paths.length(); limit++){
+                tasks.add(new Subtree_Task(query, limit, new int[]{start}));
+            }
+            try{
+                pool.submit(() -> ForkJoinTask.invokeAll(tasks)).get();
+            }catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while searching", e);
+            }catch (ExecutionException e){
+                throw new IllegalStateException("A subtree search failed", e.getCause());
+            }
+            int limit = query.best_limit.get();
+            if(budget.getStop_reason() != null){
+                int[] path = limit != NOT_FOUND ? query.paths.get(limit - first) : new int[0];
+                return Search_Result.partial(path, limit != NOT_FOUND ? path_cost(path) : Search_Result.NO_PATH,
+                        (int) expanded.sum(), (int) memory.get(), System.nanoTime() - startTime, budget.getStop_reason());
+            }
+            if(limit != NOT_FOUND){
+                int[] path = query.paths.get(limit - first);
+                return new Search_Result(path, path_cost(path), (int) expanded.sum(), (int) memory.get(),
+                        System.nanoTime() - startTime);
+            }
+        }
+        return Search_Result.not_found((int) expanded.sum(), (int) memory.get(), System.nanoTime() - startTime);
+    }
+
+    /**
+     * Stops the worker threads of the search
+     */
+    public void shutdown(){
+        pool.shutdown();
+    }
+
+    /**
+     * What the tasks of one round of depth limits share
+     */
+    private static final class Query {
+        final int start;
+        final int goal;
+        final int first_limit; // Depth limit of the first slot of paths
+        final AtomicInteger best_limit = new AtomicInteger(NOT_FOUND); // Smallest limit that reached the goal
+        final AtomicReferenceArray<int[]> paths; // First path found by each limit of the round
+        final LongAdder expanded;
+        final LongAccumulator memory;
+        final Search_Budget budget;
+
+        Query(int start, int goal, int first_limit, int limits, LongAdder expanded, LongAccumulator memory,
+              Search_Budget budget){
+            this.start = start;
+            this.goal = goal;
+            this.first_limit = first_limit;
+            this.paths = new AtomicReferenceArray<>(limits);
+            this.expanded = expanded;
+            this.memory = memory;
+            this.budget = budget;
+        }
+
+        /**
+         * @return whether a limit no deeper than this one already reached the goal or the budget ran out
+         */
+        boolean cancelled(int limit){
+            return best_limit.get() <= limit || budget.getStop_reason() != null;
+        }
+
+        /**
+         * Checks the budget against the cells every finished subtree expanded,
+         * so that it is checked even when no subtree is big enough to check it itself
+         * @return whether a limit no deeper than this one already reached the goal or the budget ran out
+         */
+        boolean exhausted(int limit){
+            return best_limit.get() <= limit || budget.exhausted(expanded.sum(), memory.get());
+        }
+
+        void found(int limit, int[] path){
+            paths.compareAndSet(limit - first_limit, null, path);
+            best_limit.accumulateAndGet(limit, Math::min);
+        }
+    }
+
+    /**
+     * Scratch state of one worker. A subtree search only needs a stack, a depth
+     * table and a set of the cells entered, not the g, h, parent and open set
+     * arrays of a full Search_State, which would weigh several bytes per cell
+     * on every worker without ever being read
+     */
+    private static final class Worker_State {
+        final Closed_Set seen; // Cells entered by the current subtree search
+        final int[] depth; // Smallest depth each cell was entered at
+        final int[] stack; // Path from the start to the cell being searched, one more than the cells of the map
+
+        Worker_State(int size){
+            seen = new Closed_Set(size);
+            depth = new int[size];
+            stack = new int[size + 1];
+        }
+    }
+
+    /**
+     * Searches the subtree below a path prefix for one depth limit, splitting
+     * it into one task per child while the prefix is shorter than split_depth
+     */
+    private final class Subtree_Task extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final Query query;
+        private final int limit;
+        private final int[] prefix; // Path from the start to the root of the subtree
+
+        Subtree_Task(Query query, int limit, int[] prefix){
+            this.query = query;
+            this.limit = limit;
+            this.prefix = prefix;
+        }
+
+        @Override
+        protected void compute(){
+            if(query.exhausted(limit)){
+                return;
+            }
+            int depth = prefix.length - 1;
+            int current = prefix[depth];
+            if(current == query.goal){
+                query.found(limit, prefix);
+                return;
+            }
+            if(depth >= split_depth || depth >= limit){
+                search_subtree();
+                return;
+            }
+            query.expanded.increment();
+            List<Subtree_Task> children = new ArrayList<>(Grid_Map.MAX_SUCCESSORS);
+            int[] successors = new int[Grid_Map.MAX_SUCCESSORS];
+            int count = map.successors(current, successors);
+            for(int i = 0; i < count; i++){
+                if(!on_prefix(successors[i])){
+                    int[] child = Arrays.copyOf(prefix, prefix.length + 1);
+                    child[prefix.length] = successors[i];
+                    children.add(new Subtree_Task(query, limit, child));
+                }
+            }
+            invokeAll(children);
+        }
+
+        /**
+         * Depth first search of the subtree on the current thread
+         */
+        private void search_subtree(){
+            Worker_State state = states.get();
+            int[] stack = state.stack;
+            int[] depth_of = state.depth; // Smallest depth each cell was entered at
+            Closed_Set seen = state.seen;
+            seen.clear();
+            for(int i = 0; i < prefix.length; i++){
+                stack[i] = prefix[i];
+                seen.add(prefix[i]);
+                depth_of[prefix[i]] = i;
+            }
+            int base = prefix.length - 1;
+            int depth = base;
+            int direction = 0; // Next direction to try from the cell on top of the stack
+            long expanded = 0;
+            int until_check = Search_Budget.CHECK_INTERVAL;
+            while(true){
+                if(--until_check == 0){
+                    until_check = Search_Budget.CHECK_INTERVAL;
+                    if(query.cancelled(limit) || query.budget.exhausted(query.expanded.sum() + expanded, seen.size())){
+                        break;
+                    }
+                }
+                int current = stack[depth];
+                int child = -1;
+                if(depth < limit){
+                    for(; direction < 4; direction++){
+                        int neighbor = neighbor(current, direction);
+                        if(neighbor < 0 || !seen.add(neighbor) && depth_of[neighbor] <= depth + 1){
+                            continue;
+                        }
+                        depth_of[neighbor] = depth + 1;
+                        child = neighbor;
+                        break;
+                    }
+                }
+                if(child < 0){
+                    if(depth == base){
+                        break;
+                    }
+                    depth--;
+                    direction = direction_of(stack[depth], current) + 1;
+                    continue;
+                }
+                expanded++;
+                stack[++depth] = child;
+                if(child == query.goal){
+                    query.found(limit, Arrays.copyOf(stack, depth + 1));
+                    break;
+                }
+                direction = 0;
+            }
+            query.expanded.add(expanded);
+            query.memory.accumulate(seen.size());
+        }
+
+        private boolean on_prefix(int index){
+            for(int cell : prefix){
+                if(cell == index){
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * @param direction 0 north, 1 south, 2 west, 3 east, the order of Grid_Map.successors
+     * @return the passable neighbor of a cell in the direction, or -1 if there is none
+     */
+    private int neighbor(int index, int direction){
+        int neighbor;
+        switch(direction){
+            case 0: neighbor = map.getX(index) > 0 ? index - map.getCols() : -1; break;
+            case 1: neighbor = map.getX(index) < map.getRows() - 1 ? index + map.getCols() : -1; break;
+            case 2: neighbor = map.getY(index) > 0 ? index - 1 : -1; break;
+            default: neighbor = map.getY(index) < map.getCols() - 1 ? index + 1 : -1; break;
+        }
+        return neighbor >= 0 && !map.isImpasse(neighbor) ? neighbor : -1;
+    }
+
+    /**
+     * @return the direction that leads from a cell to its neighbor
+     */
+    private int direction_of(int index, int neighbor){
+        int step = neighbor - index;
+        if(step == -map.getCols()) return 0; // Checked before west so that a single column map still works
+        if(step == map.getCols()) return 1;
+        if(step == -1) return 2;
+        return 3;
+    }
+
+    private int path_cost(int[] path){
+        int cost = 0;
+        for(int i = 1; i < path.length; i++){
+            cost += map.getCost(path[i]);
+        }
+        return cost;
+    }
+
+    public Grid_Map getMap() {
+        return map;
+    }
+}
@@ -0,0 +1,339 @@
+package com.company;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded cache of search results on one Grid_Map, keyed by start and goal.
+ *
+ * Every entry belongs to the version of the map it was computed on. As soon
+ * as a cost of the map changes its version moves on and the next call to the
+ * cache drops every entry, so a cached path is never served on costs it was
+ * not searched on.
+ *
+ * A path is stored as its first cell followed by one 4 bit direction code
+ * per move, two moves to a byte, instead of one int per cell, so a path costs
+ * about an eighth of its Search_Result. The cache holds at most max_bytes of
+ * such entries and evicts the least recently used ones first.
+ *
+ * A query that misses can still be answered from a cached path proven to be
+ * the cheapest (suboptimality 1) that starts at the same cell and passes
+ * through the goal: the part of a cheapest path up to any of its cells is a
+ * cheapest path to that cell. Queries that found no path are cached as well,
+ * they are usually the most expensive ones to repeat.
+ *
+ * The methods are synchronized, so a cache may be shared by the worker
+ * threads of a Pathfinding_Service.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+public class Path_Cache {
+    private static final int ENTRY_OVERHEAD = 96; // Bytes an entry costs besides its moves: key, entry and list objects
+    private static final int[] NO_CELLS = new int[0];
+
+    private final Grid_Map map; // The map the cached paths were found on
+    private final Edge_Cost edge_cost; // Cost model of the cached searches, prices the part of a path served
+    private final int[] offsets; // Index offset of each direction code, in the order of Neighborhood
+    private final long max_bytes; // Most bytes the entries may take up
+    private final LinkedHashMap<Long, Entry> entries; // Entries by start and goal, least recently used first
+    private final Map<Integer, List<Entry>> by_start; // Entries proven to be the cheapest, by their start
+    private int version; // Version of the map the entries were computed on
+    private long bytes; // Bytes the entries take up
+    private long hits; // Queries answered by an entry for the same start and goal
+    private long sub_path_hits; // Queries answered by the first part of a cheapest path
+    private long misses; // Queries the cache could not answer
+    private long evictions; // Entries dropped to make room
+    private long invalidations; // Entries dropped because the map changed
+
+    /**
+     * Constructor for a cache of searches that pay the cost of every cell they enter
+     * @param map the map the cached paths are found on
+     * @param max_bytes most bytes the entries may take up
+     */
+    public Path_Cache(Grid_Map map, long max_bytes){
+        this(map, Edge_Cost.entering(map), max_bytes);
+    }
+
+    /**
+     * @param map the map the cached paths are found on
+     * @param edge_cost cost model of the searches whose results are cached
+     * @param max_bytes most bytes the entries may take up
+     */
+    public Path_Cache(Grid_Map map, Edge_Cost edge_cost, long max_bytes){
+        if(max_bytes < 0){
+            throw new IllegalArgumentException("The size of a cache cannot be negative");
+        }
+        int cols = map.getCols();
+        this.map = map;
+        this.edge_cost = edge_cost;
+        this.offsets = new int[]{-cols, cols, -1, 1, -cols - 1, -cols + 1, cols - 1, cols + 1};
+        this.max_bytes = max_bytes;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.by_start = new HashMap<>();
+        this.version = map.getVersion();
+    }
+
+    /**
+     * Looks a query up, first for the same start and goal, then on the cheapest
+     * paths cached from the same start
+     * @param start index of the start cell
+     * @param goal index of the goal cell
+     * @return the cached result with 0 nodes expanded, null if the cache cannot answer the query
+     */
+    public synchronized Search_Result get(int start, int goal){
+        long startTime = System.nanoTime();
+        check_version();
+        Entry entry = entries.get(key(start, goal));
+        if(entry != null){
+            hits++;
+            if(entry.moves == null){
+                return Search_Result.not_found(0, 0, System.nanoTime() - startTime);
+            }
+            return Search_Result.bounded(decode(entry, entry.length), entry.cost, 0, 0, System.nanoTime() - startTime,
+                    entry.suboptimality);
+        }
+        List<Entry> cheapest = by_start.get(start);
+        if(cheapest != null){
+            for(Entry candidate : cheapest){
+                int length = position(candidate, goal) + 1;
+                if(length > 0){
+                    entries.get(key(candidate.start, candidate.goal)); // Counts as a use of the whole path
+                    sub_path_hits++;
+                    int[] path = decode(candidate, length);
+                    return Search_Result.bounded(path, path_cost(path), 0, 0, System.nanoTime() - startTime, 1);
+                }
+            }
+        }
+        misses++;
+        return null;
+    }
+
+    /**
+     * Caches the result of a search that ran to completion. Partial results
+     * and paths with a step between cells that are not neighbors are not cached.
+     * @param start index of the start cell of the search
+     * @param goal index of the goal cell of the search
+     * @param result what the search returned
+     * @return whether the result was cached
+     */
+    public synchronized boolean put(int start, int goal, Search_Result result){
+        if(result.isPartial()){
+            return false;
+        }
+        check_version();
+        Entry entry;
+        if(result.isFound()){
+            entry = encode(result.getPath());
+            if(entry == null || entry.start != start || entry.goal != goal){
+                return false;
+            }
+            entry.cost = result.getPath_cost();
+            entry.suboptimality = result.getSuboptimality();
+        }
+        else{
+            entry = new Entry(start, goal, 0, null);
+        }
+        if(entry.bytes() > max_bytes){
+            return false;
+        }
+        remove(entries.remove(key(start, goal)));
+        entries.put(key(start, goal), entry);
+        bytes += entry.bytes();
+        if(entry.suboptimality == 1){
+            by_start.computeIfAbsent(start, cell -> new ArrayList<>()).add(entry);
+        }
+        Iterator<Entry> oldest = entries.values().iterator();
+        while(bytes > max_bytes){
+            Entry evicted = oldest.next();
+            oldest.remove();
+            remove(evicted);
+            evictions++;
+        }
+        return true;
+    }
+
+    /**
+     * Drops every entry
+     */
+    public synchronized void clear(){
+        entries.clear();
+        by_start.clear();
+        bytes = 0;
+    }
+
+    /**
+     * Drops every entry if a cost of the map changed since they were cached
+     */
+    private void check_version(){
+        if(map.getVersion() != version){
+            version = map.getVersion();
+            invalidations += entries.size();
+            clear();
+        }
+    }
+
+    /**
+     * Takes an entry that was just removed from entries out of by_start and the size of the cache
+     */
+    private void remove(Entry entry){
+        if(entry == null){
+            return;
+        }
+        bytes -= entry.bytes();
+        if(entry.suboptimality == 1){
+            List<Entry> cheapest = by_start.get(entry.start);
+            cheapest.remove(entry);
+            if(cheapest.isEmpty()){
+                by_start.remove(entry.start);
+            }
+        }
+    }
+
+    /**
+     * @return the entry holding a path, null if two cells in a row are not neighbors
+     */
+    private Entry encode(int[] path){
+        int moves = path.length - 1;
+        byte[] codes = new byte[(moves + 1) / 2];
+        for(int i = 0; i < moves; i++){
+            int code = direction(path[i + 1] - path[i]);
+            if(code < 0 || Math.abs(map.getY(path[i + 1]) - map.getY(path[i])) > 1){
+                return null;
+            }
+            codes[i >> 1] |= code << ((i & 1) << 2);
+        }
+        return new Entry(path[0], path[path.length - 1], path.length, codes);
+    }
+
+    /**
+     * @param length number of cells of the path to decode, from its start
+     * @return the first length cells of the path of an entry
+     */
+    private int[] decode(Entry entry, int length){
+        if(length == 0){
+            return NO_CELLS;
+        }
+        int[] path = new int[length];
+        path[0] = entry.start;
+        for(int i = 1; i < length; i++){
+            path[i] = path[i - 1] + offsets[code(entry, i - 1)];
+        }
+        return path;
+    }
+
+    /**
+     * @return the position of a cell on the path of an entry, -1 if the path does not pass through it
+     */
+    private int position(Entry entry, int cell){
+        int current = entry.start;
+        for(int i = 0; i < entry.length; i++){
+            if(current == cell){
+                return i;
+            }
+            if(i + 1 < entry.length){
+                current += offsets[code(entry, i)];
+            }
+        }
+        return -1;
+    }
+
+    private static int code(Entry entry, int move){
+        return entry.moves[move >> 1] >> ((move & 1) << 2) & 0xF;
+    }
+
+    private int direction(int step){
+        for(int code = 0; code < offsets.length; code++){
+            if(offsets[code] == step){
+                return code;
+            }
+        }
+        return -1;
+    }
+
+    private int path_cost(int[] path){
+        int cost = 0;
+        for(int i = 1; i < path.length; i++){
+            cost += edge_cost.cost(path[i - 1], path[i]);
+        }
+        return cost;
+    }
+
+    private static long key(int start, int goal){
+        return (long) start << 32 | goal & 0xFFFFFFFFL;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getSub_path_hits() {
+        return sub_path_hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    /**
+     * @return the number of entries cached
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the bytes the entries take up
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public long getMax_bytes() {
+        return max_bytes;
+    }
+
+    public Grid_Map getMap() {
+        return map;
+    }
+
+    @Override
+    public synchronized String toString(){
+        return entries.size() + " paths in " + bytes + " bytes, " + hits + " hits, " + sub_path_hits + " sub-path hits, "
+                + misses + " misses, " + evictions + " evictions, " + invalidations + " invalidations";
+    }
+
+    /**
+     * A cached result: the start, then the direction code of every move
+     */
+    private static final class Entry {
+        final int start;
+        final int goal;
+        final int length; // Number of cells of the path, 0 when no path was found
+        final byte[] moves; // Two direction codes per byte, null when no path was found
+        int cost; // Cost of the path, as the search reported it
+        double suboptimality = Search_Result.UNBOUNDED; // Bound the search proved on the path
+
+        Entry(int start, int goal, int length, byte[] moves){
+            this.start = start;
+            this.goal = goal;
+            this.length = length;
+            this.moves = moves;
+        }
+
+        long bytes(){
+            return ENTRY_OVERHEAD + (moves == null ? 0 : moves.length);
+        }
+    }
+}
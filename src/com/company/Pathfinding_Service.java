@@ -0,0 +1,126 @@
+package com.company;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Answers many start/goal queries on one map in parallel.
+ * The map is copied once when the service is created and never written
+ * to afterwards, so every worker can read it without locking. Each worker
+ * thread gets its own Search_State the first time it runs a query and
+ * keeps reusing it, so a batch allocates no search state after warm-up.
+ * The connected components of the map are labeled once as well, so a query
+ * whose goal is walled off from its start is answered without searching.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+public class Pathfinding_Service {
+    private final Grid_Map map; // Private copy of the map, never written to
+    private final A_Star_Search a_star; // Stateless search shared by every worker
+    private final Components components; // Components of the passable cells, read by every worker
+    private final ThreadLocal<Search_State> states; // Scratch state of each worker thread
+    private final ForkJoinPool pool; // Workers the queries of a batch are spread across
+
+    /**
+     * Constructor for a service using one worker per available core
+     * @param map the map every query will be answered on
+     */
+    public Pathfinding_Service(Grid_Map map){
+        this(map, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param map the map every query will be answered on
+     * @param parallelism number of worker threads
+     */
+    public Pathfinding_Service(Grid_Map map, int parallelism){
+        this.map = map.copy();
+        this.a_star = new A_Star_Search(this.map);
+        this.components = new Components(this.map);
+        this.states = ThreadLocal.withInitial(() -> new Search_State(this.map));
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Answers a single query on the calling thread
+     * @param start index of the start cell
+     * @param goal index of the goal cell
+     * @return the path found and the statistics of the search
+     */
+    public Search_Result solve(int start, int goal){
+        check_cell(start);
+        check_cell(goal);
+        return search(start, goal, Search_Budget.NONE);
+    }
+
+    /**
+     * Answers a single query on the calling thread within a budget
+     * @param start index of the start cell
+     * @param goal index of the goal cell
+     * @param budget limits on the work the query may do
+     * @return the path found and the statistics of the search, partial if the budget ran out
+     */
+    public Search_Result solve(int start, int goal, Search_Budget budget){
+        check_cell(start);
+        check_cell(goal);
+        return search(start, goal, budget);
+    }
+
+    /**
+     * Answers a batch of queries across the worker threads of the service.
+     * Query i goes from starts[i] to goals[i].
+     * @param starts index of the start cell of each query
+     * @param goals index of the goal cell of each query
+     * @return the result of every query in order and the throughput of the batch
+     */
+    public Batch_Result solve_batch(int[] starts, int[] goals){
+        if(starts.length != goals.length){
+            throw new IllegalArgumentException(starts.length + " starts given for " + goals.length + " goals");
+        }
+        for(int i = 0; i < starts.length; i++){
+            check_cell(starts[i]);
+            check_cell(goals[i]);
+        }
+        Search_Result[] results = new Search_Result[starts.length];
+        long startTime = System.nanoTime();
+        try{
+            pool.submit(() -> IntStream.range(0, starts.length).parallel()
+                    .forEach(i -> results[i] = search(starts[i], goals[i], Search_Budget.NONE)))
+                    .get();
+        }catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while answering a batch", e);
+        }catch (ExecutionException e){
+            throw new IllegalStateException("A query of the batch failed", e.getCause());
+        }
+        return new Batch_Result(results, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Stops the worker threads of the service
+     */
+    public void shutdown(){
+        pool.shutdown();
+    }
+
+    /**
+     * Searches on the calling thread unless the goal is in another component than the start
+     */
+    private Search_Result search(int start, int goal, Search_Budget budget){
+        if(!components.reachable(start, goal)){
+            return Search_Result.not_found(0, 0, 0);
+        }
+        return a_star.search(states.get(), start, goal, budget);
+    }
+
+    private void check_cell(int index){
+        if(index < 0 || index >= map.size()){
+            throw new IllegalArgumentException("Cell " + index + " is outside the " + map.getRows() + "x" + map.getCols() + " map");
+        }
+    }
+
+    public Grid_Map getMap() {
+        return map;
+    }
+}
@@ -1,15 +1,13 @@
 package com.company;
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
+import java.io.IOException;
 import java.util.*;
 
 /**
  * This class will read a file of text
- * containing a map into a 2D array
- * of nodes and will perform the informed
+ * containing a map into a compact Grid_Map
+ * and will perform the informed
  * search methods:
- * Best First Search, Iterative Deepening Search, and A* Search
+ * Best First Search, Iterative Deepening Search, A* Search and Jump Point Search
  * Each method will record :
  *
  * 1)	The cost of the path found
@@ -18,94 +16,63 @@ import java.util.*;
  * 4)	The runtime of the algorithm in milliseconds
  * 5)	The path as a sequence of coordinates (row, col), (row col), … , (row, col)
  *
+ * Cells are referred to by their index in the map (row * cols + col) and
+ * everything a search records about a cell is kept in a Search_State,
+ * the Node API is still available as a view for older callers.
+ *
  * @author Jay James, Daniel Villa
  * @ Version 11.0.2
  *
  */
 public class Search_Algorithms {
+    public static final long TIME_LIMIT_MILLIS = 180000; // Time limit of the searches called without a budget, 3 minutes
+    public static final double ARA_WEIGHT_STEP = 0.5; // How much ara_star_search() lowers the weight after every path
+    public static final int MAX_FLOW_FIELDS = 8; // Most goals flow_field() keeps a field for
+    public static final long PATH_CACHE_BYTES = 16 << 20; // Most bytes the paths cached by BFS() and a_star_search() may take up
+
     private String file; // The file we will use to read in our data and perform our search algorithms
-    private Node[][] search_space; // The map of nodes we will use to perform our algorithms on
-    private int start_x; // The x - coordinate of the starting position of our search
-    private int start_y; // The y-coordinate of the starting position of our search
-    private int goal_x; // The x-coordinate of the goal position of our search
-    private int goal_y; // The y-coordinate of the goal position of our search
+    private Grid_Map grid; // The map we will use to perform our algorithms on
+    private Search_State state; // g, h, predecessor and visited state, reused by every search on the map
+    private Search_State backward_state; // State of the backward half of a bidirectional search, made when first needed
+    private D_Star_Lite planner; // Plan kept by incremental_search() for update_costs() to repair
+    private Landmarks landmarks; // Landmark distances kept by alt_search() for later searches on the map
+    private Distance_Field field; // Distances from the start kept by distance_field() for later queries
+    private Hierarchical_Search hierarchy; // Cluster abstraction kept by hierarchical_search() for later queries
+    private Components components; // Connected components of the passable cells, labeled when the map loads
+    private Map<Integer, Flow_Field> flow_fields; // Fields toward the last goals used, least recently used first
+    private Path_Cache bfs_paths; // Results of BFS() kept for the same start and goal, made when first needed
+    private Path_Cache a_star_paths; // Results of a_star_search() kept for the same start and goal, made when first needed
+    private Off_Heap_Arena arena; // Memory of off_heap_search(), reset and reused by every call, made when first needed
+    private Search_Listener listener; // Receives the progress of BFS, IDDFS and A* search, null for none
     private boolean node_found; // A boolean to alert an algorithm that a given node has been found
-    private List<Node> closed_set; // Visited Nodes
-    private Queue<Node> open_set; // Unvisited Nodes
     private List<Node> path; // Path to goal
 
 
     public Search_Algorithms(String file){
-        search_space = readFile(file);
-        closed_set = new ArrayList();
-        open_set = new PriorityQueue<>(new Node_Comparator());
-        path = new ArrayList();
+        this.file = file;
+        grid = Grid_Map.readFile(file);
+        state = new Search_State(grid);
+        components = new Components(grid);
+        path = new ArrayList<>();
+    }
+
+    public Search_Algorithms(Grid_Map grid){
+        this.grid = grid;
+        state = new Search_State(grid);
+        components = new Components(grid);
+        path = new ArrayList<>();
     }
 
-    /** This method take a file as input and return a 2D - array of nodes with coordinates
-        *that we will use with our map traversal algorithms.
+    /** This method take a file as input and return a 2D - array of nodes with coordinates.
+     * The map used by our algorithms is replaced by the one read from the file,
+     * the nodes returned are only a view of it.
      * @return 2D array of type Node
     */
     public Node[][] readFile(String file){
-        /* The lab file specified that the first three lines of our file will
-         contain information regarding:
-         A) The size of our search space
-         B) The index of our starting location
-         C) The index of our goal location
-
-         The three arrays below will be used to store the date we will parse
-         from the file using a scanner
-         */
-
-        String[] space_size; // Line from file is split and each index holds a size for each dimension of the array
-        String[] start_location = new String[0]; // Line from file is split and each index holds a coordinate for our starting location
-        String[] end_location = new String[0]; // Line from file is split and each index holds a coordinate for our ending location
-        Node[][] search_space = new Node[0][0]; // Array to be returned after reading the file. Contains all the nodes in our search space
-        int line = 0; // This line will be used to keep track of the index of the first dimension of our 2D array
-
-        try{
-            // This scanner will be used to read our file into the 2D array of nodes
-            Scanner fileReader = new Scanner(new BufferedReader(new FileReader(file)));
-
-            space_size = fileReader.nextLine().split(" ");
-            start_location = fileReader.nextLine().split(" ");
-            end_location = fileReader.nextLine().split(" ");
-            search_space = new Node[Integer.parseInt(space_size[0])][Integer.parseInt(space_size[1])];
-            // By the end of the file the value of index should be equal to the number of arrays in our 2D array
-            while(fileReader.hasNextLine()){
-                // Here we are going to parse the data from each line into
-                // a string array containing the costs of each node
-                String[] values = fileReader.nextLine().split(" ");
-                // Afterwards we create an array of nodes that will store a node containing
-                // a coordinate and a cost for each value on that line
-                Node[] row = new Node[values.length];
-                // Populate the node array with the integer values from the string array
-                for(int i = 0; i < values.length; i++){
-                    row[i] = new Node(Integer.parseInt(values[i]),line,i);
-                    if(row[i].getCost() == 0){
-                        // The lab specifies that a position with the value '0' is not passable
-                        // Here we check if a node has a cost value of 0 and if it does we mark
-                        // it so our algorithms know not to traverse it
-                        row[i].setImpasse(true);
-                    }
-                }
-                // Here we set the array at the current line equal to the array we created above
-                search_space[line] = row;
-                // Afterwards we move to the position of the next array that will be stored in our
-                // 2D array
-                line++;
-            }
-        }catch (FileNotFoundException e){
-            e.printStackTrace();
-        }
-        // Our search_algorithms object contains these fields containing the locations of our starting and ending coordinates
-        // We will use these arrays to store the data in those respective fields
-        start_x = Integer.parseInt(start_location[0]);
-        start_y = Integer.parseInt(start_location[1]);
-        goal_x = Integer.parseInt(end_location[0]);
-        goal_y = Integer.parseInt(end_location[1]);
-        //search_space[start_x][start_x].setCost(0);
-        return search_space;
+        grid = Grid_Map.readFile(file);
+        state = new Search_State(grid);
+        components = new Components(grid);
+        return grid.toNodes();
     }
 
     public String getFile() {
@@ -116,12 +83,26 @@ public class Search_Algorithms {
         this.file = file;
     }
 
+    public Grid_Map getGrid() {
+        return grid;
+    }
+
+    /**
+     * Builds a Node view of the whole map. This allocates one
+     * object per cell, searches never use it.
+     * @return 2D array of type Node
+     */
     public Node[][] getSearch_space() {
-        return search_space;
+        return grid.toNodes();
     }
 
     public void setSearch_space(Node[][] search_space) {
-        this.search_space = search_space;
+        Grid_Map packed = Grid_Map.fromNodes(search_space);
+        packed.setStart(getStart_x(), getStart_y());
+        packed.setGoal(getGoal_x(), getGoal_y());
+        grid = packed;
+        state = new Search_State(grid);
+        components = new Components(grid);
     }
 
     /**
@@ -130,79 +111,72 @@ public class Search_Algorithms {
      */
     public void display_search_space(){
 
-        System.out.println("The starting location is: " + "("+this.start_x + "," + this.start_y+")");
-        System.out.println("The goal location is: " +"("+this.goal_x + "," + this.goal_y+")");
-        for(Node[] i: this.getSearch_space()){
-            for(Node j : i){
-                System.out.print(("("+j.getX() + "," + j.getY())+")" + " ");
+        System.out.println("The starting location is: " + "("+getStart_x() + "," + getStart_y()+")");
+        System.out.println("The goal location is: " +"("+getGoal_x() + "," + getGoal_y()+")");
+        for(int x = 0; x < grid.getRows(); x++){
+            for(int y = 0; y < grid.getCols(); y++){
+                System.out.print(("("+x + "," + y)+")" + " ");
             }
             System.out.println();
         }
         System.out.println("Current Traversal Costs:");
-        for(Node[] i: this.getSearch_space()){
-            for(Node j : i){
-                System.out.print((+j.getCost()+ " "));
+        for(int x = 0; x < grid.getRows(); x++){
+            for(int y = 0; y < grid.getCols(); y++){
+                System.out.print((+grid.getCost(x, y)+ " "));
             }
             System.out.println();
         }
         System.out.println("Current Impasse Locations:" +"");
-        for(Node[] i: this.getSearch_space()){
-            for(Node j : i){
-                if(j.isImpasse()){
-                    System.out.print(("("+j.getX() + "," + j.getY())+")" + " ");
-                }
+        for(int i = 0; i < grid.size(); i++){
+            if(grid.isImpasse(i)){
+                System.out.print(("("+grid.getX(i) + "," + grid.getY(i))+")" + " ");
             }
-
         }
         System.out.println();
     }
 
     /**
-     *
+     * Node view of generate_successors for callers that still use the Node API.
+     * The h values of the last search are copied into the returned nodes.
      * @param current
      * @return List of nodes containing the generated successor nodes
      * of the current node
      */
     public List<Node> generate_successors(Node current){
+        List<Node> successors = new ArrayList<>();
+        int[] buffer = new int[Grid_Map.MAX_SUCCESSORS];
+        int count = generate_successors(grid.index(current.getX(), current.getY()), buffer);
+        for(int i = 0; i < count; i++){
+            Node node = grid.getNode(buffer[i]);
+            node.setG(state.g[buffer[i]]);
+            node.setH(state.h[buffer[i]]);
+            successors.add(node);
+        }
+        return successors;
+    }
 
-        List<Node> successors = new ArrayList<>(); // The list containing successor nodes
-        int x = current.getX(); // The x coordinate of the node we are testing
-        int y = current.getY(); // The y coordinate of the node we are testing
-
+    /**
+     * Writes the successors of a cell into a buffer and records their
+     * manhattan distance to the goal in the search state. g is left to the
+     * search since only it knows whether the new path is an improvement.
+     * Nothing is allocated, so this is safe to call once per expansion.
+     * @param current index of the current cell
+     * @param successors buffer of at least Grid_Map.MAX_SUCCESSORS cells
+     * @return the number of successors written to the buffer
+     */
+    public int generate_successors(int current, int[] successors){
 
         /* Since we are using a 2D array/Map there are four positions that
          *we want to check for neighbors. North,South,East, and West
-         *We need to make sure that the coordinates we want to add are within
+         *The map makes sure that the positions are within
          *the bounds of the search space and that the space is also observable
         */
-
-        // Checks the northern position of the current node
-        if(isWithinBounds(x-1) && !search_space[x-1][y].isImpasse()){
-            search_space[x-1][y].setH(manhattan_distance(search_space[x-1][y],search_space[goal_x][goal_y]));
-            search_space[x-1][y].setG(current.getCost() +search_space[x-1][y].getCost());
-            successors.add(search_space[x-1][y]);
-        }
-        // Checks the southern position of the current node
-        if(isWithinBounds(x+1) && !search_space[x+1][y].isImpasse()){
-            search_space[x+1][y].setH(manhattan_distance(search_space[x+1][y],search_space[goal_x][goal_y]));
-            search_space[x+1][y].setG(current.getCost() +search_space[x+1][y].getCost());
-            successors.add(search_space[x+1][y]);
-        }
-        // Checks the position to the left of the current node
-        if(isWithinBounds(y-1) && !search_space[x][y-1].isImpasse()){
-            search_space[x][y-1].setH(manhattan_distance(search_space[x][y-1],search_space[goal_x][goal_y]));
-            search_space[x][y-1].setG(current.getCost() +search_space[x][y-1].getCost());
-            successors.add(search_space[x][y-1]);
+        int count = grid.successors(current, successors);
+        int goal = grid.getGoal();
+        for(int i = 0; i < count; i++){
+            state.h[successors[i]] = manhattan_distance(successors[i], goal);
         }
-        // Checks the position to the right of the current node
-        if(isWithinBounds(y+1) && !search_space[x][y+1].isImpasse()){
-            search_space[x][y+1].setH(manhattan_distance(search_space[x][y+1],search_space[goal_x][goal_y]));
-            search_space[x][y+1].setG(current.getCost() +search_space[x][y+1].getCost());
-            successors.add(search_space[x][y+1]);
-        }
-
-        // Finally returns the list of successors
-        return successors;
+        return count;
     }
 
     /**
@@ -212,7 +186,7 @@ public class Search_Algorithms {
      * within array bounds
      */
     public boolean isWithinBounds(int position){
-        return ((position  >= 0) && (position < search_space.length));
+        return ((position  >= 0) && (position < grid.getRows()));
     }
 
     public Node findMin(List<Node> nodes){
@@ -232,66 +206,106 @@ public class Search_Algorithms {
      */
 
     public void BFS() {
+        BFS(Search_Budget.of_millis(TIME_LIMIT_MILLIS));
+    }
 
+    /**
+     * Best first search that stops when its budget runs out.
+     * A query asked before on the same costs is answered from a Path_Cache.
+     * @param budget limits on the work the search may do
+     */
+    public void BFS(Search_Budget budget) {
+        System.out.println("Implementing Best-First-Search from start location:");
+        if(bfs_paths == null || bfs_paths.getMap() != grid){
+            bfs_paths = new Path_Cache(grid, PATH_CACHE_BYTES);
+        }
+        Search_Result result = bfs_paths.get(grid.getStart(), grid.getGoal());
+        if(result == null){
+            result = best_first_search(budget, listener);
+            bfs_paths.put(grid.getStart(), grid.getGoal(), result);
+        }
+        else{
+            System.out.println("Answered from the path cache: " + bfs_paths);
+        }
+        display_result("Best First Search", result);
+    }
 
-                long startTime = System.currentTimeMillis();
-                long endTime = startTime + 180000;
-                int num_nodes_expanded = 1;
-                int total_cost = 0;
-                System.out.println("Implementing Best-First-Search from start location:");
-
-                // As stated above, the fringe operating on each node is a queue
-                open_set = new PriorityQueue<Node>(new Node_Comparator_BFS());
-                closed_set = new ArrayList();
-                // Create a node containing the starting location of our search algorithm
-                Node start = search_space[start_x][start_y];
-                Node destination = search_space[start_x][start_y];
-                // List containing expanded nodes
-                List<Node> visited_states = new ArrayList<>();
-
-
-                // Push start location into the stack
-                open_set.add(start);
-                while (!open_set.isEmpty()) {
-                    if(System.currentTimeMillis() > endTime){
-                        System.out.println("Time limit exceeded! Runtime -> 3 minutes");
-                        return;
-                    }
-                    // While there are nodes that can be expanded
-                    // Remove a node from the queue
-                    Node current = open_set.remove();
-                    System.out.print("("+current.getX()+","+current.getY()+")");
-                    total_cost += current.getCost();
-                    // Mark the node as visited
-                    closed_set.add(current);
-                    // Check to see if the node we have just visited is our goal node
-                    if (goal_state(current)) {
-                        System.out.println("Found goal node at" + "(" + goal_x + "," + goal_y + ")");
-                        break;
+    /**
+     * The search behind BFS(), from the start to the goal of the map.
+     * It prints nothing, progress goes to the listener if there is one.
+     * The path cost is the cost of the path through the recorded predecessors.
+     * @param budget limits on the work the search may do
+     * @param listener receives every expanded and generated cell, may be null
+     * @return the path found and the statistics of the search, a partial result
+     * holds the path to the expanded cell closest to the goal
+     */
+    public Search_Result best_first_search(Search_Budget budget, Search_Listener listener) {
+        long startTime = System.nanoTime();
+        int until_check = Search_Budget.CHECK_INTERVAL;
+        int num_nodes_expanded = 1;
 
+        // As stated above, the fringe operating on each node is a queue
+        // ordered by the cost of each cell
+        // The index of the starting location of our search algorithm
+        int start = grid.getStart();
+        if(!components().reachable(start, grid.getGoal())){
+            return Search_Result.not_found(0, 0, System.nanoTime() - startTime);
+        }
+        state.reset(start);
+        Indexed_Min_Heap open_set = state.open;
+        int closest = start; // Expanded cell closest to the goal, where a partial path ends
+        // Nodes in memory is the size of the closed set: cells enter it when
+        // generated and never leave, so it counts every cell held once, open ones included
+
+        // Push start location into the stack
+        open_set.add(start, grid.getCost(start));
+        while (!open_set.isEmpty()) {
+            if(--until_check == 0){
+                until_check = Search_Budget.CHECK_INTERVAL;
+                if(budget.exhausted(num_nodes_expanded, state.closed.size())){
+                    int[] partial = state.trace_path(closest);
+                    return Search_Result.partial(partial, path_cost(partial), num_nodes_expanded, state.closed.size(),
+                            System.nanoTime() - startTime, budget.getStop_reason());
+                }
+            }
+            // While there are nodes that can be expanded
+            // Remove a node from the queue
+            int current = open_set.poll();
+            if(listener != null){
+                listener.on_expand(current);
+            }
+            // Mark the node as visited
+            state.closed.add(current);
+            if(manhattan_distance(current, grid.getGoal()) < manhattan_distance(closest, grid.getGoal())){
+                closest = current;
+            }
+            // Check to see if the node we have just visited is our goal node
+            if (goal_state(current)) {
+                int[] cells = state.trace_path(current);
+                return new Search_Result(cells, path_cost(cells), num_nodes_expanded, state.closed.size(),
+                        System.nanoTime() - startTime);
+            }
+            // Here we expand each unvisited neighbor and push it into the queue
+            int count = generate_successors(current, state.successors);
+            for (int i = 0; i < count; i++) {
+                int search = state.successors[i];
+                if (!state.closed.contains(search)) {
+                    num_nodes_expanded++;
+                    state.closed.add(search);
+                    open_set.add(search, grid.getCost(search));
+                    state.parent[search] = current;
+                    if(listener != null){
+                        listener.on_generate(search, current);
                     }
-                    // Here we expand each unvisited neighbor and push it into the queue
-                    for (Node search : generate_successors(current)) {
-                        if (!closed_set.contains(search)) {
-                            num_nodes_expanded++;
-                            closed_set.add(search);
-                            open_set.add(search);
-                            search.setPredecessor(current);
-                        }
-                    }
-
-
                 }
-                System.out.println("Path Cost -> " + total_cost);
-                System.out.println("Best First Search Runtime -> " + (double)((System.currentTimeMillis()-startTime)) + " milliseconds");
-                System.out.println("Number of nodes expanded -> " + num_nodes_expanded);
-                System.out.println("Number of nodes contained in memory -> " + closed_set.size());
-                open_set.clear();
-                closed_set.clear();
-
             }
 
 
+        }
+        return Search_Result.not_found(num_nodes_expanded, state.closed.size(), System.nanoTime() - startTime);
+    }
+
+
 
 
 
@@ -306,19 +320,105 @@ public class Search_Algorithms {
      */
 
     public void IDDFS(Node start, int depth){
+        IDDFS(grid.index(start.getX(), start.getY()), depth);
+    }
+
+    /**
+     * Takes the index of a cell and a depth level and performs
+     * iterative deepening up to that depth
+     * @param start index of the start location in our map
+     * @param depth the specified depth level
+     */
+
+    public void IDDFS(int start, int depth){
+        IDDFS(start, depth, Search_Budget.of_millis(TIME_LIMIT_MILLIS));
+    }
+
+    /**
+     * Iterative deepening up to a depth level where every depth limit
+     * draws from the same budget
+     * @param start index of the start location in our map
+     * @param depth the specified depth level
+     * @param budget limits on the work the whole search may do
+     */
+
+    public void IDDFS(int start, int depth, Search_Budget budget){
 
         System.out.println("Iterative Deepening Depth First Search:");
-        for(int i = 0; i < depth && ! node_found; i++){
-            int nodeNum = depth_limited_search(start,i);
-            if(nodeNum == -1) {
-                System.out.println("\n3 minutes exceeded");
-                return;
+        Search_Listener trace = listener;
+        Search_Result result = iterative_deepening_search(start, depth, budget, new Search_Listener() {
+            @Override
+            public void on_expand(int cell){
+                if(trace != null){
+                    trace.on_expand(cell);
+                }
+            }
+
+            @Override
+            public void on_depth_limit(int limit, int nodes_expanded){
+                System.out.println("Current Depth: " + limit);
+                System.out.println("Expanded Nodes: " + nodes_expanded);
             }
-            System.out.println("Current Depth: " + i);
-            System.out.println("Expanded Nodes: " + nodeNum);
+        });
+        node_found = result.isFound();
+        display_result("Iterative Deepening", result);
 
+    }
+
+    /**
+     * The search behind IDDFS(), it runs depth_limited_search for every
+     * depth limit below depth until one of them reaches the goal of the map.
+     * It prints nothing, progress goes to the listener if there is one.
+     * @param start index of the start location in our map
+     * @param depth the specified depth level
+     * @param budget limits on the work the whole search may do
+     * @param listener receives every expanded cell and the end of every depth limit, may be null
+     * @return the path found, nodes expanded summed over every depth limit and
+     * the most nodes any depth limit held in memory
+     */
+    public Search_Result iterative_deepening_search(int start, int depth, Search_Budget budget, Search_Listener listener){
+        long startTime = System.nanoTime();
+        int num_nodes_expanded = 0;
+        int nodes_in_memory = 0;
+        if(!components().reachable(start, grid.getGoal())){
+            return Search_Result.not_found(num_nodes_expanded, nodes_in_memory, System.nanoTime() - startTime);
+        }
+        for(int i = 0; i < depth; i++){
+            // Every limit checks the budget before it expands anything, against the cells of every limit so far
+            Search_Result result = depth_limited_search(start, i, budget, listener, num_nodes_expanded);
+            num_nodes_expanded += result.getNodes_expanded();
+            nodes_in_memory = Math.max(nodes_in_memory, result.getNodes_in_memory());
+            if(listener != null){
+                listener.on_depth_limit(i, result.getNodes_expanded());
+            }
+            if(result.isPartial()){
+                return Search_Result.partial(result.getPath(), result.getPath_cost(), num_nodes_expanded,
+                        nodes_in_memory, System.nanoTime() - startTime, result.getStop_reason());
+            }
+            if(result.isFound()){
+                return new Search_Result(result.getPath(), result.getPath_cost(), num_nodes_expanded,
+                        nodes_in_memory, System.nanoTime() - startTime);
+            }
         }
+        return Search_Result.not_found(num_nodes_expanded, nodes_in_memory, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Takes the index of a cell and a depth level and performs iterative
+     * deepening up to that depth with the subtrees of every depth limit spread
+     * across one worker per core, see Parallel_IDDFS
+     * @param start index of the start location in our map
+     * @param depth the specified depth level
+     */
 
+    public void parallel_IDDFS(int start, int depth){
+        System.out.println("Parallel Iterative Deepening Depth First Search:");
+        Parallel_IDDFS search = new Parallel_IDDFS(grid);
+        try{
+            display_result("Parallel IDDFS", search.search(start, grid.getGoal(), depth));
+        }finally{
+            search.shutdown();
+        }
     }
 
 
@@ -333,61 +433,115 @@ public class Search_Algorithms {
      */
 
     public int depth_limited_search(Node problem, int limit){
+        return depth_limited_search(grid.index(problem.getX(), problem.getY()), limit);
+    }
+
+    /**
+     * Index based depth limited search, see depth_limited_search(Node, int)
+     * @param problem index of the cell we are starting from
+     * @param limit The depth limit set by the user
+     * @return number of expanded nodes, -1 if the time limit ran out
+     */
+
+    public int depth_limited_search(int problem, int limit){
+        Search_Result result = depth_limited_search(problem, limit, Search_Budget.of_millis(TIME_LIMIT_MILLIS), listener);
+        if(result.isPartial()){
+            System.out.println("Search budget exhausted (" + result.getStop_reason() + ")");
+            return -1;
+        }
+        if(result.isFound()){
+            // This global variable will stop the wrapper once we find the
+            // destination node
+            node_found = true;
+            display_result("Iterative Deepening", result);
+        }
+        return result.getNodes_expanded();
+    }
+
+    /**
+     * The search behind depth_limited_search(int, int). It prints nothing,
+     * progress goes to the listener if there is one.
+     * @param problem index of the cell we are starting from
+     * @param limit The depth limit set by the user
+     * @param budget limits on the work the search may do
+     * @param listener receives every expanded and generated cell, may be null
+     * @return the path found and the statistics of the search, a partial result holds no path
+     */
+    public Search_Result depth_limited_search(int problem, int limit, Search_Budget budget, Search_Listener listener){
+        return depth_limited_search(problem, limit, budget, listener, 0);
+    }
+
+    /**
+     * Depth limited search drawing from a budget earlier searches already spent on
+     * @param expanded_before nodes expanded by the earlier searches, counted against the budget
+     */
+    private Search_Result depth_limited_search(int problem, int limit, Search_Budget budget, Search_Listener listener,
+                                               int expanded_before){
+        long startTime = System.nanoTime();
         int num_nodes_expanded = 1;
-        int path_cost = 0;
-        long startTime = System.currentTimeMillis();
-        long endTime = startTime+180000; //3 minutes
+        int nodes_in_memory = 0;
+        int until_check = 1; // The budget is checked before the first expansion, then every CHECK_INTERVAL
+        // Every depth limit starts a new epoch of the search state, the depth
+        // array and closed set in it replace the old Node.depth field and visited set
+        state.reset(problem);
+        // The start is visited before anything else, so no successor can
+        // become its parent and close a cycle in the path
+        state.closed.add(problem);
         // Here like a normal depth first search a stack is used as the
         // fringe
-
-        Stack<Node> fringe = new Stack<>();
+        int[] fringe = state.stack();
+        int[] depth = state.depth();
+        int top = 0;
         // Here we set the depth of the starting node that will be
         // passed into our fringe
-        problem.setDepth(0);
-        // The list defined below will be used to store the nodes
-        Set<Node> visited = new HashSet<>();
+        depth[problem] = 0;
         // Insert our start location into the fringe
-        fringe.push(problem);
-
-        while(!fringe.isEmpty()){
+        fringe[top++] = problem;
+
+        while(top > 0){
+            if(--until_check == 0){
+                until_check = Search_Budget.CHECK_INTERVAL;
+                if(budget.exhausted(expanded_before + num_nodes_expanded, nodes_in_memory)){
+                    return Search_Result.partial(new int[0], Search_Result.NO_PATH, num_nodes_expanded,
+                            nodes_in_memory, System.nanoTime() - startTime, budget.getStop_reason());
+                }
+            }
             // Pop a node from the fringe
-            if(System.currentTimeMillis() > endTime){
-                System.out.println("Time limit Exceeded. Runtime -> 3 minutes");
-                return -1;
+            int current = fringe[--top];
+            if(listener != null){
+                listener.on_expand(current);
             }
-            Node current = fringe.pop();
-            path_cost += current.getCost();
-            System.out.print("("+current.getX()+","+current.getY()+")");
             // Check to see if the current node is equal to the destination
             if(goal_state(current)){
-                System.out.println("Node has been found!" + "("+current.getX()+","+current.getY()+")");
-
-                // This global variable will stop the wrapper once we find the
-                // destination node
-                node_found = true;
-                System.out.println("Iterative Deepening Runtime -> " + (System.currentTimeMillis() - startTime) + " milliseconds");
-                System.out.println("Total path cost - > " + path_cost);
-                System.out.println("Number of Nodes in memory -> " + visited.size());
-                return num_nodes_expanded;
+                int[] cells = state.trace_path(current);
+                return new Search_Result(cells, path_cost(cells), num_nodes_expanded, nodes_in_memory,
+                        System.nanoTime() - startTime);
             }
             // If the depth exceeds the limit then we bre
-            if(current.getDepth() >= limit){
+            if(depth[current] >= limit){
                 break;
 
             }
-            for(Node successor: generate_successors(current)){
+            int count = generate_successors(current, state.successors);
+            for(int i = 0; i < count; i++){
+                int successor = state.successors[i];
 
-                successor.setDepth(current.getDepth() + 1);
-                if(!visited.contains(successor)){
+                depth[successor] = depth[current] + 1;
+                if(!state.closed.contains(successor)){
                     num_nodes_expanded++;
-                    visited.add(successor);
-                    fringe.push(successor);
+                    state.closed.add(successor);
+                    nodes_in_memory++;
+                    fringe[top++] = successor;
+                    state.parent[successor] = current;
+                    if(listener != null){
+                        listener.on_generate(successor, current);
+                    }
                 }
 
             }
 
         }
-        return num_nodes_expanded;
+        return Search_Result.not_found(num_nodes_expanded, nodes_in_memory, System.nanoTime() - startTime);
 
     }
 
@@ -397,7 +551,16 @@ public class Search_Algorithms {
      * @return a boolean indicating whether of not our goal state has been reached.
      */
     public boolean goal_state(Node current){
-        return (current.equals( search_space[goal_x][goal_y]));
+        return goal_state(grid.index(current.getX(), current.getY()));
+    }
+
+    /**
+     *
+     * @param current index of the current cell that was removed from of fringe
+     * @return a boolean indicating whether of not our goal state has been reached.
+     */
+    public boolean goal_state(int current){
+        return current == grid.getGoal();
     }
 
 
@@ -413,6 +576,18 @@ public class Search_Algorithms {
         return((Math.abs(node1.getX()-node2.getX())) + (Math.abs(node1.getY()-node2.getY())));
     }
 
+    /**
+     * Index based manhattan distance, see manhattan_distance(Node, Node)
+     * @param index1 index of the current cell
+     * @param index2 index of the destination
+     * @return the manhattan distance from the current cell to the destination
+     */
+
+    public int manhattan_distance(int index1, int index2){
+
+        return((Math.abs(grid.getX(index1)-grid.getX(index2))) + (Math.abs(grid.getY(index1)-grid.getY(index2))));
+    }
+
     /**
      *
      * @param destination the goal state or destination we're trying to reach
@@ -420,12 +595,22 @@ public class Search_Algorithms {
      * destination
      */
     public ArrayList<Node> path(Node destination){
+        return path(grid.index(destination.getX(), destination.getY()));
+    }
+
+    /**
+     * Follows the predecessors recorded by the last search
+     * @param destination index of the destination we're trying to reach
+     * @return An array list of nodes containing the most efficient path to the
+     * destination
+     */
+    public ArrayList<Node> path(int destination){
         ArrayList<Node> path = new ArrayList<>();
-        int path_cost = 0;
-        while(destination.getPredecessor()!= null){
-            path.add(destination);
-            destination.displayLocation();
-            destination = destination.getPredecessor();
+        while(state.parent[destination] != Search_State.NO_PARENT){
+            Node node = grid.getNode(destination);
+            path.add(node);
+            node.displayLocation();
+            destination = state.parent[destination];
         }
         Collections.reverse(path);
         return path;
@@ -437,108 +622,523 @@ public class Search_Algorithms {
     * takes the cheapest path to a goal node using the manhattan distance
     * or manhattan heuristic. It constantly checks to see if there is a
     * better path from a given position to the destination
+     *
+     * The search itself is done by A_Star_Search, this method
+     * runs it from the start to the goal of the map and prints the result.
      *
      */
 
     public void a_star_search(){
-        long startTime = System.currentTimeMillis();
-        long endTime = startTime+180000; //3 minutes
-        int total_cost = 0;
-        int num_nodes_expanded = 1;
-        open_set = new PriorityQueue<>(new Node_Comparator());
+        a_star_search(Search_Budget.of_millis(TIME_LIMIT_MILLIS));
+    }
+
+    /**
+     * A* search that stops when its budget runs out and then shows the path
+     * to the cell closest to the goal it had reached.
+     * A query asked before on the same costs, or whose goal lies on a path
+     * found before from the same start, is answered from a Path_Cache.
+     * @param budget limits on the work the search may do
+     */
+    public void a_star_search(Search_Budget budget){
         System.out.println("Implementing A-Star Search:");
-        Node start = search_space[start_x][start_y];
-        Node destination = search_space[goal_x][goal_y];
-        start.setH(manhattan_distance(start,destination));
+        if(a_star_paths == null || a_star_paths.getMap() != grid){
+            a_star_paths = new Path_Cache(grid, PATH_CACHE_BYTES);
+        }
+        Search_Result result = unreachable(grid.getStart(), grid.getGoal());
+        if(result != null){
+            System.out.println("The goal is walled off from the start");
+        }
+        else if((result = a_star_paths.get(grid.getStart(), grid.getGoal())) != null){
+            System.out.println("Answered from the path cache: " + a_star_paths);
+        }
+        else{
+            result = new A_Star_Search(grid).search(state, grid.getStart(), grid.getGoal(), budget, listener);
+            a_star_paths.put(grid.getStart(), grid.getGoal(), result);
+        }
+        display_result("A* Search", result);
+    }
 
-        open_set.add(start);
-        System.out.println("Path to Goal:");
-        while(!open_set.isEmpty()){
-            if(System.currentTimeMillis() > endTime){
-                System.out.println("Time limit exceeded! Runtime -> 3 minutes");
-            }
-            // The priority queue or heap will give us the best node
-            // by usage of its comparator
-            Node current = open_set.poll();
-            /* We keep track of the predecessor nodes in this case to later display
-               the path taken to reach the goal state
-            */
-            if(current.getPredecessor() != null){
-                path.add(current.getPredecessor());
-                System.out.print("("+current.getPredecessor().getX()+","+ current.getPredecessor().getY()+")");
-                total_cost += current.getPredecessor().getCost();
+    /** Uniform cost search (Dijkstra's algorithm) expands cells in order of
+     * the cost of the cheapest path to them, so the path to the goal is the
+     * cheapest one, unlike BFS() which only orders by the cost of each cell.
+     * See Uniform_Cost_Search.
+     */
 
+    public void uniform_cost_search(){
+        System.out.println("Implementing Uniform Cost Search:");
+        display_result("Uniform Cost Search", new Uniform_Cost_Search(grid).search(state, grid.getStart(), grid.getGoal(),
+                Search_Budget.of_millis(TIME_LIMIT_MILLIS), listener));
+    }
 
+    /**
+     * The connected components of the passable cells of the map. They are
+     * labeled when the map loads, update_costs() keeps them up to date and any
+     * other change of a cost has them labeled again.
+     * @return the components of the map
+     */
+    public Components components(){
+        if(components == null || components.getMap() != grid || components.getVersion() != grid.getVersion()){
+            components = new Components(grid);
+        }
+        return components;
+    }
+
+    /**
+     * Answers a query in O(1) when its start and goal lie in different components
+     * @return a result that found no path, null if a search is needed
+     */
+    private Search_Result unreachable(int start, int goal){
+        long startTime = System.nanoTime();
+        if(components().reachable(start, goal)){
+            return null;
+        }
+        return Search_Result.not_found(0, 0, System.nanoTime() - startTime);
+    }
+
+    /**
+     * The cost of the cheapest path from the start of the map to every cell.
+     * The field is kept and returned again as long as the start stays the same
+     * and no cost of the map changes.
+     * @return the distances from the start
+     */
+    public Distance_Field distance_field(){
+        if(field == null || field.getMap() != grid || field.getSource() != grid.getStart()
+                || field.getVersion() != grid.getVersion()){
+            field = new Uniform_Cost_Search(grid).distances_from(state, grid.getStart());
+        }
+        return field;
+    }
+
+    /**
+     * The cost of the cheapest path from every cell to the goal of the map,
+     * and the direction to move in from every cell to follow it.
+     * The fields of the last MAX_FLOW_FIELDS goals are kept, and
+     * update_costs() repairs them instead of dropping them.
+     * @return the field toward the goal
+     */
+    public Flow_Field flow_field(){
+        if(flow_fields == null){
+            flow_fields = new LinkedHashMap<Integer, Flow_Field>(16, 0.75f, true){
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, Flow_Field> eldest){
+                    return size() > MAX_FLOW_FIELDS;
+                }
+            };
+        }
+        Flow_Field flow = flow_fields.get(grid.getGoal());
+        if(flow == null || flow.getMap() != grid || flow.getVersion() != grid.getVersion()){
+            flow = new Flow_Field(grid, grid.getGoal());
+            flow_fields.put(grid.getGoal(), flow);
+        }
+        return flow;
+    }
+
+    /** Many agents heading for the goal of the map share one Flow_Field
+     * instead of running an A* search each: the field is computed once and
+     * every agent walks its directions to the goal.
+     * @param xs row of the cell of each agent
+     * @param ys column of the cell of each agent
+     */
+
+    public void flow_field_search(int[] xs, int[] ys){
+        if(xs.length != ys.length){
+            throw new IllegalArgumentException("Every agent needs a row and a column");
+        }
+        System.out.println("Implementing Flow Field Search for " + xs.length + " agents:");
+        long time = System.nanoTime();
+        Flow_Field flow = flow_field();
+        System.out.println("Flow field -> " + ((System.nanoTime() - time) / 1000000) + " milliseconds");
+        time = System.nanoTime();
+        int reached = 0;
+        long moves = 0;
+        for(int i = 0; i < xs.length; i++){
+            int[] cells = flow.path_from(grid.index(xs[i], ys[i]));
+            if(cells.length > 0){
+                reached++;
+                moves += cells.length - 1;
             }
-            // Checks for the goal state here
-            if(goal_state(current)){
-                path.add(current);
-                System.out.print("Goal State Found:" + "("+current.getX()+","+current.getY()+")" + "\n");
-                System.out.println("Path Cost from: " + "("+start.getX()+","+start.getY()+")"+ "to -->" + "("+current.getX()+","+current.getY()+")" + ":" + total_cost);
-                System.out.println("A* Search Runtime -> " + ((System.currentTimeMillis()-startTime)) + " milliseconds");
-                System.out.println("Number of nodes expanded: " + num_nodes_expanded);
-                System.out.println("Number of nodes in memory " + closed_set.size());
-                open_set.clear();
-                closed_set.clear();
-                return;
+        }
+        System.out.println("Agents that can reach the goal: " + reached + " of " + xs.length);
+        System.out.println("Moves walked by all agents: " + moves);
+        System.out.println("Agent paths -> " + ((System.nanoTime() - time) / 1000000) + " milliseconds");
+    }
+
+    /** Weighted A* search orders cells by g + weight * h, which expands far
+     * fewer cells and finds a path costing at most weight times the cheapest.
+     * @param weight how much the heuristic is inflated, at least 1
+     */
+
+    public void weighted_a_star_search(double weight){
+        System.out.println("Implementing Weighted A-Star Search:");
+        display_result("Weighted A* Search", new A_Star_Search(grid).search(state, grid.getStart(), grid.getGoal(), weight,
+                Search_Budget.of_millis(TIME_LIMIT_MILLIS), listener));
+    }
+
+    /** ARA* search finds a path quickly with an inflated heuristic and keeps
+     * improving it until the deadline, printing every better path as it is
+     * found together with how far from the cheapest it is proven to be,
+     * see ARA_Star_Search.
+     * @param initial_weight weight of the heuristic for the first path, at least 1
+     * @param deadline_millis time the search may keep improving the path
+     */
+
+    public void ara_star_search(double initial_weight, long deadline_millis){
+        System.out.println("Implementing ARA-Star Search:");
+        Search_Listener improvements = new Search_Listener() {
+            @Override
+            public void on_expand(int cell){
+                if(listener != null){
+                    listener.on_expand(cell);
+                }
             }
-            /* After visiting a node, we add it to the closed set and remove it from the open set
-                so we don't visit or expand a given node twice
-            */
-            open_set.remove(current);
-            closed_set.add(current);
-
-            /* Here we iterate through the generated successors
-                checking if a given node has been visited or not
-            */
-            for(Node neighbor: generate_successors(current)){
-
-                if(closed_set.contains(neighbor)){
-                    continue;
+
+            @Override
+            public void on_generate(int cell, int parent){
+                if(listener != null){
+                    listener.on_generate(cell, parent);
                 }
-                if(!open_set.contains(neighbor)){
-                    num_nodes_expanded++;
-                    open_set.add(neighbor);
+            }
+
+            @Override
+            public void on_solution(Search_Result result){
+                System.out.printf("Path of cost %d within %.3f of the cheapest after %d milliseconds%n",
+                        result.getPath_cost(), result.getSuboptimality(), result.getElapsed_nanos() / 1000000);
+            }
+        };
+        display_result("ARA* Search", new ARA_Star_Search(grid).search(state, grid.getStart(), grid.getGoal(),
+                initial_weight, ARA_WEIGHT_STEP, Search_Budget.of_millis(deadline_millis), improvements));
+    }
+
+    /** A* search with another heuristic or cost model than manhattan distance
+     * and the cost of the cells entered, see Heuristic and Edge_Cost.
+     * @param heuristic admissible and consistent heuristic under the cost model
+     * @param edge_cost cost of a move between neighbors
+     */
+
+    public void a_star_search(Heuristic heuristic, Edge_Cost edge_cost){
+        System.out.println("Implementing A-Star Search:");
+        Search_Result result = unreachable(grid.getStart(), grid.getGoal());
+        if(result == null){
+            result = new A_Star_Search(grid, heuristic, edge_cost).search(state, grid.getStart(), grid.getGoal(),
+                    Search_Budget.of_millis(TIME_LIMIT_MILLIS), listener);
+        }
+        display_result("A* Search", result);
+    }
+
+    /** A* search that may also move diagonally, see Neighborhood. Path costs
+     * are in tenths of the cell costs since a diagonal move is longer.
+     * @param rule when a diagonal move may pass next to an impasse
+     */
+
+    public void diagonal_a_star_search(Neighborhood.Corner_Rule rule){
+        System.out.println("Implementing A-Star Search with Diagonal Moves:");
+        display_result("Diagonal A* Search", A_Star_Search.eight_connected(grid, rule).search(state, grid.getStart(),
+                grid.getGoal(), Search_Budget.of_millis(TIME_LIMIT_MILLIS), listener));
+    }
+
+    /** A* search guided by landmark distances (ALT) instead of manhattan distance.
+     * The landmarks are computed the first time and kept for later searches on
+     * the same map, so only the first call pays for the preprocessing. Any change
+     * of a cost has them computed again, see Landmarks.
+     * @param count number of landmarks to place
+     */
+
+    public void alt_search(int count){
+        System.out.println("Implementing A-Star Search with Landmarks:");
+        if(landmarks == null || landmarks.getMap() != grid || landmarks.getCount() != count
+                || landmarks.getVersion() != grid.getVersion()){
+            long time = System.nanoTime();
+            landmarks = new Landmarks(grid, count);
+            System.out.println("Landmark preprocessing -> " + ((System.nanoTime() - time) / 1000000) + " milliseconds");
+        }
+        display_result("ALT Search", new A_Star_Search(grid, landmarks).search(state, grid.getStart(), grid.getGoal(),
+                Search_Budget.of_millis(TIME_LIMIT_MILLIS), listener));
+    }
+
+    /** IDA* search deepens on f = g + h instead of on depth, so it finds the same
+     * cheapest path as A* search while only keeping the current path in memory,
+     * see IDA_Star_Search.
+     *
+     */
+
+    public void ida_star_search(){
+        System.out.println("Implementing IDA-Star Search:");
+        display_result("IDA* Search", new IDA_Star_Search(grid).search(state, grid.getStart(), grid.getGoal()));
+    }
+
+    /** Jump point search finds the same cheapest path as A* search but in areas
+     * where every cell costs the same it only expands the cells where the path
+     * may turn instead of every cell along the way, see Jump_Point_Search.
+     *
+     */
+
+    public void jump_point_search(){
+        System.out.println("Implementing Jump Point Search:");
+        display_result("Jump Point Search", new Jump_Point_Search(grid).search(state, grid.getStart(), grid.getGoal()));
+    }
+
+    /** Bidirectional A* search runs one search forward from the start and one
+     * backward from the goal until they meet in the middle, see Bidirectional_Search.
+     *
+     */
+
+    public void bidirectional_search(){
+        System.out.println("Implementing Bidirectional A-Star Search:");
+        if(backward_state == null || backward_state.g.length != grid.size()){
+            backward_state = new Search_State(grid);
+        }
+        display_result("Bidirectional A* Search",
+                new Bidirectional_Search(grid, true).search(state, backward_state, grid.getStart(), grid.getGoal()));
+    }
+
+    /** Incremental search plans with D* Lite from the goal back to the start and
+     * keeps the plan, so that update_costs() only has to repair the part of it
+     * that the changed cells affect, see D_Star_Lite.
+     *
+     */
+
+    public void incremental_search(){
+        System.out.println("Implementing D* Lite Search:");
+        planner = new D_Star_Lite(grid, grid.getStart(), grid.getGoal());
+        display_result("D* Lite Search", planner.replan());
+    }
+
+    /**
+     * Changes the cost of a batch of cells and repairs the plan of incremental_search(),
+     * then prints how many nodes the repair expanded next to an A* search from scratch
+     * @param xs rows of the changed cells
+     * @param ys columns of the changed cells
+     * @param costs new costs of the changed cells, 0 makes a cell an impasse
+     */
+    public void update_costs(int[] xs, int[] ys, int[] costs){
+        if(xs.length != ys.length || xs.length != costs.length){
+            throw new IllegalArgumentException("Every changed cell needs a row, a column and a cost");
+        }
+        if(planner == null || planner.getMap() != grid || planner.getStart() != grid.getStart()
+                || planner.getGoal() != grid.getGoal()){
+            incremental_search();
+        }
+        int version = grid.getVersion();
+        boolean repair_hierarchy = hierarchy != null && hierarchy.getMap() == grid && hierarchy.getVersion() == version;
+        for(int i = 0; i < xs.length; i++){
+            planner.update_cost(xs[i], ys[i], costs[i]);
+            if(repair_hierarchy){
+                hierarchy.update_cost(xs[i], ys[i], costs[i]); // Rebuilds the clusters around the cell
+            }
+        }
+        landmarks = null; // Distances computed on the old costs may overestimate now
+        field = null;
+        int[] changed = new int[xs.length];
+        for(int i = 0; i < xs.length; i++){
+            changed[i] = grid.index(xs[i], ys[i]);
+        }
+        if(components != null && components.getMap() == grid && components.getVersion() == version){
+            components.update(changed);
+        }
+        if(flow_fields != null){
+            for(Flow_Field flow : flow_fields.values()){
+                if(flow.getMap() == grid && flow.getVersion() == version){
+                    flow.update(changed);
                 }
-                // We set the predecessor to the node that was just expanded
-                neighbor.setPredecessor(current);
             }
         }
-        open_set.clear();
-        closed_set.clear();
+        System.out.println("Replanning after " + xs.length + " cost updates:");
+        display_result("D* Lite Replan", planner.replan());
+        Search_Result full = new A_Star_Search(grid).search(state, grid.getStart(), grid.getGoal());
+        System.out.println("Number of nodes expanded by A* from scratch: " + full.getNodes_expanded());
+    }
+
+    /** A* search on a map kept in a tiled file instead of in memory, for maps
+     * larger than the heap. The map is read through a bounded tile cache and
+     * the search only keeps state for the cells it reaches, see Tiled_Map and
+     * Tiled_Search. The start and goal are the ones stored in the file.
+     * @param file path to the tiled map
+     * @param max_tiles most tiles held in memory at once
+     * @param max_nodes most cells the search may reach
+     */
+
+    public void tiled_search(String file, int max_tiles, int max_nodes) throws IOException {
+        System.out.println("Implementing Tiled A-Star Search:");
+        try(Tiled_Map tiles = Tiled_Map.open(file, max_tiles)){
+            Tiled_Result result = new Tiled_Search(tiles, max_nodes).search(tiles.getStart_x(), tiles.getStart_y(),
+                    tiles.getGoal_x(), tiles.getGoal_y(), Search_Budget.of_millis(TIME_LIMIT_MILLIS));
+            display_tiled_result("Tiled A* Search", result);
+            System.out.println("Tile faults: " + tiles.getFaults() + ", hits: " + tiles.getHits()
+                    + ", evictions: " + tiles.getEvictions() + " with " + tiles.getMax_tiles() + " tiles of "
+                    + tiles.getTile_size() + "x" + tiles.getTile_size() + " in memory");
+        }
+    }
+
+    /** A* search on a tiled map file loaded whole into memory outside the
+     * heap, for maps that fit in memory but would weigh on the garbage
+     * collector. The costs and the state of the search are allocated in an
+     * Off_Heap_Arena that is reset and reused by the next call, so repeated
+     * queries do not allocate again. See Off_Heap_Map and Tiled_Search.
+     * The start and goal are the ones stored in the file.
+     * @param file path to the tiled map
+     * @param max_nodes most cells the search may reach
+     */
+
+    public void off_heap_search(String file, int max_nodes) throws IOException {
+        System.out.println("Implementing Off-Heap A-Star Search:");
+        if(arena == null){
+            arena = new Off_Heap_Arena();
+        }
+        arena.reset();
+        Off_Heap_Map map = Off_Heap_Map.load(file, arena);
+        Tiled_Result result = new Tiled_Search(map, max_nodes, arena).search(map.getStart_x(), map.getStart_y(),
+                map.getGoal_x(), map.getGoal_y(), Search_Budget.of_millis(TIME_LIMIT_MILLIS));
+        display_tiled_result("Off-Heap A* Search", result);
+        System.out.println("Off-heap memory used: " + arena.getBytes() / (1 << 20) + " MB of "
+                + arena.getReserved() / (1 << 20) + " MB reserved");
+    }
+
+    /**
+     * Helper method used to display the result of a search on a map too large for a Grid_Map
+     * @param name the name of the search to display
+     * @param result the result of the search
+     */
+    private void display_tiled_result(String name, Tiled_Result result){
+        if(result.isPartial()){
+            System.out.println(name + " stopped early (" + result.getStop_reason() + "), showing the best path found so far");
+        }
+        long[] cells = result.getCells();
+        if(cells.length == 0){
+            System.out.println("No path to the goal was found");
+        }
+        else{
+            System.out.println("Path Cost from: " + "(" + result.getX(0) + "," + result.getY(0) + ")" + "to -->"
+                    + "(" + result.getX(cells.length - 1) + "," + result.getY(cells.length - 1) + ")" + ":"
+                    + result.getPath_cost() + " in " + (cells.length - 1) + " moves");
+        }
+        System.out.println(name + " Runtime -> " + (result.getElapsed_nanos() / 1000000) + " milliseconds");
+        System.out.println("Number of nodes expanded: " + result.getNodes_expanded());
+        System.out.println("Number of nodes in memory " + result.getNodes_in_memory());
+    }
+
+    /** Hierarchical search splits the map into clusters, finds a path through
+     * the entrances between them and refines it inside each cluster.
+     * The path found may be slightly more expensive than the A* path,
+     * see Hierarchical_Search. The clusters are built the first time and kept
+     * for later searches with the same cluster size, update_costs() rebuilds
+     * only the clusters around the cells it changes.
+     * @param cluster_size width and height of a cluster in cells
+     */
+
+    public void hierarchical_search(int cluster_size){
+        System.out.println("Implementing Hierarchical Search:");
+        display_result("Hierarchical Search", hierarchy(cluster_size).search(state, grid.getStart(), grid.getGoal()));
+    }
+
+    /**
+     * The cluster abstraction of the map, built again only when the map, the
+     * cluster size or a cost changed other than through update_costs()
+     * @param cluster_size width and height of a cluster in cells
+     * @return the abstraction of the current map
+     */
+    public Hierarchical_Search hierarchy(int cluster_size){
+        if(hierarchy == null || hierarchy.getMap() != grid || hierarchy.getCluster_size() != cluster_size
+                || hierarchy.getVersion() != grid.getVersion()){
+            hierarchy = new Hierarchical_Search(grid, cluster_size);
+        }
+        return hierarchy;
+    }
+
+    /**
+     * Helper method used to display the result of a search to the user
+     * and keep its path for getPath()
+     * @param name the name of the search to display
+     * @param result the result of the search
+     */
+    private void display_result(String name, Search_Result result){
+        if(result.isPartial()){
+            System.out.println(name + " stopped early (" + result.getStop_reason() + "), showing the best path found so far");
+        }
+        if(result.getPath().length == 0){
+            System.out.println("No path to the goal was found");
+            return;
+        }
+        int[] cells = result.getPath();
+        int start = cells[0];
+        int goal = cells[cells.length - 1];
+        /* We keep track of the predecessor nodes in this case to later display
+           the path taken to reach the goal state
+        */
+        path = new ArrayList<>();
+        System.out.println("Path to Goal:");
+        for(int i = 0; i < cells.length; i++){
+            System.out.print("("+grid.getX(cells[i])+","+grid.getY(cells[i])+")");
+            if(i > 0){
+                path.add(grid.getNode(cells[i]));
+            }
+        }
+        System.out.print((result.isPartial() ? "Closest State Reached:" : "Goal State Found:") + "("+grid.getX(goal)+","+grid.getY(goal)+")" + "\n");
+        System.out.println("Path Cost from: " + "("+grid.getX(start)+","+grid.getY(start)+")"+ "to -->" + "("+grid.getX(goal)+","+grid.getY(goal)+")" + ":" + result.getPath_cost());
+        System.out.println(name + " Runtime -> " + (result.getElapsed_nanos() / 1000000) + " milliseconds");
+        System.out.println("Number of nodes expanded: " + result.getNodes_expanded());
+        System.out.println("Number of nodes in memory " + result.getNodes_in_memory());
+        if(result.getSuboptimality() > 1 && result.getSuboptimality() != Search_Result.UNBOUNDED){
+            System.out.printf("Path costs at most %.3f times the cheapest path%n", result.getSuboptimality());
+        }
+    }
+
+    /**
+     * @return the sum of the costs of the cells entered along a path
+     */
+    private int path_cost(int[] cells){
+        int cost = 0;
+        for(int i = 1; i < cells.length; i++){
+            cost += grid.getCost(cells[i]);
+        }
+        return cost;
+    }
+
+    public Search_Listener getListener() {
+        return listener;
+    }
+
+    /**
+     * @param listener receives the progress of BFS, IDDFS and A* search, for example
+     * Search_Listener.trace to print every expanded cell, null for none
+     */
+    public void setListener(Search_Listener listener) {
+        this.listener = listener;
+    }
 
+    public Search_State getState() {
+        return state;
     }
 
     public int getStart_x() {
-        return start_x;
+        return grid.getX(grid.getStart());
     }
 
     public void setStart_x(int start_x) {
-        this.start_x = start_x;
+        grid.setStart(start_x, getStart_y());
     }
 
     public int getStart_y() {
-        return start_y;
+        return grid.getY(grid.getStart());
     }
 
     public void setStart_y(int start_y) {
-        this.start_y = start_y;
+        grid.setStart(getStart_x(), start_y);
     }
 
     public int getGoal_x() {
-        return goal_x;
+        return grid.getX(grid.getGoal());
     }
 
     public void setGoal_x(int goal_x) {
-        this.goal_x = goal_x;
+        grid.setGoal(goal_x, getGoal_y());
     }
 
     public int getGoal_y() {
-        return goal_y;
+        return grid.getY(grid.getGoal());
     }
 
     public void setGoal_y(int goal_y) {
-        this.goal_y = goal_y;
+        grid.setGoal(getGoal_x(), goal_y);
     }
 
     public boolean isNode_found() {
@@ -548,21 +1148,6 @@ public class Search_Algorithms {
     public void setNode_found(boolean node_found) {
         this.node_found = node_found;
     }
-    public List<Node> getClosed_set() {
-        return closed_set;
-    }
-
-    public void setClosed_set(List<Node> closed_set) {
-        this.closed_set = closed_set;
-    }
-
-    public Queue<Node> getOpen_set() {
-        return open_set;
-    }
-
-    public void setOpen_set(Queue<Node> open_set) {
-        this.open_set = open_set;
-    }
 
     public List<Node> getPath() {
         return path;
@@ -577,5 +1162,3 @@ public class Search_Algorithms {
 
 
 }
-
-
@@ -0,0 +1,125 @@
+package com.company;
+
+/**
+ * Limits on how much work a search may do, shared by every search algorithm.
+ *
+ * A budget can limit the wall clock time, the number of nodes expanded and
+ * the number of nodes held in memory, and it can be cancelled from another
+ * thread at any time. The deadline is fixed when the budget is made, so one
+ * budget passed to several searches in a row limits all of them together.
+ *
+ * Searches check their budget every CHECK_INTERVAL iterations of their main
+ * loop, so the limits are enforced to within that many expansions and
+ * System.nanoTime is only read that often. Once a check fails the budget
+ * stays exhausted and remembers why, and the search returns the best partial
+ * result it has (see Search_Result.partial).
+ * @author Jay James
+ * @author Daniel Villa
+ */
+public class Search_Budget {
+    /**
+     * Why a search stopped before it was done
+     */
+    public enum Stop_Reason {
+        DEADLINE, // The time limit ran out
+        EXPANSIONS, // Too many nodes were expanded
+        MEMORY, // Too many nodes were held in memory
+        CANCELLED // cancel() was called
+    }
+
+    public static final int CHECK_INTERVAL = 1024; // Iterations of a search loop between two checks of the budget
+    public static final long UNLIMITED = Long.MAX_VALUE; // Limit that is never reached
+    static final Search_Budget NONE = unlimited(); // Budget of searches called without one, never cancelled
+
+    private final long deadline; // System.nanoTime() at which the time runs out, only used when timed
+    private final boolean timed; // Whether there is a time limit at all
+    private final long max_expansions; // Most nodes a search may expand
+    private final long max_nodes_in_memory; // Most nodes a search may hold in memory
+    private volatile boolean cancelled; // Set by cancel(), possibly from another thread
+    private volatile Stop_Reason stop_reason; // Why the budget ran out, null while it has not
+
+    /**
+     * @param time_limit_nanos time the searches may take from now on, UNLIMITED for no limit
+     * @param max_expansions most nodes a search may expand, UNLIMITED for no limit
+     * @param max_nodes_in_memory most nodes a search may hold in memory, UNLIMITED for no limit
+     */
+    public Search_Budget(long time_limit_nanos, long max_expansions, long max_nodes_in_memory){
+        if(time_limit_nanos < 0 || max_expansions < 0 || max_nodes_in_memory < 0){
+            throw new IllegalArgumentException("Limits of a search budget cannot be negative");
+        }
+        this.timed = time_limit_nanos != UNLIMITED;
+        this.deadline = timed ? System.nanoTime() + time_limit_nanos : 0;
+        this.max_expansions = max_expansions;
+        this.max_nodes_in_memory = max_nodes_in_memory;
+    }
+
+    /**
+     * @return a budget without limits that only stops when cancelled
+     */
+    public static Search_Budget unlimited(){
+        return new Search_Budget(UNLIMITED, UNLIMITED, UNLIMITED);
+    }
+
+    /**
+     * @param millis time the searches may take from now on
+     * @return a budget with only a time limit
+     */
+    public static Search_Budget of_millis(long millis){
+        return new Search_Budget(millis * 1000000, UNLIMITED, UNLIMITED);
+    }
+
+    /**
+     * Checks the budget, to be called every CHECK_INTERVAL iterations of a search loop
+     * @param nodes_expanded nodes the search has expanded so far
+     * @param nodes_in_memory nodes the search holds in memory right now
+     * @return whether the search has to stop
+     */
+    public boolean exhausted(long nodes_expanded, long nodes_in_memory){
+        if(stop_reason != null){
+            return true;
+        }
+        Stop_Reason reason = null;
+        if(cancelled){
+            reason = Stop_Reason.CANCELLED;
+        }
+        else if(nodes_expanded >= max_expansions){
+            reason = Stop_Reason.EXPANSIONS;
+        }
+        else if(nodes_in_memory >= max_nodes_in_memory){
+            reason = Stop_Reason.MEMORY;
+        }
+        else if(timed && System.nanoTime() - deadline >= 0){
+            reason = Stop_Reason.DEADLINE;
+        }
+        if(reason == null){
+            return false;
+        }
+        stop_reason = reason;
+        return true;
+    }
+
+    /**
+     * Asks every search using this budget to stop at its next check
+     */
+    public void cancel(){
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return why the budget ran out, null if it has not
+     */
+    public Stop_Reason getStop_reason() {
+        return stop_reason;
+    }
+
+    /**
+     * @return nanoseconds left until the deadline, UNLIMITED when there is no time limit
+     */
+    public long getRemaining_nanos() {
+        return timed ? Math.max(0, deadline - System.nanoTime()) : UNLIMITED;
+    }
+}
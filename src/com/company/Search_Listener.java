@@ -0,0 +1,60 @@
+package com.company;
+
+import java.io.PrintStream;
+
+/**
+ * Receives the progress of a search as it runs, for tracing and debugging.
+ *
+ * Searches take a listener as an optional argument and only call it after
+ * checking that one was given, so a search without a listener pays a single
+ * predictable branch per event and never formats or prints anything.
+ * Every method does nothing by default, a listener only overrides the events
+ * it cares about.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+public interface Search_Listener {
+    /**
+     * Called when a cell is taken off the fringe and expanded
+     * @param cell index of the cell
+     */
+    default void on_expand(int cell){
+    }
+
+    /**
+     * Called when a cell is added to the fringe
+     * @param cell index of the cell
+     * @param parent index of the cell it was reached from
+     */
+    default void on_generate(int cell, int parent){
+    }
+
+    /**
+     * Called by iterative deepening after every depth limit it searched
+     * @param limit the depth limit
+     * @param nodes_expanded nodes expanded by the search of that limit
+     */
+    default void on_depth_limit(int limit, int nodes_expanded){
+    }
+
+    /**
+     * Called by anytime searches every time they have a better path to the goal
+     * @param result the path, its cost and the suboptimality bound proven for it so far
+     */
+    default void on_solution(Search_Result result){
+    }
+
+    /**
+     * @param map the map being searched
+     * @param out where to print
+     * @return a listener printing every expanded cell as (row,col), like our searches used to
+     */
+    static Search_Listener trace(Grid_Map map, PrintStream out){
+        return new Search_Listener() {
+            @Override
+            public void on_expand(int cell){
+                out.print("(" + map.getX(cell) + "," + map.getY(cell) + ")");
+            }
+        };
+    }
+}
@@ -0,0 +1,140 @@
+package com.company;
+
+/**
+ * The outcome of a single search on a Grid_Map.
+ * Holds the path as a sequence of cell indices from the start to the goal
+ * together with the numbers every one of our algorithms reports:
+ * the cost of the path, the number of nodes expanded, the number of
+ * nodes held in memory and the runtime.
+ * A search whose Search_Budget ran out returns a partial result: it records
+ * why the search stopped and holds the best path the search had at that
+ * point, which may end short of the goal or be a path to the goal that was
+ * not yet proven to be the cheapest.
+ * Searches that can prove how close their path is to the cheapest one
+ * report a suboptimality bound: the path costs at most that many times the
+ * cheapest path, 1 for a path proven to be the cheapest.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+public class Search_Result {
+    public static final int NO_PATH = -1; // Path cost reported when the goal was not reached
+    public static final double UNBOUNDED = Double.POSITIVE_INFINITY; // Suboptimality of a path nothing is proven about
+
+    private final int[] path; // Cells from the start to the goal, empty when no path was found
+    private final int path_cost; // Sum of the costs of the cells entered along the path
+    private final int nodes_expanded; // Number of nodes expanded by the search
+    private final int nodes_in_memory; // Number of nodes held in the open and closed sets
+    private final long elapsed_nanos; // Runtime of the search in nanoseconds
+    private final Search_Budget.Stop_Reason stop_reason; // Why the search stopped early, null if it ran to completion
+    private final double suboptimality; // Proven bound on path_cost over the cheapest cost, UNBOUNDED if none
+
+    /**
+     * Result of a search that proves nothing about how cheap its path is
+     */
+    public Search_Result(int[] path, int path_cost, int nodes_expanded, int nodes_in_memory, long elapsed_nanos){
+        this(path, path_cost, nodes_expanded, nodes_in_memory, elapsed_nanos, null, UNBOUNDED);
+    }
+
+    Search_Result(int[] path, int path_cost, int nodes_expanded, int nodes_in_memory, long elapsed_nanos,
+                  Search_Budget.Stop_Reason stop_reason, double suboptimality){
+        this.path = path;
+        this.path_cost = path_cost;
+        this.nodes_expanded = nodes_expanded;
+        this.nodes_in_memory = nodes_in_memory;
+        this.elapsed_nanos = elapsed_nanos;
+        this.stop_reason = stop_reason;
+        this.suboptimality = suboptimality;
+    }
+
+    /**
+     * Result of a search whose path costs at most suboptimality times the cheapest path
+     * @param suboptimality proven bound, 1 for a path proven to be the cheapest
+     */
+    public static Search_Result bounded(int[] path, int path_cost, int nodes_expanded, int nodes_in_memory,
+                                        long elapsed_nanos, double suboptimality){
+        return new Search_Result(path, path_cost, nodes_expanded, nodes_in_memory, elapsed_nanos, null, suboptimality);
+    }
+
+    /**
+     * Result of a search that did not reach the goal
+     */
+    public static Search_Result not_found(int nodes_expanded, int nodes_in_memory, long elapsed_nanos){
+        return new Search_Result(new int[0], NO_PATH, nodes_expanded, nodes_in_memory, elapsed_nanos);
+    }
+
+    /**
+     * Result of a search that was stopped by its budget
+     * @param path best path the search had when it stopped, empty if it had none
+     * @param path_cost cost of that path, NO_PATH if it had none
+     * @param stop_reason why the search stopped
+     */
+    public static Search_Result partial(int[] path, int path_cost, int nodes_expanded, int nodes_in_memory,
+                                        long elapsed_nanos, Search_Budget.Stop_Reason stop_reason){
+        return partial(path, path_cost, nodes_expanded, nodes_in_memory, elapsed_nanos, stop_reason, UNBOUNDED);
+    }
+
+    /**
+     * Result of a search that was stopped by its budget holding a path with a proven bound
+     * @param suboptimality proven bound on how much more the path costs than the cheapest one
+     */
+    public static Search_Result partial(int[] path, int path_cost, int nodes_expanded, int nodes_in_memory,
+                                        long elapsed_nanos, Search_Budget.Stop_Reason stop_reason, double suboptimality){
+        return new Search_Result(path, path_cost, nodes_expanded, nodes_in_memory, elapsed_nanos, stop_reason,
+                suboptimality);
+    }
+
+    /**
+     * @return whether the search ran to completion and reached the goal
+     */
+    public boolean isFound() {
+        return path_cost != NO_PATH && stop_reason == null;
+    }
+
+    /**
+     * @return whether the search was stopped by its budget before it was done
+     */
+    public boolean isPartial() {
+        return stop_reason != null;
+    }
+
+    /**
+     * @return why the search stopped early, null if it ran to completion
+     */
+    public Search_Budget.Stop_Reason getStop_reason() {
+        return stop_reason;
+    }
+
+    /**
+     * @return how many times the cheapest path the path costs at most, UNBOUNDED if nothing is proven
+     */
+    public double getSuboptimality() {
+        return suboptimality;
+    }
+
+    public int[] getPath() {
+        return path;
+    }
+
+    public int getPath_cost() {
+        return path_cost;
+    }
+
+    public int getNodes_expanded() {
+        return nodes_expanded;
+    }
+
+    public int getNodes_in_memory() {
+        return nodes_in_memory;
+    }
+
+    public long getElapsed_nanos() {
+        return elapsed_nanos;
+    }
+
+    /**
+     * @return nodes expanded per second of runtime
+     */
+    public double getExpansions_per_second() {
+        return elapsed_nanos == 0 ? 0 : nodes_expanded * 1e9 / elapsed_nanos;
+    }
+}
@@ -0,0 +1,135 @@
+package com.company;
+
+import java.util.Arrays;
+
+/**
+ * Per-search scratch state for a Grid_Map.
+ * Everything the old Node objects used to carry for a search
+ * (g, h, predecessor, depth, whether the node was visited and the open set)
+ * is kept here in primitive arrays indexed by cell, so the map
+ * itself is never written to by a search.
+ *
+ * A state is allocated once per map and reset between searches, resetting
+ * only empties the open set and starts a new Closed_Set epoch. Every other
+ * array is written before it is read within a search, so stale values from
+ * an earlier query are never seen.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+public class Search_State {
+    public static final int NO_PARENT = -1; // Marks a cell without a predecessor
+
+    final int[] g; // The distance from the start to each cell
+    final int[] h; // The estimated distance from each cell to the destination
+    final int[] parent; // The cell that precedes each cell in the path
+    private int[] depth; // Depth level of each cell, made when a depth first search first needs it
+    final Closed_Set closed; // Cells that have already been visited
+    private int[] stack; // Fringe used by the depth first searches, made when first needed
+    final Indexed_Min_Heap open; // Fringe used by the best first searches
+    final int[] successors = new int[Grid_Map.MAX_SUCCESSORS]; // Buffer the successors of the expanded cell are written to
+    private Bucket_Queue buckets; // Fringe of the uniform cost search, made when first needed
+
+    /**
+     * Constructor allocating state for every cell of a map
+     * @param map the map that will be searched
+     */
+    public Search_State(Grid_Map map){
+        int size = map.size();
+        g = new int[size];
+        h = new int[size];
+        parent = new int[size];
+        closed = new Closed_Set(size);
+        open = new Indexed_Min_Heap(size);
+        Arrays.fill(parent, NO_PARENT);
+    }
+
+    /**
+     * Prepares the state for a new search from the given cell
+     * @param start index of the cell the search starts from
+     */
+    public void reset(int start){
+        open.clear();
+        closed.clear();
+        g[start] = 0;
+        if(depth != null){
+            depth[start] = 0;
+        }
+        parent[start] = NO_PARENT;
+    }
+
+    /**
+     * Only IDDFS, IDA* and ARA* use the depth array and the stack, so a state
+     * that only ever runs best first searches, like those of a
+     * Pathfinding_Service, never allocates them
+     * @return the depth of every cell, allocated on first use
+     */
+    int[] depth(){
+        if(depth == null){
+            depth = new int[g.length];
+        }
+        return depth;
+    }
+
+    /**
+     * @return the fringe of the depth first searches, one more than the cells of the map, allocated on first use
+     */
+    int[] stack(){
+        if(stack == null){
+            stack = new int[g.length + 1];
+        }
+        return stack;
+    }
+
+    /**
+     * @param max_span largest cost of a single move of the search
+     * @return an empty bucket queue for the map, reused as long as its span is large enough
+     */
+    Bucket_Queue buckets(int max_span){
+        if(buckets == null || buckets.getMax_span() < max_span){
+            buckets = new Bucket_Queue(g.length, max_span);
+        }
+        buckets.clear();
+        return buckets;
+    }
+
+    /**
+     * Follows the predecessors recorded by the last search back to its start
+     * @param destination index of the last cell of the path
+     * @return the cells of the path in order, starting with the start cell
+     */
+    public int[] trace_path(int destination){
+        int length = 0;
+        for(int i = destination; i != NO_PARENT; i = parent[i]){
+            length++;
+        }
+        int[] path = new int[length];
+        for(int i = destination; i != NO_PARENT; i = parent[i]){
+            path[--length] = i;
+        }
+        return path;
+    }
+
+    public int getG(int index) {
+        return g[index];
+    }
+
+    public int getH(int index) {
+        return h[index];
+    }
+
+    public int getF(int index){
+        return g[index] + h[index];
+    }
+
+    public int getParent(int index) {
+        return parent[index];
+    }
+
+    public int getDepth(int index) {
+        return depth == null ? 0 : depth[index];
+    }
+
+    public boolean isClosed(int index) {
+        return closed.contains(index);
+    }
+}
@@ -0,0 +1,110 @@
+package com.company;
+
+/**
+ * Calls the heuristics and cost models of this package without going
+ * through the interface call sites of Heuristic and Edge_Cost.
+ *
+ * A search classifies its strategies once when it is made (heuristic_kind,
+ * cost_kind) and passes the kind along with every call. estimate() and
+ * cost() are small enough for the JIT to inline into the loop of every
+ * search, where the switch on a kind that never changes during a query is
+ * always predicted, and every case calls a method of the concrete class,
+ * which is bound statically and inlined whatever other strategies the
+ * program uses. Only heuristics and cost models from outside this package,
+ * such as lambdas, are left to the interface call site, the one that can
+ * still go megamorphic.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+final class Strategies {
+    static final int MANHATTAN = 0;
+    static final int EUCLIDEAN = 1;
+    static final int OCTILE = 2;
+    static final int ZERO = 3;
+    static final int LANDMARKS = 4;
+    static final int OTHER_HEURISTIC = 5; // Called through the Heuristic interface
+
+    static final int ENTERING = 0;
+    static final int AVERAGE = 1;
+    static final int OCTILE_COST = 2;
+    static final int OTHER_COST = 3; // Called through the Edge_Cost interface
+
+    private Strategies(){
+    }
+
+    /**
+     * @return the kind estimate() dispatches a heuristic on
+     */
+    static int heuristic_kind(Heuristic heuristic){
+        if(heuristic instanceof Heuristic.Manhattan){
+            return MANHATTAN;
+        }
+        if(heuristic instanceof Heuristic.Euclidean){
+            return EUCLIDEAN;
+        }
+        if(heuristic instanceof Heuristic.Octile){
+            return OCTILE;
+        }
+        if(heuristic instanceof Heuristic.Zero){
+            return ZERO;
+        }
+        if(heuristic.getClass() == Landmarks.class){
+            return LANDMARKS;
+        }
+        return OTHER_HEURISTIC;
+    }
+
+    /**
+     * @return the kind cost() dispatches a cost model on
+     */
+    static int cost_kind(Edge_Cost edge_cost){
+        if(edge_cost instanceof Edge_Cost.Entering){
+            return ENTERING;
+        }
+        if(edge_cost instanceof Edge_Cost.Average){
+            return AVERAGE;
+        }
+        if(edge_cost instanceof Edge_Cost.Octile){
+            return OCTILE_COST;
+        }
+        return OTHER_COST;
+    }
+
+    /**
+     * @param kind heuristic_kind() of the heuristic
+     * @return the estimate of the heuristic from the cell to the goal
+     */
+    static int estimate(int kind, Heuristic heuristic, int index, int goal){
+        switch(kind){
+            case MANHATTAN:
+                return ((Heuristic.Manhattan) heuristic).estimate(index, goal);
+            case EUCLIDEAN:
+                return ((Heuristic.Euclidean) heuristic).estimate(index, goal);
+            case OCTILE:
+                return ((Heuristic.Octile) heuristic).estimate(index, goal);
+            case ZERO:
+                return 0;
+            case LANDMARKS:
+                return ((Landmarks) heuristic).estimate(index, goal);
+            default:
+                return heuristic.estimate(index, goal);
+        }
+    }
+
+    /**
+     * @param kind cost_kind() of the cost model
+     * @return the cost of the move under the cost model
+     */
+    static int cost(int kind, Edge_Cost edge_cost, int from, int to){
+        switch(kind){
+            case ENTERING:
+                return ((Edge_Cost.Entering) edge_cost).cost(from, to);
+            case AVERAGE:
+                return ((Edge_Cost.Average) edge_cost).cost(from, to);
+            case OCTILE_COST:
+                return ((Edge_Cost.Octile) edge_cost).cost(from, to);
+            default:
+                return edge_cost.cost(from, to);
+        }
+    }
+}
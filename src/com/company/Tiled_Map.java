@@ -0,0 +1,315 @@
+package com.company;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Map whose costs stay in a file and are paged into memory a tile at a time,
+ * for maps far larger than the heap.
+ *
+ * The file starts with a 40 byte header
+ *      magic "GTIL", version, rows, cols, tile size, start x, start y, goal x, goal y, reserved
+ * (big endian ints) followed by the tiles in row order. A tile holds the
+ * costs of tile_size x tile_size cells in row order, one unsigned byte per
+ * cell, and tiles on the right and bottom edges are padded with impasses to
+ * the full size, so tile t starts at HEADER_BYTES + t * tile_size^2.
+ *
+ * At most max_tiles tiles are held in memory. A tile that is read when it is
+ * not held faults: it is read from the file into the page of the tile that
+ * was least recently used, found with the clock algorithm (every page has a
+ * bit set when it is read, and a hand sweeps the pages clearing bits until it
+ * finds one not read since its last pass). Pages are allocated once, so the
+ * memory of a map is max_tiles * tile_size^2 bytes plus one int per tile for
+ * the directory, whatever the size of the map. Reading the same tile as the
+ * last read, which is what a search does most of the time, skips the
+ * directory altogether.
+ *
+ * Tile faults, hits and evictions are counted. A map is not thread safe,
+ * every thread should open the file on its own.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+public class Tiled_Map implements Cell_Costs, Closeable {
+    public static final int MAGIC = 0x4754494C; // "GTIL"
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 10 * Integer.BYTES;
+    private static final int NOT_HELD = -1; // Directory entry of a tile that is not in memory
+
+    private final FileChannel channel; // The file the tiles are read from
+    private final int rows;
+    private final int cols;
+    private final int tile_size; // Width and height of a tile, a power of two
+    private final int shift; // log2 of tile_size
+    private final int tiles_across; // Number of tiles in a row of tiles
+    private final int start_x; // Start location, kept as row and column since x * cols + y may not fit an int
+    private final int start_y;
+    private final int goal_x; // Goal location
+    private final int goal_y;
+    private final int[] page_of; // Page holding each tile, NOT_HELD when the tile is not in memory
+    private final byte[][] pages; // Costs of the tile held in each page
+    private final int[] tile_in; // Tile held in each page, NOT_HELD while the page is free
+    private final boolean[] referenced; // Whether each page was read since the clock hand last passed it
+    private int hand; // Next page the clock looks at
+    private int last_tile = NOT_HELD; // Tile of the last read
+    private byte[] last_page; // Page of the last read
+    private long faults; // Reads of a tile that was not in memory
+    private long hits; // Reads of a tile in memory other than the last one read
+    private long evictions; // Tiles dropped to make room for another
+
+    private Tiled_Map(FileChannel channel, int rows, int cols, int tile_size, int start_x, int start_y,
+                      int goal_x, int goal_y, int max_tiles){
+        this.channel = channel;
+        this.rows = rows;
+        this.cols = cols;
+        this.tile_size = tile_size;
+        this.shift = Integer.numberOfTrailingZeros(tile_size);
+        this.tiles_across = (cols + tile_size - 1) >> shift;
+        this.start_x = start_x;
+        this.start_y = start_y;
+        this.goal_x = goal_x;
+        this.goal_y = goal_y;
+        int tiles = Math.multiplyExact((rows + tile_size - 1) >> shift, tiles_across);
+        this.page_of = new int[tiles];
+        this.pages = new byte[Math.min(max_tiles, Math.max(1, tiles))][];
+        this.tile_in = new int[pages.length];
+        this.referenced = new boolean[pages.length];
+        Arrays.fill(page_of, NOT_HELD);
+        Arrays.fill(tile_in, NOT_HELD);
+    }
+
+    /**
+     * Opens a tiled map file
+     * @param file path to the tiled map
+     * @param max_tiles most tiles held in memory at once
+     * @return the map, to be closed when it is no longer needed
+     */
+    public static Tiled_Map open(String file, int max_tiles) throws IOException {
+        if(max_tiles < 1){
+            throw new IllegalArgumentException("At least one tile has to fit in memory");
+        }
+        FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ);
+        try{
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            read_fully(channel, header, 0);
+            header.flip();
+            if(header.getInt() != MAGIC){
+                throw new IOException(file + " is not a tiled map");
+            }
+            int version = header.getInt();
+            if(version != VERSION){
+                throw new IOException(file + " has unsupported version " + version);
+            }
+            int rows = header.getInt();
+            int cols = header.getInt();
+            int tile_size = header.getInt();
+            if(rows < 0 || cols < 0 || tile_size < 1 || Integer.bitCount(tile_size) != 1
+                    || channel.size() != HEADER_BYTES + tile_count(rows, cols, tile_size) * tile_size * tile_size){
+                throw new IOException(file + " does not hold a " + rows + "x" + cols + " map in tiles of " + tile_size);
+            }
+            Tiled_Map map = new Tiled_Map(channel, rows, cols, tile_size, header.getInt(), header.getInt(),
+                    header.getInt(), header.getInt(), max_tiles);
+            if(!map.isWithinBounds(map.start_x, map.start_y) || !map.isWithinBounds(map.goal_x, map.goal_y)){
+                throw new IOException(file + " has its start or goal outside the map");
+            }
+            return map;
+        }catch (IOException | RuntimeException e){
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the costs of any map into a tiled map file, one row of tiles at a
+     * time, so a map that does not fit in memory, like one made up on the fly,
+     * can be written as well
+     * @param costs the costs to write
+     * @param start_x row of the start location
+     * @param start_y column of the start location
+     * @param goal_x row of the goal location
+     * @param goal_y column of the goal location
+     * @param file path the tiled map is written to
+     * @param tile_size width and height of a tile, a power of two
+     */
+    public static void write(Cell_Costs costs, int start_x, int start_y, int goal_x, int goal_y, String file,
+                             int tile_size) throws IOException {
+        if(tile_size < 1 || Integer.bitCount(tile_size) != 1){
+            throw new IllegalArgumentException("Tile size " + tile_size + " is not a power of two");
+        }
+        int rows = costs.getRows();
+        int cols = costs.getCols();
+        int tiles_across = (cols + tile_size - 1) / tile_size;
+        int tile_bytes = tile_size * tile_size;
+        try(FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)){
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(cols).putInt(tile_size)
+                    .putInt(start_x).putInt(start_y).putInt(goal_x).putInt(goal_y).putInt(0);
+            header.flip();
+            Map_File.write_fully(channel, header);
+            byte[] band = new byte[Math.multiplyExact(tiles_across, tile_bytes)]; // One row of tiles
+            for(int top = 0; top < rows; top += tile_size){
+                Arrays.fill(band, (byte) 0);
+                for(int x = top; x < Math.min(rows, top + tile_size); x++){
+                    for(int y = 0; y < cols; y++){
+                        int cost = costs.getCost(x, y);
+                        if(cost < 0 || cost > Grid_Map.MAX_COST){
+                            throw new IllegalArgumentException("Cost " + cost + " at (" + x + "," + y + ") is outside 0.." + Grid_Map.MAX_COST);
+                        }
+                        band[(y / tile_size) * tile_bytes + (x - top) * tile_size + y % tile_size] = (byte) cost;
+                    }
+                }
+                Map_File.write_fully(channel, ByteBuffer.wrap(band));
+            }
+        }
+    }
+
+    /**
+     * Writes an in memory map into a tiled map file
+     * @param map the map to write, with its start and goal
+     * @param file path the tiled map is written to
+     * @param tile_size width and height of a tile, a power of two
+     */
+    public static void write(Grid_Map map, String file, int tile_size) throws IOException {
+        write(map, map.getX(map.getStart()), map.getY(map.getStart()), map.getX(map.getGoal()),
+                map.getY(map.getGoal()), file, tile_size);
+    }
+
+    @Override
+    public int getCost(int x, int y){
+        int tile = (x >> shift) * tiles_across + (y >> shift);
+        byte[] page = tile == last_tile ? last_page : page_in(tile);
+        return page[((x & (tile_size - 1)) << shift) | (y & (tile_size - 1))] & 0xFF;
+    }
+
+    public boolean isImpasse(int x, int y){
+        return getCost(x, y) == 0;
+    }
+
+    /**
+     * @return whether a given position is within the map
+     */
+    public boolean isWithinBounds(int x, int y){
+        return x >= 0 && x < rows && y >= 0 && y < cols;
+    }
+
+    /**
+     * @return the page holding a tile, read from the file into the least recently used page if needed
+     */
+    private byte[] page_in(int tile){
+        int page = page_of[tile];
+        if(page != NOT_HELD){
+            hits++;
+        }
+        else{
+            faults++;
+            while(referenced[hand]){
+                referenced[hand] = false;
+                hand = hand + 1 == pages.length ? 0 : hand + 1;
+            }
+            page = hand;
+            hand = hand + 1 == pages.length ? 0 : hand + 1;
+            if(tile_in[page] != NOT_HELD){
+                page_of[tile_in[page]] = NOT_HELD;
+                evictions++;
+            }
+            if(pages[page] == null){
+                pages[page] = new byte[tile_size * tile_size];
+            }
+            try{
+                read_fully(channel, ByteBuffer.wrap(pages[page]), HEADER_BYTES + (long) tile * pages[page].length);
+            }catch (IOException e){
+                tile_in[page] = NOT_HELD;
+                throw new IllegalStateException("Reading tile " + tile + " of the map failed", e);
+            }
+            tile_in[page] = tile;
+            page_of[tile] = page;
+        }
+        referenced[page] = true;
+        last_tile = tile;
+        last_page = pages[page];
+        return last_page;
+    }
+
+    private static long tile_count(int rows, int cols, int tile_size){
+        return (long) ((rows + tile_size - 1) / tile_size) * ((cols + tile_size - 1) / tile_size);
+    }
+
+    private static void read_fully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while(buffer.hasRemaining()){
+            int read = channel.read(buffer, position);
+            if(read < 0){
+                throw new EOFException("Tiled map file ended inside a tile");
+            }
+            position += read;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getCols() {
+        return cols;
+    }
+
+    public int getTile_size() {
+        return tile_size;
+    }
+
+    /**
+     * @return the most tiles held in memory at once
+     */
+    public int getMax_tiles() {
+        return pages.length;
+    }
+
+    public int getStart_x() {
+        return start_x;
+    }
+
+    public int getStart_y() {
+        return start_y;
+    }
+
+    public int getGoal_x() {
+        return goal_x;
+    }
+
+    public int getGoal_y() {
+        return goal_y;
+    }
+
+    /**
+     * @return reads of a tile that had to be loaded from the file
+     */
+    public long getFaults() {
+        return faults;
+    }
+
+    /**
+     * @return reads of a tile already in memory, not counting reads of the tile read last
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return tiles dropped from memory to make room for another
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+}
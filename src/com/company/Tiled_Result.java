@@ -0,0 +1,56 @@
+package com.company;
+
+/**
+ * Result of a Tiled_Search. The cells of the path are numbered
+ * x * cols + y like everywhere else, but as longs, since that number
+ * overflows an int on maps of more than 2^31 cells. getPath() holds the
+ * same cells as ints when the map is small enough for them, and is empty
+ * otherwise.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+public class Tiled_Result extends Search_Result {
+    private final long[] cells; // Cells from the start to the goal, empty when no path was found
+    private final int cols; // Number of columns of the map searched
+
+    Tiled_Result(long[] cells, int cols, int path_cost, int nodes_expanded, int nodes_in_memory, long elapsed_nanos,
+                 Search_Budget.Stop_Reason stop_reason, double suboptimality){
+        super(as_ints(cells), path_cost, nodes_expanded, nodes_in_memory, elapsed_nanos, stop_reason, suboptimality);
+        this.cells = cells;
+        this.cols = cols;
+    }
+
+    /**
+     * @return the cells as ints, or no cells if one of them does not fit an int
+     */
+    private static int[] as_ints(long[] cells){
+        int[] path = new int[cells.length];
+        for(int i = 0; i < cells.length; i++){
+            if(cells[i] > Integer.MAX_VALUE){
+                return new int[0];
+            }
+            path[i] = (int) cells[i];
+        }
+        return path;
+    }
+
+    public long[] getCells() {
+        return cells;
+    }
+
+    /**
+     * @param i position along the path
+     * @return the row of the i-th cell of the path
+     */
+    public int getX(int i) {
+        return (int) (cells[i] / cols);
+    }
+
+    /**
+     * @param i position along the path
+     * @return the column of the i-th cell of the path
+     */
+    public int getY(int i) {
+        return (int) (cells[i] % cols);
+    }
+}
@@ -0,0 +1,274 @@
+package com.company;
+
+/**
+ * A* search that reads the map only through Cell_Costs, for maps too large
+ * to hold in memory such as a Tiled_Map.
+ *
+ * A Search_State holds a few ints for every cell of the map, which is what
+ * limits A_Star_Search to maps that fit in memory. Here the state of a search
+ * only exists for the cells it has reached: every reached cell gets a slot
+ * through an open addressing hash table keyed by the cell, and g, the
+ * predecessor and whether the cell was expanded are kept per slot. Cells are
+ * numbered x * cols + y as a long, so the map may have more than 2^31 cells.
+ *
+ * The number of slots is fixed when the search is made, which fixes its
+ * memory at about 60 bytes a slot, and a search that needs more cells than
+ * that stops with Stop_Reason.MEMORY and the path to the cell closest to the
+ * goal, like a search whose Search_Budget ran out. Together with the tile
+ * cache of a Tiled_Map this bounds the memory of a query whatever the size
+ * of the map.
+ *
+ * The slots, the table and the open set are allocated in an Off_Heap_Arena,
+ * so millions of slots cost the heap nothing and the collector never has to
+ * trace them. The fields of a slot are stored next to each other, a reached
+ * cell costs one cache line rather than one per array. The memory is
+ * allocated once and reused by every query, so a Tiled_Search, like a
+ * Search_State, belongs to one thread.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+public class Tiled_Search {
+    private static final int EMPTY = -1; // Table entry without a cell
+    private static final int NO_PARENT = -1; // Predecessor slot of the start
+    private static final int SLOT_BYTES = 32; // Cell, g, h, predecessor, table entry and closed flag of a slot
+    private static final int CELL = 0; // Offsets of the fields within a slot
+    private static final int G = 8;
+    private static final int H = 12;
+    private static final int PARENT = 16;
+    private static final int ENTRY = 20;
+    private static final int CLOSED = 24;
+
+    private final Cell_Costs costs; // The map we will search, only ever read
+    private final int rows;
+    private final int cols;
+    private final int max_nodes; // Number of slots, the most cells a query may reach
+    private final Off_Heap_Arena arena; // Memory the state of the search lives in
+    private final long table; // Slot of the cell hashed to each entry, EMPTY when none
+    private final int mask; // Table entries - 1, the table has a power of two entries
+    private final long slots; // Fields of each slot, SLOT_BYTES apart
+    private final Off_Heap_Min_Heap open; // Slots to expand by g + h
+    private int used; // Slots handed out in the current query
+
+    /**
+     * @param costs the map we will search
+     * @param max_nodes most cells a query may reach, which fixes the memory of the search
+     */
+    public Tiled_Search(Cell_Costs costs, int max_nodes){
+        this(costs, max_nodes, new Off_Heap_Arena());
+    }
+
+    /**
+     * Search whose state is allocated in a given arena, which may have been
+     * reset after an earlier search so its memory is reused
+     * @param costs the map we will search
+     * @param max_nodes most cells a query may reach, which fixes the memory of the search
+     * @param arena memory the state of the search is allocated in
+     */
+    public Tiled_Search(Cell_Costs costs, int max_nodes, Off_Heap_Arena arena){
+        if(max_nodes < 1 || max_nodes > 1 << 28){
+            throw new IllegalArgumentException("A search needs between 1 and 2^28 slots, not " + max_nodes);
+        }
+        this.costs = costs;
+        this.rows = costs.getRows();
+        this.cols = costs.getCols();
+        this.max_nodes = max_nodes;
+        this.arena = arena;
+        int entries = Integer.highestOneBit(max_nodes) << 2; // Kept at most half full
+        this.mask = entries - 1;
+        this.table = arena.allocate(4L * entries);
+        this.slots = arena.allocate((long) SLOT_BYTES * max_nodes);
+        this.open = new Off_Heap_Min_Heap(max_nodes, arena);
+        arena.fillInts(table, entries, EMPTY);
+    }
+
+    /**
+     * @return the cheapest path and the statistics of the search, partial if the slots ran out
+     */
+    public Tiled_Result search(int start_x, int start_y, int goal_x, int goal_y){
+        return search(start_x, start_y, goal_x, goal_y, Search_Budget.NONE);
+    }
+
+    /**
+     * A* search with manhattan distance from the start to the goal. Nodes in
+     * memory is the number of slots used.
+     * @param start_x row of the start cell
+     * @param start_y column of the start cell
+     * @param goal_x row of the goal cell
+     * @param goal_y column of the goal cell
+     * @param budget limits on the work the search may do
+     * @return the cheapest path and the statistics of the search, partial if
+     * the budget or the slots ran out, with the path to the expanded cell
+     * closest to the goal
+     */
+    public Tiled_Result search(int start_x, int start_y, int goal_x, int goal_y, Search_Budget budget){
+        if(start_x < 0 || start_x >= rows || start_y < 0 || start_y >= cols
+                || goal_x < 0 || goal_x >= rows || goal_y < 0 || goal_y >= cols){
+            throw new IllegalArgumentException("Start (" + start_x + "," + start_y + ") or goal (" + goal_x + ","
+                    + goal_y + ") is outside the " + rows + "x" + cols + " map");
+        }
+        long startTime = System.nanoTime();
+        clear();
+        long goal = (long) goal_x * cols + goal_y;
+        int first = slot((long) start_x * cols + start_y);
+        set(first, G, 0);
+        set(first, H, Math.abs(start_x - goal_x) + Math.abs(start_y - goal_y));
+        set(first, PARENT, NO_PARENT);
+        open.add(first, get(first, H));
+        int num_nodes_expanded = 1;
+        int closest = first;
+        int until_check = Search_Budget.CHECK_INTERVAL;
+        Search_Budget.Stop_Reason stop_reason = null;
+        while(!open.isEmpty()){
+            if(--until_check == 0){
+                until_check = Search_Budget.CHECK_INTERVAL;
+                if(budget.exhausted(num_nodes_expanded, used)){
+                    stop_reason = budget.getStop_reason();
+                    break;
+                }
+            }
+            int current = open.poll();
+            long current_cell = cell(current);
+            if(current_cell == goal){
+                return result(current, num_nodes_expanded, startTime, null);
+            }
+            set(current, CLOSED, 1);
+            if(get(current, H) < get(closest, H)){
+                closest = current;
+            }
+            int current_g = get(current, G);
+            int x = (int) (current_cell / cols);
+            int y = (int) (current_cell % cols);
+            // North, South, West and East, in the order of Grid_Map.successors
+            for(int d = 0; d < 4; d++){
+                int nx = d == 0 ? x - 1 : d == 1 ? x + 1 : x;
+                int ny = d == 2 ? y - 1 : d == 3 ? y + 1 : y;
+                if(nx < 0 || nx >= rows || ny < 0 || ny >= cols){
+                    continue;
+                }
+                int cost = costs.getCost(nx, ny);
+                if(cost == 0){
+                    continue;
+                }
+                long cell = (long) nx * cols + ny;
+                int tentative_g = current_g + cost;
+                int neighbor = find(cell);
+                if(neighbor == EMPTY){
+                    if(used == max_nodes){
+                        stop_reason = Search_Budget.Stop_Reason.MEMORY;
+                        break;
+                    }
+                    neighbor = slot(cell);
+                    int h = Math.abs(nx - goal_x) + Math.abs(ny - goal_y);
+                    set(neighbor, G, tentative_g);
+                    set(neighbor, H, h);
+                    set(neighbor, PARENT, current);
+                    open.add(neighbor, tentative_g + h);
+                    num_nodes_expanded++;
+                }
+                else if(get(neighbor, CLOSED) == 0 && tentative_g < get(neighbor, G)){
+                    set(neighbor, G, tentative_g);
+                    set(neighbor, PARENT, current);
+                    open.decreaseKey(neighbor, tentative_g + get(neighbor, H));
+                }
+            }
+            if(stop_reason != null){
+                break;
+            }
+        }
+        if(stop_reason != null){
+            return result(closest, num_nodes_expanded, startTime, stop_reason);
+        }
+        return new Tiled_Result(new long[0], cols, Search_Result.NO_PATH, num_nodes_expanded, used,
+                System.nanoTime() - startTime, null, Search_Result.UNBOUNDED);
+    }
+
+    /**
+     * @return the path ending at a slot, bounded by 1 if the search reached the goal
+     */
+    private Tiled_Result result(int last, int num_nodes_expanded, long startTime, Search_Budget.Stop_Reason stop_reason){
+        int length = 0;
+        for(int slot = last; slot != NO_PARENT; slot = get(slot, PARENT)){
+            length++;
+        }
+        long[] path = new long[length];
+        for(int slot = last; slot != NO_PARENT; slot = get(slot, PARENT)){
+            path[--length] = cell(slot);
+        }
+        return new Tiled_Result(path, cols, get(last, G), num_nodes_expanded, used, System.nanoTime() - startTime,
+                stop_reason, stop_reason == null ? 1 : Search_Result.UNBOUNDED);
+    }
+
+    /**
+     * Empties the table of the last query, O(slots used)
+     */
+    private void clear(){
+        for(int slot = 0; slot < used; slot++){
+            arena.putInt(table + 4L * get(slot, ENTRY), EMPTY);
+        }
+        used = 0;
+        open.clear();
+    }
+
+    /**
+     * @return the slot of a cell, EMPTY if the query has not reached it
+     */
+    private int find(long cell){
+        for(int entry = hash(cell); ; entry = (entry + 1) & mask){
+            int slot = arena.getInt(table + 4L * entry);
+            if(slot == EMPTY || cell(slot) == cell){
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * Hands out the next slot to a cell that does not have one
+     */
+    private int slot(long cell){
+        int entry = hash(cell);
+        while(arena.getInt(table + 4L * entry) != EMPTY){
+            entry = (entry + 1) & mask;
+        }
+        int slot = used++;
+        arena.putInt(table + 4L * entry, slot);
+        set(slot, ENTRY, entry);
+        set(slot, CLOSED, 0); // The arena may hand out memory an earlier search wrote to
+        arena.putLong(slots + (long) slot * SLOT_BYTES + CELL, cell);
+        return slot;
+    }
+
+    private long cell(int slot){
+        return arena.getLong(slots + (long) slot * SLOT_BYTES + CELL);
+    }
+
+    /**
+     * @return an int field of a slot
+     */
+    private int get(int slot, int field){
+        return arena.getInt(slots + (long) slot * SLOT_BYTES + field);
+    }
+
+    private void set(int slot, int field, int value){
+        arena.putInt(slots + (long) slot * SLOT_BYTES + field, value);
+    }
+
+    private int hash(long cell){
+        long mixed = cell * 0x9E3779B97F4A7C15L; // Fibonacci hashing spreads neighboring cells over the table
+        return (int) (mixed >>> 32) & mask;
+    }
+
+    /**
+     * @return the most cells a query may reach
+     */
+    public int getMax_nodes() {
+        return max_nodes;
+    }
+
+    public Cell_Costs getCosts() {
+        return costs;
+    }
+
+    public Off_Heap_Arena getArena() {
+        return arena;
+    }
+}
@@ -0,0 +1,188 @@
+package com.company;
+
+import java.util.Arrays;
+
+/**
+ * Uniform cost search (Dijkstra's algorithm) over a Grid_Map.
+ *
+ * Cells are expanded in order of the cost of the cheapest path from the
+ * start, so every cell is expanded once, with its final cost, and the goal
+ * is reached along a cheapest path. Move costs are small integers, so the
+ * fringe is a Bucket_Queue with one bucket per possible move cost instead of
+ * a binary heap (Dial's algorithm): every queue operation is O(1) and a
+ * search costs O(cells + cost of the path) rather than O(cells log cells).
+ *
+ * Everything a query writes lives in the Search_State passed in: g is the
+ * distance and parent the predecessor of each cell, the closed set marks the
+ * cells that have a distance, and the bucket queue is made once per state
+ * and reused by every query after.
+ *
+ * The search can also run until every reachable cell has its distance and
+ * return them as a Distance_Field that answers any later query from the
+ * same source without searching.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+public class Uniform_Cost_Search {
+    private final Grid_Map map; // The map we will search, never written to
+    private final Edge_Cost edge_cost; // Cost of a move between neighbors
+    private final Neighborhood neighborhood; // Moves the search may make from a cell
+    private final int max_move_cost; // Largest cost edge_cost gives a single move
+
+    public Uniform_Cost_Search(Grid_Map map){
+        this(map, Edge_Cost.entering(map), Neighborhood.four(map), Grid_Map.MAX_COST);
+    }
+
+    /**
+     * @param map the map we will search
+     * @param edge_cost cost of a move between neighbors, never negative
+     * @param neighborhood moves the search may make from a cell
+     * @param max_move_cost largest cost edge_cost gives a single move, the number of buckets
+     */
+    public Uniform_Cost_Search(Grid_Map map, Edge_Cost edge_cost, Neighborhood neighborhood, int max_move_cost){
+        if(edge_cost == null || neighborhood == null){
+            throw new IllegalArgumentException("Uniform cost search needs a cost model and a neighborhood");
+        }
+        if(neighborhood.getMap() != map){
+            throw new IllegalArgumentException("The neighborhood was made for a different map");
+        }
+        this.map = map;
+        this.edge_cost = edge_cost;
+        this.neighborhood = neighborhood;
+        this.max_move_cost = max_move_cost;
+    }
+
+    /**
+     * @param state scratch state of the calling thread, sized for the map
+     * @param start index of the cell the search starts from
+     * @param goal index of the cell we are trying to reach
+     * @return the cheapest path found and the statistics of the search
+     */
+    public Search_Result search(Search_State state, int start, int goal){
+        return search(state, start, goal, Search_Budget.NONE, null);
+    }
+
+    /**
+     * Uniform cost search within a budget that reports its progress to a
+     * listener. The partial result holds the path to the expanded cell
+     * closest to the goal by manhattan distance.
+     * @param state scratch state of the calling thread, sized for the map
+     * @param start index of the cell the search starts from
+     * @param goal index of the cell we are trying to reach
+     * @param budget limits on the work the search may do
+     * @param listener receives every expanded and generated cell, may be null
+     * @return the cheapest path found and the statistics of the search
+     */
+    public Search_Result search(Search_State state, int start, int goal, Search_Budget budget, Search_Listener listener){
+        long startTime = System.nanoTime();
+        int[] counts = new int[3];
+        int reached = expand(state, start, goal, budget, listener, counts);
+        long elapsed = System.nanoTime() - startTime;
+        if(counts[2] != 0){
+            int[] path = state.trace_path(reached);
+            return Search_Result.partial(path, state.g[reached], counts[0], counts[1], elapsed, budget.getStop_reason());
+        }
+        if(reached != goal){
+            return Search_Result.not_found(counts[0], counts[1], elapsed);
+        }
+        return Search_Result.bounded(state.trace_path(goal), state.g[goal], counts[0], counts[1], elapsed, 1);
+    }
+
+    /**
+     * Computes the cost of the cheapest path from the source to every cell
+     * @param state scratch state of the calling thread, sized for the map
+     * @param source index of the cell every distance is measured from
+     * @return the distances and predecessors, copied out of the state
+     */
+    public Distance_Field distances_from(Search_State state, int source){
+        expand(state, source, -1, Search_Budget.NONE, null, new int[3]);
+        int[] distances = new int[map.size()];
+        int[] parents = new int[map.size()];
+        Arrays.fill(distances, Distance_Field.UNREACHABLE);
+        Arrays.fill(parents, Search_State.NO_PARENT);
+        for(int i = 0; i < distances.length; i++){
+            if(state.closed.contains(i)){
+                distances[i] = state.g[i];
+                parents[i] = state.parent[i];
+            }
+        }
+        return new Distance_Field(map, source, distances, parents);
+    }
+
+    /**
+     * Expands cells in order of distance until the goal is expanded, the
+     * fringe is empty or the budget runs out
+     * @param goal index of the cell to stop at, -1 to expand every reachable cell
+     * @param counts receives the nodes expanded, the nodes in memory and 1 if the budget ran out
+     * @return the goal if it was reached, else the expanded cell closest to it
+     */
+    private int expand(Search_State state, int start, int goal, Search_Budget budget, Search_Listener listener,
+                       int[] counts){
+        state.reset(start);
+        Bucket_Queue fringe = state.buckets(max_move_cost);
+        Closed_Set reached = state.closed; // Cells that have a distance, settled once they leave the fringe
+        int[] g = state.g;
+        int[] successors = state.successors;
+        int num_nodes_expanded = 1;
+        int cols = map.getCols();
+        int closest = start;
+        int closest_distance = goal < 0 ? 0 : manhattan_distance(start, goal, cols);
+        reached.add(start);
+        fringe.add(start, 0);
+        int until_check = Search_Budget.CHECK_INTERVAL;
+        while(!fringe.isEmpty()){
+            if(--until_check == 0){
+                until_check = Search_Budget.CHECK_INTERVAL;
+                if(budget.exhausted(num_nodes_expanded, reached.size())){
+                    counts[2] = 1;
+                    break;
+                }
+            }
+            int current = fringe.poll();
+            if(listener != null){
+                listener.on_expand(current);
+            }
+            if(current == goal){
+                closest = goal;
+                break;
+            }
+            if(goal >= 0){
+                int distance = manhattan_distance(current, goal, cols);
+                if(distance < closest_distance){
+                    closest = current;
+                    closest_distance = distance;
+                }
+            }
+            int count = neighborhood.successors(current, successors);
+            for(int i = 0; i < count; i++){
+                int neighbor = successors[i];
+                int tentative_g = g[current] + edge_cost.cost(current, neighbor);
+                if(reached.add(neighbor)){
+                    num_nodes_expanded++;
+                    g[neighbor] = tentative_g;
+                    state.parent[neighbor] = current;
+                    fringe.add(neighbor, tentative_g);
+                    if(listener != null){
+                        listener.on_generate(neighbor, current);
+                    }
+                }
+                else if(tentative_g < g[neighbor] && fringe.contains(neighbor)){
+                    g[neighbor] = tentative_g;
+                    state.parent[neighbor] = current;
+                    fringe.decreaseKey(neighbor, tentative_g);
+                }
+            }
+        }
+        counts[0] = num_nodes_expanded;
+        counts[1] = reached.size();
+        return closest;
+    }
+
+    private static int manhattan_distance(int index, int goal, int cols){
+        return Math.abs(index / cols - goal / cols) + Math.abs(index % cols - goal % cols);
+    }
+
+    public Grid_Map getMap() {
+        return map;
+    }
+}
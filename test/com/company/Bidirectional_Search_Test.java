@@ -0,0 +1,66 @@
+package com.company;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks Bidirectional_Search against Dijkstra, as bidirectional A* and as
+ * bidirectional best-first by path cost, including maps whose cells cost
+ * very different amounts, where the backward side has to pay for the cell
+ * it leaves; and the queries answered before either side expands: a start
+ * that is the goal and a goal that is an impasse.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+class Bidirectional_Search_Test {
+    private static final int SIZE = 41; // Rows and columns of the maps
+
+    @ParameterizedTest
+    @MethodSource("com.company.Dijkstra#maps")
+    void bidirectional_search_finds_the_cheapest_path(String kind, long seed){
+        Grid_Map map = Map_Generator.generate(kind, seed, SIZE, SIZE);
+        Search_State forward = new Search_State(map);
+        Search_State backward = new Search_State(map);
+        for(boolean use_heuristic : new boolean[]{true, false}){
+            Bidirectional_Search search = new Bidirectional_Search(map, use_heuristic);
+            Dijkstra.check_optimal(map, seed, (start, goal) -> search.search(forward, backward, start, goal));
+        }
+    }
+
+    @Test
+    void backward_side_pays_for_the_cell_it_leaves(){
+        // Every other column costs the most a cell can, so the cost of a path depends on which cells it enters
+        Grid_Map map = new Grid_Map(SIZE, SIZE);
+        for(int x = 0; x < SIZE; x++){
+            for(int y = 0; y < SIZE; y++){
+                map.setCost(x, y, y % 2 == 0 ? 1 : Grid_Map.MAX_COST);
+            }
+        }
+        Search_State forward = new Search_State(map);
+        Search_State backward = new Search_State(map);
+        for(boolean use_heuristic : new boolean[]{true, false}){
+            Bidirectional_Search search = new Bidirectional_Search(map, use_heuristic);
+            Dijkstra.check_optimal(map, 5, (start, goal) -> search.search(forward, backward, start, goal));
+        }
+    }
+
+    @Test
+    void trivial_queries_are_answered_without_searching(){
+        Grid_Map map = Map_Generator.generate("open", 6, SIZE, SIZE);
+        map.setCost(5, 5, 0);
+        Search_State forward = new Search_State(map);
+        Search_State backward = new Search_State(map);
+        Bidirectional_Search search = new Bidirectional_Search(map, true);
+        Search_Result same = search.search(forward, backward, map.index(3, 3), map.index(3, 3));
+        assertTrue(same.isFound());
+        assertArrayEquals(new int[]{map.index(3, 3)}, same.getPath());
+        assertEquals(0, same.getPath_cost());
+        assertFalse(search.search(forward, backward, map.index(3, 3), map.index(5, 5)).isFound());
+    }
+}
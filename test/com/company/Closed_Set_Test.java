@@ -0,0 +1,63 @@
+package com.company;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks Closed_Set against a HashSet over many epochs, and that the stamps
+ * are wiped when the epoch counter wraps around so no cell of an old search
+ * appears visited again.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+class Closed_Set_Test {
+    private static final int CAPACITY = 1000;
+
+    @Test
+    void matches_a_hash_set_over_many_epochs(){
+        Closed_Set closed = new Closed_Set(CAPACITY);
+        Random random = new Random(1);
+        for(int epoch = 0; epoch < 50; epoch++){
+            Set<Integer> expected = new HashSet<>();
+            for(int i = 0; i < 400; i++){
+                int cell = random.nextInt(CAPACITY);
+                assertEquals(expected.add(cell), closed.add(cell), "epoch " + epoch + " add " + cell);
+            }
+            assertEquals(expected.size(), closed.size());
+            for(int cell = 0; cell < CAPACITY; cell++){
+                assertEquals(expected.contains(cell), closed.contains(cell), "epoch " + epoch + " cell " + cell);
+            }
+            closed.clear();
+            assertEquals(0, closed.size());
+        }
+    }
+
+    @Test
+    void stamps_are_wiped_when_the_epoch_wraps_around() throws ReflectiveOperationException {
+        Closed_Set closed = new Closed_Set(CAPACITY);
+        closed.add(7); // Stamped 1, the epoch the set counts from again after the wrap
+        // Going through 2^32 clears takes too long, so the epoch is moved to just before the wrap
+        Field epoch = Closed_Set.class.getDeclaredField("epoch");
+        epoch.setAccessible(true);
+        epoch.setInt(closed, -2);
+        closed.add(5); // Stamped -2
+        closed.clear(); // -1
+        closed.add(6); // Stamped -1
+        closed.clear(); // Wraps, the stamps are wiped and the epoch starts at 1 again
+        assertEquals(1, epoch.getInt(closed));
+        for(int cell = 0; cell < CAPACITY; cell++){
+            assertFalse(closed.contains(cell), "cell " + cell + " is still visited after the wrap");
+        }
+        assertTrue(closed.add(5));
+        assertTrue(closed.contains(5));
+        assertEquals(1, closed.size());
+    }
+}
@@ -0,0 +1,145 @@
+package com.company;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks Components against a breadth first flood fill while cells are
+ * closed, which may split a component, and opened again, which merges the
+ * labels around them: two passable cells must share a component exactly
+ * when the flood fill reaches one from the other, and reachable() must agree
+ * for every query, also from a start that is an impasse.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+class Components_Test {
+    private static final int SIZE = 20; // Rows and columns of the maps
+    private static final int TOGGLES = 1500; // Cells toggled one update at a time, enough to compact the labels
+    private static final int BATCHES = 40; // Batches of toggles checked together
+    private static final int QUERIES = 200; // Reachability queries after every batch
+
+    @Test
+    void labels_are_built_like_a_flood_fill(){
+        for(String kind : new String[]{"open", "random-30", "obstacles-40", "maze"}){
+            Grid_Map map = Map_Generator.generate(kind, 1, SIZE, SIZE);
+            assert_components(map, new Components(map), new Random(1), kind);
+        }
+    }
+
+    @Test
+    void update_follows_single_toggles(){
+        Grid_Map map = Map_Generator.generate("obstacles-40", 2, SIZE, SIZE);
+        Components components = new Components(map);
+        Random random = new Random(2);
+        for(int i = 0; i < TOGGLES; i++){
+            int cell = toggle(map, random);
+            components.update(new int[]{cell});
+            if(i % 50 == 0){
+                assert_components(map, components, random, "toggle " + i);
+            }
+        }
+        assert_components(map, components, random, "last toggle");
+        assertEquals(map.getVersion(), components.getVersion());
+    }
+
+    @Test
+    void update_follows_batches_of_toggles(){
+        for(String kind : new String[]{"random-30", "maze"}){
+            Grid_Map map = Map_Generator.generate(kind, 3, SIZE, SIZE);
+            Components components = new Components(map);
+            Random random = new Random(3);
+            for(int batch = 0; batch < BATCHES; batch++){
+                int[] changed = new int[1 + random.nextInt(10)];
+                for(int i = 0; i < changed.length; i++){
+                    changed[i] = toggle(map, random);
+                }
+                components.update(changed);
+                assert_components(map, components, random, kind + " batch " + batch);
+            }
+        }
+    }
+
+    @Test
+    void components_are_labeled_again_after_a_cost_changes(){
+        Grid_Map map = Map_Generator.generate("maze", 4, SIZE, SIZE);
+        Search_Algorithms sa = new Search_Algorithms(map);
+        Random random = new Random(4);
+        for(int i = 0; i < 20; i++){
+            toggle(map, random);
+        }
+        assert_components(map, sa.components(), random, "after direct changes");
+    }
+
+    /**
+     * Opens an impasse or closes a passable cell
+     * @return the index of the cell
+     */
+    private static int toggle(Grid_Map map, Random random){
+        int cell = random.nextInt(map.size());
+        map.setCost(map.getX(cell), map.getY(cell), map.isImpasse(cell) ? 1 + random.nextInt(Map_Generator.MAX_RANDOM_COST) : 0);
+        return cell;
+    }
+
+    private static void assert_components(Grid_Map map, Components components, Random random, String name){
+        int[] floods = flood_fill(map);
+        Map<Integer, Integer> component_of_flood = new HashMap<>();
+        Map<Integer, Integer> flood_of_component = new HashMap<>();
+        for(int cell = 0; cell < map.size(); cell++){
+            int component = components.component(cell);
+            if(floods[cell] < 0){
+                assertEquals(Components.NONE, component, name + ": impasse " + cell + " has a component");
+                continue;
+            }
+            // The two labelings must be the same partition of the passable cells
+            int flood = floods[cell];
+            assertEquals(component, (int) component_of_flood.computeIfAbsent(flood, f -> component),
+                    name + ": " + cell + " is not in the component of its flood fill");
+            assertEquals(flood, (int) flood_of_component.computeIfAbsent(component, c -> flood),
+                    name + ": " + cell + " shares a component with a cell it cannot reach");
+        }
+        assertEquals(component_of_flood.size(), components.getNum_components(), name + ": number of components");
+        for(int i = 0; i < QUERIES; i++){
+            int start = random.nextInt(map.size());
+            int goal = random.nextInt(map.size());
+            boolean expected = Dijkstra.distances(map, start)[goal] != Dijkstra.UNREACHABLE;
+            assertEquals(expected, components.reachable(start, goal), name + ": query " + start + " -> " + goal);
+        }
+    }
+
+    /**
+     * @return the flood fill each passable cell was reached by, -1 for an impasse
+     */
+    private static int[] flood_fill(Grid_Map map){
+        int[] floods = new int[map.size()];
+        Arrays.fill(floods, -1);
+        int[] successors = new int[Grid_Map.MAX_SUCCESSORS];
+        ArrayDeque<Integer> fringe = new ArrayDeque<>();
+        int num_floods = 0;
+        for(int source = 0; source < map.size(); source++){
+            if(map.isImpasse(source) || floods[source] >= 0){
+                continue;
+            }
+            floods[source] = num_floods;
+            fringe.add(source);
+            while(!fringe.isEmpty()){
+                int cell = fringe.poll();
+                int count = map.successors(cell, successors);
+                for(int i = 0; i < count; i++){
+                    if(floods[successors[i]] < 0){
+                        floods[successors[i]] = num_floods;
+                        fringe.add(successors[i]);
+                    }
+                }
+            }
+            num_floods++;
+        }
+        return floods;
+    }
+}
@@ -0,0 +1,96 @@
+package com.company;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks D_Star_Lite against Dijkstra on the maps of Map_Generator, and that
+ * it repairs its plan correctly: after every batch of cost changes, new
+ * impasses and impasses opened again, replan() must find the cheapest path
+ * Dijkstra finds on the changed map.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+class D_Star_Lite_Test {
+    private static final int SIZE = 30; // Rows and columns of the maps
+    private static final int BATCHES = 15; // Batches of changes per map
+    private static final int CHANGES = 25; // Cells changed per batch
+    private static final int QUERY_SIZE = 41; // Rows and columns of the maps of the cross-check
+
+    @ParameterizedTest
+    @MethodSource("com.company.Dijkstra#maps")
+    void d_star_lite_finds_the_cheapest_path(String kind, long seed){
+        Grid_Map map = Map_Generator.generate(kind, seed, QUERY_SIZE, QUERY_SIZE);
+        Dijkstra.check_optimal(map, seed, (start, goal) -> new D_Star_Lite(map, start, goal).replan());
+    }
+
+    @Test
+    void replan_finds_the_cheapest_path_after_every_batch_of_changes(){
+        for(String kind : new String[]{"random-10", "random-30", "obstacles-20", "maze"}){
+            for(long seed = 1; seed <= 3; seed++){
+                Grid_Map map = Map_Generator.generate(kind, seed, SIZE, SIZE);
+                D_Star_Lite planner = new D_Star_Lite(map, map.getStart(), map.getGoal());
+                check(map, planner, map.getStart(), kind + " " + seed + " first plan");
+                Random random = new Random(seed);
+                for(int batch = 0; batch < BATCHES; batch++){
+                    for(int i = 0; i < CHANGES; i++){
+                        int cell = random.nextInt(map.size());
+                        if(cell == map.getStart() || cell == map.getGoal()){
+                            continue;
+                        }
+                        int cost;
+                        if(map.isImpasse(cell)){
+                            cost = 1 + random.nextInt(Map_Generator.MAX_RANDOM_COST); // Opens an impasse again
+                        }
+                        else{
+                            cost = random.nextInt(3) == 0 ? 0 : 1 + random.nextInt(Map_Generator.MAX_RANDOM_COST);
+                        }
+                        planner.update_cost(map.getX(cell), map.getY(cell), cost);
+                    }
+                    check(map, planner, map.getStart(), kind + " " + seed + " batch " + batch);
+                }
+            }
+        }
+    }
+
+    @Test
+    void replan_finds_the_cheapest_path_after_the_start_moves(){
+        Grid_Map map = Map_Generator.generate("random-10", 4, SIZE, SIZE);
+        D_Star_Lite planner = new D_Star_Lite(map, map.getStart(), map.getGoal());
+        Search_Result result = check(map, planner, map.getStart(), "first plan");
+        Random random = new Random(4);
+        int start = map.getStart();
+        for(int batch = 0; batch < BATCHES && result.isFound() && result.getPath().length > 2; batch++){
+            // Walk two cells along the path, then change the costs ahead of the agent
+            start = result.getPath()[2];
+            planner.move_start(start);
+            for(int i = 0; i < CHANGES; i++){
+                int cell = random.nextInt(map.size());
+                if(cell != start && cell != map.getGoal()){
+                    planner.update_cost(map.getX(cell), map.getY(cell), random.nextInt(Map_Generator.MAX_RANDOM_COST + 1));
+                }
+            }
+            result = check(map, planner, start, "batch " + batch);
+        }
+    }
+
+    private static Search_Result check(Grid_Map map, D_Star_Lite planner, int start, String name){
+        int cheapest = Dijkstra.distances(map, start)[map.getGoal()];
+        Search_Result result = planner.replan();
+        if(cheapest == Dijkstra.UNREACHABLE){
+            assertFalse(result.isFound(), name + " found a path to an unreachable goal");
+            return result;
+        }
+        assertTrue(result.isFound(), name + " found no path");
+        Dijkstra.assert_path(map, result, start, map.getGoal());
+        assertEquals(cheapest, result.getPath_cost(), name + " did not find the cheapest path");
+        return result;
+    }
+}
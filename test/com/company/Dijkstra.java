@@ -0,0 +1,173 @@
+package com.company;
+
+import org.junit.jupiter.params.provider.Arguments;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reference the searches are checked against: a plain Dijkstra over a
+ * java.util.PriorityQueue that shares no code with the engines under test,
+ * a check that a path is a real path on the map with the cost reported, and
+ * the cross-checks every search test runs on the maps of Map_Generator:
+ * each query must find a path exactly when Dijkstra reaches the goal, and
+ * its cost must be the cheapest (or within the bound the result reports).
+ * @author Jay James
+ * @author Daniel Villa
+ */
+final class Dijkstra {
+    static final int UNREACHABLE = Integer.MAX_VALUE; // Distance to a cell the source cannot reach
+    static final int QUERIES = 25; // Queries per map of the cross-checks
+
+    private static final int[][] MOVES = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+
+    private Dijkstra(){
+    }
+
+    /**
+     * One search under test, answering a query on the map it was made for
+     */
+    interface Engine {
+        Search_Result run(int start, int goal);
+    }
+
+    /**
+     * @return the kinds of map and seeds the cross-checks run on, for @MethodSource("com.company.Dijkstra#maps")
+     */
+    static Stream<Arguments> maps(){
+        return Stream.of("open", "maze", "random-10", "random-30", "obstacles-20", "obstacles-40")
+                .flatMap(kind -> Stream.of(1L, 2L).map(seed -> Arguments.of(kind, seed)));
+    }
+
+    /**
+     * @return the cost of the cheapest 4-connected path from the source to every cell
+     */
+    static int[] distances(Grid_Map map, int source){
+        int[] distance = new int[map.size()];
+        Arrays.fill(distance, UNREACHABLE);
+        distance[source] = 0;
+        PriorityQueue<long[]> open = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+        open.add(new long[]{0, source});
+        while(!open.isEmpty()){
+            long[] next = open.poll();
+            int cell = (int) next[1];
+            if(next[0] > distance[cell]){
+                continue;
+            }
+            for(int[] move : MOVES){
+                int x = map.getX(cell) + move[0];
+                int y = map.getY(cell) + move[1];
+                if(!map.isWithinBounds(x, y) || map.isImpasse(map.index(x, y))){
+                    continue;
+                }
+                int successor = map.index(x, y);
+                int g = distance[cell] + map.getCost(successor);
+                if(g < distance[successor]){
+                    distance[successor] = g;
+                    open.add(new long[]{g, successor});
+                }
+            }
+        }
+        return distance;
+    }
+
+    /**
+     * Dijkstra run backwards from the goal: a move from a cell into its
+     * neighbor costs the neighbor, so moving back from u to v costs u
+     * @return the cost of the cheapest 4-connected path from every cell to the goal
+     */
+    static int[] distances_to(Grid_Map map, int goal){
+        int[] distance = new int[map.size()];
+        Arrays.fill(distance, UNREACHABLE);
+        distance[goal] = 0;
+        PriorityQueue<long[]> open = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+        open.add(new long[]{0, goal});
+        while(!open.isEmpty()){
+            long[] next = open.poll();
+            int cell = (int) next[1];
+            if(next[0] > distance[cell] || map.isImpasse(cell)){
+                continue;
+            }
+            for(int[] move : MOVES){
+                int x = map.getX(cell) + move[0];
+                int y = map.getY(cell) + move[1];
+                if(!map.isWithinBounds(x, y) || map.isImpasse(map.index(x, y))){
+                    continue;
+                }
+                int predecessor = map.index(x, y);
+                int g = distance[cell] + map.getCost(cell);
+                if(g < distance[predecessor]){
+                    distance[predecessor] = g;
+                    open.add(new long[]{g, predecessor});
+                }
+            }
+        }
+        return distance;
+    }
+
+    /**
+     * Asserts the path runs from start to goal through passable, 4-connected
+     * cells and that entering its cells costs what the result reports
+     */
+    static void assert_path(Grid_Map map, Search_Result result, int start, int goal){
+        int[] path = result.getPath();
+        assertEquals(start, path[0], "path does not begin at the start");
+        assertEquals(goal, path[path.length - 1], "path does not end at the goal");
+        int cost = 0;
+        for(int i = 1; i < path.length; i++){
+            int dx = Math.abs(map.getX(path[i]) - map.getX(path[i - 1]));
+            int dy = Math.abs(map.getY(path[i]) - map.getY(path[i - 1]));
+            assertEquals(1, dx + dy, "path jumps from " + path[i - 1] + " to " + path[i]);
+            assertTrue(!map.isImpasse(path[i]), "path runs through the impasse " + path[i]);
+            cost += map.getCost(path[i]);
+        }
+        assertEquals(cost, result.getPath_cost(), "path cost does not match the cells of the path");
+    }
+
+    /**
+     * Runs the queries of the map and asserts every path found is the cheapest one
+     */
+    static void check_optimal(Grid_Map map, long seed, Engine engine){
+        int[][] queries = Map_Generator.queries(seed, map, QUERIES);
+        for(int i = 0; i < QUERIES; i++){
+            int start = queries[0][i];
+            int goal = queries[1][i];
+            int cheapest = distances(map, start)[goal];
+            Search_Result result = engine.run(start, goal);
+            String query = "query " + start + " -> " + goal;
+            if(cheapest == UNREACHABLE){
+                assertFalse(result.isFound(), query + " found a path to an unreachable goal");
+                continue;
+            }
+            assertTrue(result.isFound(), query + " found no path");
+            assert_path(map, result, start, goal);
+            assertEquals(cheapest, result.getPath_cost(), query + " did not find the cheapest path");
+        }
+    }
+
+    /**
+     * Runs the queries of the map and asserts every path found is within the suboptimality its result reports
+     */
+    static void check_bounded(Grid_Map map, long seed, Engine engine){
+        int[][] queries = Map_Generator.queries(seed, map, QUERIES);
+        for(int i = 0; i < QUERIES; i++){
+            int start = queries[0][i];
+            int goal = queries[1][i];
+            int cheapest = distances(map, start)[goal];
+            Search_Result result = engine.run(start, goal);
+            String query = "query " + start + " -> " + goal;
+            assertEquals(cheapest != UNREACHABLE, result.isFound(), query);
+            if(result.isFound()){
+                assert_path(map, result, start, goal);
+                assertTrue(result.getPath_cost() >= cheapest, query + " found a path cheaper than the cheapest");
+                assertTrue(result.getPath_cost() <= result.getSuboptimality() * cheapest,
+                        query + " costs more than its bound of " + result.getSuboptimality());
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.company;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Checks the distances Search_Algorithms.distance_field() keeps from the
+ * start against Dijkstra, before and after costs change straight through
+ * the map instead of through update_costs().
+ * @author Jay James
+ * @author Daniel Villa
+ */
+class Distance_Field_Test {
+    private static final int SIZE = 30; // Rows and columns of the maps
+    private static final int CHANGES = 60; // Cells changed between the checks
+
+    @Test
+    void distance_field_is_reused_while_the_map_stays_the_same(){
+        Grid_Map map = Map_Generator.generate("random-10", 1, SIZE, SIZE);
+        Search_Algorithms sa = new Search_Algorithms(map);
+        Distance_Field field = sa.distance_field();
+        assert_distances(map, field);
+        assertSame(field, sa.distance_field());
+    }
+
+    @Test
+    void distance_field_is_computed_again_after_a_cost_changes(){
+        for(long seed = 1; seed <= 10; seed++){
+            Grid_Map map = Map_Generator.generate("random-10", seed, SIZE, SIZE);
+            Search_Algorithms sa = new Search_Algorithms(map);
+            sa.distance_field();
+            Random random = new Random(seed);
+            for(int i = 0; i < CHANGES; i++){
+                int cell = random.nextInt(map.size());
+                if(cell != map.getStart()){
+                    // Impasses close cells off, costs of 1 open cheaper paths
+                    map.setCost(map.getX(cell), map.getY(cell), random.nextInt(3) == 0 ? 0 : 1);
+                }
+            }
+            assert_distances(map, sa.distance_field());
+        }
+    }
+
+    private static void assert_distances(Grid_Map map, Distance_Field field){
+        int[] cheapest = Dijkstra.distances(map, map.getStart());
+        for(int cell = 0; cell < map.size(); cell++){
+            assertEquals(cheapest[cell] == Dijkstra.UNREACHABLE ? Distance_Field.UNREACHABLE : cheapest[cell],
+                    field.getDistance(cell), "distance to " + cell);
+        }
+    }
+}
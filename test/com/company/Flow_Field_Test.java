@@ -0,0 +1,97 @@
+package com.company;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Checks the distances of Flow_Field against Dijkstra run backwards from the
+ * goal: after the band searches, for one band and for several, and after
+ * update() repaired the field for batches of changed costs, new impasses and
+ * impasses opened again. The directions must lead along a path costing the
+ * distance of the cell.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+class Flow_Field_Test {
+    private static final int SIZE = 30; // Rows and columns of the maps
+    private static final int BATCHES = 10; // Batches of changes per map
+    private static final int CHANGES = 20; // Cells changed per batch
+
+    @Test
+    void bands_find_the_cheapest_distance_to_the_goal(){
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool bands = new ForkJoinPool(4);
+        try{
+            for(String kind : new String[]{"open", "random-10", "random-30", "obstacles-20", "maze"}){
+                for(long seed = 1; seed <= 2; seed++){
+                    Grid_Map map = Map_Generator.generate(kind, seed, SIZE, SIZE);
+                    int goal = Map_Generator.queries(seed, map, 1)[1][0];
+                    for(ForkJoinPool pool : new ForkJoinPool[]{single, bands}){
+                        Flow_Field flow = new Flow_Field(map, goal, Edge_Cost.entering(map), Neighborhood.four(map), pool);
+                        assert_field(map, flow, kind + " " + seed + " with " + pool.getParallelism() + " bands");
+                    }
+                }
+            }
+        }finally{
+            single.shutdown();
+            bands.shutdown();
+        }
+    }
+
+    @Test
+    void update_repairs_the_field_after_every_batch_of_changes(){
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try{
+            for(String kind : new String[]{"random-10", "obstacles-20", "maze"}){
+                Grid_Map map = Map_Generator.generate(kind, 5, SIZE, SIZE);
+                Flow_Field flow = new Flow_Field(map, map.getGoal(), Edge_Cost.entering(map), Neighborhood.four(map), pool);
+                Random random = new Random(5);
+                for(int batch = 0; batch < BATCHES; batch++){
+                    int[] changed = new int[CHANGES];
+                    for(int i = 0; i < CHANGES; i++){
+                        int cell;
+                        do{
+                            cell = random.nextInt(map.size());
+                        }while(cell == map.getGoal());
+                        int cost = map.isImpasse(cell) || random.nextInt(3) > 0
+                                ? 1 + random.nextInt(Map_Generator.MAX_RANDOM_COST) : 0;
+                        map.setCost(map.getX(cell), map.getY(cell), cost);
+                        changed[i] = cell;
+                    }
+                    flow.update(changed);
+                    assertEquals(map.getVersion(), flow.getVersion());
+                    assert_field(map, flow, kind + " batch " + batch);
+                }
+            }
+        }finally{
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void flow_field_is_kept_until_a_cost_changes(){
+        Grid_Map map = Map_Generator.generate("random-10", 1, SIZE, SIZE);
+        Search_Algorithms sa = new Search_Algorithms(map);
+        Flow_Field flow = sa.flow_field();
+        assertSame(flow, sa.flow_field());
+        map.setCost(1, 1, 1);
+        assert_field(map, sa.flow_field(), "after a cost changed");
+    }
+
+    private static void assert_field(Grid_Map map, Flow_Field flow, String name){
+        int[] cheapest = Dijkstra.distances_to(map, flow.getGoal());
+        for(int cell = 0; cell < map.size(); cell++){
+            int expected = cheapest[cell] == Dijkstra.UNREACHABLE ? Flow_Field.UNREACHABLE : cheapest[cell];
+            assertEquals(expected, flow.getDistance(cell), name + ": distance of " + cell);
+            if(flow.isReachable(cell) && cell != flow.getGoal()){
+                Search_Result result = flow.result_from(cell);
+                Dijkstra.assert_path(map, result, cell, flow.getGoal());
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.company;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the packed Grid_Map: indices and coordinates, costs stored in one
+ * unsigned byte, the version bumped by every cost change, copies that share
+ * nothing, the round trip through the legacy Node[][] search space, and
+ * successors() against the four neighbors worked out from coordinates.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+class Grid_Map_Test {
+    private static final int ROWS = 13;
+    private static final int COLS = 7; // Not the number of rows, so swapping x and y shows up
+
+    @Test
+    void index_and_coordinates_round_trip(){
+        Grid_Map map = new Grid_Map(ROWS, COLS);
+        assertEquals(ROWS * COLS, map.size());
+        for(int x = 0; x < ROWS; x++){
+            for(int y = 0; y < COLS; y++){
+                int index = map.index(x, y);
+                assertEquals(x * COLS + y, index, "cells are packed row by row");
+                assertEquals(x, map.getX(index));
+                assertEquals(y, map.getY(index));
+                assertTrue(map.isWithinBounds(x, y));
+            }
+        }
+        assertFalse(map.isWithinBounds(-1, 0));
+        assertFalse(map.isWithinBounds(0, -1));
+        assertFalse(map.isWithinBounds(ROWS, 0));
+        assertFalse(map.isWithinBounds(0, COLS));
+    }
+
+    @Test
+    void costs_are_stored_unsigned_and_zero_is_an_impasse(){
+        Grid_Map map = new Grid_Map(ROWS, COLS);
+        for(int cell = 0; cell < map.size(); cell++){
+            assertTrue(map.isImpasse(cell), "a new map is all impasses");
+        }
+        for(int cost = 0; cost <= Grid_Map.MAX_COST; cost++){
+            int cell = cost % map.size();
+            map.setCost(map.getX(cell), map.getY(cell), cost);
+            assertEquals(cost, map.getCost(cell));
+            assertEquals(cost, map.getCost(map.getX(cell), map.getY(cell)));
+            assertEquals(cost == 0, map.isImpasse(cell), "cost " + cost);
+        }
+        assertThrows(IllegalArgumentException.class, () -> map.setCost(0, 0, -1));
+        assertThrows(IllegalArgumentException.class, () -> map.setCost(0, 0, Grid_Map.MAX_COST + 1));
+        assertThrows(IllegalArgumentException.class, () -> new Grid_Map(2, 3, new byte[5]));
+        assertThrows(IllegalArgumentException.class, () -> new Grid_Map(-1, 3, new byte[0]));
+    }
+
+    @Test
+    void every_cost_change_bumps_the_version(){
+        Grid_Map map = Map_Generator.generate("random-10", 1, ROWS, COLS);
+        int version = map.getVersion();
+        map.setStart(1, 1);
+        map.setGoal(2, 2);
+        assertEquals(version, map.getVersion(), "moving the start and goal changes no cost");
+        map.setCost(3, 3, 7);
+        assertNotEquals(version, map.getVersion());
+        version = map.getVersion();
+        map.setCost(3, 3, 7);
+        assertNotEquals(version, map.getVersion(), "writing the same cost still bumps the version");
+    }
+
+    @Test
+    void copy_shares_nothing_with_the_map(){
+        Grid_Map map = Map_Generator.generate("random-30", 2, ROWS, COLS);
+        map.setStart(1, 2);
+        map.setGoal(ROWS - 1, COLS - 2);
+        Grid_Map copy = map.copy();
+        assertArrayEquals(map.getCosts(), copy.getCosts());
+        assertEquals(map.getStart(), copy.getStart());
+        assertEquals(map.getGoal(), copy.getGoal());
+        int before = map.getCost(4, 4);
+        copy.setCost(4, 4, before == 9 ? 8 : 9);
+        copy.setStart(0, 0);
+        assertEquals(before, map.getCost(4, 4), "changing the copy changed the map");
+        assertEquals(map.index(1, 2), map.getStart());
+    }
+
+    @Test
+    void nodes_round_trip(){
+        Grid_Map map = Map_Generator.generate("random-20", 3, ROWS, COLS);
+        Node[][] nodes = map.toNodes();
+        assertEquals(ROWS, nodes.length);
+        assertEquals(COLS, nodes[0].length);
+        for(int x = 0; x < ROWS; x++){
+            for(int y = 0; y < COLS; y++){
+                assertEquals(x, nodes[x][y].getX());
+                assertEquals(y, nodes[x][y].getY());
+                assertEquals(map.getCost(x, y), nodes[x][y].getCost());
+            }
+        }
+        assertArrayEquals(map.getCosts(), Grid_Map.fromNodes(nodes).getCosts());
+        // A node is a copy of its cell
+        map.getNode(map.index(1, 1)).setCost(map.getCost(1, 1) + 1);
+        assertEquals(nodes[1][1].getCost(), map.getCost(1, 1));
+    }
+
+    @Test
+    void successors_are_the_passable_side_neighbors(){
+        int[] successors = new int[Grid_Map.MAX_SUCCESSORS];
+        Grid_Map[] maps = {
+                Map_Generator.generate("random-30", 4, ROWS, COLS),
+                Map_Generator.generate("maze", 5, ROWS, COLS),
+                // A step of one index from the end of a row lands on the next row, not on a neighbor
+                Map_Generator.generate("random-20", 6, ROWS, 1),
+                Map_Generator.generate("random-20", 7, 1, COLS),
+                Map_Generator.generate("random-20", 8, ROWS, 2)
+        };
+        for(Grid_Map map : maps){
+            for(int cell = 0; cell < map.size(); cell++){
+                Set<Integer> expected = new HashSet<>();
+                int x = map.getX(cell);
+                int y = map.getY(cell);
+                int[][] moves = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+                for(int[] move : moves){
+                    if(map.isWithinBounds(x + move[0], y + move[1]) && !map.isImpasse(map.index(x + move[0], y + move[1]))){
+                        expected.add(map.index(x + move[0], y + move[1]));
+                    }
+                }
+                int count = map.successors(cell, successors);
+                Set<Integer> found = new HashSet<>();
+                for(int i = 0; i < count; i++){
+                    found.add(successors[i]);
+                }
+                assertEquals(count, found.size(), "a successor was written twice");
+                assertEquals(expected, found, map.getRows() + "x" + map.getCols() + " cell " + cell);
+            }
+        }
+    }
+}
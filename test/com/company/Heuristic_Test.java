@@ -0,0 +1,117 @@
+package com.company;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the heuristics and cost models A_Star_Search can be given: A* finds
+ * the cheapest path with every heuristic, none of them overestimates,
+ * Strategies sorts each one into the kind it dispatches on and returns what
+ * the interface call would, and Edge_Cost.average costs a move the same in
+ * both directions.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+class Heuristic_Test {
+    private static final int SIZE = 41; // Rows and columns of the maps
+    private static final int LANDMARKS = 4; // Landmarks of the ALT heuristic
+
+    @ParameterizedTest
+    @MethodSource("com.company.Dijkstra#maps")
+    void a_star_finds_the_cheapest_path_with_every_heuristic(String kind, long seed){
+        Grid_Map map = Map_Generator.generate(kind, seed, SIZE, SIZE);
+        Search_State state = new Search_State(map);
+        for(Heuristic heuristic : heuristics(map)){
+            A_Star_Search search = new A_Star_Search(map, heuristic);
+            Dijkstra.check_optimal(map, seed, (start, goal) -> search.search(state, start, goal));
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("com.company.Dijkstra#maps")
+    void heuristics_never_overestimate(String kind, long seed){
+        Grid_Map map = Map_Generator.generate(kind, seed, SIZE, SIZE);
+        Heuristic manhattan = Heuristic.manhattan(map);
+        Heuristic euclidean = Heuristic.euclidean(map);
+        int[][] queries = Map_Generator.queries(seed, map, Dijkstra.QUERIES);
+        for(int i = 0; i < Dijkstra.QUERIES; i++){
+            int goal = queries[1][i];
+            int[] distances = Dijkstra.distances_to(map, goal);
+            for(Heuristic heuristic : heuristics(map)){
+                for(int cell = 0; cell < map.size(); cell++){
+                    if(distances[cell] != Dijkstra.UNREACHABLE){
+                        assertTrue(heuristic.estimate(cell, goal) <= distances[cell], "estimate from " + cell + " to " + goal);
+                    }
+                }
+            }
+            for(int cell = 0; cell < map.size(); cell++){
+                assertTrue(euclidean.estimate(cell, goal) <= manhattan.estimate(cell, goal));
+            }
+        }
+    }
+
+    @Test
+    void strategies_dispatch_every_heuristic_on_its_class(){
+        Grid_Map map = Map_Generator.generate("random-10", 1, SIZE, SIZE);
+        Heuristic manhattan = Heuristic.manhattan(map);
+        Heuristic[] heuristics = {manhattan, Heuristic.euclidean(map), Heuristic.octile(map), Heuristic.zero(),
+                new Landmarks(map, LANDMARKS), manhattan::estimate};
+        int[] kinds = {Strategies.MANHATTAN, Strategies.EUCLIDEAN, Strategies.OCTILE, Strategies.ZERO,
+                Strategies.LANDMARKS, Strategies.OTHER_HEURISTIC};
+        int[][] queries = Map_Generator.queries(1, map, Dijkstra.QUERIES);
+        for(int h = 0; h < heuristics.length; h++){
+            int kind = Strategies.heuristic_kind(heuristics[h]);
+            assertEquals(kinds[h], kind, "heuristic " + h);
+            for(int i = 0; i < Dijkstra.QUERIES; i++){
+                assertEquals(heuristics[h].estimate(queries[0][i], queries[1][i]),
+                        Strategies.estimate(kind, heuristics[h], queries[0][i], queries[1][i]), "heuristic " + h);
+            }
+        }
+    }
+
+    @Test
+    void strategies_dispatch_every_cost_model_on_its_class(){
+        Grid_Map map = Map_Generator.generate("random-10", 2, SIZE, SIZE);
+        Edge_Cost entering = Edge_Cost.entering(map);
+        Edge_Cost[] models = {entering, Edge_Cost.average(map),
+                Edge_Cost.octile(Neighborhood.eight(map, Neighborhood.Corner_Rule.NO_CUT)), entering::cost};
+        int[] kinds = {Strategies.ENTERING, Strategies.AVERAGE, Strategies.OCTILE_COST, Strategies.OTHER_COST};
+        for(int m = 0; m < models.length; m++){
+            int kind = Strategies.cost_kind(models[m]);
+            assertEquals(kinds[m], kind, "cost model " + m);
+            for(int from = 0; from < map.size() - map.getCols() - 1; from++){
+                for(int to : new int[]{from + 1, from + map.getCols(), from + map.getCols() + 1}){
+                    assertEquals(models[m].cost(from, to), Strategies.cost(kind, models[m], from, to), "cost model " + m);
+                }
+            }
+        }
+    }
+
+    @Test
+    void average_cost_is_the_same_in_both_directions(){
+        Grid_Map map = new Grid_Map(1, 3);
+        map.setCost(0, 0, 1);
+        map.setCost(0, 1, 2);
+        map.setCost(0, 2, Grid_Map.MAX_COST);
+        Edge_Cost average = Edge_Cost.average(map);
+        // Half of an odd sum is rounded up
+        assertEquals(2, average.cost(0, 1));
+        assertEquals(2, average.cost(1, 0));
+        assertEquals((2 + Grid_Map.MAX_COST + 1) / 2, average.cost(1, 2));
+        assertEquals(average.cost(1, 2), average.cost(2, 1));
+    }
+
+    /**
+     * @return every heuristic admissible for moves to the side that cost the cell entered,
+     * manhattan distance called through the interface as well as on its class
+     */
+    private static Heuristic[] heuristics(Grid_Map map){
+        Heuristic manhattan = Heuristic.manhattan(map);
+        return new Heuristic[]{manhattan, manhattan::estimate, Heuristic.euclidean(map), Heuristic.zero(),
+                new Landmarks(map, LANDMARKS)};
+    }
+}
@@ -0,0 +1,111 @@
+package com.company;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks Hierarchical_Search: a path is found exactly when Dijkstra reaches
+ * the goal and is never cheaper than the cheapest one, clusters rebuilt by
+ * update_cost() match an abstraction built from scratch, and an abstraction
+ * read back from a file answers like the one written, but only for the map
+ * it was built for.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+class Hierarchical_Search_Test {
+    private static final int SIZE = 41; // Rows and columns of the maps, not a multiple of the cluster size
+    private static final int CLUSTER_SIZE = 8;
+    private static final int UPDATES = 60; // Cells changed one update at a time
+
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest
+    @MethodSource("com.company.Dijkstra#maps")
+    void hierarchical_search_finds_a_path_whenever_there_is_one(String kind, long seed){
+        Grid_Map map = Map_Generator.generate(kind, seed, SIZE, SIZE);
+        Hierarchical_Search search = new Hierarchical_Search(map, CLUSTER_SIZE);
+        check_queries(map, search, seed);
+    }
+
+    @Test
+    void updated_clusters_match_a_rebuilt_abstraction() throws IOException {
+        for(String kind : new String[]{"random-30", "maze"}){
+            Grid_Map map = Map_Generator.generate(kind, 3, SIZE, SIZE);
+            Hierarchical_Search search = new Hierarchical_Search(map, CLUSTER_SIZE);
+            Random random = new Random(3);
+            for(int i = 0; i < UPDATES; i++){
+                int x = random.nextInt(SIZE);
+                int y = random.nextInt(SIZE);
+                if(random.nextBoolean()){
+                    // Half the changes land on the first or last row of a cluster, where the entrances move
+                    x = Math.min(SIZE - 1, x / CLUSTER_SIZE * CLUSTER_SIZE + (random.nextBoolean() ? 0 : CLUSTER_SIZE - 1));
+                }
+                search.update_cost(x, y, map.isImpasse(map.index(x, y)) ? 1 + random.nextInt(Map_Generator.MAX_RANDOM_COST) : 0);
+            }
+            assertEquals(map.getVersion(), search.getVersion());
+            Hierarchical_Search rebuilt = new Hierarchical_Search(map, CLUSTER_SIZE);
+            assertArrayEquals(bytes(rebuilt, kind + "-rebuilt"), bytes(search, kind + "-updated"), kind);
+            check_queries(map, search, 3);
+        }
+    }
+
+    @Test
+    void abstraction_read_back_answers_like_the_one_written() throws IOException {
+        Grid_Map map = Map_Generator.generate("obstacles-20", 4, SIZE, SIZE);
+        Hierarchical_Search search = new Hierarchical_Search(map, CLUSTER_SIZE);
+        String file = directory.resolve("map.hpa").toString();
+        search.write(file);
+        Hierarchical_Search read = Hierarchical_Search.read(map, file);
+        assertEquals(search.getNode_count(), read.getNode_count());
+        assertEquals(CLUSTER_SIZE, read.getCluster_size());
+        Search_State state = new Search_State(map);
+        int[][] queries = Map_Generator.queries(4, map, Dijkstra.QUERIES);
+        for(int i = 0; i < Dijkstra.QUERIES; i++){
+            Search_Result written = search.search(state, queries[0][i], queries[1][i]);
+            Search_Result loaded = read.search(state, queries[0][i], queries[1][i]);
+            assertArrayEquals(written.getPath(), loaded.getPath(), "query " + i);
+        }
+
+        // A single changed cost makes the file belong to another map
+        Grid_Map changed = map.copy();
+        changed.setCost(0, 0, changed.getCost(0, 0) == 1 ? 2 : 1);
+        assertThrows(IOException.class, () -> Hierarchical_Search.read(changed, file));
+        assertThrows(IOException.class, () -> Hierarchical_Search.read(Map_Generator.generate("obstacles-20", 4, SIZE, SIZE + 1), file));
+        assertThrows(IllegalArgumentException.class, () -> new Hierarchical_Search(map, 1));
+    }
+
+    private static void check_queries(Grid_Map map, Hierarchical_Search search, long seed){
+        Search_State state = new Search_State(map);
+        int[][] queries = Map_Generator.queries(seed, map, Dijkstra.QUERIES);
+        for(int i = 0; i < Dijkstra.QUERIES; i++){
+            int start = queries[0][i];
+            int goal = queries[1][i];
+            int cheapest = Dijkstra.distances(map, start)[goal];
+            Search_Result result = search.search(state, start, goal);
+            assertEquals(cheapest != Dijkstra.UNREACHABLE, result.isFound(), "query " + start + " -> " + goal);
+            if(result.isFound()){
+                Dijkstra.assert_path(map, result, start, goal);
+                assertTrue(result.getPath_cost() >= cheapest, "path is cheaper than the cheapest path");
+            }
+        }
+    }
+
+    private byte[] bytes(Hierarchical_Search search, String name) throws IOException {
+        Path file = directory.resolve(name + ".hpa");
+        search.write(file.toString());
+        return Files.readAllBytes(file);
+    }
+}
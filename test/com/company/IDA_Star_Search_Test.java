@@ -0,0 +1,66 @@
+package com.company;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks IDA_Star_Search against Dijkstra on the maps of Map_Generator and
+ * with other heuristics and cost models, and on a winding corridor whose
+ * only path is hundreds of cells deep, which the iterative search has to
+ * follow without recursing.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+class IDA_Star_Search_Test {
+    private static final int SIZE = 17; // Rows and columns of the maps, IDA* repeats its work so they are kept small
+    private static final int CORRIDOR_SIZE = 61; // Rows and columns of the winding corridor
+
+    @ParameterizedTest
+    @MethodSource("com.company.Dijkstra#maps")
+    void ida_star_finds_the_cheapest_path(String kind, long seed){
+        Grid_Map map = Map_Generator.generate(kind, seed, SIZE, SIZE);
+        Search_State state = new Search_State(map);
+        IDA_Star_Search search = new IDA_Star_Search(map);
+        Dijkstra.check_optimal(map, seed, (start, goal) -> search.search(state, start, goal));
+    }
+
+    @Test
+    void ida_star_finds_the_cheapest_path_with_other_heuristics(){
+        for(String kind : new String[]{"random-10", "maze"}){
+            Grid_Map map = Map_Generator.generate(kind, 3, SIZE, SIZE);
+            Search_State state = new Search_State(map);
+            Heuristic manhattan = Heuristic.manhattan(map);
+            Heuristic[] heuristics = {manhattan::estimate, Heuristic.euclidean(map), new Landmarks(map, 4)};
+            for(Heuristic heuristic : heuristics){
+                IDA_Star_Search search = new IDA_Star_Search(map, heuristic, Edge_Cost.entering(map));
+                Dijkstra.check_optimal(map, 3, (start, goal) -> search.search(state, start, goal));
+            }
+        }
+    }
+
+    @Test
+    void follows_a_winding_corridor_without_recursing(){
+        // Walls on every other row, each with a gap at alternating ends, leave a single path zigzagging down the map
+        Grid_Map map = Map_Generator.open_field(CORRIDOR_SIZE, CORRIDOR_SIZE);
+        for(int x = 1; x < CORRIDOR_SIZE; x += 2){
+            int gap = (x / 2) % 2 == 0 ? CORRIDOR_SIZE - 1 : 0;
+            for(int y = 0; y < CORRIDOR_SIZE; y++){
+                if(y != gap){
+                    map.setCost(x, y, 0);
+                }
+            }
+        }
+        int start = map.index(0, 0);
+        int goal = map.index(CORRIDOR_SIZE - 1, 0);
+        IDA_Star_Search search = new IDA_Star_Search(map);
+        Search_Result result = search.search(new Search_State(map), start, goal);
+        assertTrue(result.isFound());
+        Dijkstra.assert_path(map, result, start, goal);
+        assertEquals(Dijkstra.distances(map, start)[goal], result.getPath_cost());
+        assertTrue(result.getPath().length > CORRIDOR_SIZE * CORRIDOR_SIZE / 2, "the corridor is not as deep as intended");
+    }
+}
@@ -0,0 +1,110 @@
+package com.company;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks Indexed_Min_Heap against a plain array of keys under random adds,
+ * decrease-keys and polls, its reuse after clear(), and the errors of
+ * adding a queued item, decreasing an item that is not queued or raising a key.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+class Indexed_Min_Heap_Test {
+    private static final int CAPACITY = 500;
+    private static final int STEPS = 3000; // Random operations per round
+
+    @Test
+    void polls_in_key_order_under_random_operations(){
+        Indexed_Min_Heap heap = new Indexed_Min_Heap(CAPACITY);
+        Random random = new Random(1);
+        int[] keys = new int[CAPACITY]; // Key of each queued item, -1 when not queued
+        for(int round = 0; round < 3; round++){
+            Arrays.fill(keys, -1);
+            for(int step = 0; step < STEPS; step++){
+                int item = random.nextInt(CAPACITY);
+                if(keys[item] < 0){
+                    keys[item] = random.nextInt(10000);
+                    heap.add(item, keys[item]);
+                }
+                else if(keys[item] > 0){
+                    keys[item] = random.nextInt(keys[item]);
+                    heap.decreaseKey(item, keys[item]);
+                }
+                assertTrue(heap.contains(item));
+                assertEquals(keys[item], heap.getKey(item));
+                if(random.nextInt(3) == 0){
+                    int smallest = Arrays.stream(keys).filter(key -> key >= 0).min().getAsInt();
+                    assertEquals(smallest, heap.peekKey());
+                    assertEquals(smallest, keys[heap.peek()]);
+                    int polled = heap.poll();
+                    assertEquals(smallest, keys[polled], "polled item " + polled + " does not have the smallest key");
+                    keys[polled] = -1;
+                    assertFalse(heap.contains(polled));
+                }
+            }
+            assert_items(heap, keys);
+            // The next round reuses the heap after clear(), as every search of a Search_State does
+            heap.clear();
+            assertTrue(heap.isEmpty());
+            for(int item = 0; item < CAPACITY; item++){
+                assertFalse(heap.contains(item));
+            }
+        }
+    }
+
+    @Test
+    void equal_keys_all_come_out(){
+        Indexed_Min_Heap heap = new Indexed_Min_Heap(CAPACITY);
+        for(int item = CAPACITY - 1; item >= 0; item--){
+            heap.add(item, item % 3);
+        }
+        int last = -1;
+        Set<Integer> polled = new HashSet<>();
+        while(!heap.isEmpty()){
+            int key = heap.peekKey();
+            assertTrue(key >= last, "keys came out of order");
+            last = key;
+            polled.add(heap.poll());
+        }
+        assertEquals(CAPACITY, polled.size());
+    }
+
+    @Test
+    void misuse_is_refused(){
+        Indexed_Min_Heap heap = new Indexed_Min_Heap(10);
+        assertThrows(NoSuchElementException.class, heap::poll);
+        assertThrows(NoSuchElementException.class, heap::peek);
+        assertThrows(NoSuchElementException.class, heap::peekKey);
+        assertThrows(NoSuchElementException.class, () -> heap.decreaseKey(1, 0));
+        heap.add(1, 5);
+        assertThrows(IllegalStateException.class, () -> heap.add(1, 3));
+        assertThrows(IllegalArgumentException.class, () -> heap.decreaseKey(1, 6));
+        assertThrows(IndexOutOfBoundsException.class, () -> heap.get(1));
+        assertEquals(1, heap.get(0));
+    }
+
+    /**
+     * Asserts get() visits exactly the queued items
+     */
+    private static void assert_items(Indexed_Min_Heap heap, int[] keys){
+        Set<Integer> queued = new HashSet<>();
+        for(int position = 0; position < heap.size(); position++){
+            queued.add(heap.get(position));
+        }
+        for(int item = 0; item < keys.length; item++){
+            assertEquals(keys[item] >= 0, queued.contains(item), "item " + item);
+        }
+        assertEquals(queued.size(), heap.size());
+    }
+}
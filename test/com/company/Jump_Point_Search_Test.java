@@ -0,0 +1,80 @@
+package com.company;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks Jump_Point_Search against Dijkstra on the maps of Map_Generator and
+ * on maps made of blocks of equal cost, where a jump has to stop wherever
+ * the cost changes, and that on an open map it expands far fewer cells than
+ * A* for paths of the same cost.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+class Jump_Point_Search_Test {
+    private static final int SIZE = 41; // Rows and columns of the maps
+
+    @ParameterizedTest
+    @MethodSource("com.company.Dijkstra#maps")
+    void jump_point_search_finds_the_cheapest_path(String kind, long seed){
+        Grid_Map map = Map_Generator.generate(kind, seed, SIZE, SIZE);
+        Search_State state = new Search_State(map);
+        Jump_Point_Search search = new Jump_Point_Search(map);
+        Dijkstra.check_optimal(map, seed, (start, goal) -> search.search(state, start, goal));
+    }
+
+    @Test
+    void jumps_stop_where_the_cost_changes(){
+        for(long seed = 1; seed <= 4; seed++){
+            Grid_Map map = blocks(seed);
+            Search_State state = new Search_State(map);
+            Jump_Point_Search search = new Jump_Point_Search(map);
+            Dijkstra.check_optimal(map, seed, (start, goal) -> search.search(state, start, goal));
+        }
+    }
+
+    @Test
+    void open_map_expands_fewer_cells_than_a_star(){
+        Grid_Map map = Map_Generator.generate("open", 1, SIZE, SIZE);
+        Search_State state = new Search_State(map);
+        Jump_Point_Search jps = new Jump_Point_Search(map);
+        A_Star_Search a_star = new A_Star_Search(map);
+        int[][] queries = Map_Generator.queries(1, map, Dijkstra.QUERIES);
+        long jps_expanded = 0;
+        long a_star_expanded = 0;
+        for(int i = 0; i < Dijkstra.QUERIES; i++){
+            Search_Result jump = jps.search(state, queries[0][i], queries[1][i]);
+            Search_Result plain = a_star.search(state, queries[0][i], queries[1][i]);
+            assertEquals(plain.getPath_cost(), jump.getPath_cost(), "query " + i);
+            jps_expanded += jump.getNodes_expanded();
+            a_star_expanded += plain.getNodes_expanded();
+        }
+        assertTrue(2 * jps_expanded < a_star_expanded, "jump point search expanded " + jps_expanded
+                + " cells, A* " + a_star_expanded);
+    }
+
+    /**
+     * @return a map of 5x7 blocks that each have one random cost, with a few impasses scattered over it
+     */
+    private static Grid_Map blocks(long seed){
+        Random random = new Random(seed);
+        int[] block_costs = new int[((SIZE + 4) / 5) * ((SIZE + 6) / 7)];
+        for(int i = 0; i < block_costs.length; i++){
+            block_costs[i] = 1 + random.nextInt(Map_Generator.MAX_RANDOM_COST);
+        }
+        Grid_Map map = new Grid_Map(SIZE, SIZE);
+        for(int x = 0; x < SIZE; x++){
+            for(int y = 0; y < SIZE; y++){
+                boolean impasse = random.nextInt(20) == 0;
+                map.setCost(x, y, impasse ? 0 : block_costs[x / 5 * ((SIZE + 6) / 7) + y / 7]);
+            }
+        }
+        return map;
+    }
+}
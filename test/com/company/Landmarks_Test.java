@@ -0,0 +1,82 @@
+package com.company;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the landmarks kept by Search_Algorithms.alt_search() are
+ * computed again once a cost of the map changes: distances from the old costs
+ * overestimate after costs are lowered and A* then misses the cheapest path,
+ * that they record the version of the map they were computed for, and that
+ * a landmark is placed even when every way from the border to the centre
+ * misses the passable cells.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+class Landmarks_Test {
+    private static final int SIZE = 30; // Rows and columns of the maps
+    private static final int MAPS = 40; // Random maps checked
+    private static final int LANDMARKS = 4; // Landmarks placed by alt_search()
+    private static final int POCKET_SIZE = 9; // Rows and columns of the map with a single pocket of passable cells
+
+    @Test
+    void alt_search_finds_the_cheapest_path_after_costs_are_lowered(){
+        for(long seed = 1; seed <= MAPS; seed++){
+            Grid_Map map = Map_Generator.generate("random-10", seed, SIZE, SIZE);
+            Search_Algorithms sa = new Search_Algorithms(map);
+            sa.alt_search(LANDMARKS);
+            // Lower a quarter of the cells straight through the map, not through update_costs()
+            Random random = new Random(seed);
+            for(int cell = 0; cell < map.size(); cell++){
+                if(!map.isImpasse(cell) && random.nextInt(4) == 0){
+                    map.setCost(map.getX(cell), map.getY(cell), 1);
+                }
+            }
+            sa.setPath(new ArrayList<>());
+            sa.alt_search(LANDMARKS);
+            int cheapest = Dijkstra.distances(map, map.getStart())[map.getGoal()];
+            List<Node> path = sa.getPath();
+            if(cheapest == Dijkstra.UNREACHABLE){
+                assertTrue(path.isEmpty(), "seed " + seed + " found a path to an unreachable goal");
+                continue;
+            }
+            int cost = 0;
+            for(Node node : path){
+                cost += node.getCost();
+            }
+            assertEquals(cheapest, cost, "seed " + seed + " did not find the cheapest path");
+        }
+    }
+
+    @Test
+    void landmarks_record_the_version_of_the_map(){
+        Grid_Map map = Map_Generator.generate("random-10", 1, SIZE, SIZE);
+        Landmarks landmarks = new Landmarks(map, LANDMARKS, 2);
+        assertEquals(map.getVersion(), landmarks.getVersion());
+        map.setCost(0, 0, 1);
+        assertNotEquals(map.getVersion(), landmarks.getVersion());
+    }
+
+    @Test
+    void landmark_is_placed_in_a_pocket_off_every_ray(){
+        // Only two cells are passable, away from the diagonals and middle lines the rays follow
+        Grid_Map map = new Grid_Map(POCKET_SIZE, POCKET_SIZE);
+        map.setCost(2, 1, 3);
+        map.setCost(3, 1, 2);
+        Landmarks landmarks = new Landmarks(map, LANDMARKS);
+        assertArrayEquals(new int[]{map.index(2, 1)}, landmarks.getLandmarks());
+        int start = map.index(2, 1);
+        int goal = map.index(3, 1);
+        // Both bounds are exact: each way costs the cell it enters
+        assertEquals(2, landmarks.estimate(start, goal));
+        assertEquals(3, landmarks.estimate(goal, start));
+    }
+}
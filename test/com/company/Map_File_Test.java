@@ -0,0 +1,190 @@
+package com.company;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks Map_File: the text parser on the lab file format, on any whitespace
+ * and on malformed files (bad characters, missing values, costs and
+ * locations out of range), the binary round trip through write_binary and
+ * convert, is_binary, and the validation of the binary header against the
+ * size of the file before anything is allocated or mapped.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+class Map_File_Test {
+    private static final String LAB_MAP = "2 3\n0 1\n1 2\n1 2 3\n4 0 255\n";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void text_map_is_read_cell_by_cell() throws IOException {
+        Grid_Map map = Map_File.read_text(text("lab.txt", LAB_MAP));
+        assertEquals(2, map.getRows());
+        assertEquals(3, map.getCols());
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 0, (byte) 255}, map.getCosts());
+        assertEquals(map.index(0, 1), map.getStart());
+        assertEquals(map.index(1, 2), map.getGoal());
+        assertTrue(map.isImpasse(map.index(1, 1)));
+        assertEquals(Grid_Map.MAX_COST, map.getCost(1, 2));
+    }
+
+    @Test
+    void text_tokens_may_be_separated_by_any_whitespace() throws IOException {
+        Grid_Map expected = Map_File.read_text(text("lab.txt", LAB_MAP));
+        Grid_Map spaced = Map_File.read_text(text("spaced.txt", "  2\t3\r\n0 1\r\n\r\n1\n2 1  2\t3 4 0\n255"));
+        assertArrayEquals(expected.getCosts(), spaced.getCosts());
+        assertEquals(expected.getStart(), spaced.getStart());
+        assertEquals(expected.getGoal(), spaced.getGoal());
+    }
+
+    @Test
+    void text_map_larger_than_the_read_buffer_is_read_whole() throws IOException {
+        Grid_Map map = Map_Generator.generate("random-30", 1, 300, 301);
+        StringBuilder text = new StringBuilder();
+        text.append(map.getRows()).append(' ').append(map.getCols()).append('\n');
+        text.append(map.getX(map.getStart())).append(' ').append(map.getY(map.getStart())).append('\n');
+        text.append(map.getX(map.getGoal())).append(' ').append(map.getY(map.getGoal())).append('\n');
+        for(int x = 0; x < map.getRows(); x++){
+            for(int y = 0; y < map.getCols(); y++){
+                text.append(map.getCost(x, y)).append(y + 1 < map.getCols() ? ' ' : '\n');
+            }
+        }
+        Grid_Map read = Map_File.read_text(text("large.txt", text.toString()));
+        assertArrayEquals(map.getCosts(), read.getCosts());
+        assertEquals(map.getStart(), read.getStart());
+        assertEquals(map.getGoal(), read.getGoal());
+    }
+
+    @Test
+    void malformed_text_maps_are_refused() throws IOException {
+        // Bad characters
+        assertThrows(IllegalArgumentException.class, () -> Map_File.read_text(text("letter.txt", "2 3\n0 1\n1 2\n1 2 x\n4 0 5\n")));
+        assertThrows(IllegalArgumentException.class, () -> Map_File.read_text(text("negative.txt", "2 3\n0 -1\n1 2\n1 2 3\n4 0 5\n")));
+        assertThrows(IllegalArgumentException.class, () -> Map_File.read_text(text("comma.txt", "2 3\n0 1\n1 2\n1,2,3\n4 0 5\n")));
+        // Short files, inside the header and inside the costs
+        assertThrows(EOFException.class, () -> Map_File.read_text(text("empty.txt", "")));
+        assertThrows(EOFException.class, () -> Map_File.read_text(text("header.txt", "2 3\n0 1\n1")));
+        assertThrows(EOFException.class, () -> Map_File.read_text(text("costs.txt", "2 3\n0 1\n1 2\n1 2 3\n4 0\n")));
+        // Values out of range
+        assertThrows(IllegalArgumentException.class, () -> Map_File.read_text(text("cost.txt", "2 3\n0 1\n1 2\n1 2 3\n4 0 256\n")));
+        assertThrows(IllegalArgumentException.class, () -> Map_File.read_text(text("overflow.txt", "2 3\n0 1\n1 2\n1 2 3\n4 0 99999999999\n")));
+        assertThrows(IllegalArgumentException.class, () -> Map_File.read_text(text("start.txt", "2 3\n2 0\n1 2\n1 2 3\n4 0 5\n")));
+        assertThrows(IllegalArgumentException.class, () -> Map_File.read_text(text("goal.txt", "2 3\n0 1\n1 3\n1 2 3\n4 0 5\n")));
+        // A size past the largest Grid_Map fails before its costs are allocated
+        assertThrows(IOException.class, () -> Map_File.read_text(text("huge.txt", "100000 100000\n0 0\n0 0\n1\n")));
+    }
+
+    @Test
+    void binary_map_round_trips() throws IOException {
+        for(String kind : new String[]{"open", "random-30", "maze"}){
+            Grid_Map map = Map_Generator.generate(kind, 2, 37, 29);
+            map.setStart(3, 4);
+            map.setGoal(30, 20);
+            String file = directory.resolve(kind + ".gmap").toString();
+            Map_File.write_binary(map, file);
+            assertEquals(Map_File.HEADER_BYTES + map.size(), Files.size(Path.of(file)));
+            assertTrue(Map_File.is_binary(file));
+            for(Grid_Map read : new Grid_Map[]{Map_File.read_binary(file), Map_File.load(file), Grid_Map.readFile(file)}){
+                assertEquals(map.getRows(), read.getRows(), kind);
+                assertEquals(map.getCols(), read.getCols(), kind);
+                assertArrayEquals(map.getCosts(), read.getCosts(), kind);
+                assertEquals(map.getStart(), read.getStart(), kind);
+                assertEquals(map.getGoal(), read.getGoal(), kind);
+            }
+        }
+    }
+
+    @Test
+    void converted_text_map_matches_the_text_map() throws IOException {
+        String text_file = text("lab.txt", LAB_MAP);
+        String binary_file = directory.resolve("lab.gmap").toString();
+        Map_File.convert(text_file, binary_file);
+        Grid_Map text = Map_File.load(text_file);
+        Grid_Map binary = Map_File.load(binary_file);
+        assertArrayEquals(text.getCosts(), binary.getCosts());
+        assertEquals(text.getStart(), binary.getStart());
+        assertEquals(text.getGoal(), binary.getGoal());
+    }
+
+    @Test
+    void is_binary_looks_only_at_the_magic_number() throws IOException {
+        assertFalse(Map_File.is_binary(text("lab.txt", LAB_MAP)));
+        assertFalse(Map_File.is_binary(text("empty.txt", "")));
+        assertFalse(Map_File.is_binary(text("short.txt", "GMA")));
+        assertTrue(Map_File.is_binary(text("magic.txt", "GMAP")), "the magic alone is enough, read_binary checks the rest");
+    }
+
+    @Test
+    void malformed_binary_maps_are_refused() throws IOException {
+        Grid_Map map = Map_Generator.generate("random-10", 3, 10, 12);
+        assert_rejected(map, 4, Map_File.VERSION + 1); // Version
+        assert_rejected(map, 8, -1); // Rows
+        assert_rejected(map, 12, 13); // Columns that do not match the size of the file
+        assert_rejected(map, 8, 1 << 20); // Rows * columns overflow an int
+        String file = binary(map, "start.gmap");
+        overwrite(file, 16, 10); // Start row outside the map
+        assertThrows(IllegalArgumentException.class, () -> Map_File.read_binary(file));
+
+        String truncated = binary(map, "truncated.gmap");
+        try(RandomAccessFile out = new RandomAccessFile(truncated, "rw")){
+            out.setLength(out.length() - 1);
+        }
+        assertThrows(IOException.class, () -> Map_File.read_binary(truncated));
+        String header = binary(map, "header.gmap");
+        try(RandomAccessFile out = new RandomAccessFile(header, "rw")){
+            out.setLength(Map_File.HEADER_BYTES - 1);
+        }
+        assertThrows(IOException.class, () -> Map_File.read_binary(header));
+        String magic = binary(map, "magic.gmap");
+        overwrite(magic, 0, 0x12345678);
+        assertThrows(IOException.class, () -> Map_File.read_binary(magic));
+        assertFalse(Map_File.is_binary(magic));
+        // Grid_Map.readFile reports the reader's message instead of returning an empty map
+        UncheckedIOException failure = assertThrows(UncheckedIOException.class, () -> Grid_Map.readFile(truncated));
+        assertTrue(failure.getMessage().contains("does not hold a 10x12 map"), failure.getMessage());
+    }
+
+    /**
+     * Writes the map, overwrites one int of its header and expects read_binary() to refuse the file
+     */
+    private void assert_rejected(Grid_Map map, int position, int value) throws IOException {
+        String file = binary(map, "corrupt-" + position + ".gmap");
+        overwrite(file, position, value);
+        assertThrows(IOException.class, () -> Map_File.read_binary(file), "header int at " + position);
+    }
+
+    private static void overwrite(String file, int position, int value) throws IOException {
+        try(RandomAccessFile out = new RandomAccessFile(file, "rw")){
+            out.seek(position);
+            out.writeInt(value);
+        }
+    }
+
+    private String binary(Grid_Map map, String name) throws IOException {
+        String file = directory.resolve(name).toString();
+        Map_File.write_binary(map, file);
+        return file;
+    }
+
+    private String text(String name, String contents) throws IOException {
+        Path file = directory.resolve(name);
+        Files.write(file, contents.getBytes(StandardCharsets.US_ASCII));
+        return file.toString();
+    }
+}
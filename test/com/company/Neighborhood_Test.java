@@ -0,0 +1,198 @@
+package com.company;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the eight connected moves of Neighborhood under every corner rule,
+ * and A_Star_Search.eight_connected() with Edge_Cost.octile and
+ * Heuristic.octile, against an octile Dijkstra that decides the corner rules
+ * case by case, on square maps and on maps one and two columns or rows wide,
+ * where Neighborhood.isDiagonal has to tell a diagonal step from a side step.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+class Neighborhood_Test {
+    private static final int SIZE = 25; // Rows and columns of the square maps
+    private static final int QUERIES = 20; // Queries per map
+
+    private static Grid_Map[] maps(){
+        return new Grid_Map[]{
+                Map_Generator.generate("open", 1, SIZE, SIZE),
+                Map_Generator.generate("random-30", 1, SIZE, SIZE),
+                Map_Generator.generate("obstacles-40", 2, SIZE, SIZE),
+                Map_Generator.generate("maze", 3, SIZE, SIZE),
+                Map_Generator.generate("random-20", 4, SIZE, 1),
+                Map_Generator.generate("random-20", 5, SIZE, 2),
+                Map_Generator.generate("random-30", 6, SIZE, 2),
+                Map_Generator.generate("random-20", 7, 1, SIZE),
+                Map_Generator.generate("random-30", 8, 2, SIZE)
+        };
+    }
+
+    @Test
+    void successors_follow_the_corner_rule(){
+        int[] successors = new int[Grid_Map.MAX_SUCCESSORS];
+        for(Grid_Map map : maps()){
+            for(Neighborhood.Corner_Rule rule : Neighborhood.Corner_Rule.values()){
+                Neighborhood eight = Neighborhood.eight(map, rule);
+                for(int cell = 0; cell < map.size(); cell++){
+                    int count = eight.successors(cell, successors);
+                    Set<Integer> found = new HashSet<>();
+                    for(int i = 0; i < count; i++){
+                        found.add(successors[i]);
+                    }
+                    assertEquals(moves(map, rule, cell), found, map.getRows() + "x" + map.getCols() + " " + rule + " cell " + cell);
+                }
+            }
+        }
+    }
+
+    @Test
+    void is_diagonal_tells_corners_from_sides(){
+        for(Grid_Map map : maps()){
+            Neighborhood eight = Neighborhood.eight(map, Neighborhood.Corner_Rule.CUT);
+            for(int cell = 0; cell < map.size(); cell++){
+                for(int neighbor : moves(map, Neighborhood.Corner_Rule.CUT, cell)){
+                    boolean diagonal = map.getX(cell) != map.getX(neighbor) && map.getY(cell) != map.getY(neighbor);
+                    assertEquals(diagonal, eight.isDiagonal(cell, neighbor), map.getRows() + "x" + map.getCols()
+                            + " move " + cell + " -> " + neighbor);
+                }
+            }
+        }
+    }
+
+    @Test
+    void eight_connected_a_star_finds_the_cheapest_octile_path(){
+        for(Grid_Map map : maps()){
+            Search_State state = new Search_State(map);
+            int[][] queries = Map_Generator.queries(map.size(), map, QUERIES);
+            for(Neighborhood.Corner_Rule rule : Neighborhood.Corner_Rule.values()){
+                A_Star_Search search = A_Star_Search.eight_connected(map, rule);
+                for(int i = 0; i < QUERIES; i++){
+                    int start = queries[0][i];
+                    int goal = queries[1][i];
+                    int cheapest = octile_distances(map, rule, start)[goal];
+                    Search_Result result = search.search(state, start, goal);
+                    String query = map.getRows() + "x" + map.getCols() + " " + rule + " query " + start + " -> " + goal;
+                    if(cheapest == Dijkstra.UNREACHABLE){
+                        assertFalse(result.isFound(), query + " found a path to an unreachable goal");
+                        continue;
+                    }
+                    assertTrue(result.isFound(), query + " found no path");
+                    assert_octile_path(map, rule, result, start, goal, query);
+                    assertEquals(cheapest, result.getPath_cost(), query + " did not find the cheapest path");
+                }
+            }
+        }
+    }
+
+    @Test
+    void octile_heuristic_never_overestimates(){
+        for(Grid_Map map : maps()){
+            Heuristic octile = Heuristic.octile(map);
+            for(Neighborhood.Corner_Rule rule : Neighborhood.Corner_Rule.values()){
+                int goal = map.getGoal();
+                int[] cheapest = octile_distances(map, rule, goal, true);
+                for(int cell = 0; cell < map.size(); cell++){
+                    if(cheapest[cell] != Dijkstra.UNREACHABLE){
+                        assertTrue(octile.estimate(cell, goal) <= cheapest[cell], map.getRows() + "x" + map.getCols()
+                                + " " + rule + " estimate from " + cell + " overestimates");
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The moves a corner rule allows from a cell, decided case by case
+     */
+    private static Set<Integer> moves(Grid_Map map, Neighborhood.Corner_Rule rule, int cell){
+        Set<Integer> moves = new HashSet<>();
+        int x = map.getX(cell);
+        int y = map.getY(cell);
+        for(int dx = -1; dx <= 1; dx++){
+            for(int dy = -1; dy <= 1; dy++){
+                if(dx == 0 && dy == 0 || !open(map, x + dx, y + dy)){
+                    continue;
+                }
+                if(dx != 0 && dy != 0){
+                    boolean first = open(map, x + dx, y);
+                    boolean second = open(map, x, y + dy);
+                    if(rule == Neighborhood.Corner_Rule.NO_CUT && !(first && second)
+                            || rule == Neighborhood.Corner_Rule.NO_SQUEEZE && !first && !second){
+                        continue;
+                    }
+                }
+                moves.add(map.index(x + dx, y + dy));
+            }
+        }
+        return moves;
+    }
+
+    private static boolean open(Grid_Map map, int x, int y){
+        return map.isWithinBounds(x, y) && !map.isImpasse(map.index(x, y));
+    }
+
+    private static int octile_cost(Grid_Map map, int from, int to){
+        boolean diagonal = map.getX(from) != map.getX(to) && map.getY(from) != map.getY(to);
+        return map.getCost(to) * (diagonal ? Neighborhood.DIAGONAL_COST : Neighborhood.STRAIGHT_COST);
+    }
+
+    private static int[] octile_distances(Grid_Map map, Neighborhood.Corner_Rule rule, int source){
+        return octile_distances(map, rule, source, false);
+    }
+
+    /**
+     * Every corner rule allows a move exactly when it allows the move back, so
+     * the search can run backwards by charging a move for the cell it leaves
+     * @param backward whether to measure from every cell to the source instead
+     * @return the cost of the cheapest eight connected path from the source to every cell, or back
+     */
+    private static int[] octile_distances(Grid_Map map, Neighborhood.Corner_Rule rule, int source, boolean backward){
+        int[] distance = new int[map.size()];
+        Arrays.fill(distance, Dijkstra.UNREACHABLE);
+        distance[source] = 0;
+        PriorityQueue<long[]> open = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+        open.add(new long[]{0, source});
+        while(!open.isEmpty()){
+            long[] next = open.poll();
+            int cell = (int) next[1];
+            if(next[0] > distance[cell]){
+                continue;
+            }
+            if(backward && map.isImpasse(cell)){
+                continue;
+            }
+            for(int successor : moves(map, rule, cell)){
+                int g = distance[cell] + (backward ? octile_cost(map, successor, cell) : octile_cost(map, cell, successor));
+                if(g < distance[successor]){
+                    distance[successor] = g;
+                    open.add(new long[]{g, successor});
+                }
+            }
+        }
+        return distance;
+    }
+
+    private static void assert_octile_path(Grid_Map map, Neighborhood.Corner_Rule rule, Search_Result result,
+                                           int start, int goal, String query){
+        int[] path = result.getPath();
+        assertEquals(start, path[0], query + " does not begin at the start");
+        assertEquals(goal, path[path.length - 1], query + " does not end at the goal");
+        int cost = 0;
+        for(int i = 1; i < path.length; i++){
+            assertTrue(moves(map, rule, path[i - 1]).contains(path[i]), query + " moves from " + path[i - 1] + " to " + path[i]);
+            cost += octile_cost(map, path[i - 1], path[i]);
+        }
+        assertEquals(cost, result.getPath_cost(), query + " path cost does not match its moves");
+    }
+}
@@ -0,0 +1,197 @@
+package com.company;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks Off_Heap_Arena (growing and copying its last chunk, reuse after
+ * reset, reads from a file), Off_Heap_Min_Heap against a plain array, and
+ * Off_Heap_Map, loaded from a tiled file or copied from a Grid_Map, with a
+ * Tiled_Search on it against Dijkstra.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+class Off_Heap_Test {
+    private static final int SIZE = 45; // Rows and columns of the maps, not a multiple of the tile sizes
+    private static final int QUERIES = 15; // Queries per map
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void arena_keeps_its_contents_when_the_last_chunk_grows(){
+        Off_Heap_Arena arena = new Off_Heap_Arena();
+        long first = arena.allocate(100);
+        for(int i = 0; i < 25; i++){
+            arena.putInt(first + 4L * i, i * 31);
+        }
+        long reserved = arena.getReserved();
+        // Far more than the first chunk holds, so the last chunk is replaced by a larger copy
+        long second = arena.allocate(1 << 16);
+        assertTrue(arena.getReserved() > reserved, "the arena did not grow");
+        assertEquals(0, second % 8, "regions are aligned to 8 bytes");
+        assertTrue(second >= first + 100, "regions overlap");
+        arena.putLong(second + (1 << 16) - 8, Long.MIN_VALUE + 7);
+        arena.putByte(second, (byte) -3);
+        for(int i = 0; i < 25; i++){
+            assertEquals(i * 31, arena.getInt(first + 4L * i), "int " + i + " was lost when the chunk grew");
+        }
+        assertEquals(Long.MIN_VALUE + 7, arena.getLong(second + (1 << 16) - 8));
+        assertEquals((byte) -3, arena.getByte(second));
+        arena.fillInts(second, 16, -1);
+        assertEquals(-1, arena.getInt(second + 60));
+        assertEquals(second + (1 << 16), arena.getBytes(), "bytes handed out");
+    }
+
+    @Test
+    void arena_hands_out_the_same_memory_after_a_reset(){
+        Off_Heap_Arena arena = new Off_Heap_Arena();
+        long first = arena.allocate(5000);
+        long reserved = arena.getReserved();
+        arena.reset();
+        assertEquals(0, arena.getBytes());
+        assertEquals(first, arena.allocate(5000), "a reset arena starts from the beginning again");
+        assertEquals(reserved, arena.getReserved(), "a reset arena reserved more memory");
+        arena.close();
+        assertThrows(IllegalStateException.class, () -> arena.allocate(8));
+    }
+
+    @Test
+    void arena_refuses_to_grow_past_its_limit(){
+        Off_Heap_Arena arena = new Off_Heap_Arena(1024);
+        arena.allocate(1000);
+        assertThrows(IllegalStateException.class, () -> arena.allocate(100));
+        assertThrows(IllegalArgumentException.class, () -> arena.allocate(-1));
+        assertThrows(IllegalArgumentException.class, () -> new Off_Heap_Arena(0));
+    }
+
+    @Test
+    void arena_reads_a_file_region() throws IOException {
+        byte[] bytes = new byte[10000];
+        new Random(1).nextBytes(bytes);
+        Path file = directory.resolve("bytes");
+        Files.write(file, bytes);
+        Off_Heap_Arena arena = new Off_Heap_Arena();
+        arena.allocate(24); // The region does not start at the beginning of the arena
+        long region = arena.allocate(bytes.length - 100);
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+            arena.read(channel, 100, region, bytes.length - 100);
+            // Asking for more than the file holds fails instead of leaving the region half read
+            assertThrows(EOFException.class, () -> arena.read(channel, 100, region, bytes.length));
+        }
+        for(int i = 100; i < bytes.length; i++){
+            assertEquals(bytes[i], arena.getByte(region + i - 100), "byte " + i);
+        }
+    }
+
+    @Test
+    void min_heap_polls_in_key_order(){
+        int capacity = 500;
+        Off_Heap_Min_Heap heap = new Off_Heap_Min_Heap(capacity, new Off_Heap_Arena());
+        Random random = new Random(2);
+        int[] keys = new int[capacity]; // Key of each queued item, -1 when not queued
+        for(int round = 0; round < 3; round++){
+            Arrays.fill(keys, -1);
+            for(int step = 0; step < 2000; step++){
+                int item = random.nextInt(capacity);
+                if(keys[item] < 0){
+                    keys[item] = random.nextInt(10000);
+                    heap.add(item, keys[item]);
+                }
+                else if(keys[item] > 0){
+                    keys[item] = random.nextInt(keys[item]);
+                    heap.decreaseKey(item, keys[item]);
+                }
+                assertTrue(heap.contains(item));
+                if(random.nextInt(3) == 0){
+                    int polled = heap.poll();
+                    assertEquals(Arrays.stream(keys).filter(key -> key >= 0).min().getAsInt(), keys[polled],
+                            "polled item " + polled + " does not have the smallest key");
+                    keys[polled] = -1;
+                    assertFalse(heap.contains(polled));
+                }
+            }
+            assertEquals(Arrays.stream(keys).filter(key -> key >= 0).count(), heap.size());
+            // The next round reuses the heap after clear(), as every query of a Tiled_Search does
+            heap.clear();
+            assertTrue(heap.isEmpty());
+            for(int item = 0; item < capacity; item++){
+                assertFalse(heap.contains(item));
+            }
+        }
+        assertThrows(NoSuchElementException.class, heap::poll);
+        assertThrows(NoSuchElementException.class, () -> heap.decreaseKey(1, 0));
+        heap.add(1, 5);
+        assertThrows(IllegalStateException.class, () -> heap.add(1, 3));
+        assertThrows(IllegalArgumentException.class, () -> heap.decreaseKey(1, 6));
+    }
+
+    @Test
+    void loaded_map_holds_the_costs_of_the_copied_map() throws IOException {
+        Grid_Map map = Map_Generator.generate("random-20", 3, SIZE, SIZE + 7);
+        for(int tile_size : new int[]{1, 8, 64}){
+            String file = directory.resolve("map-" + tile_size + ".gtil").toString();
+            Tiled_Map.write(map, file, tile_size);
+            Off_Heap_Arena arena = new Off_Heap_Arena();
+            Off_Heap_Map loaded = Off_Heap_Map.load(file, arena);
+            Off_Heap_Map copied = new Off_Heap_Map(map, arena);
+            assertEquals(tile_size, loaded.getTile_size());
+            assertEquals(Off_Heap_Map.TILE_SIZE, copied.getTile_size());
+            assertEquals(map.getRows(), loaded.getRows());
+            assertEquals(map.getCols(), loaded.getCols());
+            assertEquals(map.getX(map.getGoal()), loaded.getGoal_x());
+            assertEquals(map.getY(map.getGoal()), loaded.getGoal_y());
+            for(int x = 0; x < map.getRows(); x++){
+                for(int y = 0; y < map.getCols(); y++){
+                    String cell = "tile size " + tile_size + " cell (" + x + "," + y + ")";
+                    assertEquals(map.getCost(x, y), loaded.getCost(x, y), cell);
+                    assertEquals(map.getCost(x, y), copied.getCost(x, y), cell);
+                }
+            }
+        }
+    }
+
+    @Test
+    void tiled_search_on_an_off_heap_map_finds_the_cheapest_path() throws IOException {
+        Off_Heap_Arena arena = new Off_Heap_Arena();
+        for(String kind : new String[]{"random-10", "obstacles-20", "maze"}){
+            Grid_Map map = Map_Generator.generate(kind, 4, SIZE, SIZE);
+            String file = directory.resolve(kind + ".gtil").toString();
+            Tiled_Map.write(map, file, 16);
+            // Every map and search reuses the memory of the last one, as off_heap_search() does
+            arena.reset();
+            Off_Heap_Map off_heap = Off_Heap_Map.load(file, arena);
+            Tiled_Search search = new Tiled_Search(off_heap, map.size(), arena);
+            int[][] queries = Map_Generator.queries(4, map, QUERIES);
+            for(int i = 0; i < QUERIES; i++){
+                int start = queries[0][i];
+                int goal = queries[1][i];
+                String query = kind + " query " + start + " -> " + goal;
+                int cheapest = Dijkstra.distances(map, start)[goal];
+                Tiled_Result result = search.search(map.getX(start), map.getY(start), map.getX(goal), map.getY(goal));
+                if(cheapest == Dijkstra.UNREACHABLE){
+                    assertFalse(result.isFound(), query + " found a path to an unreachable goal");
+                    continue;
+                }
+                assertTrue(result.isFound(), query + " found no path");
+                Dijkstra.assert_path(map, result, start, goal);
+                assertEquals(cheapest, result.getPath_cost(), query + " did not find the cheapest path");
+            }
+        }
+    }
+}
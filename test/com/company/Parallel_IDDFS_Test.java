@@ -0,0 +1,101 @@
+package com.company;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that Parallel_IDDFS finds a path with the fewest moves, for several
+ * numbers of workers and of depth limits searched at the same time, against
+ * a breadth first search counting moves, and that every worker stops soon
+ * after the budget they share runs out, however small their subtrees.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+class Parallel_IDDFS_Test {
+    private static final int SIZE = 12; // Rows and columns of the maps
+    private static final int QUERIES = 10; // Queries per map
+    private static final int MAX_DEPTH = SIZE * SIZE; // Depth limits tried, enough for any path on the map
+    private static final int LARGE_SIZE = 200; // Rows and columns of the map the budgets run out on
+    private static final int WORKERS = 4; // Workers of the budgeted searches
+
+    @Test
+    void finds_a_path_with_the_fewest_moves(){
+        int[][] settings = {{1, 1}, {2, 1}, {4, 3}};
+        for(String kind : new String[]{"open", "obstacles-25", "maze"}){
+            Grid_Map map = Map_Generator.generate(kind, 3, SIZE, SIZE);
+            int[][] queries = Map_Generator.queries(3, map, QUERIES);
+            for(int[] setting : settings){
+                Parallel_IDDFS search = new Parallel_IDDFS(map, setting[0], setting[1]);
+                try{
+                    for(int i = 0; i < QUERIES; i++){
+                        int start = queries[0][i];
+                        int goal = queries[1][i];
+                        int fewest = moves(map, start)[goal];
+                        Search_Result result = search.search(start, goal, MAX_DEPTH);
+                        String query = kind + " " + Arrays.toString(setting) + " query " + start + " -> " + goal;
+                        assertEquals(fewest >= 0, result.isFound(), query);
+                        if(result.isFound()){
+                            Dijkstra.assert_path(map, result, start, goal);
+                            assertEquals(fewest, result.getPath().length - 1, query + " did not find the fewest moves");
+                        }
+                    }
+                }finally{
+                    search.shutdown();
+                }
+            }
+        }
+    }
+
+    @Test
+    void workers_stop_soon_after_the_budget_runs_out(){
+        Grid_Map map = Map_Generator.generate("open", 1, LARGE_SIZE, LARGE_SIZE);
+        int goal = map.size() - 1;
+        Parallel_IDDFS search = new Parallel_IDDFS(map, WORKERS, 2);
+        try{
+            Search_Budget expansions = new Search_Budget(Search_Budget.UNLIMITED, 100, Search_Budget.UNLIMITED);
+            Search_Result result = search.search(0, goal, MAX_DEPTH, expansions);
+            assertTrue(result.isPartial());
+            assertEquals(Search_Budget.Stop_Reason.EXPANSIONS, result.getStop_reason());
+            // Each worker may be one check into a subtree when another one finds the budget spent
+            assertTrue(result.getNodes_expanded() <= 100 + 2 * WORKERS * Search_Budget.CHECK_INTERVAL,
+                    "expanded " + result.getNodes_expanded() + " cells");
+
+            Search_Budget cancelled = Search_Budget.unlimited();
+            cancelled.cancel();
+            result = search.search(0, goal, MAX_DEPTH, cancelled);
+            assertTrue(result.isPartial());
+            assertEquals(Search_Budget.Stop_Reason.CANCELLED, result.getStop_reason());
+            assertEquals(0, result.getNodes_expanded());
+        }finally{
+            search.shutdown();
+        }
+    }
+
+    /**
+     * @return the fewest moves from the source to every cell, -1 where there is no path
+     */
+    private static int[] moves(Grid_Map map, int source){
+        int[] moves = new int[map.size()];
+        Arrays.fill(moves, -1);
+        moves[source] = 0;
+        ArrayDeque<Integer> fringe = new ArrayDeque<>();
+        fringe.add(source);
+        int[] successors = new int[Grid_Map.MAX_SUCCESSORS];
+        while(!fringe.isEmpty()){
+            int cell = fringe.poll();
+            int count = map.successors(cell, successors);
+            for(int i = 0; i < count; i++){
+                if(moves[successors[i]] < 0){
+                    moves[successors[i]] = moves[cell] + 1;
+                    fringe.add(successors[i]);
+                }
+            }
+        }
+        return moves;
+    }
+}
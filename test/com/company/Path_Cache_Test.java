@@ -0,0 +1,226 @@
+package com.company;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks Path_Cache: hits for the same start and goal, least recently used
+ * eviction by bytes, dropping every entry once the map version changes,
+ * answers from the first part of a cheapest path, and the results it must
+ * refuse to cache: partial ones, ones too large for it and paths with a step
+ * between cells that are not neighbors.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+class Path_Cache_Test {
+    private static final int SIZE = 20; // Rows and columns of the maps
+    private static final int ENTRY_BYTES = 96 + 9; // Bytes of an entry for a row path of 18 moves, two moves to a byte
+
+    @Test
+    void cached_result_is_returned_for_the_same_start_and_goal(){
+        Grid_Map map = Map_Generator.generate("random-10", 1, SIZE, SIZE);
+        Path_Cache cache = new Path_Cache(map, 1 << 20);
+        Search_State state = new Search_State(map);
+        A_Star_Search search = new A_Star_Search(map);
+        int[][] queries = Map_Generator.queries(1, map, 10);
+        for(int i = 0; i < 10; i++){
+            int start = queries[0][i];
+            int goal = queries[1][i];
+            assertNull(cache.get(start, goal));
+            Search_Result searched = search.search(state, start, goal);
+            assertTrue(cache.put(start, goal, searched));
+            Search_Result cached = cache.get(start, goal);
+            assertNotNull(cached, "query " + start + " -> " + goal);
+            assertEquals(searched.isFound(), cached.isFound());
+            assertArrayEquals(searched.getPath(), cached.getPath(), "query " + start + " -> " + goal);
+            assertEquals(searched.getPath_cost(), cached.getPath_cost());
+            assertEquals(searched.getSuboptimality(), cached.getSuboptimality());
+            assertEquals(0, cached.getNodes_expanded());
+        }
+        assertEquals(10, cache.getHits());
+        assertEquals(10, cache.getMisses());
+    }
+
+    @Test
+    void eviction_drops_the_least_recently_used_entry_by_bytes(){
+        Grid_Map map = Map_Generator.generate("open", 1, SIZE, SIZE);
+        Path_Cache cache = new Path_Cache(map, 2 * ENTRY_BYTES);
+        // Row paths from the first column to the last but one, no row passes through the end of another
+        assertTrue(cache.put(row(map, 0)[0], goal(map, 0), row_result(map, 0)));
+        assertTrue(cache.put(row(map, 1)[0], goal(map, 1), row_result(map, 1)));
+        assertEquals(2 * ENTRY_BYTES, cache.getBytes());
+        assertNotNull(cache.get(row(map, 0)[0], goal(map, 0))); // Row 1 is now the least recently used
+        assertTrue(cache.put(row(map, 2)[0], goal(map, 2), row_result(map, 2)));
+        assertEquals(1, cache.getEvictions());
+        assertEquals(2, cache.size());
+        assertEquals(2 * ENTRY_BYTES, cache.getBytes());
+        assertNull(cache.get(row(map, 1)[0], goal(map, 1)), "the least recently used entry was kept");
+        assertNotNull(cache.get(row(map, 0)[0], goal(map, 0)));
+        assertNotNull(cache.get(row(map, 2)[0], goal(map, 2)));
+
+        // Putting the same query again replaces its entry instead of counting it twice
+        assertTrue(cache.put(row(map, 2)[0], goal(map, 2), row_result(map, 2)));
+        assertEquals(2, cache.size());
+        assertEquals(2 * ENTRY_BYTES, cache.getBytes());
+        assertEquals(1, cache.getEvictions());
+
+        // An entry larger than the whole cache is refused and evicts nothing
+        Path_Cache small = new Path_Cache(map, ENTRY_BYTES - 1);
+        assertFalse(small.put(row(map, 0)[0], goal(map, 0), row_result(map, 0)));
+        assertEquals(0, small.size());
+        assertEquals(0, small.getBytes());
+    }
+
+    @Test
+    void entries_are_dropped_when_the_map_version_changes(){
+        Grid_Map map = Map_Generator.generate("open", 2, SIZE, SIZE);
+        Path_Cache cache = new Path_Cache(map, 1 << 20);
+        Search_State state = new Search_State(map);
+        A_Star_Search search = new A_Star_Search(map);
+        int start = map.index(0, 0);
+        int goal = map.index(SIZE - 1, SIZE - 1);
+        cache.put(start, goal, search.search(state, start, goal));
+        cache.put(goal, start, search.search(state, goal, start));
+        assertEquals(2, cache.size());
+
+        // Closing both neighbors of the start cuts every cached path
+        map.setCost(0, 1, 0);
+        map.setCost(1, 0, 0);
+        assertNull(cache.get(start, goal), "a path found on other costs was served");
+        assertEquals(2, cache.getInvalidations());
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getBytes());
+
+        // A result found on the current costs is cached and served again
+        Search_Result result = search.search(state, start, goal);
+        assertFalse(result.isFound(), "both neighbors of the start are impasses");
+        assertTrue(cache.put(start, goal, result));
+        Search_Result cached = cache.get(start, goal);
+        assertNotNull(cached);
+        assertFalse(cached.isFound());
+        assertEquals(2, cache.getInvalidations());
+    }
+
+    @Test
+    void cheapest_path_answers_the_queries_to_its_cells(){
+        for(String kind : new String[]{"random-30", "maze"}){
+            Grid_Map map = Map_Generator.generate(kind, 3, SIZE, SIZE);
+            Path_Cache cache = new Path_Cache(map, 1 << 20);
+            Search_State state = new Search_State(map);
+            A_Star_Search search = new A_Star_Search(map);
+            int[][] queries = Map_Generator.queries(3, map, 10);
+            for(int i = 0; i < 10; i++){
+                int start = queries[0][i];
+                Search_Result searched = search.search(state, start, queries[1][i]);
+                if(!searched.isFound()){
+                    continue;
+                }
+                assertEquals(1, searched.getSuboptimality(), "A* proves its path is the cheapest");
+                cache.put(start, queries[1][i], searched);
+                int[] cheapest = Dijkstra.distances(map, start);
+                int[] path = searched.getPath();
+                for(int length = 1; length <= path.length; length++){
+                    String query = kind + " query " + start + " -> " + path[length - 1];
+                    Search_Result cached = cache.get(start, path[length - 1]);
+                    assertNotNull(cached, query + " was not answered from the path through it");
+                    assertEquals(length, cached.getPath().length, query);
+                    Dijkstra.assert_path(map, cached, start, path[length - 1]);
+                    assertEquals(cheapest[path[length - 1]], cached.getPath_cost(), query + " is not the cheapest");
+                }
+            }
+            assertTrue(cache.getSub_path_hits() > 0, kind);
+        }
+    }
+
+    @Test
+    void only_paths_proven_cheapest_answer_sub_path_queries(){
+        Grid_Map map = Map_Generator.generate("open", 4, SIZE, SIZE);
+        Path_Cache cache = new Path_Cache(map, 1 << 20);
+        int[] path = row(map, 3);
+        Search_Result unproven = new Search_Result(path, path.length - 1, 0, 0, 0);
+        assertTrue(cache.put(path[0], goal(map, 3), unproven));
+        assertNotNull(cache.get(path[0], goal(map, 3)));
+        assertNull(cache.get(path[0], path[5]), "a path with no bound answered a query to one of its cells");
+        assertEquals(0, cache.getSub_path_hits());
+
+        // The same query proven to be the cheapest replaces it, but still answers no cell off the path
+        assertTrue(cache.put(path[0], goal(map, 3), row_result(map, 3)));
+        assertEquals(1, cache.size());
+        assertNull(cache.get(path[0], map.index(4, 5)));
+        assertEquals(0, cache.getSub_path_hits());
+        assertNotNull(cache.get(path[0], path[5]));
+        assertEquals(1, cache.getSub_path_hits());
+    }
+
+    @Test
+    void partial_and_broken_results_are_not_cached(){
+        Grid_Map map = Map_Generator.generate("open", 5, SIZE, SIZE);
+        Path_Cache cache = new Path_Cache(map, 1 << 20);
+        int[] path = row(map, 0);
+        int goal = goal(map, 0);
+
+        Search_Result partial = Search_Result.partial(path, path.length - 1, 10, 10, 0,
+                Search_Budget.Stop_Reason.EXPANSIONS, 1);
+        assertFalse(cache.put(path[0], goal, partial), "a partial result was cached");
+        Search_Result stopped = Search_Result.partial(new int[0], Search_Result.NO_PATH, 10, 10, 0,
+                Search_Budget.Stop_Reason.DEADLINE);
+        assertFalse(cache.put(path[0], goal, stopped), "a search stopped before any path was cached as unreachable");
+
+        // The result must belong to the query
+        assertFalse(cache.put(path[0], goal - 1, row_result(map, 0)));
+        // The last cell of a row and the first of the next are one index apart but not neighbors
+        int[] wrapped = {map.index(0, SIZE - 2), map.index(0, SIZE - 1), map.index(1, 0)};
+        assertFalse(cache.put(wrapped[0], wrapped[2], Search_Result.bounded(wrapped, 2, 0, 0, 0, 1)));
+        int[] jump = {map.index(0, 0), map.index(0, 2)};
+        assertFalse(cache.put(jump[0], jump[1], Search_Result.bounded(jump, 1, 0, 0, 0, 1)));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getBytes());
+        assertNull(cache.get(path[0], goal));
+    }
+
+    @Test
+    void diagonal_moves_round_trip(){
+        Grid_Map map = Map_Generator.generate("random-20", 6, SIZE, SIZE);
+        Neighborhood neighborhood = Neighborhood.eight(map, Neighborhood.Corner_Rule.CUT);
+        A_Star_Search search = A_Star_Search.eight_connected(map, Neighborhood.Corner_Rule.CUT);
+        Path_Cache cache = new Path_Cache(map, Edge_Cost.octile(neighborhood), 1 << 20);
+        Search_State state = new Search_State(map);
+        int[][] queries = Map_Generator.queries(6, map, 10);
+        for(int i = 0; i < 10; i++){
+            Search_Result searched = search.search(state, queries[0][i], queries[1][i]);
+            assertTrue(cache.put(queries[0][i], queries[1][i], searched));
+            Search_Result cached = cache.get(queries[0][i], queries[1][i]);
+            assertArrayEquals(searched.getPath(), cached.getPath());
+            assertEquals(searched.getPath_cost(), cached.getPath_cost());
+        }
+    }
+
+    /**
+     * @return the cells of a row from its first column to its last but one
+     */
+    private static int[] row(Grid_Map map, int x){
+        int[] path = new int[map.getCols() - 1];
+        for(int y = 0; y < path.length; y++){
+            path[y] = map.index(x, y);
+        }
+        return path;
+    }
+
+    private static int goal(Grid_Map map, int x){
+        return map.index(x, map.getCols() - 2);
+    }
+
+    /**
+     * @return a row path proven to be the cheapest, costing one per move as on an open map
+     */
+    private static Search_Result row_result(Grid_Map map, int x){
+        int[] path = row(map, x);
+        return Search_Result.bounded(path, path.length - 1, 0, 0, 0, 1);
+    }
+}
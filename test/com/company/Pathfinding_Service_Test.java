@@ -0,0 +1,113 @@
+package com.company;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the stateless A_Star_Search against Dijkstra, and
+ * Pathfinding_Service: a batch answered across worker threads must return
+ * the cheapest path of every query in order, like solve() does on the
+ * calling thread, and the service must keep answering on the map it copied.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+class Pathfinding_Service_Test {
+    private static final int SIZE = 41; // Rows and columns of the maps
+    private static final int BATCH = 200; // Queries per batch
+
+    @ParameterizedTest
+    @MethodSource("com.company.Dijkstra#maps")
+    void a_star_finds_the_cheapest_path(String kind, long seed){
+        Grid_Map map = Map_Generator.generate(kind, seed, SIZE, SIZE);
+        Search_State state = new Search_State(map);
+        A_Star_Search search = new A_Star_Search(map);
+        Dijkstra.check_optimal(map, seed, (start, goal) -> search.search(state, start, goal));
+    }
+
+    @Test
+    void batch_finds_the_cheapest_path_of_every_query(){
+        for(String kind : new String[]{"random-30", "obstacles-40", "maze"}){
+            Grid_Map map = Map_Generator.generate(kind, 1, SIZE, SIZE);
+            int[][] queries = Map_Generator.queries(1, map, BATCH);
+            Pathfinding_Service service = new Pathfinding_Service(map, 4);
+            try{
+                Batch_Result batch = service.solve_batch(queries[0], queries[1]);
+                assertEquals(BATCH, batch.size());
+                int found = 0;
+                for(int i = 0; i < BATCH; i++){
+                    int start = queries[0][i];
+                    int goal = queries[1][i];
+                    String query = kind + " query " + i + ": " + start + " -> " + goal;
+                    int cheapest = Dijkstra.distances(map, start)[goal];
+                    Search_Result result = batch.getResult(i);
+                    assertEquals(cheapest != Dijkstra.UNREACHABLE, result.isFound(), query);
+                    if(result.isFound()){
+                        found++;
+                        Dijkstra.assert_path(map, result, start, goal);
+                        assertEquals(cheapest, result.getPath_cost(), query);
+                    }
+                    Search_Result single = service.solve(start, goal);
+                    assertArrayEquals(single.getPath(), result.getPath(), query + " differs between a batch and solve()");
+                }
+                assertEquals(found, batch.getPaths_found());
+            }finally{
+                service.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void service_answers_on_its_own_copy_of_the_map(){
+        Grid_Map map = Map_Generator.generate("open", 2, SIZE, SIZE);
+        Pathfinding_Service service = new Pathfinding_Service(map, 2);
+        try{
+            int start = map.index(0, 0);
+            int goal = map.index(SIZE - 1, SIZE - 1);
+            // Walling the start in on the original map does not reach the service
+            map.setCost(0, 1, 0);
+            map.setCost(1, 0, 0);
+            Search_Result result = service.solve(start, goal);
+            assertTrue(result.isFound());
+            assertEquals(2 * (SIZE - 1), result.getPath_cost());
+            assertFalse(service.getMap().isImpasse(map.index(0, 1)));
+        }finally{
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void goal_in_another_component_is_answered_without_searching(){
+        Grid_Map map = Map_Generator.generate("open", 3, SIZE, SIZE);
+        map.setCost(0, 1, 0);
+        map.setCost(1, 0, 0);
+        Pathfinding_Service service = new Pathfinding_Service(map, 1);
+        try{
+            Search_Result result = service.solve(map.index(0, 0), map.index(SIZE - 1, SIZE - 1));
+            assertFalse(result.isFound());
+            assertEquals(0, result.getNodes_expanded());
+        }finally{
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void queries_outside_the_map_are_refused(){
+        Grid_Map map = Map_Generator.generate("open", 4, 5, 5);
+        Pathfinding_Service service = new Pathfinding_Service(map, 1);
+        try{
+            assertThrows(IllegalArgumentException.class, () -> service.solve(-1, 0));
+            assertThrows(IllegalArgumentException.class, () -> service.solve(0, map.size()));
+            assertThrows(IllegalArgumentException.class, () -> service.solve_batch(new int[]{0, 1}, new int[]{2}));
+            assertThrows(IllegalArgumentException.class, () -> service.solve_batch(new int[]{0}, new int[]{25}));
+        }finally{
+            service.shutdown();
+        }
+    }
+}
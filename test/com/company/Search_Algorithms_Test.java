@@ -0,0 +1,160 @@
+package com.company;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the results BFS and IDDFS return on the lab map (test.txt), written
+ * out here so the test does not depend on the working directory, what they
+ * report to a listener, the cells they count in memory, and the result of a
+ * query with no path.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+class Search_Algorithms_Test {
+    private static final int[][] LAB_MAP = {
+            {2, 4, 2, 1, 4, 5, 2},
+            {0, 1, 2, 3, 5, 3, 1},
+            {2, 0, 4, 4, 1, 2, 4},
+            {2, 5, 5, 3, 2, 0, 1},
+            {4, 3, 3, 2, 1, 0, 1}
+    };
+    private static final int DEPTH = 45; // Depth limit Main runs IDDFS with
+    private static final Duration TIME_LIMIT = Duration.ofSeconds(10); // Far above what any query here needs
+
+    /**
+     * Every start cell of the lab map once, so that paths which could lead
+     * back through the start are searched: IDDFS must return and its path
+     * must not visit a cell twice
+     */
+    @Test
+    void iddfs_returns_a_path_from_every_cell_of_the_lab_map(){
+        Grid_Map map = lab_map();
+        Search_Algorithms sa = new Search_Algorithms(map);
+        for(int start = 0; start < map.size(); start++){
+            if(map.isImpasse(start)){
+                continue;
+            }
+            int from = start;
+            Search_Result result = assertTimeoutPreemptively(TIME_LIMIT,
+                    () -> sa.iterative_deepening_search(from, DEPTH, Search_Budget.unlimited(), null));
+            assertTrue(result.isFound(), "no path from " + start);
+            Dijkstra.assert_path(map, result, start, map.getGoal());
+            assert_simple(result.getPath());
+        }
+    }
+
+    @Test
+    void best_first_search_returns_a_path_on_the_lab_map(){
+        Grid_Map map = lab_map();
+        Search_Algorithms sa = new Search_Algorithms(map);
+        Search_Result result = assertTimeoutPreemptively(TIME_LIMIT,
+                () -> sa.best_first_search(Search_Budget.unlimited(), null));
+        assertTrue(result.isFound());
+        Dijkstra.assert_path(map, result, map.getStart(), map.getGoal());
+        assert_simple(result.getPath());
+    }
+
+    @Test
+    void iddfs_reports_every_depth_limit_to_the_listener(){
+        Grid_Map map = lab_map();
+        Search_Algorithms sa = new Search_Algorithms(map);
+        int[] limits = new int[1];
+        Search_Listener listener = new Search_Listener() {
+            @Override
+            public void on_depth_limit(int limit, int nodes_expanded){
+                assertEquals(limits[0]++, limit);
+            }
+        };
+        Search_Result result = sa.iterative_deepening_search(map.getStart(), DEPTH, Search_Budget.unlimited(), listener);
+        assertTrue(result.isFound());
+        // Depth limit i only finds paths of up to i moves. Cells are closed on
+        // their first visit, so a limit may still miss a path that short
+        assertTrue(result.getPath().length - 1 <= limits[0] - 1);
+    }
+
+    @Test
+    void trace_prints_every_expanded_cell_without_changing_the_result(){
+        Grid_Map map = lab_map();
+        Search_Algorithms sa = new Search_Algorithms(map);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Search_Result traced = sa.best_first_search(Search_Budget.unlimited(), Search_Listener.trace(map, new PrintStream(out)));
+        Search_Result quiet = sa.best_first_search(Search_Budget.unlimited(), null);
+        assertArrayEquals(quiet.getPath(), traced.getPath());
+        assertEquals(quiet.getNodes_expanded(), traced.getNodes_expanded());
+        String trace = out.toString();
+        assertTrue(trace.startsWith("(1,2)"), trace);
+        assertTrue(trace.endsWith("(4,3)"), trace);
+        assertTrue(traced.getElapsed_nanos() > 0);
+        assertTrue(traced.getExpansions_per_second() > 0);
+    }
+
+    @Test
+    void best_first_search_counts_every_cell_in_memory_once(){
+        Grid_Map map = lab_map();
+        Set<Integer> cells = new HashSet<>();
+        Search_Listener listener = new Search_Listener() {
+            @Override
+            public void on_expand(int cell){
+                cells.add(cell);
+            }
+
+            @Override
+            public void on_generate(int cell, int parent){
+                cells.add(cell);
+            }
+        };
+        Search_Result result = new Search_Algorithms(map).best_first_search(Search_Budget.unlimited(), listener);
+        assertEquals(cells.size(), result.getNodes_in_memory());
+    }
+
+    @Test
+    void goal_behind_impasses_is_not_found(){
+        Grid_Map map = lab_map();
+        // The goal's neighbours (3,3), (4,2) and (4,4) become impasses
+        map.setCost(3, 3, 0);
+        map.setCost(4, 2, 0);
+        map.setCost(4, 4, 0);
+        Search_Algorithms sa = new Search_Algorithms(map);
+        Search_Result[] results = {sa.best_first_search(Search_Budget.unlimited(), null),
+                sa.iterative_deepening_search(map.getStart(), DEPTH, Search_Budget.unlimited(), null)};
+        for(Search_Result result : results){
+            assertFalse(result.isFound());
+            assertFalse(result.isPartial());
+            assertEquals(Search_Result.NO_PATH, result.getPath_cost());
+            assertEquals(0, result.getPath().length);
+            // Both learn from the components of the map that the goal cannot be reached before they search
+            assertEquals(0, result.getNodes_expanded());
+        }
+    }
+
+    private static Grid_Map lab_map(){
+        Grid_Map map = new Grid_Map(LAB_MAP.length, LAB_MAP[0].length);
+        for(int x = 0; x < LAB_MAP.length; x++){
+            for(int y = 0; y < LAB_MAP[x].length; y++){
+                map.setCost(x, y, LAB_MAP[x][y]);
+            }
+        }
+        map.setStart(1, 2);
+        map.setGoal(4, 3);
+        return map;
+    }
+
+    private static void assert_simple(int[] path){
+        Set<Integer> cells = new HashSet<>();
+        for(int cell : path){
+            assertTrue(cells.add(cell), "path visits " + cell + " twice");
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.company;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks Search_Budget itself (each limit, the reason it remembers, the
+ * deadline shared by every search it is passed to) and that every search
+ * stops at its next check when a limit is reached or the budget is
+ * cancelled, even from another thread, with a partial result whose path is a
+ * real path from the start. The searches that check their budget before they
+ * start are also checked on a query too short to reach a later check.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+class Search_Budget_Test {
+    private static final int SIZE = 200; // Rows and columns of the map, large enough that no search is done before its first check
+    private static final int CLUSTER_SIZE = 10; // Rows and columns of a cluster of the hierarchical search
+    private static final int WORKERS = 4; // Workers of the parallel search
+    private static final Duration TIME_LIMIT = Duration.ofSeconds(20); // Far above what a cancelled search needs
+
+    /**
+     * One search under test, answering the query of the map within a budget
+     */
+    private interface Budgeted {
+        Search_Result run(Search_Budget budget);
+    }
+
+    @Test
+    void each_limit_is_reported_and_remembered(){
+        Search_Budget expansions = new Search_Budget(Search_Budget.UNLIMITED, 100, Search_Budget.UNLIMITED);
+        assertFalse(expansions.exhausted(99, 1000000));
+        assertNull(expansions.getStop_reason());
+        assertTrue(expansions.exhausted(100, 0));
+        assertEquals(Search_Budget.Stop_Reason.EXPANSIONS, expansions.getStop_reason());
+        assertTrue(expansions.exhausted(0, 0), "an exhausted budget stays exhausted");
+        assertEquals(Search_Budget.Stop_Reason.EXPANSIONS, expansions.getStop_reason());
+
+        Search_Budget memory = new Search_Budget(Search_Budget.UNLIMITED, Search_Budget.UNLIMITED, 50);
+        assertFalse(memory.exhausted(1000000, 49));
+        assertTrue(memory.exhausted(0, 50));
+        assertEquals(Search_Budget.Stop_Reason.MEMORY, memory.getStop_reason());
+
+        Search_Budget deadline = new Search_Budget(0, Search_Budget.UNLIMITED, Search_Budget.UNLIMITED);
+        assertEquals(0, deadline.getRemaining_nanos());
+        assertTrue(deadline.exhausted(0, 0));
+        assertEquals(Search_Budget.Stop_Reason.DEADLINE, deadline.getStop_reason());
+
+        Search_Budget cancelled = Search_Budget.unlimited();
+        assertEquals(Search_Budget.UNLIMITED, cancelled.getRemaining_nanos());
+        assertFalse(cancelled.exhausted(Long.MAX_VALUE - 1, Long.MAX_VALUE - 1));
+        cancelled.cancel();
+        assertTrue(cancelled.isCancelled());
+        assertTrue(cancelled.exhausted(0, 0));
+        assertEquals(Search_Budget.Stop_Reason.CANCELLED, cancelled.getStop_reason());
+
+        assertTrue(Search_Budget.of_millis(60000).getRemaining_nanos() > 0);
+        assertThrows(IllegalArgumentException.class, () -> new Search_Budget(-1, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new Search_Budget(0, -1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new Search_Budget(0, 0, -1));
+    }
+
+    @Test
+    void every_search_stops_when_its_expansions_run_out(){
+        Grid_Map map = map();
+        for(Map.Entry<String, Budgeted> search : searches(map).entrySet()){
+            Search_Budget budget = new Search_Budget(Search_Budget.UNLIMITED, 1, Search_Budget.UNLIMITED);
+            Search_Result result = search.getValue().run(budget);
+            assert_stopped(map, result, Search_Budget.Stop_Reason.EXPANSIONS, search.getKey());
+            assertTrue(result.getNodes_expanded() <= 8 * Search_Budget.CHECK_INTERVAL,
+                    search.getKey() + " expanded " + result.getNodes_expanded() + " cells before it checked its budget");
+        }
+    }
+
+    @Test
+    void every_search_stops_when_its_budget_is_cancelled(){
+        Grid_Map map = map();
+        for(Map.Entry<String, Budgeted> search : searches(map).entrySet()){
+            Search_Budget budget = Search_Budget.unlimited();
+            budget.cancel();
+            assert_stopped(map, search.getValue().run(budget), Search_Budget.Stop_Reason.CANCELLED, search.getKey());
+        }
+    }
+
+    @Test
+    void searches_that_check_on_entry_stop_on_short_queries(){
+        // Too little work for a countdown to reach its first check, only a check on entry stops these
+        Grid_Map map = map();
+        int start = map.index(1, 1);
+        int goal = map.index(1, 3);
+        map.setStart(1, 1);
+        map.setGoal(1, 3);
+        Hierarchical_Search hierarchy = new Hierarchical_Search(map, CLUSTER_SIZE);
+        Search_Algorithms sa = new Search_Algorithms(map);
+        Search_Budget budget = Search_Budget.unlimited();
+        budget.cancel();
+        assert_stopped(map, hierarchy.search(new Search_State(map), start, goal, budget), Search_Budget.Stop_Reason.CANCELLED, "hierarchical");
+        assert_stopped(map, sa.iterative_deepening_search(start, map.size(), budget, null), Search_Budget.Stop_Reason.CANCELLED, "IDDFS");
+        assert_stopped(map, sa.depth_limited_search(start, map.size(), budget, null), Search_Budget.Stop_Reason.CANCELLED, "depth limited");
+    }
+
+    @Test
+    void search_is_cancelled_from_another_thread(){
+        // IDA* between opposite corners of a large weighted map runs for far longer than the test allows
+        Grid_Map map = map();
+        IDA_Star_Search search = new IDA_Star_Search(map);
+        Search_State state = new Search_State(map);
+        Search_Budget budget = Search_Budget.unlimited();
+        Thread canceller = new Thread(() -> {
+            try{
+                Thread.sleep(100);
+            }catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+            }
+            budget.cancel();
+        });
+        canceller.start();
+        Search_Result result = assertTimeoutPreemptively(TIME_LIMIT, () -> search.search(state, 0, map.size() - 1, budget));
+        assert_stopped(map, result, Search_Budget.Stop_Reason.CANCELLED, "IDA*");
+    }
+
+    @Test
+    void one_deadline_limits_every_search_it_is_passed_to() throws InterruptedException {
+        Grid_Map map = map();
+        Search_Budget budget = Search_Budget.of_millis(50);
+        Thread.sleep(100);
+        // The time ran out before any of these searches started
+        for(Map.Entry<String, Budgeted> search : searches(map).entrySet()){
+            assert_stopped(map, search.getValue().run(budget), Search_Budget.Stop_Reason.DEADLINE, search.getKey());
+        }
+    }
+
+    /**
+     * @return a weighted map with no impasses, so every query has a path and no search ends early by failing
+     */
+    private static Grid_Map map(){
+        Grid_Map map = Map_Generator.generate("random-0", 1, SIZE, SIZE);
+        map.setStart(0, 0);
+        map.setGoal(SIZE - 1, SIZE - 1);
+        return map;
+    }
+
+    /**
+     * @return every search that takes a budget, answering the query from the start to the goal of the map
+     */
+    private static Map<String, Budgeted> searches(Grid_Map map){
+        int start = map.getStart();
+        int goal = map.getGoal();
+        Search_State state = new Search_State(map);
+        Search_State backward = new Search_State(map);
+        Map<String, Budgeted> searches = new LinkedHashMap<>();
+        searches.put("A*", budget -> new A_Star_Search(map).search(state, start, goal, budget));
+        searches.put("weighted A*", budget -> new A_Star_Search(map).search(state, start, goal, 1.5, budget, null));
+        searches.put("uniform cost", budget -> new Uniform_Cost_Search(map).search(state, start, goal, budget, null));
+        searches.put("JPS", budget -> new Jump_Point_Search(map).search(state, start, goal, budget));
+        searches.put("IDA*", budget -> new IDA_Star_Search(map).search(state, start, goal, budget));
+        searches.put("bidirectional", budget -> new Bidirectional_Search(map, true).search(state, backward, start, goal, budget));
+        searches.put("D* Lite", budget -> new D_Star_Lite(map, start, goal).replan(budget));
+        searches.put("BFS", budget -> new Search_Algorithms(map).best_first_search(budget, null));
+        searches.put("IDDFS", budget -> new Search_Algorithms(map).iterative_deepening_search(start, map.size(), budget, null));
+        searches.put("depth limited", budget -> new Search_Algorithms(map).depth_limited_search(start, map.size(), budget, null));
+        Hierarchical_Search hierarchy = new Hierarchical_Search(map, CLUSTER_SIZE);
+        searches.put("hierarchical", budget -> hierarchy.search(state, start, goal, budget));
+        searches.put("ARA*", budget -> new ARA_Star_Search(map).search(state, start, goal, 3, Search_Algorithms.ARA_WEIGHT_STEP,
+                budget, null));
+        searches.put("parallel IDDFS", budget -> {
+            Parallel_IDDFS search = new Parallel_IDDFS(map, WORKERS, 1);
+            try{
+                return search.search(start, goal, map.size(), budget);
+            }finally{
+                search.shutdown();
+            }
+        });
+        return searches;
+    }
+
+    private static void assert_stopped(Grid_Map map, Search_Result result, Search_Budget.Stop_Reason reason, String name){
+        assertTrue(result.isPartial(), name + " did not stop");
+        assertFalse(result.isFound(), name);
+        assertEquals(reason, result.getStop_reason(), name);
+        int[] path = result.getPath();
+        if(path.length > 0){
+            assertEquals(map.getStart(), path[0], name + " partial path does not begin at the start");
+            Dijkstra.assert_path(map, result, map.getStart(), path[path.length - 1]);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.company;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks maps written by Tiled_Map.write and read back through the tile
+ * cache: costs and padding at several tile sizes, the fault, hit and
+ * eviction counters of the clock, the validation of the header, and
+ * Tiled_Search against Dijkstra, including a search that runs out of slots.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+class Tiled_Map_Test {
+    private static final int ROWS = 37; // Not a multiple of any tile size but 1, so edge tiles are padded
+    private static final int COLS = 29;
+    private static final int QUERIES = 15; // Queries per map
+    private static final int[] TILE_SIZES = {1, 4, 8, 16, 64};
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void costs_read_back_at_every_tile_size() throws IOException {
+        Grid_Map map = Map_Generator.generate("random-20", 1, ROWS, COLS);
+        for(int tile_size : TILE_SIZES){
+            String file = write(map, tile_size);
+            try(Tiled_Map tiles = Tiled_Map.open(file, 1)){
+                assertEquals(ROWS, tiles.getRows());
+                assertEquals(COLS, tiles.getCols());
+                assertEquals(map.getX(map.getGoal()), tiles.getGoal_x());
+                assertEquals(map.getY(map.getGoal()), tiles.getGoal_y());
+                for(int x = 0; x < ROWS; x++){
+                    for(int y = 0; y < COLS; y++){
+                        assertEquals(map.getCost(x, y), tiles.getCost(x, y), "tile size " + tile_size + " cell (" + x + "," + y + ")");
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void edge_tiles_are_padded_with_impasses() throws IOException {
+        Grid_Map map = Map_Generator.generate("open", 1, ROWS, COLS);
+        int tile_size = 16;
+        int tiles_across = (COLS + tile_size - 1) / tile_size;
+        byte[] bytes = Files.readAllBytes(Path.of(write(map, tile_size)));
+        assertEquals(Tiled_Map.HEADER_BYTES + 3 * tiles_across * tile_size * tile_size, bytes.length);
+        for(int i = Tiled_Map.HEADER_BYTES; i < bytes.length; i++){
+            int within = (i - Tiled_Map.HEADER_BYTES) % (tile_size * tile_size);
+            int tile = (i - Tiled_Map.HEADER_BYTES) / (tile_size * tile_size);
+            int x = tile / tiles_across * tile_size + within / tile_size;
+            int y = tile % tiles_across * tile_size + within % tile_size;
+            assertEquals(map.isWithinBounds(x, y) ? 1 : 0, bytes[i], "byte " + i + " for cell (" + x + "," + y + ")");
+        }
+    }
+
+    @Test
+    void tiled_search_with_one_tile_in_memory_finds_the_cheapest_path() throws IOException {
+        for(String kind : new String[]{"random-10", "obstacles-20", "maze"}){
+            Grid_Map map = Map_Generator.generate(kind, 2, ROWS, COLS);
+            int[][] queries = Map_Generator.queries(2, map, QUERIES);
+            for(int tile_size : TILE_SIZES){
+                String file = write(map, tile_size);
+                try(Tiled_Map tiles = Tiled_Map.open(file, 1)){
+                    Tiled_Search search = new Tiled_Search(tiles, map.size());
+                    for(int i = 0; i < QUERIES; i++){
+                        int start = queries[0][i];
+                        int goal = queries[1][i];
+                        String query = kind + " tile size " + tile_size + " query " + start + " -> " + goal;
+                        int cheapest = Dijkstra.distances(map, start)[goal];
+                        Tiled_Result result = search.search(map.getX(start), map.getY(start), map.getX(goal), map.getY(goal));
+                        if(cheapest == Dijkstra.UNREACHABLE){
+                            assertFalse(result.isFound(), query + " found a path to an unreachable goal");
+                            continue;
+                        }
+                        assertTrue(result.isFound(), query + " found no path");
+                        Dijkstra.assert_path(map, result, start, goal);
+                        assertEquals(cheapest, result.getPath_cost(), query + " did not find the cheapest path");
+                        long[] cells = result.getCells();
+                        assertEquals(map.getX(goal), result.getX(cells.length - 1));
+                        assertEquals(map.getY(goal), result.getY(cells.length - 1));
+                    }
+                    // With one page every read of another tile than the last one faults and evicts
+                    assertEquals(0, tiles.getHits(), "tile size " + tile_size);
+                    assertEquals(tiles.getFaults() - 1, tiles.getEvictions(), "tile size " + tile_size);
+                }
+            }
+        }
+    }
+
+    @Test
+    void clock_evicts_the_tile_not_read_since_the_hand_passed() throws IOException {
+        Grid_Map map = Map_Generator.generate("random-10", 3, 8, 8);
+        String file = write(map, 4);
+        // Tiles 0 1 / 2 3, the first cell of each
+        int[][] corners = {{0, 0}, {0, 4}, {4, 0}, {4, 4}};
+        int[] reads = {0, 1, 0, 2, 1, 0};
+        // 0 and 1 fault into the two pages, 0 hits, 2 finds both pages read and evicts 0,
+        // 1 hits, 0 finds both pages read again and evicts 1
+        long[][] counts = {{1, 0, 0}, {2, 0, 0}, {2, 1, 0}, {3, 1, 1}, {3, 2, 1}, {4, 2, 2}};
+        try(Tiled_Map tiles = Tiled_Map.open(file, 2)){
+            assertEquals(2, tiles.getMax_tiles());
+            for(int i = 0; i < reads.length; i++){
+                int[] corner = corners[reads[i]];
+                assertEquals(map.getCost(corner[0], corner[1]), tiles.getCost(corner[0], corner[1]));
+                assertEquals(map.getCost(corner[0] + 3, corner[1] + 3), tiles.getCost(corner[0] + 3, corner[1] + 3),
+                        "reading the same tile again skips the directory");
+                assertArrayEquals(counts[i], new long[]{tiles.getFaults(), tiles.getHits(), tiles.getEvictions()},
+                        "faults, hits and evictions after read " + i);
+            }
+        }
+    }
+
+    @Test
+    void search_out_of_slots_stops_with_memory() throws IOException {
+        Grid_Map map = Map_Generator.generate("open", 4, ROWS, COLS);
+        String file = write(map, 8);
+        try(Tiled_Map tiles = Tiled_Map.open(file, 4)){
+            Tiled_Search search = new Tiled_Search(tiles, 50);
+            Tiled_Result result = search.search(0, 0, ROWS - 1, COLS - 1);
+            assertTrue(result.isPartial());
+            assertEquals(Search_Budget.Stop_Reason.MEMORY, result.getStop_reason());
+            assertTrue(result.getNodes_in_memory() <= 50);
+            // The path to the cell closest to the goal is still a real path from the start
+            assertEquals(0, result.getCells()[0]);
+            Dijkstra.assert_path(map, result, 0, result.getPath()[result.getPath().length - 1]);
+            // The slots are reused: the next query that fits finds its path
+            Tiled_Result next = search.search(0, 0, 2, 2);
+            assertTrue(next.isFound());
+            assertEquals(Dijkstra.distances(map, 0)[map.index(2, 2)], next.getPath_cost());
+        }
+    }
+
+    @Test
+    void open_rejects_malformed_headers() throws IOException {
+        Grid_Map map = Map_Generator.generate("random-10", 5, ROWS, COLS);
+        assert_rejected(map, 0, 0x12345678); // Magic
+        assert_rejected(map, 4, Tiled_Map.VERSION + 1); // Version
+        assert_rejected(map, 8, -1); // Rows
+        assert_rejected(map, 16, 6); // Tile size not a power of two
+        assert_rejected(map, 20, ROWS); // Start row outside the map
+        assert_rejected(map, 32, COLS); // Goal column outside the map
+        String file = write(map, 8);
+        try(RandomAccessFile truncated = new RandomAccessFile(file, "rw")){
+            truncated.setLength(truncated.length() - 1);
+        }
+        assertThrows(IOException.class, () -> Tiled_Map.open(file, 1).close());
+        assertThrows(IllegalArgumentException.class, () -> Tiled_Map.open(write(map, 8), 0));
+        assertThrows(IllegalArgumentException.class, () -> Tiled_Map.write(map, directory.resolve("bad").toString(), 3));
+    }
+
+    /**
+     * Writes the map, overwrites one int of its header and expects open() to refuse the file
+     */
+    private void assert_rejected(Grid_Map map, int position, int value) throws IOException {
+        String file = write(map, 8);
+        try(RandomAccessFile corrupt = new RandomAccessFile(file, "rw")){
+            corrupt.seek(position);
+            corrupt.writeInt(value);
+        }
+        assertThrows(IOException.class, () -> Tiled_Map.open(file, 1).close(), "header int at " + position);
+    }
+
+    private String write(Grid_Map map, int tile_size) throws IOException {
+        String file = directory.resolve("map-" + tile_size + ".gtil").toString();
+        Tiled_Map.write(map, file, tile_size);
+        return file;
+    }
+}
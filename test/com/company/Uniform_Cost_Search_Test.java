@@ -0,0 +1,79 @@
+package com.company;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks Uniform_Cost_Search against Dijkstra on the maps of Map_Generator,
+ * that its bucket queue hands out cells in order of their distance, and that
+ * with other cost models and eight connected moves, where a move can cost
+ * more than a cell, it finds paths as cheap as A* with the same costs.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+class Uniform_Cost_Search_Test {
+    private static final int SIZE = 41; // Rows and columns of the maps
+
+    @ParameterizedTest
+    @MethodSource("com.company.Dijkstra#maps")
+    void uniform_cost_finds_the_cheapest_path(String kind, long seed){
+        Grid_Map map = Map_Generator.generate(kind, seed, SIZE, SIZE);
+        Search_State state = new Search_State(map);
+        Uniform_Cost_Search search = new Uniform_Cost_Search(map);
+        Dijkstra.check_optimal(map, seed, (start, goal) -> search.search(state, start, goal));
+    }
+
+    @Test
+    void cells_are_expanded_in_order_of_their_distance(){
+        Grid_Map map = Map_Generator.generate("random-20", 1, SIZE, SIZE);
+        int start = map.index(0, 0);
+        int goal = map.index(SIZE - 1, SIZE - 1);
+        int[] distances = Dijkstra.distances(map, start);
+        int[] last = {0};
+        Search_Listener listener = new Search_Listener() {
+            @Override
+            public void on_expand(int cell){
+                assertTrue(distances[cell] >= last[0], "cell " + cell + " expanded after a farther one");
+                last[0] = distances[cell];
+            }
+        };
+        Search_Result result = new Uniform_Cost_Search(map).search(new Search_State(map), start, goal, Search_Budget.unlimited(), listener);
+        assertEquals(distances[goal] != Dijkstra.UNREACHABLE, result.isFound());
+        assertTrue(last[0] > 0, "no cell was reported");
+    }
+
+    @ParameterizedTest
+    @MethodSource("com.company.Dijkstra#maps")
+    void other_cost_models_cost_as_much_as_a_star(String kind, long seed){
+        Grid_Map map = Map_Generator.generate(kind, seed, SIZE, SIZE);
+        Search_State state = new Search_State(map);
+        Neighborhood four = Neighborhood.four(map);
+        Neighborhood eight = Neighborhood.eight(map, Neighborhood.Corner_Rule.NO_SQUEEZE);
+        Uniform_Cost_Search[] searches = {
+                new Uniform_Cost_Search(map, Edge_Cost.average(map), four, Grid_Map.MAX_COST),
+                new Uniform_Cost_Search(map, Edge_Cost.octile(eight), eight, Grid_Map.MAX_COST * Neighborhood.DIAGONAL_COST)
+        };
+        A_Star_Search[] a_stars = {
+                new A_Star_Search(map, Heuristic.zero(), Edge_Cost.average(map), four),
+                new A_Star_Search(map, Heuristic.octile(map), Edge_Cost.octile(eight), eight)
+        };
+        int[][] queries = Map_Generator.queries(seed, map, Dijkstra.QUERIES);
+        for(int s = 0; s < searches.length; s++){
+            for(int i = 0; i < Dijkstra.QUERIES; i++){
+                Search_Result result = searches[s].search(state, queries[0][i], queries[1][i]);
+                Search_Result expected = a_stars[s].search(state, queries[0][i], queries[1][i]);
+                assertEquals(expected.isFound(), result.isFound(), "cost model " + s + " query " + i);
+                assertEquals(expected.getPath_cost(), result.getPath_cost(), "cost model " + s + " query " + i);
+                if(result.isFound()){
+                    int[] path = result.getPath();
+                    assertEquals(queries[0][i], path[0]);
+                    assertEquals(queries[1][i], path[path.length - 1]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.company;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the bounded suboptimal searches: weighted A* stays within the bound
+ * it reports and expands fewer cells the larger its weight, and ARA* left to
+ * finish improves its path round by round, each within the bound reported
+ * with it, until it is the cheapest one.
+ * @author Jay James
+ * @author Daniel Villa
+ */
+class Weighted_Search_Test {
+    private static final int SIZE = 41; // Rows and columns of the maps
+    private static final double WEIGHT = 1.5; // Weight of the weighted A* searches
+    private static final double INITIAL_WEIGHT = 3; // Weight of the first round of ARA*
+
+    @ParameterizedTest
+    @MethodSource("com.company.Dijkstra#maps")
+    void weighted_a_star_stays_within_its_weight(String kind, long seed){
+        Grid_Map map = Map_Generator.generate(kind, seed, SIZE, SIZE);
+        Search_State state = new Search_State(map);
+        A_Star_Search search = new A_Star_Search(map);
+        Dijkstra.check_bounded(map, seed, (start, goal) -> search.search(state, start, goal, WEIGHT, Search_Budget.unlimited(), null));
+    }
+
+    @ParameterizedTest
+    @MethodSource("com.company.Dijkstra#maps")
+    void ara_star_improves_its_path_until_it_is_the_cheapest(String kind, long seed){
+        Grid_Map map = Map_Generator.generate(kind, seed, SIZE, SIZE);
+        Search_State state = new Search_State(map);
+        ARA_Star_Search search = new ARA_Star_Search(map);
+        List<Search_Result> solutions = new ArrayList<>();
+        Search_Listener listener = new Search_Listener() {
+            @Override
+            public void on_solution(Search_Result result){
+                solutions.add(result);
+            }
+        };
+        Dijkstra.check_optimal(map, seed, (start, goal) -> {
+            solutions.clear();
+            Search_Result result = search.search(state, start, goal, INITIAL_WEIGHT, Search_Algorithms.ARA_WEIGHT_STEP,
+                    Search_Budget.unlimited(), listener);
+            if(result.isFound()){
+                assertEquals(1, result.getSuboptimality());
+                assertEquals(result, solutions.get(solutions.size() - 1), "the last path was not reported");
+                int cheapest = Dijkstra.distances(map, start)[goal];
+                for(Search_Result solution : solutions){
+                    Dijkstra.assert_path(map, solution, start, goal);
+                    assertTrue(solution.getPath_cost() <= solution.getSuboptimality() * cheapest,
+                            "a path costs more than its bound of " + solution.getSuboptimality());
+                }
+                for(int i = 1; i < solutions.size(); i++){
+                    assertTrue(solutions.get(i).getPath_cost() <= solutions.get(i - 1).getPath_cost(), "a round found a dearer path");
+                    assertTrue(solutions.get(i).getSuboptimality() <= solutions.get(i - 1).getSuboptimality(), "a round loosened the bound");
+                }
+            }
+            return result;
+        });
+    }
+
+    @Test
+    void larger_weight_expands_fewer_cells(){
+        Grid_Map map = Map_Generator.generate("random-10", 1, SIZE, SIZE);
+        Search_State state = new Search_State(map);
+        A_Star_Search search = new A_Star_Search(map);
+        int[][] queries = Map_Generator.queries(1, map, Dijkstra.QUERIES);
+        long optimal_expanded = 0;
+        long weighted_expanded = 0;
+        for(int i = 0; i < Dijkstra.QUERIES; i++){
+            optimal_expanded += search.search(state, queries[0][i], queries[1][i], 1, Search_Budget.unlimited(), null).getNodes_expanded();
+            weighted_expanded += search.search(state, queries[0][i], queries[1][i], INITIAL_WEIGHT, Search_Budget.unlimited(), null).getNodes_expanded();
+        }
+        assertTrue(weighted_expanded < optimal_expanded, "weight " + INITIAL_WEIGHT + " expanded " + weighted_expanded
+                + " cells, weight 1 " + optimal_expanded);
+    }
+
+    @Test
+    void weights_below_one_are_rejected(){
+        Grid_Map map = Map_Generator.generate("open", 1, SIZE, SIZE);
+        Search_State state = new Search_State(map);
+        A_Star_Search a_star = new A_Star_Search(map);
+        ARA_Star_Search ara_star = new ARA_Star_Search(map);
+        assertThrows(IllegalArgumentException.class, () -> a_star.search(state, 0, 1, 0.5, Search_Budget.unlimited(), null));
+        assertThrows(IllegalArgumentException.class, () -> a_star.search(state, 0, 1, Double.NaN, Search_Budget.unlimited(), null));
+        assertThrows(IllegalArgumentException.class, () -> ara_star.search(state, 0, 1, 0.5, 0.5, Search_Budget.unlimited(), null));
+        assertThrows(IllegalArgumentException.class, () -> ara_star.search(state, 0, 1, 2, 0, Search_Budget.unlimited(), null));
+    }
+}